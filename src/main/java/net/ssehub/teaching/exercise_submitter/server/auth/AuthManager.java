@@ -1,5 +1,6 @@
 package net.ssehub.teaching.exercise_submitter.server.auth;
 
+import java.util.Optional;
 import java.util.logging.Logger;
 
 import net.ssehub.studentmgmt.backend_api.model.ParticipantDto.RoleEnum;
@@ -23,25 +24,57 @@ public class AuthManager {
 
     private static final Logger LOGGER = Logger.getLogger(AuthManager.class.getName());
     
+    private static final int HTTP_UNAUTHORIZED = 401;
+    
+    private static final int HTTP_FORBIDDEN = 403;
+    
     private String authApiUrl;
     
     private StuMgmtView stuMgmtView;
     
+    private TokenCache tokenCache;
+    
+    private JwtVerifier jwtVerifier;
+    
     /**
-     * Creates a new authentication manager.
+     * Creates a new authentication manager with a {@link TokenCache} with default settings.
      * 
      * @param authApiUrl The URL to the authentication system (Sparky-Service) to check tokens.
      * @param stuMgmtView The view on the student management system.
      */
     public AuthManager(String authApiUrl, StuMgmtView stuMgmtView) {
+        this(authApiUrl, stuMgmtView, new TokenCache(
+                TokenCache.DEFAULT_TTL, TokenCache.DEFAULT_NEGATIVE_TTL, TokenCache.DEFAULT_MAX_SIZE));
+    }
+    
+    /**
+     * Creates a new authentication manager.
+     * 
+     * @param authApiUrl The URL to the authentication system (Sparky-Service) to check tokens.
+     * @param stuMgmtView The view on the student management system.
+     * @param tokenCache The cache for authenticated tokens.
+     */
+    public AuthManager(String authApiUrl, StuMgmtView stuMgmtView, TokenCache tokenCache) {
         this.authApiUrl = authApiUrl;
         this.stuMgmtView = stuMgmtView;
+        this.tokenCache = tokenCache;
         
         LOGGER.info(() -> "Using " + authApiUrl + " for authentication");
     }
     
     /**
-     * Authenticates a user based on a JWT token.
+     * Sets a {@link JwtVerifier} to check tokens locally. The authentication system is then only asked for tokens
+     * that the verifier cannot verify.
+     * 
+     * @param jwtVerifier The verifier to use.
+     */
+    public void setJwtVerifier(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+    
+    /**
+     * Authenticates a user based on a JWT token. The result is cached, so the authentication system is only asked if
+     * the token was not seen recently.
      * 
      * @param token The JWT token.
      * 
@@ -50,6 +83,54 @@ public class AuthManager {
      * @throws UnauthorizedException If the user cannot be authorized.
      */
     public String authenticate(String token) throws UnauthorizedException {
+        try {
+            return tokenCache.get(token, this::checkToken);
+        } catch (TokenCache.UpstreamException e) {
+            // reject only this request; the token is checked again on the next one
+            LOGGER.warning(() -> "Could not check token with the authentication system: " + e.getCause());
+            throw new UnauthorizedException(e.getCause());
+        }
+    }
+    
+    /**
+     * Checks a JWT token, locally if a {@link JwtVerifier} is set and can verify it, otherwise with the authentication
+     * system.
+     * 
+     * @param token The JWT token.
+     * 
+     * @return The name of the authorized user.
+     * 
+     * @throws UnauthorizedException If the user cannot be authorized.
+     * @throws TokenCache.UpstreamException If the authentication system failed to answer.
+     */
+    private String checkToken(String token) throws UnauthorizedException, TokenCache.UpstreamException {
+        Optional<String> username = Optional.empty();
+        if (jwtVerifier != null) {
+            username = jwtVerifier.verify(token);
+        }
+        
+        String result;
+        if (username.isPresent()) {
+            result = username.get();
+            LOGGER.info(() -> "Authenticated as " + result + " by local token verification");
+        } else {
+            result = checkTokenWithAuthSystem(token);
+        }
+        return result;
+    }
+    
+    /**
+     * Checks a JWT token with the authentication system.
+     * 
+     * @param token The JWT token.
+     * 
+     * @return The name of the authorized user.
+     * 
+     * @throws UnauthorizedException If the authentication system rejected the token.
+     * @throws TokenCache.UpstreamException If the authentication system is not reachable or failed to answer.
+     */
+    private String checkTokenWithAuthSystem(String token)
+            throws UnauthorizedException, TokenCache.UpstreamException {
         ApiClient client = new ApiClient();
         client.setBasePath(authApiUrl);
         client.setAccessToken(token);
@@ -59,7 +140,11 @@ public class AuthManager {
         try {
             dto = api.checkTokenAuthenticationStatus();
         } catch (ApiException e) {
-            throw new UnauthorizedException(e);
+            if (e.getCode() == HTTP_UNAUTHORIZED || e.getCode() == HTTP_FORBIDDEN) {
+                throw new UnauthorizedException(e);
+            }
+            // connection failures have no status code
+            throw new TokenCache.UpstreamException(e);
         }
 
         LOGGER.info(() -> "Authenticated as " + dto.getUser().getUsername() + " (" + dto.getUser().getFullName() + ")");
@@ -0,0 +1,142 @@
+package net.ssehub.teaching.exercise_submitter.server.auth;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonString;
+
+/**
+ * A decoded JWT token. Decoding does not check the signature; see {@link JwtVerifier} for that.
+ * 
+ * @author Adam
+ */
+final class Jwt {
+    
+    private JsonObject header;
+    
+    private JsonObject claims;
+    
+    private String signingInput;
+    
+    private byte[] signature;
+    
+    /**
+     * Creates a decoded token.
+     * 
+     * @param header The JOSE header.
+     * @param claims The claims in the payload.
+     * @param signingInput The encoded header and payload, separated by a dot, as they are signed.
+     * @param signature The decoded signature.
+     */
+    private Jwt(JsonObject header, JsonObject claims, String signingInput, byte[] signature) {
+        this.header = header;
+        this.claims = claims;
+        this.signingInput = signingInput;
+        this.signature = signature;
+    }
+    
+    /**
+     * Decodes a JWT token in compact serialization.
+     * 
+     * @param token The token.
+     * 
+     * @return The decoded token, or {@link Optional#empty()} if the token is not a well-formed JWT token.
+     */
+    static Optional<Jwt> parse(String token) {
+        Optional<Jwt> result = Optional.empty();
+        
+        String[] parts = token.split("\\.", -1);
+        if (parts.length == 3) {
+            try {
+                Base64.Decoder decoder = Base64.getUrlDecoder();
+                result = Optional.of(new Jwt(
+                        parseJson(decoder.decode(parts[0])),
+                        parseJson(decoder.decode(parts[1])),
+                        parts[0] + "." + parts[1],
+                        decoder.decode(parts[2])));
+                
+            } catch (IllegalArgumentException | JsonException | ClassCastException e) {
+                // not a JWT token
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Parses a decoded part of the token as a JSON object.
+     * 
+     * @param part The decoded part.
+     * 
+     * @return The JSON object.
+     * 
+     * @throws JsonException If the part is not valid JSON.
+     * @throws ClassCastException If the part is not a JSON object.
+     */
+    private static JsonObject parseJson(byte[] part) throws JsonException, ClassCastException {
+        return Json.createReader(new StringReader(new String(part, StandardCharsets.UTF_8))).readObject();
+    }
+    
+    /**
+     * Returns the signature algorithm from the header (<code>alg</code>).
+     * 
+     * @return The algorithm name, or {@link Optional#empty()} if the header does not specify one.
+     */
+    Optional<String> getAlgorithm() {
+        return Optional.ofNullable(header.get("alg"))
+                .filter(JsonString.class::isInstance)
+                .map(value -> ((JsonString) value).getString());
+    }
+    
+    /**
+     * Returns a string claim.
+     * 
+     * @param name The name of the claim.
+     * 
+     * @return The value of the claim, or {@link Optional#empty()} if it is not present or not a string.
+     */
+    Optional<String> getStringClaim(String name) {
+        return Optional.ofNullable(claims.get(name))
+                .filter(JsonString.class::isInstance)
+                .map(value -> ((JsonString) value).getString());
+    }
+    
+    /**
+     * Returns a claim that holds a time in seconds since the epoch, like <code>exp</code>.
+     * 
+     * @param name The name of the claim.
+     * 
+     * @return The time, or {@link Optional#empty()} if it is not present or not a number.
+     */
+    Optional<Instant> getTimeClaim(String name) {
+        return Optional.ofNullable(claims.get(name))
+                .filter(JsonNumber.class::isInstance)
+                .map(value -> Instant.ofEpochSecond(((JsonNumber) value).longValue()));
+    }
+    
+    /**
+     * Returns the encoded header and payload, which the signature is calculated over.
+     * 
+     * @return The signing input.
+     */
+    String getSigningInput() {
+        return signingInput;
+    }
+    
+    /**
+     * Returns the decoded signature.
+     * 
+     * @return The signature.
+     */
+    byte[] getSignature() {
+        return signature;
+    }
+
+}
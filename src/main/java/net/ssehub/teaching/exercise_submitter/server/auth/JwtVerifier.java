@@ -0,0 +1,196 @@
+package net.ssehub.teaching.exercise_submitter.server.auth;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedException;
+
+/**
+ * Verifies JWT tokens locally, without asking the authentication system. Tokens signed with HMAC (<code>HS256</code>,
+ * <code>HS384</code>, <code>HS512</code>) are verified with a shared {@link SecretKey}, tokens signed with RSA
+ * (<code>RS256</code>, <code>RS384</code>, <code>RS512</code>) with a {@link PublicKey}.
+ * <p>
+ * A token that cannot be verified with the configured key (e.g. because it uses a different algorithm, or the key was
+ * rotated) is not rejected; {@link #verify(String)} returns {@link Optional#empty()} so that the caller can fall back
+ * to the authentication system. A token with a valid signature is rejected if it is expired or does not contain a
+ * username.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class JwtVerifier {
+    
+    /**
+     * The default claim that holds the username.
+     */
+    public static final String DEFAULT_USERNAME_CLAIM = "sub";
+    
+    private static final Logger LOGGER = Logger.getLogger(JwtVerifier.class.getName());
+    
+    private static final Map<String, String> HMAC_ALGORITHMS = Map.of(
+            "HS256", "HmacSHA256",
+            "HS384", "HmacSHA384",
+            "HS512", "HmacSHA512");
+    
+    private static final Map<String, String> RSA_ALGORITHMS = Map.of(
+            "RS256", "SHA256withRSA",
+            "RS384", "SHA384withRSA",
+            "RS512", "SHA512withRSA");
+    
+    private Key key;
+    
+    private String usernameClaim;
+    
+    private Clock clock;
+    
+    /**
+     * Creates a verifier.
+     * 
+     * @param key The key to verify signatures with. Either a {@link SecretKey} for HMAC signatures, or a
+     *      {@link PublicKey} for RSA signatures.
+     * @param usernameClaim The name of the claim that holds the username.
+     * 
+     * @throws IllegalArgumentException If the key is neither a {@link SecretKey} nor a {@link PublicKey}.
+     */
+    public JwtVerifier(Key key, String usernameClaim) throws IllegalArgumentException {
+        this(key, usernameClaim, Clock.systemUTC());
+    }
+    
+    /**
+     * Creates a verifier with the given clock.
+     * 
+     * @param key The key to verify signatures with. Either a {@link SecretKey} for HMAC signatures, or a
+     *      {@link PublicKey} for RSA signatures.
+     * @param usernameClaim The name of the claim that holds the username.
+     * @param clock The clock to check the expiry with.
+     * 
+     * @throws IllegalArgumentException If the key is neither a {@link SecretKey} nor a {@link PublicKey}.
+     */
+    JwtVerifier(Key key, String usernameClaim, Clock clock) throws IllegalArgumentException {
+        if (!(key instanceof SecretKey) && !(key instanceof PublicKey)) {
+            throw new IllegalArgumentException("Key must be a secret or a public key");
+        }
+        
+        this.key = key;
+        this.usernameClaim = usernameClaim;
+        this.clock = clock;
+    }
+    
+    /**
+     * Verifies a token.
+     * 
+     * @param token The JWT token.
+     * 
+     * @return The username from the token, or {@link Optional#empty()} if the token cannot be verified locally.
+     * 
+     * @throws UnauthorizedException If the token has a valid signature, but is expired, not valid yet, or does not
+     *      contain a username.
+     */
+    public Optional<String> verify(String token) throws UnauthorizedException {
+        Optional<String> result = Optional.empty();
+        
+        Optional<Jwt> jwt = Jwt.parse(token);
+        if (jwt.isPresent() && hasValidSignature(jwt.get())) {
+            Instant now = clock.instant();
+            
+            Optional<Instant> expiry = jwt.get().getTimeClaim("exp");
+            if (expiry.isEmpty() || !now.isBefore(expiry.get())) {
+                LOGGER.info("Rejecting token that is expired or has no expiry time");
+                throw new UnauthorizedException();
+            }
+            
+            Optional<Instant> notBefore = jwt.get().getTimeClaim("nbf");
+            if (notBefore.isPresent() && now.isBefore(notBefore.get())) {
+                LOGGER.info("Rejecting token that is not valid yet");
+                throw new UnauthorizedException();
+            }
+            
+            result = Optional.of(jwt.get().getStringClaim(usernameClaim).orElseThrow(() -> {
+                LOGGER.info(() -> "Rejecting token without " + usernameClaim + " claim");
+                return new UnauthorizedException();
+            }));
+            
+        } else {
+            LOGGER.fine("Token cannot be verified locally");
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Checks the signature of a token with the configured key. The algorithm from the header must fit the type of
+     * the key, so that a public key is never used as an HMAC secret.
+     * 
+     * @param jwt The token.
+     * 
+     * @return Whether the signature is valid.
+     */
+    private boolean hasValidSignature(Jwt jwt) {
+        boolean result = false;
+        
+        String algorithm = jwt.getAlgorithm().orElse("");
+        byte[] signingInput = jwt.getSigningInput().getBytes(StandardCharsets.US_ASCII);
+        
+        try {
+            if (key instanceof SecretKey && HMAC_ALGORITHMS.containsKey(algorithm)) {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHMS.get(algorithm));
+                mac.init(key);
+                result = MessageDigest.isEqual(mac.doFinal(signingInput), jwt.getSignature());
+                
+            } else if (key instanceof PublicKey && RSA_ALGORITHMS.containsKey(algorithm)) {
+                Signature signature = Signature.getInstance(RSA_ALGORITHMS.get(algorithm));
+                signature.initVerify((PublicKey) key);
+                signature.update(signingInput);
+                result = signature.verify(jwt.getSignature());
+            }
+            
+        } catch (GeneralSecurityException e) {
+            LOGGER.fine(() -> "Failed to verify signature: " + e.getMessage());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Reads an RSA public key from a PEM file (<code>-----BEGIN PUBLIC KEY-----</code>).
+     * 
+     * @param pemFile The file containing the key.
+     * 
+     * @return The public key.
+     * 
+     * @throws IOException If reading the file fails or it does not contain a valid RSA public key.
+     */
+    public static PublicKey readPublicKey(Path pemFile) throws IOException {
+        String pem = Files.readString(pemFile, StandardCharsets.US_ASCII)
+                .replace("-----BEGIN PUBLIC KEY-----", "")
+                .replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        
+        try {
+            return KeyFactory.getInstance("RSA")
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IOException("Invalid public key in " + pemFile, e);
+        }
+    }
+
+}
@@ -0,0 +1,307 @@
+package net.ssehub.teaching.exercise_submitter.server.auth;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedException;
+
+/**
+ * A bounded cache from authentication tokens to the names of the users they belong to. Successful authentications
+ * are kept for a configured time, but never longer than the expiry time stored in the token itself. Failed
+ * authentications are kept for a shorter time, so that repeated requests with an invalid token do not each cause a
+ * request to the authentication system.
+ * <p>
+ * If multiple threads look up the same token at the same time, only one of them authenticates it; the others wait for
+ * its result.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class TokenCache {
+    
+    /**
+     * The default time that successful authentications are cached.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    
+    /**
+     * The default time that failed authentications are cached.
+     */
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofSeconds(10);
+    
+    /**
+     * The default maximum number of cached tokens.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    
+    private static final Logger LOGGER = Logger.getLogger(TokenCache.class.getName());
+    
+    private Duration ttl;
+    
+    private Duration negativeTtl;
+    
+    private int maxSize;
+    
+    /**
+     * The number of tokens that a full cache is reduced to. Evicting a batch of tokens at once means that not every
+     * insert into a full cache has to look at all entries.
+     */
+    private int lowWaterMark;
+    
+    private Lock evictionLock;
+    
+    private Clock clock;
+    
+    private Map<String, Entry> entries;
+    
+    /**
+     * Authenticates a token that is not in the cache.
+     */
+    @FunctionalInterface
+    public interface Authenticator {
+        
+        /**
+         * Authenticates the given token.
+         * 
+         * @param token The token to authenticate.
+         * 
+         * @return The name of the user.
+         * 
+         * @throws UnauthorizedException If the token is not valid. This result is cached.
+         * @throws UpstreamException If it could not be decided whether the token is valid. This is not cached.
+         */
+        public String authenticate(String token) throws UnauthorizedException, UpstreamException;
+        
+    }
+    
+    /**
+     * Indicates that an {@link Authenticator} could not decide whether a token is valid, e.g. because the
+     * authentication system is not reachable or answered with a server error. Unlike an
+     * {@link UnauthorizedException}, this is not cached, so the token is authenticated again on the next request.
+     */
+    public static class UpstreamException extends RuntimeException {
+        
+        private static final long serialVersionUID = 4410672541958386118L;
+        
+        /**
+         * Creates this exception.
+         * 
+         * @param cause The failure of the authentication system.
+         */
+        public UpstreamException(Throwable cause) {
+            super(cause);
+        }
+        
+    }
+    
+    /**
+     * The result of authenticating a single token.
+     */
+    private static final class Entry {
+        
+        private CompletableFuture<String> username = new CompletableFuture<>();
+        
+        /**
+         * Until the authentication is done, the entry does not expire.
+         */
+        private volatile Instant expiry = Instant.MAX;
+        
+    }
+    
+    /**
+     * Creates a cache.
+     * 
+     * @param ttl The time that successful authentications are cached.
+     * @param negativeTtl The time that failed authentications are cached.
+     * @param maxSize The maximum number of cached tokens.
+     * 
+     * @throws IllegalArgumentException If maxSize is not positive.
+     */
+    public TokenCache(Duration ttl, Duration negativeTtl, int maxSize) throws IllegalArgumentException {
+        this(ttl, negativeTtl, maxSize, Clock.systemUTC());
+    }
+    
+    /**
+     * Creates a cache with the given clock.
+     * 
+     * @param ttl The time that successful authentications are cached.
+     * @param negativeTtl The time that failed authentications are cached.
+     * @param maxSize The maximum number of cached tokens.
+     * @param clock The clock to determine expiry with.
+     * 
+     * @throws IllegalArgumentException If maxSize is not positive.
+     */
+    TokenCache(Duration ttl, Duration negativeTtl, int maxSize, Clock clock) throws IllegalArgumentException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.maxSize = maxSize;
+        this.lowWaterMark = maxSize - maxSize / 10;
+        this.evictionLock = new ReentrantLock();
+        this.clock = clock;
+        this.entries = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Returns the name of the user that the given token belongs to. If the token is not cached (or expired), it is
+     * authenticated with the given {@link Authenticator}.
+     * 
+     * @param token The token to authenticate.
+     * @param authenticator Authenticates the token if it is not cached.
+     * 
+     * @return The name of the user.
+     * 
+     * @throws UnauthorizedException If the token is not valid, either cached or from the authenticator.
+     * @throws UpstreamException If the authenticator could not decide whether the token is valid.
+     */
+    public String get(String token, Authenticator authenticator) throws UnauthorizedException, UpstreamException {
+        Instant now = clock.instant();
+        
+        Entry entry = entries.get(token);
+        if (entry != null && !now.isBefore(entry.expiry)) {
+            entries.remove(token, entry);
+            entry = null;
+        }
+        
+        if (entry == null) {
+            Entry newEntry = new Entry();
+            entry = entries.putIfAbsent(token, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+                evictIfFull(now);
+                load(token, newEntry, authenticator);
+            }
+        }
+        
+        return await(entry);
+    }
+    
+    /**
+     * Authenticates a token and stores the result in the given entry.
+     * 
+     * @param token The token to authenticate.
+     * @param entry The new entry for the token.
+     * @param authenticator Authenticates the token.
+     */
+    private void load(String token, Entry entry, Authenticator authenticator) {
+        try {
+            String username = authenticator.authenticate(token);
+            
+            Instant expiry = clock.instant().plus(ttl);
+            Optional<Instant> tokenExpiry = getExpiry(token);
+            if (tokenExpiry.isPresent() && tokenExpiry.get().isBefore(expiry)) {
+                expiry = tokenExpiry.get();
+            }
+            
+            entry.expiry = expiry;
+            entry.username.complete(username);
+            
+        } catch (UnauthorizedException e) {
+            entry.expiry = clock.instant().plus(negativeTtl);
+            entry.username.completeExceptionally(e);
+            
+        } catch (RuntimeException e) {
+            // upstream and unexpected failures say nothing about the token, so they are not cached
+            entries.remove(token, entry);
+            entry.username.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * Waits for the result of an entry.
+     * 
+     * @param entry The entry.
+     * 
+     * @return The name of the user.
+     * 
+     * @throws UnauthorizedException If the token is not valid, or the thread is interrupted while waiting.
+     */
+    private static String await(Entry entry) throws UnauthorizedException {
+        try {
+            return entry.username.get();
+            
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnauthorizedException) {
+                throw (UnauthorizedException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new UnauthorizedException(e.getCause());
+            }
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnauthorizedException(e);
+        }
+    }
+    
+    /**
+     * Removes entries if the cache holds more than the maximum number of tokens, until it holds at most
+     * {@link #lowWaterMark} tokens. Expired entries are removed first; if that is not enough, the entries that expire
+     * soonest are removed. If another thread is already evicting, this does nothing.
+     * 
+     * @param now The current time.
+     */
+    private void evictIfFull(Instant now) {
+        if (entries.size() > maxSize && evictionLock.tryLock()) {
+            try {
+                entries.values().removeIf(entry -> !now.isBefore(entry.expiry));
+            
+                int toRemove = entries.size() - lowWaterMark;
+                if (toRemove > 0) {
+                    // the expiry of an entry changes once its authentication is done, so sort by a copy of it
+                    List<Map.Entry<Instant, Map.Entry<String, Entry>>> byExpiry = new ArrayList<>(entries.size());
+                    entries.forEach((token, entry) -> byExpiry.add(Map.entry(entry.expiry, Map.entry(token, entry))));
+                    byExpiry.sort(Map.Entry.comparingByKey());
+                    
+                    for (Map.Entry<Instant, Map.Entry<String, Entry>> soonest
+                            : byExpiry.subList(0, Math.min(toRemove, byExpiry.size()))) {
+                        entries.remove(soonest.getValue().getKey(), soonest.getValue().getValue());
+                    }
+                }
+                
+                LOGGER.fine(() -> "Evicted tokens from full cache");
+                
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of cached tokens, including expired ones that are not removed yet.
+     * 
+     * @return The number of cached tokens.
+     */
+    int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Reads the expiry time (the <code>exp</code> claim) from a JWT token. The signature of the token is not checked,
+     * as this is only used to limit how long a token is cached.
+     * 
+     * @param token The JWT token.
+     * 
+     * @return The expiry time, or {@link Optional#empty()} if the token is not a JWT token or has no expiry time.
+     */
+    static Optional<Instant> getExpiry(String token) {
+        return Jwt.parse(token).flatMap(jwt -> jwt.getTimeClaim("exp"));
+    }
+
+}
@@ -2,11 +2,17 @@ package net.ssehub.teaching.exercise_submitter.server.rest;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.crypto.spec.SecretKeySpec;
+
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.grizzly.ssl.SSLContextConfigurator;
 import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
@@ -21,21 +27,32 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import net.ssehub.teaching.exercise_submitter.server.auth.AuthManager;
+import net.ssehub.teaching.exercise_submitter.server.auth.JwtVerifier;
+import net.ssehub.teaching.exercise_submitter.server.auth.TokenCache;
 import net.ssehub.teaching.exercise_submitter.server.logging.LoggingSetup;
 import net.ssehub.teaching.exercise_submitter.server.rest.exceptions.NoSuchTargetExceptionMapper;
+import net.ssehub.teaching.exercise_submitter.server.rest.exceptions.QueueFullExceptionMapper;
 import net.ssehub.teaching.exercise_submitter.server.rest.exceptions.StorageExceptionMapper;
 import net.ssehub.teaching.exercise_submitter.server.rest.exceptions.UnauthorizedExceptionMapper;
+import net.ssehub.teaching.exercise_submitter.server.rest.exceptions.UploadTooLargeExceptionMapper;
 import net.ssehub.teaching.exercise_submitter.server.rest.filters.CorsFilter;
 import net.ssehub.teaching.exercise_submitter.server.rest.routes.HeartbeatRoute;
 import net.ssehub.teaching.exercise_submitter.server.rest.routes.NotificationRoute;
 import net.ssehub.teaching.exercise_submitter.server.rest.routes.SubmissionRoute;
 import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
+import net.ssehub.teaching.exercise_submitter.server.storage.filesystem.ContentAddressedStorage;
 import net.ssehub.teaching.exercise_submitter.server.storage.filesystem.FilesystemStorage;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.ResultDeliveryQueue;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtLoadingException;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submitter.server.submission.CheckResultCache;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionJobManager;
 import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionManager;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionScheduler;
+import net.ssehub.teaching.exercise_submitter.server.submission.TargetLockManager;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.Check;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.CompilationCache;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileSizeCheck;
 
 /**
@@ -60,6 +77,10 @@ public class ExerciseSubmitterServer {
 
     private static final Logger LOGGER = Logger.getLogger(ExerciseSubmitterServer.class.getName());
     
+    private static final int DEFAULT_CHECK_QUEUE_CAPACITY = 100;
+    
+    private static final int DEFAULT_RESULT_WORKERS = 2;
+    
     private HttpServer server;
     
     private int port = -1;
@@ -72,6 +93,10 @@ public class ExerciseSubmitterServer {
     
     private StuMgmtView stuMgmtView;
     
+    private SubmissionJobManager submissionJobManager;
+    
+    private SubmissionScheduler submissionScheduler;
+    
     private Path tlsKeystore;
 
     private String tlsKeystorePassword;
@@ -152,6 +177,40 @@ public class ExerciseSubmitterServer {
         return this;
     }
     
+    /**
+     * Sets the {@link SubmissionJobManager} to use for asynchronous submissions. If this is not set, only synchronous
+     * submissions are supported.
+     * 
+     * @param submissionJobManager The {@link SubmissionJobManager} to use.
+     * 
+     * @return this.
+     * 
+     * @throws IllegalStateException If the server is already started.
+     */
+    public ExerciseSubmitterServer setSubmissionJobManager(SubmissionJobManager submissionJobManager)
+            throws IllegalStateException {
+        requireNotStarted();
+        this.submissionJobManager = submissionJobManager;
+        return this;
+    }
+    
+    /**
+     * Sets the {@link SubmissionScheduler} to run synchronous submissions on. If this is not set, synchronous
+     * submissions run on the threads of the HTTP server.
+     * 
+     * @param submissionScheduler The {@link SubmissionScheduler} to use.
+     * 
+     * @return this.
+     * 
+     * @throws IllegalStateException If the server is already started.
+     */
+    public ExerciseSubmitterServer setSubmissionScheduler(SubmissionScheduler submissionScheduler)
+            throws IllegalStateException {
+        requireNotStarted();
+        this.submissionScheduler = submissionScheduler;
+        return this;
+    }
+    
     /**
      * Sets the path to the file containing the TLS server keypair to use. If this set, the server will serve HTTPS,
      * otherwise plain HTTP is used.
@@ -203,9 +262,11 @@ public class ExerciseSubmitterServer {
     }
     
     /**
-     * Stops the HTTP server.
+     * Stops the HTTP server and closes the {@link SubmissionManager}.
      * 
      * @throws IllegalStateException If the server is not running.
+     * 
+     * @see SubmissionManager#close()
      */
     public void stop() throws IllegalStateException {
         if (server == null) {
@@ -213,6 +274,8 @@ public class ExerciseSubmitterServer {
         }
         server.shutdown();
         server = null;
+        
+        submissionManager.close();
     }
     
     /**
@@ -251,11 +314,14 @@ public class ExerciseSubmitterServer {
                 .register(UnauthorizedExceptionMapper.class)
                 .register(StorageExceptionMapper.class)
                 .register(NoSuchTargetExceptionMapper.class)
+                .register(QueueFullExceptionMapper.class)
+                .register(UploadTooLargeExceptionMapper.class)
                 // factories for routes that require constructor parameters
                 .register(new AbstractBinder() {
                     @Override
                     protected void configure() {
-                        bindFactory(new SubmissionRoute.Factory(submissionManager, storage, authManager))
+                        bindFactory(new SubmissionRoute.Factory(
+                                submissionManager, storage, authManager, submissionJobManager, submissionScheduler))
                                 .to(SubmissionRoute.class);
                         bindFactory(new NotificationRoute.Factory(storage, stuMgmtView)).to(NotificationRoute.class);
                     }
@@ -295,10 +361,349 @@ public class ExerciseSubmitterServer {
     }
     
     /**
-     * Creates and starts the server with default configuration. Also does the initial loading of the StuMgmtView.
+     * Reads an integer from the given environment variable.
+     * 
+     * @param name The name of the environment variable.
+     * @param defaultValue The value to use if the variable is not set or not a valid integer.
+     * 
+     * @return The value of the environment variable, or the default value.
+     */
+    private static int getIntFromEnvironment(String name, int defaultValue) {
+        int result = defaultValue;
+        String value = System.getenv(name);
+        if (value != null) {
+            try {
+                result = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warning(() -> "Invalid value for " + name + ": " + value + "; using " + defaultValue);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the {@link SubmissionScheduler} that runs all submissions, configured by the environment variables
+     * <code>SUBMISSION_SERVER_CHECK_WORKERS</code> (number of submissions that are processed in parallel, defaults to
+     * the number of processors), <code>SUBMISSION_SERVER_CHECK_QUEUE</code> (maximum number of waiting submissions,
+     * defaults to {@value #DEFAULT_CHECK_QUEUE_CAPACITY}), <code>SUBMISSION_SERVER_CHECK_QUEUE_PER_COURSE</code>
+     * (maximum number of waiting submissions of a single course, defaults to the total maximum), and
+     * <code>SUBMISSION_SERVER_COURSE_WEIGHTS</code> (share of the workers per course, as comma-separated
+     * <code>course:weight</code> pairs; courses that are not listed have weight
+     * {@value SubmissionScheduler#DEFAULT_WEIGHT}).
+     * 
+     * @return The scheduler.
+     */
+    private static SubmissionScheduler createSubmissionScheduler() {
+        int workers = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_CHECK_WORKERS",
+                Runtime.getRuntime().availableProcessors()));
+        int queueCapacity = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_CHECK_QUEUE",
+                DEFAULT_CHECK_QUEUE_CAPACITY));
+        int courseQueueCapacity = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_CHECK_QUEUE_PER_COURSE",
+                queueCapacity));
+        
+        SubmissionScheduler scheduler = new SubmissionScheduler(workers, queueCapacity);
+        scheduler.setMaxQueuedPerCourse(courseQueueCapacity);
+        
+        String weights = System.getenv("SUBMISSION_SERVER_COURSE_WEIGHTS");
+        if (weights != null) {
+            parseCourseWeights(weights).forEach((course, weight) -> {
+                LOGGER.config(() -> "Weight of course " + course + ": " + weight);
+                scheduler.setWeight(course, weight);
+            });
+        }
+        return scheduler;
+    }
+    
+    /**
+     * Parses the weights of courses for the {@link SubmissionScheduler}. Invalid entries are logged and skipped.
+     * 
+     * @param value Comma-separated pairs of course identifier and weight, e.g.
+     *      <code>java-wise2122:2,ad-wise2122:1</code>.
+     * 
+     * @return The positive weights by course identifier.
+     */
+    static Map<String, Double> parseCourseWeights(String value) {
+        Map<String, Double> result = new HashMap<>();
+        
+        for (String entry : value.split(",")) {
+            entry = entry.trim();
+            int separator = entry.lastIndexOf(':');
+            double weight = -1;
+            if (separator > 0) {
+                try {
+                    weight = Double.parseDouble(entry.substring(separator + 1).trim());
+                } catch (NumberFormatException e) {
+                    // handled below
+                }
+            }
+            
+            if (weight > 0 && Double.isFinite(weight)) {
+                result.put(entry.substring(0, separator).trim(), weight);
+            } else if (!entry.isEmpty()) {
+                String invalidEntry = entry;
+                LOGGER.warning(() -> "Invalid course weight: " + invalidEntry + "; expected course:weight with a "
+                        + "positive weight");
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Creates the {@link SubmissionJobManager} for asynchronous submissions. They share the given scheduler with
+     * synchronous submissions. The environment variable <code>SUBMISSION_SERVER_ASYNC</code> set to
+     * <code>false</code> disables asynchronous submissions.
+     * <p>
+     * The deprecated variable <code>SUBMISSION_SERVER_ASYNC_WORKERS</code> is still honored if
+     * <code>SUBMISSION_SERVER_ASYNC</code> is not set: 0 disables asynchronous submissions. It no longer sets a
+     * number of workers, as all submissions run on the workers of the scheduler.
+     * 
+     * @param scheduler The scheduler that runs the submissions.
+     * 
+     * @return The job manager, or {@link Optional#empty()} if asynchronous submissions are disabled.
+     */
+    private static Optional<SubmissionJobManager> createSubmissionJobManager(SubmissionScheduler scheduler) {
+        boolean enabled = true;
+        
+        String workers = System.getenv("SUBMISSION_SERVER_ASYNC_WORKERS");
+        if (workers != null) {
+            LOGGER.warning("SUBMISSION_SERVER_ASYNC_WORKERS is deprecated and no longer sets a number of workers; "
+                    + "use SUBMISSION_SERVER_CHECK_WORKERS for the number of workers and SUBMISSION_SERVER_ASYNC=false "
+                    + "to disable asynchronous submissions");
+            enabled = getIntFromEnvironment("SUBMISSION_SERVER_ASYNC_WORKERS", 1) > 0;
+        }
+        
+        String async = System.getenv("SUBMISSION_SERVER_ASYNC");
+        if (async != null) {
+            if (async.trim().equalsIgnoreCase("true") || async.trim().equalsIgnoreCase("false")) {
+                enabled = Boolean.parseBoolean(async.trim());
+            } else {
+                LOGGER.warning(() -> "Invalid value for SUBMISSION_SERVER_ASYNC: " + async
+                        + "; expected true or false");
+            }
+        }
+        
+        Optional<SubmissionJobManager> result;
+        if (enabled) {
+            result = Optional.of(new SubmissionJobManager(scheduler));
+        } else {
+            LOGGER.config("Asynchronous submissions are disabled");
+            result = Optional.empty();
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the {@link CompilationCache} for the Java compiler checks, configured by the environment variable
+     * <code>SUBMISSION_SERVER_COMPILATION_CACHE_SIZE</code> (maximum number of cached compilation results, defaults
+     * to {@value CompilationCache#DEFAULT_MAX_SIZE}; 0 disables the cache).
+     * 
+     * @return The cache, or {@link Optional#empty()} if caching compilation results is disabled.
+     */
+    private static Optional<CompilationCache> createCompilationCache() {
+        int maxSize = getIntFromEnvironment("SUBMISSION_SERVER_COMPILATION_CACHE_SIZE",
+                CompilationCache.DEFAULT_MAX_SIZE);
+        
+        Optional<CompilationCache> result;
+        if (maxSize > 0) {
+            result = Optional.of(new CompilationCache(maxSize));
+        } else {
+            LOGGER.config("Caching compilation results is disabled");
+            result = Optional.empty();
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the {@link CheckResultCache} for identical submissions, configured by the environment variable
+     * <code>SUBMISSION_SERVER_CHECK_CACHE_MB</code> (estimated memory in MiB that cached check results may use,
+     * defaults to 16; 0 disables the cache).
+     * 
+     * @return The cache, or {@link Optional#empty()} if caching check results is disabled.
+     */
+    private static Optional<CheckResultCache> createCheckResultCache() {
+        int maxMegabytes = getIntFromEnvironment("SUBMISSION_SERVER_CHECK_CACHE_MB",
+                (int) (CheckResultCache.DEFAULT_MAX_BYTES / (1024 * 1024)));
+        
+        Optional<CheckResultCache> result;
+        if (maxMegabytes > 0) {
+            result = Optional.of(new CheckResultCache(maxMegabytes * 1024L * 1024L));
+        } else {
+            LOGGER.config("Caching check results is disabled");
+            result = Optional.empty();
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the {@link TokenCache} for the {@link AuthManager}, configured by the environment variables
+     * <code>SUBMISSION_SERVER_AUTH_CACHE_TTL</code> (seconds that authenticated tokens are cached),
+     * <code>SUBMISSION_SERVER_AUTH_CACHE_NEGATIVE_TTL</code> (seconds that rejected tokens are cached), and
+     * <code>SUBMISSION_SERVER_AUTH_CACHE_SIZE</code> (maximum number of cached tokens). Tokens are never cached
+     * beyond their own expiry time.
+     * 
+     * @return The token cache.
+     */
+    private static TokenCache createTokenCache() {
+        Duration ttl = Duration.ofSeconds(getIntFromEnvironment("SUBMISSION_SERVER_AUTH_CACHE_TTL",
+                (int) TokenCache.DEFAULT_TTL.toSeconds()));
+        Duration negativeTtl = Duration.ofSeconds(getIntFromEnvironment("SUBMISSION_SERVER_AUTH_CACHE_NEGATIVE_TTL",
+                (int) TokenCache.DEFAULT_NEGATIVE_TTL.toSeconds()));
+        int maxSize = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_AUTH_CACHE_SIZE",
+                TokenCache.DEFAULT_MAX_SIZE));
+        
+        LOGGER.config(() -> "Caching authenticated tokens for " + ttl.toSeconds() + " seconds");
+        return new TokenCache(ttl, negativeTtl, maxSize);
+    }
+    
+    /**
+     * Creates the {@link JwtVerifier} for local token verification, configured by the environment variables
+     * <code>SUBMISSION_SERVER_JWT_SECRET</code> (shared secret for HMAC signed tokens) or
+     * <code>SUBMISSION_SERVER_JWT_PUBLIC_KEY</code> (path to a PEM file with the public key for RSA signed tokens),
+     * and <code>SUBMISSION_SERVER_JWT_USERNAME_CLAIM</code> (the claim that holds the username, defaults to
+     * {@value JwtVerifier#DEFAULT_USERNAME_CLAIM}).
+     * 
+     * @return The verifier, or {@link Optional#empty()} if neither a secret nor a public key is configured.
+     * 
+     * @throws IOException If reading the public key fails.
+     */
+    private static Optional<JwtVerifier> createJwtVerifier() throws IOException {
+        String usernameClaim = Optional.ofNullable(System.getenv("SUBMISSION_SERVER_JWT_USERNAME_CLAIM"))
+                .orElse(JwtVerifier.DEFAULT_USERNAME_CLAIM);
+        String secret = System.getenv("SUBMISSION_SERVER_JWT_SECRET");
+        String publicKey = System.getenv("SUBMISSION_SERVER_JWT_PUBLIC_KEY");
+        
+        Optional<JwtVerifier> result;
+        if (secret != null) {
+            LOGGER.config("Verifying HMAC signed tokens locally");
+            result = Optional.of(new JwtVerifier(
+                    new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"), usernameClaim));
+            
+        } else if (publicKey != null) {
+            LOGGER.config(() -> "Verifying RSA signed tokens locally with public key " + publicKey);
+            result = Optional.of(new JwtVerifier(JwtVerifier.readPublicKey(Path.of(publicKey)), usernameClaim));
+            
+        } else {
+            result = Optional.empty();
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the {@link StuMgmtView}, configured by the environment variables
+     * <code>SUBMISSION_SERVER_MGMT_LOADING_THREADS</code> (maximum number of parallel requests while loading, defaults
+     * to {@value StuMgmtView#DEFAULT_LOADING_THREADS}) and <code>SUBMISSION_SERVER_MGMT_SNAPSHOT</code> (file that a
+     * snapshot of the view is kept in for fast restarts; no snapshot is kept if not set).
+     * 
+     * @param stuMgmtUrl The URL to the student management system API.
+     * @param authSystemUrl The URL to the authentication system (sparky-service) API.
+     * @param username The username to authenticate this service as in the auth sytem.
+     * @param password The password to authenticate this service with in the auth system.
+     * 
+     * @return The view; not loaded yet.
+     */
+    private static StuMgmtView createStuMgmtView(String stuMgmtUrl, String authSystemUrl, String username,
+            String password) {
+        int loadingThreads = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_MGMT_LOADING_THREADS",
+                StuMgmtView.DEFAULT_LOADING_THREADS));
+        StuMgmtView result = new StuMgmtView(stuMgmtUrl, authSystemUrl, username, password, loadingThreads);
+        
+        String snapshotFile = System.getenv("SUBMISSION_SERVER_MGMT_SNAPSHOT");
+        if (snapshotFile != null) {
+            LOGGER.config(() -> "Keeping snapshot of student management system data in " + snapshotFile);
+            result.setSnapshotFile(Path.of(snapshotFile));
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the {@link ResultDeliveryQueue} that check results are sent to the student management system through.
+     * Configured by the environment variables <code>SUBMISSION_SERVER_RESULT_WORKERS</code> (number of results
+     * delivered in parallel, defaults to {@value #DEFAULT_RESULT_WORKERS}) and
+     * <code>SUBMISSION_SERVER_RESULT_SPOOL</code> (directory that undelivered results are kept in across restarts;
+     * they are only kept in memory if not set).
+     * 
+     * @param stuMgmtView The view to deliver the results with.
+     * 
+     * @return The queue.
+     */
+    private static ResultDeliveryQueue createResultDeliveryQueue(StuMgmtView stuMgmtView) {
+        int workers = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_RESULT_WORKERS", DEFAULT_RESULT_WORKERS));
+        
+        Path spoolDirectory = null;
+        String spool = System.getenv("SUBMISSION_SERVER_RESULT_SPOOL");
+        if (spool != null) {
+            LOGGER.config(() -> "Keeping undelivered check results in " + spool);
+            spoolDirectory = Path.of(spool);
+        }
+        return new ResultDeliveryQueue(stuMgmtView, workers, spoolDirectory);
+    }
+    
+    /**
+     * Creates the {@link ISubmissionStorage} in the given directory. If the environment variable
+     * <code>SUBMISSION_SERVER_STORAGE</code> is set to <code>content-addressed</code>, a
+     * {@link ContentAddressedStorage} is used and existing version directories are migrated to it. Otherwise, a
+     * plain {@link FilesystemStorage} is used.
+     * 
+     * @param storagePath The path to the storage directory.
+     * 
+     * @return The storage.
+     * 
+     * @throws IOException If creating the storage or the migration fails.
+     */
+    private static ISubmissionStorage createStorage(Path storagePath) throws IOException {
+        ISubmissionStorage result;
+        if ("content-addressed".equals(System.getenv("SUBMISSION_SERVER_STORAGE"))) {
+            LOGGER.config(() -> "Using content-addressed storage in " + storagePath);
+            ContentAddressedStorage storage = new ContentAddressedStorage(storagePath);
+            storage.migrate();
+            result = storage;
+            
+        } else {
+            LOGGER.config(() -> "Using storage directory " + storagePath);
+            result = new FilesystemStorage(storagePath);
+        }
+        return result;
+    }
+    
+    /**
+     * Does the initial loading of the {@link StuMgmtView} and creates the assignments in the storage. Retries until
+     * this succeeds. Afterwards, the undelivered check results from before the restart are enqueued again.
+     * 
+     * @param stuMgmtView The view to load.
+     * @param storage The storage to create the assignments in.
+     * @param resultDeliveryQueue The queue to restore the undelivered check results in.
+     */
+    private static void loadInitialData(StuMgmtView stuMgmtView, ISubmissionStorage storage,
+            ResultDeliveryQueue resultDeliveryQueue) {
+        boolean success = false;
+        while (!success) {
+            try {
+                try (TargetLockManager.LockHandle lock = SubmissionRoute.LOCKS.lockView()) {
+                    stuMgmtView.fullReload();
+                }
+                storage.createOrUpdateAssignmentsFromView(stuMgmtView);
+                success = true;
+            } catch (StorageException | StuMgmtLoadingException e) {
+                LOGGER.log(Level.WARNING, "Failed to load intial student management system data; retrying...", e);
+                
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e1) {
+                }
+            }
+        }
+        
+        resultDeliveryQueue.restoreSpool();
+    }
+    
+    /**
+     * Creates and starts the server with default configuration. Also does the initial loading of the StuMgmtView. If
+     * a snapshot of the StuMgmtView can be restored, the server is started with it and the initial loading happens in
+     * the background; otherwise, this method blocks until the initial loading succeeded.
      *  
      * @param port The port to use.
-     * @param storagePath The path to the {@link FilesystemStorage} to use.
+     * @param storagePath The path to the storage directory to use (see {@link #createStorage(Path)}).
      * @param authSystemUrl The URL to the authentication system (sparky-service) API.
      * @param stuMgmtUrl The URL to the student management system API.
      * @param username The username to authenticate this service as in the auth sytem.
@@ -308,7 +713,7 @@ public class ExerciseSubmitterServer {
      * 
      * @return The started HTTP server.
      * 
-     * @throws IOException If creating the {@link FilesystemStorage} fails.
+     * @throws IOException If creating the storage fails.
      */
     // checkstyle: stop parameter number check
     public static ExerciseSubmitterServer startDefaultServer(int port, String storagePath, String authSystemUrl,
@@ -316,14 +721,30 @@ public class ExerciseSubmitterServer {
             Optional<String> keystorePath, Optional<String> keystorePassword) throws IOException {
     // checkstyle: resume parameter number check
         
-        LOGGER.config(() -> "Using storage directory " + storagePath);
-        ISubmissionStorage storage = new FilesystemStorage(Path.of(storagePath));
-        StuMgmtView stuMgmtView = new StuMgmtView(stuMgmtUrl, authSystemUrl, username, password);
+        ISubmissionStorage storage = createStorage(Path.of(storagePath));
+        StuMgmtView stuMgmtView = createStuMgmtView(stuMgmtUrl, authSystemUrl, username, password);
         
-        SubmissionManager submissionManager = new SubmissionManager(storage, stuMgmtView);
+        boolean restored = stuMgmtView.restoreSnapshot();
+        if (restored) {
+            try {
+                storage.createOrUpdateAssignmentsFromView(stuMgmtView);
+            } catch (StorageException e) {
+                LOGGER.log(Level.WARNING, "Failed to create assignments from restored snapshot", e);
+            }
+        }
+        
+        // independent checks of a submission run in parallel on this many threads
+        int checkThreads = Math.max(1, getIntFromEnvironment("SUBMISSION_SERVER_CHECK_THREADS",
+                Runtime.getRuntime().availableProcessors()));
+        SubmissionManager submissionManager = new SubmissionManager(storage, stuMgmtView, checkThreads);
+        ResultDeliveryQueue resultDeliveryQueue = createResultDeliveryQueue(stuMgmtView);
+        submissionManager.setResultDeliveryQueue(resultDeliveryQueue);
+        createCompilationCache().ifPresent(submissionManager::setCompilationCache);
+        createCheckResultCache().ifPresent(submissionManager::setCheckResultCache);
         createStandardChecks(submissionManager);
         
-        AuthManager authManager = new AuthManager(authSystemUrl, stuMgmtView);
+        AuthManager authManager = new AuthManager(authSystemUrl, stuMgmtView, createTokenCache());
+        createJwtVerifier().ifPresent(authManager::setJwtVerifier);
         
         ExerciseSubmitterServer server = new ExerciseSubmitterServer();
         server.setPort(port);
@@ -331,6 +752,9 @@ public class ExerciseSubmitterServer {
         server.setStuMgmtView(stuMgmtView);
         server.setSubmissionManager(submissionManager);
         server.setAuthManager(authManager);
+        SubmissionScheduler submissionScheduler = createSubmissionScheduler();
+        server.setSubmissionScheduler(submissionScheduler);
+        createSubmissionJobManager(submissionScheduler).ifPresent(server::setSubmissionJobManager);
         if (keystorePath.isPresent() && keystorePassword.isPresent()) {
             server.setTlsKeystore(Path.of(keystorePath.get()), keystorePassword.get());
         }
@@ -338,22 +762,14 @@ public class ExerciseSubmitterServer {
         LOGGER.config("Starting HTTP server on port " + port);
         server.start();
         
-        boolean success = false;
-        while (!success) {
-            try {
-                synchronized (SubmissionRoute.LOCK) {
-                    stuMgmtView.fullReload();
-                    storage.createOrUpdateAssignmentsFromView(stuMgmtView);
-                }
-                success = true;
-            } catch (StorageException | StuMgmtLoadingException e) {
-                LOGGER.log(Level.WARNING, "Failed to load intial student management system data; retrying...", e);
-                
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e1) {
-                }
-            }
+        if (restored) {
+            // the restored data is served while the management system is loaded in the background
+            Thread loader = new Thread(() -> loadInitialData(stuMgmtView, storage, resultDeliveryQueue),
+                    "stu-mgmt-initial-load");
+            loader.setDaemon(true);
+            loader.start();
+        } else {
+            loadInitialData(stuMgmtView, storage, resultDeliveryQueue);
         }
         
         return server;
@@ -0,0 +1,148 @@
+package net.ssehub.teaching.exercise_submitter.server.rest.dto;
+
+import java.time.Duration;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionJob;
+
+/**
+ * Represents an asynchronously processed submission.
+ * 
+ * @author Adam
+ */
+@Schema(description = "A submission that is processed asynchronously")
+public class SubmissionJobDto {
+    
+    @Schema(
+        description = "The identifier of the job, used to retrieve its state and result",
+        required = true,
+        example = "3f2b8e4c-5d1a-4b7e-9c0f-2a6d8e1b3c5d"
+    )
+    private String jobId;
+    
+    @Schema(
+        description = "The processing state of the job",
+        required = true,
+        allowableValues = {"QUEUED", "RUNNING", "FINISHED", "FAILED"}
+    )
+    private String state;
+    
+    @Schema(description = "The result of the submission; only present if the state is FINISHED")
+    private SubmissionResultDto result;
+    
+    @Schema(description = "How long the job waited for a free worker, in milliseconds; only present once it started")
+    private Long queueTime;
+    
+    @Schema(description = "How long the job ran, in milliseconds; only present if the state is FINISHED or FAILED")
+    private Long executionTime;
+    
+    /**
+     * Creates an empty DTO.
+     */
+    public SubmissionJobDto() {
+    }
+    
+    /**
+     * Creates a DTO with the current state of the given job.
+     * 
+     * @param job The job to represent.
+     */
+    public SubmissionJobDto(SubmissionJob job) {
+        this.jobId = job.getId();
+        this.state = job.getState().name();
+        this.result = job.getResult().orElse(null);
+        this.queueTime = job.getQueueTime().map(Duration::toMillis).orElse(null);
+        this.executionTime = job.getExecutionTime().map(Duration::toMillis).orElse(null);
+    }
+    
+    /**
+     * Sets the identifier of the job.
+     * 
+     * @param jobId The job identifier.
+     */
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    /**
+     * Gets the identifier of the job.
+     * 
+     * @return The job identifier.
+     */
+    public String getJobId() {
+        return jobId;
+    }
+    
+    /**
+     * Sets the processing state of the job.
+     * 
+     * @param state The state.
+     */
+    public void setState(String state) {
+        this.state = state;
+    }
+    
+    /**
+     * Gets the processing state of the job.
+     * 
+     * @return The state.
+     */
+    public String getState() {
+        return state;
+    }
+    
+    /**
+     * Sets the result of the submission.
+     * 
+     * @param result The result, may be <code>null</code>.
+     */
+    public void setResult(SubmissionResultDto result) {
+        this.result = result;
+    }
+    
+    /**
+     * Gets the result of the submission.
+     * 
+     * @return The result, or <code>null</code> if the job is not finished.
+     */
+    public SubmissionResultDto getResult() {
+        return result;
+    }
+    
+    /**
+     * Sets how long the job waited for a free worker.
+     * 
+     * @param queueTime The queue time in milliseconds, may be <code>null</code>.
+     */
+    public void setQueueTime(Long queueTime) {
+        this.queueTime = queueTime;
+    }
+    
+    /**
+     * Gets how long the job waited for a free worker.
+     * 
+     * @return The queue time in milliseconds, or <code>null</code> if the job did not start yet.
+     */
+    public Long getQueueTime() {
+        return queueTime;
+    }
+    
+    /**
+     * Sets how long the job ran.
+     * 
+     * @param executionTime The execution time in milliseconds, may be <code>null</code>.
+     */
+    public void setExecutionTime(Long executionTime) {
+        this.executionTime = executionTime;
+    }
+    
+    /**
+     * Gets how long the job ran.
+     * 
+     * @return The execution time in milliseconds, or <code>null</code> if the job is not done yet.
+     */
+    public Long getExecutionTime() {
+        return executionTime;
+    }
+
+}
@@ -0,0 +1,30 @@
+package net.ssehub.teaching.exercise_submitter.server.rest.exceptions;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.ResponseBuilder;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import net.ssehub.teaching.exercise_submitter.server.submission.QueueFullException;
+
+/**
+ * Converts a {@link QueueFullException} into a HTTP response.
+ * 
+ * @author Adam
+ */
+@Provider
+public class QueueFullExceptionMapper implements ExceptionMapper<QueueFullException> {
+
+    @Override
+    public Response toResponse(QueueFullException exception) {
+        ResponseBuilder response = Response
+                .status(Status.SERVICE_UNAVAILABLE.getStatusCode(), "Too many submissions, try again later");
+        
+        exception.getRetryAfter().ifPresent(
+            retryAfter -> response.header(HttpHeaders.RETRY_AFTER, Math.max(1, retryAfter.toSeconds())));
+        
+        return response.build();
+    }
+
+}
@@ -0,0 +1,24 @@
+package net.ssehub.teaching.exercise_submitter.server.rest.exceptions;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import net.ssehub.teaching.exercise_submitter.server.submission.UploadTooLargeException;
+
+/**
+ * Converts a {@link UploadTooLargeException} into a HTTP response.
+ * 
+ * @author Adam
+ */
+@Provider
+public class UploadTooLargeExceptionMapper implements ExceptionMapper<UploadTooLargeException> {
+
+    @Override
+    public Response toResponse(UploadTooLargeException exception) {
+        return Response
+                .status(Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), exception.getMessage())
+                .build();
+    }
+
+}
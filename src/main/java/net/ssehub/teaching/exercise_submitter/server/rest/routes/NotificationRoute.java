@@ -19,6 +19,7 @@ import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtLoadingException;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submitter.server.submission.TargetLockManager;
 
 /**
  * The route for receiving notifications on assignment and group updates from the management system.
@@ -103,13 +104,14 @@ public class NotificationRoute {
         Response response;
         
         try {
-            synchronized (SubmissionRoute.LOCK) {
+            try (TargetLockManager.LockHandle lock = SubmissionRoute.LOCKS.lockView()) {
                 stuMgmtView.update(notification);
                 LOGGER.info(() -> "StuMgmtView updated");
-                
-                storage.createOrUpdateAssignmentsFromView(stuMgmtView);
-                LOGGER.info(() -> "Storage updated");
             }
+                
+            // the storage serializes this itself, so other notifications don't wait for the directories to be created
+            storage.createOrUpdateAssignmentsFromView(stuMgmtView);
+            LOGGER.info(() -> "Storage updated");
             
             response = Response.ok().build();
             
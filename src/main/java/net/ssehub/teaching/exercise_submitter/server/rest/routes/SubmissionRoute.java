@@ -1,11 +1,20 @@
 package net.ssehub.teaching.exercise_submitter.server.rest.routes;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Base64;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,11 +33,15 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.ResponseBuilder;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
 import net.ssehub.teaching.exercise_submitter.server.auth.AuthManager;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.FileDto;
+import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionJobDto;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionResultDto;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.VersionDto;
 import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
@@ -39,8 +52,15 @@ import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
 import net.ssehub.teaching.exercise_submitter.server.storage.Version;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submitter.server.submission.QueueFullException;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionJob;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionJobManager;
 import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionManager;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionScheduler;
+import net.ssehub.teaching.exercise_submitter.server.submission.TargetLockManager;
 import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedException;
+import net.ssehub.teaching.exercise_submitter.server.submission.UploadTooLargeException;
+import net.ssehub.teaching.exercise_submitter.server.submission.ZipSubmissionReader;
 
 /**
  * The route for working with submissions.
@@ -55,30 +75,48 @@ import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedExce
 public class SubmissionRoute {
     
     /**
-     * Global lock to ensure that operations don't interfere with each other. Must be acquired by routes that access
-     * the {@link StuMgmtView} or {@link ISubmissionStorage}.
+     * Locks to ensure that operations don't interfere with each other. Routes that access the
+     * {@link ISubmissionStorage} must lock the {@link SubmissionTarget} they work on; operations that update the
+     * {@link StuMgmtView} must lock the view. Reading from the {@link StuMgmtView} does not require a lock.
      */
-    public static final Object LOCK = new Object();
+    public static final TargetLockManager LOCKS = new TargetLockManager();
     
     private static final Logger LOGGER = Logger.getLogger(SubmissionRoute.class.getName());
     
+    /**
+     * The media type of zip downloads. Has a lower quality than JSON, so that clients that accept any media type
+     * still get JSON.
+     */
+    private static final String ZIP_MEDIA_TYPE = ZipSubmissionReader.MEDIA_TYPE + ";qs=0.5";
+    
     private SubmissionManager submissionManager;
     
     private ISubmissionStorage storage;
     
     private AuthManager authManager;
     
+    private SubmissionJobManager jobManager;
+    
+    private SubmissionScheduler scheduler;
+    
     /**
      * Creates a new submission route with the given storage.
      * 
      * @param submissionManager The {@link SubmissionManager} to use for new submissions.
      * @param storage The {@link ISubmissionStorage} to use for replaying old versions.
      * @param authManager The {@link AuthManager} to use for authentication and authorization.
+     * @param jobManager The {@link SubmissionJobManager} to run asynchronous submissions with. May be
+     *      <code>null</code>, in which case asynchronous submissions are not supported.
+     * @param scheduler The {@link SubmissionScheduler} to run synchronous submissions with. May be <code>null</code>,
+     *      in which case they run on the thread that handles the request.
      */
-    public SubmissionRoute(SubmissionManager submissionManager, ISubmissionStorage storage, AuthManager authManager) {
+    public SubmissionRoute(SubmissionManager submissionManager, ISubmissionStorage storage, AuthManager authManager,
+            SubmissionJobManager jobManager, SubmissionScheduler scheduler) {
         this.submissionManager = submissionManager;
         this.storage = storage;
         this.authManager = authManager;
+        this.jobManager = jobManager;
+        this.scheduler = scheduler;
     }
     
     /**
@@ -92,22 +130,33 @@ public class SubmissionRoute {
         
         private AuthManager authManager;
         
+        private SubmissionJobManager jobManager;
+        
+        private SubmissionScheduler scheduler;
+        
         /**
          * Creates a factory with the given parameters.
          * 
          * @param submissionManager The {@link SubmissionManager} to use for new submissions.
          * @param storage The {@link ISubmissionStorage} to use for replaying old versions.
          * @param authManager The {@link AuthManager} to use for authentication and authorization.
+         * @param jobManager The {@link SubmissionJobManager} to run asynchronous submissions with. May be
+         *      <code>null</code>.
+         * @param scheduler The {@link SubmissionScheduler} to run synchronous submissions with. May be
+         *      <code>null</code>.
          */
-        public Factory(SubmissionManager submissionManager, ISubmissionStorage storage, AuthManager authManager) {
+        public Factory(SubmissionManager submissionManager, ISubmissionStorage storage, AuthManager authManager,
+                SubmissionJobManager jobManager, SubmissionScheduler scheduler) {
             this.submissionManager = submissionManager;
             this.storage = storage;
             this.authManager = authManager;
+            this.jobManager = jobManager;
+            this.scheduler = scheduler;
         }
 
         @Override
         public SubmissionRoute provide() {
-            return new SubmissionRoute(submissionManager, storage, authManager);
+            return new SubmissionRoute(submissionManager, storage, authManager, jobManager, scheduler);
         }
 
         @Override
@@ -138,6 +187,24 @@ public class SubmissionRoute {
         return authManager.authenticate(token);
     }
     
+    /**
+     * Creates a {@link Submission} from the files sent by the client.
+     * 
+     * @param user The name of the user that submits.
+     * @param files The files of the submission, with Base64 encoded content.
+     * 
+     * @return The submission.
+     * 
+     * @throws IllegalArgumentException If a filepath is invalid or the content is not valid Base64.
+     */
+    private static Submission createSubmission(String user, List<FileDto> files) throws IllegalArgumentException {
+        SubmissionBuilder builder = new SubmissionBuilder(user);
+        for (FileDto file : files) {
+            builder.addFile(java.nio.file.Path.of(file.getPath()), Base64.getDecoder().decode(file.getContent()));
+        }
+        return builder.build();
+    }
+    
     /**
      * Adds a new submission.
      * 
@@ -148,6 +215,8 @@ public class SubmissionRoute {
      * @param authHeader The JWT token to authenticate the user.
      * 
      * @return A fitting HTTP response.
+     * 
+     * @throws QueueFullException If too many submissions are waiting to be processed.
      */
     @Operation(
         description = "Adds a new submission for the given assignment and group",
@@ -175,6 +244,7 @@ public class SubmissionRoute {
             @ApiResponse(responseCode = "400", description = "Input data malformed or invalid"),
             @ApiResponse(responseCode = "403", description = "User is not authorized to add a new submission"),
             @ApiResponse(responseCode = "404", description = "Assignment or group does not exist"),
+            @ApiResponse(responseCode = "503", description = "Too many submissions are waiting to be processed"),
             @ApiResponse(responseCode = "500", description = "An unexpected internal server error occurred")
         }
     )
@@ -200,7 +270,7 @@ public class SubmissionRoute {
             @Parameter(hidden = true)
             String authHeader)
     
-            throws NoSuchTargetException, StorageException, UnauthorizedException {
+            throws NoSuchTargetException, StorageException, UnauthorizedException, QueueFullException {
         
         LOGGER.info(() -> "Submission request to " + course + "/" + assignmentName + "/" + groupName + " received");
         
@@ -209,25 +279,107 @@ public class SubmissionRoute {
         
         try {
             String user = authenticate(authHeader);
+            authManager.checkSubmissionAllowed(user, target);
             
-            SubmissionResultDto result;
+            Submission submission = createSubmission(user, files);
+            response = submitSynchronously(target, submission);
             
-            synchronized (LOCK) {
-                authManager.checkSubmissionAllowed(user, target);
-                
-                SubmissionBuilder builder = new SubmissionBuilder(user);
-                for (FileDto file : files) {
-                    builder.addFile(java.nio.file.Path.of(file.getPath()),
-                            Base64.getDecoder().decode(file.getContent()));
-                }
-                
-                result = submissionManager.submit(target, builder.build());
-            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.info(() -> "Invalid filepath in submission: " + e.getMessage());
             
             response = Response
-                    .status(result.getAccepted() ? Status.CREATED : Status.OK)
-                    .entity(result)
+                    .status(Status.BAD_REQUEST.getStatusCode(), "Invalid filepath: " + e.getMessage())
                     .build();
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Adds a new submission, uploaded as a zip archive. The archive is decoded while it is received, and the upload
+     * is aborted as soon as it exceeds the file-size limits.
+     * 
+     * @param course The identifier of the course of the assignment.
+     * @param assignmentName The name of the assignment to submit to.
+     * @param groupName The name of the group to submit for.
+     * @param archive The zip archive with the files of the submission.
+     * @param authHeader The JWT token to authenticate the user.
+     * 
+     * @return A fitting HTTP response.
+     * 
+     * @throws UploadTooLargeException If a file or the whole submission is too large.
+     * @throws QueueFullException If too many submissions are waiting to be processed.
+     */
+    @Operation(
+        description = "Adds a new submission for the given assignment and group, uploaded as a zip archive",
+        responses = {
+            @ApiResponse(
+                responseCode = "201",
+                description = "Submission accepted",
+                content = {
+                    @Content(
+                        schema = @Schema(implementation = SubmissionResultDto.class),
+                        examples = {
+                            @ExampleObject(value = "{\"accepted\": true, \"messages\": []}")
+                        })
+                }),
+            @ApiResponse(
+                responseCode = "200",
+                description = "Submission rejected based on submission checks",
+                content = {
+                    @Content(
+                        schema = @Schema(implementation = SubmissionResultDto.class),
+                        examples = {
+                            @ExampleObject(value = "{\"accepted\": false, \"messages\": []}")
+                        })
+                }),
+            @ApiResponse(responseCode = "400", description = "Archive malformed or filepath invalid"),
+            @ApiResponse(responseCode = "403", description = "User is not authorized to add a new submission"),
+            @ApiResponse(responseCode = "404", description = "Assignment or group does not exist"),
+            @ApiResponse(responseCode = "413", description = "A file or the whole submission is too large"),
+            @ApiResponse(responseCode = "503", description = "Too many submissions are waiting to be processed"),
+            @ApiResponse(responseCode = "500", description = "An unexpected internal server error occurred")
+        }
+    )
+    @POST
+    @Path("/{course}/{assignment}/{group}")
+    @Consumes(ZipSubmissionReader.MEDIA_TYPE)
+    public Response submitZip(
+            @PathParam("course")
+            @Parameter(description = "ID of the course that contains the assignment")
+            String course,
+            
+            @PathParam("assignment")
+            @Parameter(description = "Name of the assignment to submit to")
+            String assignmentName,
+            
+            @PathParam("group")
+            @Parameter(description = "Name of the group (or username for single assignments) to submit to")
+            String groupName,
+            
+            @RequestBody(description = "A zip archive with the files of this submission")
+            InputStream archive,
+            
+            @HeaderParam("Authorization")
+            @Parameter(hidden = true)
+            String authHeader)
+    
+            throws NoSuchTargetException, StorageException, UnauthorizedException, UploadTooLargeException,
+            QueueFullException {
+        
+        LOGGER.info(() -> "Zip submission request to " + course + "/" + assignmentName + "/" + groupName
+                + " received");
+        
+        Response response;
+        SubmissionTarget target = new SubmissionTarget(course, assignmentName, groupName);
+        
+        // authorize before reading the upload
+        String user = authenticate(authHeader);
+        authManager.checkSubmissionAllowed(user, target);
+        
+        try {
+            Submission submission = submissionManager.createZipSubmissionReader().read(user, archive);
+            response = submitSynchronously(target, submission);
             
         } catch (IllegalArgumentException e) {
             LOGGER.info(() -> "Invalid filepath in submission: " + e.getMessage());
@@ -235,6 +387,294 @@ public class SubmissionRoute {
             response = Response
                     .status(Status.BAD_REQUEST.getStatusCode(), "Invalid filepath: " + e.getMessage())
                     .build();
+            
+        } catch (IOException e) {
+            LOGGER.info(() -> "Malformed zip archive in submission: " + e.getMessage());
+            
+            response = Response
+                    .status(Status.BAD_REQUEST.getStatusCode(), "Malformed zip archive")
+                    .build();
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Runs the given submission through the {@link SubmissionManager} while holding the lock of the target. If a
+     * {@link SubmissionScheduler} is set, the submission is queued there and this thread waits for the result; the
+     * time spent waiting in the queue and the time spent running the checks are reported in the
+     * <code>Server-Timing</code> header of the response.
+     * 
+     * @param target The course, assignment, and group to submit to.
+     * @param submission The submission.
+     * 
+     * @return A HTTP response with the {@link SubmissionResultDto}.
+     * 
+     * @throws NoSuchTargetException If the target does not exist.
+     * @throws StorageException If storing the submission fails.
+     * @throws QueueFullException If too many submissions are waiting to be processed.
+     */
+    private Response submitSynchronously(SubmissionTarget target, Submission submission)
+            throws NoSuchTargetException, StorageException, QueueFullException {
+        
+        Response response;
+        
+        if (scheduler != null) {
+            long queued = System.nanoTime();
+            AtomicLong started = new AtomicLong();
+            AtomicLong finished = new AtomicLong();
+            
+            FutureTask<SubmissionResultDto> future = new FutureTask<>(() -> {
+                started.set(System.nanoTime());
+                try {
+                    return submitLocked(target, submission);
+                } finally {
+                    finished.set(System.nanoTime());
+                }
+            });
+            scheduler.schedule(target.getCourse(), future);
+            SubmissionResultDto result = awaitResult(future);
+            
+            double queueMillis = (started.get() - queued) / 1_000_000.0;
+            double executionMillis = (finished.get() - started.get()) / 1_000_000.0;
+            LOGGER.info(() -> String.format(Locale.ROOT, "Submission to %s waited %.1f ms in the queue and ran for"
+                    + " %.1f ms", target, queueMillis, executionMillis));
+            
+            response = createSubmissionResponse(result)
+                    .header("Server-Timing", String.format(Locale.ROOT, "queue;dur=%.1f, checks;dur=%.1f",
+                            queueMillis, executionMillis))
+                    .build();
+            
+        } else {
+            response = createSubmissionResponse(submitLocked(target, submission)).build();
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Runs the given submission through the {@link SubmissionManager} while holding the lock of the target.
+     * 
+     * @param target The course, assignment, and group to submit to.
+     * @param submission The submission.
+     * 
+     * @return The result of the submission.
+     * 
+     * @throws NoSuchTargetException If the target does not exist.
+     * @throws StorageException If storing the submission fails.
+     */
+    private SubmissionResultDto submitLocked(SubmissionTarget target, Submission submission)
+            throws NoSuchTargetException, StorageException {
+        
+        try (TargetLockManager.LockHandle lock = LOCKS.lockTarget(target)) {
+            return submissionManager.submit(target, submission);
+        }
+    }
+    
+    /**
+     * Waits for a submission that runs in the {@link SubmissionScheduler} and re-throws its exceptions.
+     * 
+     * @param future The running submission.
+     * 
+     * @return The result of the submission.
+     * 
+     * @throws NoSuchTargetException If the target does not exist.
+     * @throws StorageException If storing the submission fails, or this thread is interrupted while waiting.
+     */
+    private static SubmissionResultDto awaitResult(FutureTask<SubmissionResultDto> future)
+            throws NoSuchTargetException, StorageException {
+        
+        SubmissionResultDto result;
+        try {
+            result = future.get();
+        
+        } catch (InterruptedException e) {
+            // don't run the checks if nobody waits for them anymore
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new StorageException("Interrupted while waiting for the submission to be processed", e);
+            
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NoSuchTargetException) {
+                throw (NoSuchTargetException) cause;
+            } else if (cause instanceof StorageException) {
+                throw (StorageException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new StorageException(cause);
+            }
+        }
+        return result;
+    }
+        
+    /**
+     * Creates the HTTP response for the result of a synchronous submission.
+     * 
+     * @param result The result of the submission.
+     * 
+     * @return A response builder with status and entity set.
+     */
+    private static ResponseBuilder createSubmissionResponse(SubmissionResultDto result) {
+        return Response
+                .status(result.getAccepted() ? Status.CREATED : Status.OK)
+                .entity(result);
+    }
+    
+    /**
+     * Adds a new submission that is processed asynchronously. The submission is queued and the response contains a
+     * job identifier, which can be used to retrieve the result via {@link #getJob(String, String)}.
+     * 
+     * @param course The identifier of the course of the assignment.
+     * @param assignmentName The name of the assignment to submit to.
+     * @param groupName The name of the group to submit for.
+     * @param files The files of the submission. Key are relative file paths, values are file content.
+     * @param authHeader The JWT token to authenticate the user.
+     * 
+     * @return A fitting HTTP response.
+     * 
+     * @throws QueueFullException If too many submissions are waiting to be processed.
+     */
+    @Operation(
+        description = "Adds a new submission for the given assignment and group, which is processed asynchronously",
+        responses = {
+            @ApiResponse(
+                responseCode = "202",
+                description = "Submission queued for processing; the result can be retrieved with the job ID",
+                content = {
+                    @Content(
+                        schema = @Schema(implementation = SubmissionJobDto.class),
+                        examples = {
+                            @ExampleObject(value = "{\"jobId\": \"3f2b8e4c-5d1a-4b7e-9c0f-2a6d8e1b3c5d\", "
+                                    + "\"state\": \"QUEUED\"}")
+                        })
+                }),
+            @ApiResponse(responseCode = "400", description = "Input data malformed or invalid"),
+            @ApiResponse(responseCode = "403", description = "User is not authorized to add a new submission"),
+            @ApiResponse(responseCode = "501", description = "Asynchronous submissions are not enabled"),
+            @ApiResponse(responseCode = "503", description = "Too many submissions are waiting to be processed"),
+            @ApiResponse(responseCode = "500", description = "An unexpected internal server error occurred")
+        }
+    )
+    @POST
+    @Path("/{course}/{assignment}/{group}/async")
+    public Response submitAsync(
+            @PathParam("course")
+            @Parameter(description = "ID of the course that contains the assignment")
+            String course,
+            
+            @PathParam("assignment")
+            @Parameter(description = "Name of the assignment to submit to")
+            String assignmentName,
+            
+            @PathParam("group")
+            @Parameter(description = "Name of the group (or username for single assignments) to submit to")
+            String groupName,
+            
+            @RequestBody(description = "The files of this submission")
+            List<FileDto> files,
+            
+            @HeaderParam("Authorization")
+            @Parameter(hidden = true)
+            String authHeader)
+    
+            throws UnauthorizedException, QueueFullException {
+        
+        LOGGER.info(() -> "Asynchronous submission request to " + course + "/" + assignmentName + "/" + groupName
+                + " received");
+        
+        Response response;
+        SubmissionTarget target = new SubmissionTarget(course, assignmentName, groupName);
+        
+        String user = authenticate(authHeader);
+        authManager.checkSubmissionAllowed(user, target);
+        
+        if (jobManager != null) {
+            try {
+                Submission submission = createSubmission(user, files);
+                
+                SubmissionJob job = jobManager.submit(user, target, () -> {
+                    try (TargetLockManager.LockHandle lock = LOCKS.lockTarget(target)) {
+                        return submissionManager.submit(target, submission);
+                    }
+                });
+                
+                response = Response
+                        .accepted(new SubmissionJobDto(job))
+                        .location(URI.create("submission/jobs/" + job.getId()))
+                        .build();
+                
+            } catch (IllegalArgumentException e) {
+                LOGGER.info(() -> "Invalid filepath in submission: " + e.getMessage());
+                
+                response = Response
+                        .status(Status.BAD_REQUEST.getStatusCode(), "Invalid filepath: " + e.getMessage())
+                        .build();
+            }
+            
+        } else {
+            response = Response
+                    .status(Status.NOT_IMPLEMENTED.getStatusCode(), "Asynchronous submissions are not enabled")
+                    .build();
+        }
+        
+        return response;
+    }
+    
+    /**
+     * Retrieves the state and result of an asynchronously processed submission.
+     * 
+     * @param jobId The identifier of the job, as returned when the submission was queued.
+     * @param authHeader The JWT token to authenticate the user.
+     * 
+     * @return A HTTP response with a {@link SubmissionJobDto}.
+     * 
+     * @throws UnauthorizedException If the user is not the one that created the job.
+     */
+    @Operation(
+        description = "Retrieves the state and, once finished, the result of an asynchronous submission",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "State of the job is returned", content = {
+                @Content(schema = @Schema(implementation = SubmissionJobDto.class))
+            }),
+            @ApiResponse(responseCode = "403", description = "User is not authorized to retrieve this job"),
+            @ApiResponse(responseCode = "404", description = "Job does not exist or has expired"),
+            @ApiResponse(responseCode = "500", description = "An unexpected internal server error occurred")
+        }
+    )
+    @GET
+    @Path("/jobs/{job}")
+    public Response getJob(
+            @PathParam("job")
+            @Parameter(description = "ID of the job")
+            String jobId,
+            
+            @HeaderParam("Authorization")
+            @Parameter(hidden = true)
+            String authHeader)
+    
+            throws UnauthorizedException {
+        
+        String user = authenticate(authHeader);
+        
+        Optional<SubmissionJob> job = jobManager != null ? jobManager.getJob(jobId) : Optional.empty();
+        
+        Response response;
+        if (job.isPresent()) {
+            if (!job.get().getUser().equals(user)) {
+                LOGGER.info(() -> user + " not allowed to retrieve job " + jobId + " of " + job.get().getUser());
+                throw new UnauthorizedException();
+            }
+            
+            response = Response.ok(new SubmissionJobDto(job.get())).build();
+            
+        } else {
+            response = Response
+                    .status(Status.NOT_FOUND.getStatusCode(), "Job " + jobId + " not found")
+                    .build();
         }
         
         return response;
@@ -288,11 +728,11 @@ public class SubmissionRoute {
         SubmissionTarget target = new SubmissionTarget(course, assignmentName, groupName);
         
         String user = authenticate(authHeader);
+        authManager.checkReplayAllowed(user, target);
         
         List<Version> versions;
         
-        synchronized (LOCK) {
-            authManager.checkReplayAllowed(user, target);
+        try (TargetLockManager.LockHandle lock = LOCKS.lockTarget(target)) {
             versions = storage.getVersions(target);
         }
         
@@ -326,7 +766,10 @@ public class SubmissionRoute {
         description = "Retrieves the latest submission of the given assignment and group",
         responses = {
             @ApiResponse(responseCode = "200", description = "Submission is returned", content = {
-                @Content(array = @ArraySchema(schema = @Schema(implementation = FileDto.class)))}),
+                @Content(mediaType = MediaType.APPLICATION_JSON,
+                    array = @ArraySchema(schema = @Schema(implementation = FileDto.class))),
+                @Content(mediaType = ZipSubmissionReader.MEDIA_TYPE,
+                    schema = @Schema(type = "string", format = "binary"))}),
             @ApiResponse(responseCode = "403", description = "User is not authorized to retrieve a submission"),
             @ApiResponse(responseCode = "404",
                 description = "Assignment or group does not exist, or there is no version to retrieve"),
@@ -358,7 +801,37 @@ public class SubmissionRoute {
                 + " received");
         
         return getSubmission(authHeader, new SubmissionTarget(course, assignmentName, groupName),
-            versions -> versions.get(0));
+            versions -> versions.get(0), false);
+    }
+    
+    /**
+     * Retrieves the latest version of a submission as a zip archive. Selected by content negotiation, the
+     * documentation is part of {@link #getLatest(String, String, String, String)}.
+     * 
+     * @param course The identifier of the course of the assignment.
+     * @param assignmentName The name of the assignment to retrieve.
+     * @param groupName The name of the group to retrieve the latest submission of.
+     * @param authHeader The JWT token to authenticate the user.
+     * 
+     * @return A HTTP response with a zip archive as data.
+     */
+    @Operation(hidden = true)
+    @GET
+    @Path("/{course}/{assignment}/{group}/latest")
+    @Produces(ZIP_MEDIA_TYPE)
+    public Response getLatestZip(
+            @PathParam("course") String course,
+            @PathParam("assignment") String assignmentName,
+            @PathParam("group") String groupName,
+            @HeaderParam("Authorization") String authHeader)
+    
+            throws NoSuchTargetException, StorageException, UnauthorizedException  {
+        
+        LOGGER.info(() -> "Zip replay of latest version of " + course + "/" + assignmentName + "/" + groupName
+                + " received");
+        
+        return getSubmission(authHeader, new SubmissionTarget(course, assignmentName, groupName),
+            versions -> versions.get(0), true);
     }
     
     /**
@@ -376,7 +849,10 @@ public class SubmissionRoute {
         description = "Retrieves the specified submission of the given assignment and group",
         responses = {
             @ApiResponse(responseCode = "200", description = "Submission is returned", content = {
-                @Content(array = @ArraySchema(schema = @Schema(implementation = FileDto.class)))}),
+                @Content(mediaType = MediaType.APPLICATION_JSON,
+                    array = @ArraySchema(schema = @Schema(implementation = FileDto.class))),
+                @Content(mediaType = ZipSubmissionReader.MEDIA_TYPE,
+                    schema = @Schema(type = "string", format = "binary"))}),
             @ApiResponse(responseCode = "403", description = "User is not authorized to retrieve a submission"),
             @ApiResponse(responseCode = "404",
                 description = "Assignment or group does not exist, or the specified version does not exist"),
@@ -411,16 +887,127 @@ public class SubmissionRoute {
         LOGGER.info(() -> "Replay of version " + timestamp + " of " + course + "/" + assignmentName + "/" + groupName
                 + " received");
         
-        return getSubmission(authHeader, new SubmissionTarget(course, assignmentName, groupName), versions -> {
-            Version match = null;
-            for (Version version : versions) {
-                if (version.getCreationTime().getEpochSecond() == timestamp) {
-                    match = version;
-                    break;
-                }
+        SubmissionTarget target = new SubmissionTarget(course, assignmentName, groupName);
+        return getSubmission(authHeader, target,
+            versions -> storage.getVersion(target, timestamp).orElse(null), false);
+    }
+    
+    /**
+     * Retrieves a specific version of a submission as a zip archive. Selected by content negotiation, the
+     * documentation is part of {@link #getVersion(String, String, String, long, String)}.
+     * 
+     * @param course The identifier of the course of the assignment.
+     * @param assignmentName The name of the assignment to retrieve.
+     * @param groupName The name of the group to retrieve the submission of.
+     * @param timestamp The Unix timestamp identifying the version.
+     * @param authHeader The JWT token to authenticate the user.
+     * 
+     * @return A HTTP response with a zip archive as data.
+     */
+    @Operation(hidden = true)
+    @GET
+    @Path("/{course}/{assignment}/{group}/{version}")
+    @Produces(ZIP_MEDIA_TYPE)
+    public Response getVersionZip(
+            @PathParam("course") String course,
+            @PathParam("assignment") String assignmentName,
+            @PathParam("group") String groupName,
+            @PathParam("version") long timestamp,
+            @HeaderParam("Authorization") String authHeader)
+    
+            throws NoSuchTargetException, StorageException, UnauthorizedException  {
+        
+        LOGGER.info(() -> "Zip replay of version " + timestamp + " of " + course + "/" + assignmentName + "/"
+                + groupName + " received");
+        
+        SubmissionTarget target = new SubmissionTarget(course, assignmentName, groupName);
+        return getSubmission(authHeader, target,
+            versions -> storage.getVersion(target, timestamp).orElse(null), true);
+    }
+    
+    /**
+     * Callback to select the version to retrieve in {@link SubmissionRoute#getSubmission(String, SubmissionTarget,
+     * VersionSelector)}.
+     */
+    @FunctionalInterface
+    private interface VersionSelector {
+        
+        /**
+         * Selects a version.
+         * 
+         * @param versions All versions of the target, in reverse-chronological order. Has at least one item.
+         * 
+         * @return The selected version, or <code>null</code> if the wanted version is not available.
+         * 
+         * @throws NoSuchTargetException If the target does not exist.
+         * @throws StorageException If looking up the version in the storage fails.
+         */
+        public Version select(List<Version> versions) throws NoSuchTargetException, StorageException;
+        
+    }
+    
+    /**
+     * Creates a response with the files of the given version as a list of {@link FileDto}.
+     * 
+     * @param target The course, assignment, and group identifier to retrieve the submission of.
+     * @param version The version to retrieve.
+     * 
+     * @return A HTTP response with a list of {@link FileDto} as data.
+     * 
+     * @throws NoSuchTargetException If the version does not exist.
+     * @throws StorageException If reading the submission fails.
+     */
+    private Response createFilesResponse(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException {
+        
+        Submission submission = storage.getSubmission(target, version);
+        
+        List<FileDto> files = new LinkedList<>();
+        
+        for (java.nio.file.Path filepath : submission.getFilepaths()) {
+            files.add(new FileDto(
+                    filepath.toString().replace('\\', '/'),
+                    submission.getFileContent(filepath)));
+        }
+        
+        LOGGER.info(() -> "Returning submission version "
+                + version.getCreationTime().getEpochSecond() + " by " + submission.getAuthor());
+        
+        return Response.ok(files).build();
+    }
+    
+    /**
+     * Creates a response that streams the files of the given version as a zip archive. The files are read from the
+     * storage while the response is written, so the submission is never held in memory completely. This happens
+     * after the lock of the target is released, which is fine as stored versions are never modified.
+     * 
+     * @param target The course, assignment, and group identifier to retrieve the submission of.
+     * @param version The version to retrieve.
+     * 
+     * @return A HTTP response with a zip archive as data.
+     */
+    private Response createZipResponse(SubmissionTarget target, Version version) {
+        StreamingOutput output = out -> {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            try {
+                storage.streamFiles(target, version, (filepath, content) -> {
+                    zip.putNextEntry(new ZipEntry(filepath.toString().replace('\\', '/')));
+                    content.transferTo(zip);
+                    zip.closeEntry();
+                });
+            } catch (StorageException e) {
+                throw new IOException("Failed to stream submission", e);
             }
-            return match;
-        });
+            zip.finish();
+        };
+        
+        LOGGER.info(() -> "Streaming submission version " + version.getCreationTime().getEpochSecond() + " by "
+                + version.getAuthor() + " as zip archive");
+        
+        return Response.ok(output, ZipSubmissionReader.MEDIA_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + target.getGroupName() + "-"
+                        + version.getCreationTime().getEpochSecond() + ".zip\"")
+                .build();
     }
     
     /**
@@ -430,40 +1017,31 @@ public class SubmissionRoute {
      * @param target The course, assignment, and group identifier to retrieve the submission of.
      * @param versionSelector A callback function to decide which version to use. The given list always has at least one
      *      item. Return <code>null</code> to indicate that the wanted version is not available.
+     * @param asZip Whether to stream the submission as a zip archive instead of returning a list of {@link FileDto}.
      *      
-     * @return A HTTP response with a list of {@link FileDto} as data.
+     * @return A HTTP response with a list of {@link FileDto} or a zip archive as data.
      */
     private Response getSubmission(String authHeader, SubmissionTarget target,
-            Function<List<Version>, Version> versionSelector)
+            VersionSelector versionSelector, boolean asZip)
     
             throws NoSuchTargetException, StorageException, UnauthorizedException {
         
         String user = authenticate(authHeader);
+        authManager.checkReplayAllowed(user, target);
         
         Response response;
-        synchronized (LOCK) {
-            authManager.checkReplayAllowed(user, target);
-            
+        try (TargetLockManager.LockHandle lock = LOCKS.lockTarget(target)) {
             List<Version> versions = storage.getVersions(target);
             if (!versions.isEmpty()) {
                 
-                Version selectedVersion = versionSelector.apply(versions);
+                Version selectedVersion = versionSelector.select(versions);
                 if (selectedVersion != null) {
-                    Submission submission = storage.getSubmission(target, selectedVersion);
-                    
-                    List<FileDto> files = new LinkedList<>();
-                    
-                    for (java.nio.file.Path filepath : submission.getFilepaths()) {
-                        files.add(new FileDto(
-                                filepath.toString().replace('\\', '/'),
-                                submission.getFileContent(filepath)));
+                    if (asZip) {
+                        response = createZipResponse(target, selectedVersion);
+                    } else {
+                        response = createFilesResponse(target, selectedVersion);
                     }
                     
-                    LOGGER.info(() -> "Returning submission version "
-                            + selectedVersion.getCreationTime().getEpochSecond() + " by " + submission.getAuthor());
-                    
-                    response = Response.ok(files).build();
-                    
                 } else {
                     LOGGER.info(() -> "Requested version does not exist");
                     
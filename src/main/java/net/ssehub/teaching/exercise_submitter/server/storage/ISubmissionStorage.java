@@ -1,6 +1,12 @@
 package net.ssehub.teaching.exercise_submitter.server.storage;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.CollaborationEnum;
 import net.ssehub.studentmgmt.backend_api.model.ParticipantDto.RoleEnum;
@@ -60,6 +66,25 @@ public interface ISubmissionStorage {
     public List<Version> getVersions(SubmissionTarget target)
             throws NoSuchTargetException, StorageException;
     
+    /**
+     * Returns the version with the given timestamp that has been submitted to the given assignment for the given
+     * group. The default implementation searches the result of {@link #getVersions(SubmissionTarget)}.
+     * 
+     * @param target The assignment and group to get the version for.
+     * @param timestamp The Unix timestamp (in seconds) of the creation time of the version.
+     * 
+     * @return The version, or {@link Optional#empty()} if no version with this timestamp exists.
+     * 
+     * @throws NoSuchTargetException If the given target does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public default Optional<Version> getVersion(SubmissionTarget target, long timestamp)
+            throws NoSuchTargetException, StorageException {
+        return getVersions(target).stream()
+                .filter(version -> version.getCreationTime().getEpochSecond() == timestamp)
+                .findFirst();
+    }
+    
     /**
      * Retrieves the submission of the given assignment and group.
      * 
@@ -74,9 +99,52 @@ public interface ISubmissionStorage {
     public Submission getSubmission(SubmissionTarget target, Version version)
             throws NoSuchTargetException, StorageException;
     
+    /**
+     * Passes the files of the given version to the consumer, one at a time. Storages should read the content of each
+     * file only while it is consumed, so that the submission never has to be held in memory completely. The default
+     * implementation reads the whole submission with {@link #getSubmission(SubmissionTarget, Version)}.
+     * 
+     * @param target The assignment and group to get the files for.
+     * @param version The version to get the files of.
+     * @param consumer The consumer to pass the files to.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend, or the consumer failed.
+     */
+    public default void streamFiles(SubmissionTarget target, Version version, SubmissionFileConsumer consumer)
+            throws NoSuchTargetException, StorageException {
+        
+        Submission submission = getSubmission(target, version);
+        try {
+            for (Path filepath : submission.getFilepaths()) {
+                consumer.accept(filepath, new ByteArrayInputStream(submission.getFileContent(filepath)));
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    /**
+     * Returns the fingerprint of the content of the given version. Storages should persist the fingerprint when the
+     * version is written, so that this does not need to read the files of the version. The default implementation
+     * calculates it from {@link #getSubmission(SubmissionTarget, Version)}.
+     * 
+     * @param target The assignment and group to get the fingerprint for.
+     * @param version The version to get the fingerprint of.
+     * 
+     * @return The fingerprint of the version.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public default SubmissionFingerprint getFingerprint(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException {
+        return getSubmission(target, version).getFingerprint();
+    }
+    
     /**
      * Calls {@link #createOrUpdateAssignment(String, String, String...)} as necessary to create all assignments and
-     * groups.
+     * groups. This is called after every update of the view, and may be called concurrently.
      * 
      * @param view The student management system view to create everything for.
      * 
@@ -86,24 +154,44 @@ public interface ISubmissionStorage {
         
         for (Course course : view.getCourses()) {
             for (Assignment assignment : course.getAssignments()) {
-                if (assignment.getCollaboration() == CollaborationEnum.SINGLE
-                        || assignment.getCollaboration() == CollaborationEnum.GROUP_OR_SINGLE) {
-                    
-                    createOrUpdateAssignment(course.getId(), assignment.getName(), course.getParticipants().stream()
-                            .filter(p -> p.getRole() == RoleEnum.STUDENT)
-                            .map(Participant::getName)
-                            .toArray(s -> new String[s]));
-                }
-                
-                if (assignment.getCollaboration() == CollaborationEnum.GROUP
-                        || assignment.getCollaboration() == CollaborationEnum.GROUP_OR_SINGLE) {
-                    
-                    createOrUpdateAssignment(course.getId(), assignment.getName(), assignment.getGroups().stream()
-                            .map(Group::getName)
-                            .toArray(s -> new String[s]));
+                if (assignment.getCollaboration() != null) {
+                    createOrUpdateAssignment(course.getId(), assignment.getName(),
+                            getGroupNames(course, assignment).toArray(s -> new String[s]));
                 }
             }
         }
     }
     
+    /**
+     * Returns the names of the groups that the storage needs for the given assignment: all students of the course for
+     * assignments that can be submitted alone, and all registered groups for group assignments.
+     * 
+     * @param course The course of the assignment.
+     * @param assignment The assignment.
+     * 
+     * @return The names of the groups.
+     */
+    public static Set<String> getGroupNames(Course course, Assignment assignment) {
+        Set<String> result = new HashSet<>();
+        
+        if (assignment.getCollaboration() == CollaborationEnum.SINGLE
+                || assignment.getCollaboration() == CollaborationEnum.GROUP_OR_SINGLE) {
+            
+            course.getParticipants().stream()
+                    .filter(p -> p.getRole() == RoleEnum.STUDENT)
+                    .map(Participant::getName)
+                    .forEach(result::add);
+        }
+        
+        if (assignment.getCollaboration() == CollaborationEnum.GROUP
+                || assignment.getCollaboration() == CollaborationEnum.GROUP_OR_SINGLE) {
+            
+            assignment.getGroups().stream()
+                    .map(Group::getName)
+                    .forEach(result::add);
+        }
+        
+        return result;
+    }
+    
 }
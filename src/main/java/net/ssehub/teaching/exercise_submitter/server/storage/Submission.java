@@ -3,6 +3,7 @@ package net.ssehub.teaching.exercise_submitter.server.storage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -19,6 +20,8 @@ public class Submission {
     
     private Map<Path, byte[]> files;
     
+    private SubmissionFingerprint fingerprint;
+    
     /**
      * Creates a submission. Called by {@link SubmissionBuilder}.
      * 
@@ -50,6 +53,27 @@ public class Submission {
         return files.keySet();
     }
     
+    /**
+     * Returns all files of this submission.
+     * 
+     * @return An unmodifiable map from the relative filepath of each file to its content.
+     */
+    public Map<Path, byte[]> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+    
+    /**
+     * Returns the fingerprint of the content of this submission. It is calculated on the first call.
+     * 
+     * @return The fingerprint of this submission.
+     */
+    public synchronized SubmissionFingerprint getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = SubmissionFingerprint.of(this);
+        }
+        return fingerprint;
+    }
+    
     /**
      * Returns the number of files that are in this submission.
      * 
@@ -0,0 +1,27 @@
+package net.ssehub.teaching.exercise_submitter.server.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Receives the files of a stored version one at a time, see
+ * {@link ISubmissionStorage#streamFiles(SubmissionTarget, Version, SubmissionFileConsumer)}.
+ * 
+ * @author Adam
+ */
+@FunctionalInterface
+public interface SubmissionFileConsumer {
+
+    /**
+     * Consumes a single file. The content stream is only valid during this call and is closed by the storage
+     * afterwards.
+     * 
+     * @param filepath The relative path of the file in the submission.
+     * @param content The content of the file.
+     * 
+     * @throws IOException If reading or processing the content fails.
+     */
+    public void accept(Path filepath, InputStream content) throws IOException;
+    
+}
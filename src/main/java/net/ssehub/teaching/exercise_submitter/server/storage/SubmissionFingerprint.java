@@ -0,0 +1,204 @@
+package net.ssehub.teaching.exercise_submitter.server.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * A fingerprint of the content of a {@link Submission}: the SHA-256 hash of each file, and an aggregate hash over
+ * all filepaths and file hashes. Two submissions with the same files (same relative paths and contents) have equal
+ * fingerprints. Storages can persist this next to a version, so that it can be compared without reading the files.
+ * <p>
+ * The fingerprint can be serialized to a simple text format: one line per file, with the hash and the relative path
+ * (with <code>/</code> as separator) separated by a space. Line breaks and <code>%</code> in the path are
+ * percent-encoded. The lines are sorted by path.
+ * 
+ * @author Adam
+ */
+public class SubmissionFingerprint {
+    
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    
+    private Map<Path, String> fileHashes;
+    
+    private String serialized;
+    
+    private String aggregateHash;
+    
+    /**
+     * Creates a fingerprint from the given file hashes.
+     * 
+     * @param fileHashes The SHA-256 hash (as lower-case hex string) of each file, by the relative path of the file.
+     * 
+     * @throws IllegalArgumentException If a hash is malformed.
+     */
+    public SubmissionFingerprint(Map<Path, String> fileHashes) throws IllegalArgumentException {
+        Map<String, String> sorted = new TreeMap<>();
+        for (Map.Entry<Path, String> file : fileHashes.entrySet()) {
+            if (!HASH_PATTERN.matcher(file.getValue()).matches()) {
+                throw new IllegalArgumentException("Malformed hash for " + file.getKey() + ": " + file.getValue());
+            }
+            sorted.put(toSerializedPath(file.getKey()), file.getValue());
+        }
+        
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> file : sorted.entrySet()) {
+            builder.append(file.getValue()).append(' ').append(file.getKey()).append('\n');
+        }
+        
+        this.fileHashes = Collections.unmodifiableMap(new HashMap<>(fileHashes));
+        this.serialized = builder.toString();
+        this.aggregateHash = hash(this.serialized.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Calculates the fingerprint of the given submission. This hashes the content of all files.
+     * 
+     * @param submission The submission.
+     * 
+     * @return The fingerprint of the submission.
+     */
+    public static SubmissionFingerprint of(Submission submission) {
+        Map<Path, String> fileHashes = new HashMap<>();
+        for (Map.Entry<Path, byte[]> file : submission.getFiles().entrySet()) {
+            fileHashes.put(file.getKey(), hash(file.getValue()));
+        }
+        return new SubmissionFingerprint(fileHashes);
+    }
+    
+    /**
+     * Parses a fingerprint from its serialized form.
+     * 
+     * @param serialized The serialized fingerprint, as created by {@link #serialize()}.
+     * 
+     * @return The fingerprint.
+     * 
+     * @throws IllegalArgumentException If the serialized fingerprint is malformed.
+     */
+    public static SubmissionFingerprint parse(String serialized) throws IllegalArgumentException {
+        Map<Path, String> fileHashes = new HashMap<>();
+        for (String line : serialized.split("\n")) {
+            if (!line.isEmpty()) {
+                int space = line.indexOf(' ');
+                if (space == -1) {
+                    throw new IllegalArgumentException("Malformed line in fingerprint: " + line);
+                }
+                fileHashes.put(fromSerializedPath(line.substring(space + 1)), line.substring(0, space));
+            }
+        }
+        return new SubmissionFingerprint(fileHashes);
+    }
+    
+    /**
+     * Returns the hashes of all files.
+     * 
+     * @return An unmodifiable map from the relative filepath of each file to the SHA-256 hash of its content (as
+     *      lower-case hex string).
+     */
+    public Map<Path, String> getFileHashes() {
+        return fileHashes;
+    }
+    
+    /**
+     * Returns the aggregate hash over all filepaths and file hashes.
+     * 
+     * @return The aggregate SHA-256 hash, as lower-case hex string.
+     */
+    public String getAggregateHash() {
+        return aggregateHash;
+    }
+    
+    /**
+     * Serializes this fingerprint. Inverse operation to {@link #parse(String)}.
+     * 
+     * @return The serialized fingerprint.
+     */
+    public String serialize() {
+        return serialized;
+    }
+    
+    /**
+     * Calculates the SHA-256 hash of the given content.
+     * 
+     * @param content The content to hash.
+     * 
+     * @return The hash as lower-case hex string.
+     */
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Converts a relative filepath to the serialized format, i.e. with <code>/</code> as separator and line breaks
+     * encoded.
+     * 
+     * @param filepath The relative filepath.
+     * 
+     * @return The path as written in the serialized fingerprint.
+     */
+    private static String toSerializedPath(Path filepath) {
+        StringJoiner result = new StringJoiner("/");
+        for (Path element : filepath) {
+            result.add(element.toString().replace("%", "%25").replace("\n", "%0A").replace("\r", "%0D"));
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Converts a path from the serialized format back to a relative filepath. Inverse operation to
+     * {@link #toSerializedPath(Path)}.
+     * 
+     * @param serializedPath The path as written in the serialized fingerprint.
+     * 
+     * @return The relative filepath.
+     * 
+     * @throws IllegalArgumentException If the path is not a valid path.
+     */
+    private static Path fromSerializedPath(String serializedPath) throws IllegalArgumentException {
+        try {
+            return Path.of(serializedPath.replace("%0D", "\r").replace("%0A", "\n").replace("%25", "%"));
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+    
+    /**
+     * Compares the aggregate hashes of the fingerprints.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SubmissionFingerprint)) {
+            return false;
+        }
+        SubmissionFingerprint other = (SubmissionFingerprint) obj;
+        return aggregateHash.equals(other.aggregateHash);
+    }
+    
+    @Override
+    public int hashCode() {
+        return aggregateHash.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "SubmissionFingerprint [aggregateHash=" + aggregateHash + ", numFiles=" + fileHashes.size() + "]";
+    }
+
+}
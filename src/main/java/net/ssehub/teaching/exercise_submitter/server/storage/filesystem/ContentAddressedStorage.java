@@ -0,0 +1,323 @@
+package net.ssehub.teaching.exercise_submitter.server.storage.filesystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFileConsumer;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFingerprint;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
+
+/**
+ * A {@link FilesystemStorage} that stores each distinct file content only once. The content of all files is stored
+ * as blobs named after their SHA-256 hash in the shared {@value #OBJECTS_DIRECTORY} directory in the base directory.
+ * Instead of a directory, each version is a manifest file that lists the hash and relative path of every file in the
+ * version; this is the serialized {@link SubmissionFingerprint} of the version. Thus, files that did not change
+ * between versions (or are equal in different groups or assignments) do not take up additional space.
+ * <p>
+ * Blobs are never deleted, as versions are never deleted either.
+ * <p>
+ * Version directories of a {@link FilesystemStorage} are still read, so an existing {@link FilesystemStorage} can be
+ * used directly with this class. {@link #migrate()} converts them to manifests.
+ * 
+ * @author Adam
+ */
+public class ContentAddressedStorage extends FilesystemStorage {
+    
+    /**
+     * The name of the directory in the base directory that holds the blobs.
+     */
+    public static final String OBJECTS_DIRECTORY = ".objects";
+    
+    private static final Logger LOGGER = Logger.getLogger(ContentAddressedStorage.class.getName());
+    
+    private static final String LEGACY_SUFFIX = ".legacy";
+    
+    private Path objectsDirectory;
+    
+    /**
+     * Creates a new {@link ContentAddressedStorage} with the given base directory. The directory must exist. If it is
+     * not empty, the content must conform to the layout of this storage or of a {@link FilesystemStorage}.
+     * 
+     * @param baseDirectory The base directory.
+     * 
+     * @throws IOException If the given base directory is not a directory, or creating the objects directory fails.
+     */
+    public ContentAddressedStorage(Path baseDirectory) throws IOException {
+        super(baseDirectory);
+        
+        this.objectsDirectory = baseDirectory.resolve(OBJECTS_DIRECTORY);
+        Files.createDirectories(objectsDirectory);
+    }
+    
+    /**
+     * Writes the blobs of all files in the submission that are not stored yet, and then the manifest of the version.
+     * The manifest is first written to a hidden temporary file and then moved, so that incomplete versions are never
+     * visible.
+     */
+    @Override
+    protected void writeVersion(Path versionPath, Submission submission) throws IOException {
+        SubmissionFingerprint fingerprint = submission.getFingerprint();
+        int newBlobs = 0;
+        
+        for (Map.Entry<Path, byte[]> file : submission.getFiles().entrySet()) {
+            if (writeBlob(fingerprint.getFileHashes().get(file.getKey()), file.getValue())) {
+                newBlobs++;
+            }
+        }
+        
+        Path temporaryManifest = Files.createTempFile(versionPath.getParent(), ".", ".manifest");
+        try {
+            Files.writeString(temporaryManifest, fingerprint.serialize(), StandardCharsets.UTF_8);
+            Files.move(temporaryManifest, versionPath, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryManifest);
+        }
+        
+        int numNewBlobs = newBlobs;
+        LOGGER.fine(() -> "Stored version " + versionPath.getFileName() + " with " + submission.getNumFiles()
+                + " files, " + numNewBlobs + " of them new");
+    }
+    
+    /**
+     * Writes a blob to the objects directory, if it does not exist yet.
+     * 
+     * @param hash The hash of the content.
+     * @param content The content of the blob.
+     * 
+     * @return Whether the blob was written; <code>false</code> if it was already stored.
+     * 
+     * @throws IOException If writing the blob fails.
+     */
+    private boolean writeBlob(String hash, byte[] content) throws IOException {
+        Path blob = getBlobPath(hash);
+        boolean written = false;
+        
+        if (!Files.exists(blob)) {
+            Files.createDirectories(blob.getParent());
+            
+            // write to a temporary file first, so that concurrent readers never see a partial blob
+            Path temporaryBlob = Files.createTempFile(blob.getParent(), ".", ".tmp");
+            try {
+                Files.write(temporaryBlob, content);
+                Files.move(temporaryBlob, blob, StandardCopyOption.ATOMIC_MOVE);
+                written = true;
+                
+            } catch (IOException e) {
+                // a concurrent submission may have stored the same content in the meantime
+                if (!Files.exists(blob)) {
+                    throw e;
+                }
+            } finally {
+                Files.deleteIfExists(temporaryBlob);
+            }
+        }
+        
+        return written;
+    }
+    
+    @Override
+    protected boolean isVersion(Path versionPath) {
+        return Files.isRegularFile(versionPath) || super.isVersion(versionPath);
+    }
+    
+    @Override
+    protected Submission readVersion(Path versionPath, String author) throws IOException {
+        Submission result;
+        
+        if (Files.isRegularFile(versionPath)) {
+            SubmissionBuilder builder = new SubmissionBuilder(author);
+            
+            for (Map.Entry<Path, String> file : readManifest(versionPath).getFileHashes().entrySet()) {
+                builder.addFile(file.getKey(), Files.readAllBytes(getBlobPath(file.getValue())));
+            }
+            
+            result = builder.build();
+            
+        } else {
+            // not migrated yet
+            result = super.readVersion(versionPath, author);
+        }
+        
+        return result;
+    }
+    
+    @Override
+    protected void streamVersion(Path versionPath, SubmissionFileConsumer consumer) throws IOException {
+        if (Files.isRegularFile(versionPath)) {
+            for (Map.Entry<Path, String> file : readManifest(versionPath).getFileHashes().entrySet()) {
+                try (InputStream content = Files.newInputStream(getBlobPath(file.getValue()))) {
+                    consumer.accept(file.getKey(), content);
+                }
+            }
+            
+        } else {
+            // not migrated yet
+            super.streamVersion(versionPath, consumer);
+        }
+    }
+    
+    /**
+     * Reads the fingerprint from the manifest of a version, without reading any blobs.
+     */
+    @Override
+    protected SubmissionFingerprint readFingerprint(Path versionPath, String author) throws IOException {
+        SubmissionFingerprint result;
+        if (Files.isRegularFile(versionPath)) {
+            result = readManifest(versionPath);
+        } else {
+            result = super.readFingerprint(versionPath, author);
+        }
+        return result;
+    }
+    
+    /**
+     * Reads the manifest of a version.
+     * 
+     * @param versionPath The path of the manifest in the group directory.
+     * 
+     * @return The fingerprint stored in the manifest.
+     * 
+     * @throws IOException If reading the manifest fails or it is malformed.
+     */
+    private static SubmissionFingerprint readManifest(Path versionPath) throws IOException {
+        try {
+            return SubmissionFingerprint.parse(Files.readString(versionPath, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Malformed manifest " + versionPath, e);
+        }
+    }
+    
+    /**
+     * Converts all version directories of a {@link FilesystemStorage} in the base directory to manifests. Must not be
+     * called while other operations run on this storage.
+     * <p>
+     * Each version directory is first renamed to a hidden backup, which is only deleted after the manifest is written.
+     * If the migration is interrupted, calling this method again continues with the remaining backups.
+     * 
+     * @return The number of migrated versions.
+     * 
+     * @throws IOException If reading the directories or migrating a version fails.
+     */
+    public int migrate() throws IOException {
+        int migrated = 0;
+        
+        for (Path course : listVisibleDirectories(getBaseDirectory())) {
+            for (Path assignment : listVisibleDirectories(course)) {
+                for (Path group : listVisibleDirectories(assignment)) {
+                    migrated += migrateGroup(group);
+                }
+            }
+        }
+        
+        int numMigrated = migrated;
+        LOGGER.info(() -> "Migrated " + numMigrated + " versions to content-addressed storage");
+        
+        return migrated;
+    }
+    
+    /**
+     * Migrates all version directories in the given group directory.
+     * 
+     * @param group The group directory.
+     * 
+     * @return The number of migrated versions.
+     * 
+     * @throws IOException If migrating a version fails.
+     */
+    private int migrateGroup(Path group) throws IOException {
+        int migrated = 0;
+        
+        List<Path> entries;
+        try (Stream<Path> stream = Files.list(group)) {
+            entries = stream.filter(Files::isDirectory).collect(Collectors.toCollection(LinkedList::new));
+        }
+        
+        for (Path entry : entries) {
+            String name = entry.getFileName().toString();
+            
+            if (!name.startsWith(".")) {
+                Path backup = group.resolve("." + name + LEGACY_SUFFIX);
+                Files.move(entry, backup, StandardCopyOption.ATOMIC_MOVE);
+                migrateVersion(backup, entry);
+                migrated++;
+                
+            } else if (name.endsWith(LEGACY_SUFFIX)) {
+                // left over from an interrupted migration
+                Path versionPath = group.resolve(name.substring(1, name.length() - LEGACY_SUFFIX.length()));
+                if (!Files.exists(versionPath)) {
+                    migrateVersion(entry, versionPath);
+                    migrated++;
+                } else {
+                    FileUtils.deleteDirectory(entry);
+                }
+            }
+        }
+        
+        return migrated;
+    }
+    
+    /**
+     * Migrates a single version directory to a manifest.
+     * 
+     * @param versionDirectory The (renamed) directory of the version.
+     * @param versionPath The path to write the manifest of the version to.
+     * 
+     * @throws IOException If migrating the version fails.
+     */
+    private void migrateVersion(Path versionDirectory, Path versionPath) throws IOException {
+        String author;
+        try {
+            author = filenameToVersion(versionPath.getFileName().toString()).getAuthor();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid version directory " + versionPath, e);
+        }
+        
+        writeVersion(versionPath, super.readVersion(versionDirectory, author));
+        FileUtils.deleteDirectory(versionDirectory);
+        // the manifest holds the fingerprint now
+        Files.deleteIfExists(getFingerprintPath(versionPath));
+    }
+    
+    /**
+     * Lists all sub-directories of the given directory whose name does not start with a dot.
+     * 
+     * @param directory The directory to list.
+     * 
+     * @return The visible sub-directories.
+     * 
+     * @throws IOException If listing the directory fails.
+     */
+    private static List<Path> listVisibleDirectories(Path directory) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream
+                    .filter(Files::isDirectory)
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .collect(Collectors.toCollection(LinkedList::new));
+        }
+    }
+    
+    /**
+     * Returns the path of the blob with the given hash. The first two characters of the hash are used as a
+     * sub-directory, to keep the number of files per directory low.
+     * 
+     * @param hash The hash of the blob.
+     * 
+     * @return The path to the blob in the objects directory.
+     */
+    private Path getBlobPath(String hash) {
+        return objectsDirectory.resolve(hash.substring(0, 2)).resolve(hash.substring(2));
+    }
+
+}
@@ -1,32 +1,74 @@
 package net.ssehub.teaching.exercise_submitter.server.storage.filesystem;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
-import java.util.Comparator;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
 import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFileConsumer;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFingerprint;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
 import net.ssehub.teaching.exercise_submitter.server.storage.Version;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
 
 /**
  * An implementation that stores the submissions on the regular filesystem. For each new submitted version, a
- * sub-folder named after the unix-timestamp and the author name is created.
+ * sub-folder named after the unix-timestamp and the author name is created. The {@link SubmissionFingerprint} of
+ * each version is stored in a file at the same relative path in the hidden {@value #FINGERPRINTS_DIRECTORY}
+ * directory, so that the group directories only contain the versions.
+ * <p>
+ * The versions of each group are kept in a {@link VersionIndex}, so that listing and looking up versions does not
+ * list the group directory on every request. Similarly, the group directories that were created are remembered, so
+ * that {@link #createOrUpdateAssignmentsFromView(StuMgmtView)} only touches the filesystem for new groups.
  *  
  * @author Adam
  */
 public class FilesystemStorage implements ISubmissionStorage {
     
+    /**
+     * The name of the directory in the base directory that holds the fingerprints of all versions.
+     */
+    public static final String FINGERPRINTS_DIRECTORY = ".fingerprints";
+    
+    private static final Logger LOGGER = Logger.getLogger(FilesystemStorage.class.getName());
+    
     private Path baseDirectory;
     
+    private VersionIndex versionIndex;
+    
+    /**
+     * The group directories that are known to exist, by the paths of their assignment directories. Only contains the
+     * assignments and groups of the last view passed to {@link #createOrUpdateAssignmentsFromView(StuMgmtView)}. Also
+     * used as the lock that serializes that method.
+     */
+    private Map<Path, Set<String>> knownGroups;
+    
     /**
      * Creates a new {@link FilesystemStorage} with the given base directory. The directory must exist. If it is not
      * empty, the content must conform to the layout of this filesystem storage.
@@ -41,6 +83,17 @@ public class FilesystemStorage implements ISubmissionStorage {
         }
         
         this.baseDirectory = baseDirectory;
+        this.versionIndex = new VersionIndex(baseDirectory);
+        this.knownGroups = new HashMap<>();
+    }
+    
+    /**
+     * Returns the base directory of this storage.
+     * 
+     * @return The base directory.
+     */
+    protected Path getBaseDirectory() {
+        return baseDirectory;
     }
     
     /**
@@ -55,6 +108,32 @@ public class FilesystemStorage implements ISubmissionStorage {
         return baseDirectory.resolve(Path.of(course, assignmentName));
     }
     
+    /**
+     * Returns the {@link VersionIndex} entry of the given target. If it is not loaded yet, it is loaded from the
+     * group directory.
+     * 
+     * @param target The target that specifies course, assignment, and group.
+     * 
+     * @return The entry with the versions of the target.
+     * 
+     * @throws NoSuchTargetException If the target directory does not exist.
+     * @throws StorageException If loading the versions fails.
+     */
+    private VersionIndex.Entry getIndexEntry(SubmissionTarget target) throws NoSuchTargetException, StorageException {
+        VersionIndex.Entry result = versionIndex.get(target);
+        
+        if (result == null) {
+            Path groupDir = getExistingGroupPath(target);
+            try {
+                result = versionIndex.load(target, groupDir);
+            } catch (IllegalArgumentException | IOException e) {
+                throw new StorageException(e);
+            }
+        }
+        
+        return result;
+    }
+    
     /**
      * Creates the path to a group directory inside an assignment. Also checks that the directory exists.
      * 
@@ -64,7 +143,7 @@ public class FilesystemStorage implements ISubmissionStorage {
      * 
      * @throws NoSuchTargetException If the target directory does not exist.
      */
-    private Path getExistingGroupPath(SubmissionTarget target) throws NoSuchTargetException {
+    protected Path getExistingGroupPath(SubmissionTarget target) throws NoSuchTargetException {
         Path path = baseDirectory.resolve(
                 Path.of(target.getCourse(), target.getAssignmentName(), target.getGroupName()));
         if (!Files.isDirectory(path)) {
@@ -78,20 +157,86 @@ public class FilesystemStorage implements ISubmissionStorage {
             throws StorageException {
         
         try {
-            Path assignmentPath = getAssignmentPath(course, assignmentName);
-            if (!Files.isDirectory(assignmentPath)) {
-                Files.createDirectories(assignmentPath);
-            }
+            createGroupDirectories(getAssignmentPath(course, assignmentName), Arrays.asList(newGroupNames));
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
             
-            for (String groupName : newGroupNames) {
-                Path groupDir = assignmentPath.resolve(groupName);
-                if (!Files.isDirectory(groupDir)) {
-                    Files.createDirectory(groupDir);
+    /**
+     * Creates the directories of all assignments and groups in the given view. Only the groups that were not created
+     * by a previous call are created; the directories of different assignments are created in parallel. Assignments
+     * and groups that are no longer in the view are forgotten, so they are created again if they come back.
+     * 
+     * @param view The student management system view to create everything for.
+     * 
+     * @throws StorageException If creating a directory fails. The directories of other assignments are still created.
+     */
+    @Override
+    public void createOrUpdateAssignmentsFromView(StuMgmtView view) throws StorageException {
+        synchronized (knownGroups) {
+            Map<Path, Set<String>> missing = new HashMap<>();
+            Set<Path> assignmentPaths = new HashSet<>();
+            for (Course course : view.getCourses()) {
+                for (Assignment assignment : course.getAssignments()) {
+                    if (assignment.getCollaboration() != null) {
+                        Path assignmentPath = getAssignmentPath(course.getId(), assignment.getName());
+                        assignmentPaths.add(assignmentPath);
+                        Set<String> known = knownGroups.get(assignmentPath);
+                        
+                        Set<String> groupNames = ISubmissionStorage.getGroupNames(course, assignment);
+                        if (known != null) {
+                            known.retainAll(groupNames);
+                            groupNames.removeAll(known);
+                        }
+                        if (known == null || !groupNames.isEmpty()) {
+                            missing.put(assignmentPath, groupNames);
+                        }
+                    }
                 }
             }
             
-        } catch (IOException e) {
-            throw new StorageException(e);
+            knownGroups.keySet().retainAll(assignmentPaths);
+            
+            Map<Path, Set<String>> created = new ConcurrentHashMap<>();
+            List<IOException> failures = Collections.synchronizedList(new LinkedList<>());
+            missing.entrySet().parallelStream().forEach(entry -> {
+                try {
+                    createGroupDirectories(entry.getKey(), entry.getValue());
+                    created.put(entry.getKey(), entry.getValue());
+                } catch (IOException e) {
+                    failures.add(e);
+                }
+            });
+            
+            created.forEach((assignmentPath, groupNames) ->
+                    knownGroups.computeIfAbsent(assignmentPath, path -> new HashSet<>()).addAll(groupNames));
+            
+            LOGGER.fine(() -> "Created directories for " + created.size() + " of " + missing.size()
+                    + " assignments with new groups");
+            
+            if (!failures.isEmpty()) {
+                StorageException exception = new StorageException("Failed to create directories for "
+                        + failures.size() + " assignments", failures.get(0));
+                failures.stream().skip(1).forEach(exception::addSuppressed);
+                throw exception;
+            }
+        }
+    }
+    
+    /**
+     * Creates an assignment directory and group directories inside it. Directories that already exist are left as-is.
+     * 
+     * @param assignmentPath The path to the assignment directory.
+     * @param groupNames The names of the group directories to create.
+     * 
+     * @throws IOException If creating a directory fails.
+     */
+    private static void createGroupDirectories(Path assignmentPath, Collection<String> groupNames)
+            throws IOException {
+        Files.createDirectories(assignmentPath);
+        for (String groupName : groupNames) {
+            Files.createDirectories(assignmentPath.resolve(groupName));
         }
     }
     
@@ -100,46 +245,112 @@ public class FilesystemStorage implements ISubmissionStorage {
     public void submitNewVersion(SubmissionTarget target, Submission submission)
             throws NoSuchTargetException, StorageException {
         
-        Path groupDir = getExistingGroupPath(target);
+        VersionIndex.Entry entry;
+        try {
+            entry = getIndexEntry(target);
+        } catch (NoSuchTargetException e) {
+            forgetGroup(target);
+            throw e;
+        }
         
-        Version newVersion = new Version(submission.getAuthor(), Instant.now());
+        // versions are stored with a precision of seconds
+        Version newVersion = new Version(submission.getAuthor(), Instant.now().truncatedTo(ChronoUnit.SECONDS));
         long newTimestamp = newVersion.getCreationTime().getEpochSecond();
         
-        try {
-            boolean versionAlreadyExists = Files.list(groupDir)
-                .map(Path::getFileName)
-                .map(Path::toString)
-                .anyMatch(filename -> filename.startsWith(Long.toString(newTimestamp) + '_'));
-            if (versionAlreadyExists) {
-                throw new StorageException("Version already exists");
-            }
+        if (entry.getVersion(newTimestamp).isPresent()) {
+            throw new StorageException("Version already exists");
+        }
         
-            Path versionDir = groupDir.resolve(versionToFilename(newVersion));
-            Files.createDirectory(versionDir);
-            submission.writeToDirectory(versionDir);
-            
+        try {
+            writeVersion(entry.getGroupDirectory().resolve(versionToFilename(newVersion)), submission);
         } catch (IOException e) {
+            if (!Files.isDirectory(entry.getGroupDirectory())) {
+                forgetGroup(target);
+            }
             throw new StorageException(e);
         }
         
+        versionIndex.add(entry, newVersion);
     }
     
-    @Override
-    public List<Version> getVersions(SubmissionTarget target) throws NoSuchTargetException, StorageException {
-        Path groupDir = getExistingGroupPath(target);
-        
+    /**
+     * Removes the group directory of the given target from the known groups, e.g. because it was deleted from
+     * outside. The next call to {@link #createOrUpdateAssignmentsFromView(StuMgmtView)} creates it again.
+     * 
+     * @param target The target whose group directory does not exist.
+     */
+    private void forgetGroup(SubmissionTarget target) {
+        synchronized (knownGroups) {
+            Set<String> known = knownGroups.get(getAssignmentPath(target.getCourse(), target.getAssignmentName()));
+            if (known != null) {
+                known.remove(target.getGroupName());
+            }
+        }
+    }
+    
+    /**
+     * Writes the files of a new version to the storage. This implementation creates a directory for the version and
+     * writes the files into it.
+     * 
+     * @param versionPath The path of the new version in the group directory. Does not exist yet.
+     * @param submission The submission to write.
+     * 
+     * @throws IOException If writing the version fails.
+     */
+    protected void writeVersion(Path versionPath, Submission submission) throws IOException {
+        Files.createDirectory(versionPath);
+        submission.writeToDirectory(versionPath);
+        writeFingerprint(versionPath, submission.getFingerprint());
+    }
+    
+    /**
+     * Returns the path of the file that stores the fingerprint of the given version.
+     * 
+     * @param versionPath The path of the version in the group directory.
+     * 
+     * @return The path to the fingerprint file of the version.
+     */
+    protected Path getFingerprintPath(Path versionPath) {
+        return baseDirectory.resolve(FINGERPRINTS_DIRECTORY).resolve(baseDirectory.relativize(versionPath));
+    }
+    
+    /**
+     * Writes the fingerprint file of a version. Failures are only logged, as the fingerprint can be calculated from
+     * the version again.
+     * 
+     * @param versionPath The path of the version in the group directory.
+     * @param fingerprint The fingerprint of the version.
+     */
+    private void writeFingerprint(Path versionPath, SubmissionFingerprint fingerprint) {
         try {
-            return Files.list(groupDir)
-                    .map(p -> p.getFileName().toString())
-                    .map(FilesystemStorage::filenameToVersion)
-                    .sorted(Comparator.comparing(Version::getCreationTime).reversed())
-                    .collect(Collectors.toList());
+            Path fingerprintFile = getFingerprintPath(versionPath);
+            Files.createDirectories(fingerprintFile.getParent());
             
-        } catch (IllegalArgumentException | IOException e) {
-            throw new StorageException(e);
+            Path temporaryFile = Files.createTempFile(fingerprintFile.getParent(), ".", ".tmp");
+            try {
+                Files.writeString(temporaryFile, fingerprint.serialize(), StandardCharsets.UTF_8);
+                Files.move(temporaryFile, fingerprintFile, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write fingerprint of " + versionPath, e);
         }
     }
     
+    @Override
+    public List<Version> getVersions(SubmissionTarget target) throws NoSuchTargetException, StorageException {
+        return getIndexEntry(target).getVersions();
+    }
+    
+    @Override
+    public Optional<Version> getVersion(SubmissionTarget target, long timestamp)
+            throws NoSuchTargetException, StorageException {
+        return getIndexEntry(target).getVersion(timestamp);
+    }
+    
     /**
      * Converts a filename to a {@link Version}. The filename must have the format:
      * <code><i>timestamp</i>_<i>author</i></code>, where <code><i>timestamp</i></code> is the Unix epoch timestamp
@@ -183,33 +394,140 @@ public class FilesystemStorage implements ISubmissionStorage {
     public Submission getSubmission(SubmissionTarget target, Version version)
             throws NoSuchTargetException, StorageException {
         
-        Path groupDir = getExistingGroupPath(target);
+        Path versionPath = getIndexEntry(target).getGroupDirectory().resolve(versionToFilename(version));
+        if (!isVersion(versionPath)) {
+            throw new NoSuchTargetException(target, version);
+        }
+        
+        try {
+            return readVersion(versionPath, version.getAuthor());
+            
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    @Override
+    public void streamFiles(SubmissionTarget target, Version version, SubmissionFileConsumer consumer)
+            throws NoSuchTargetException, StorageException {
+        
+        Path versionPath = getIndexEntry(target).getGroupDirectory().resolve(versionToFilename(version));
+        if (!isVersion(versionPath)) {
+            throw new NoSuchTargetException(target, version);
+        }
+        
+        try {
+            streamVersion(versionPath, consumer);
+            
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    @Override
+    public SubmissionFingerprint getFingerprint(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException {
         
-        Path versionDir = groupDir.resolve(versionToFilename(version));
-        if (!Files.isDirectory(versionDir)) {
+        Path versionPath = getIndexEntry(target).getGroupDirectory().resolve(versionToFilename(version));
+        if (!isVersion(versionPath)) {
             throw new NoSuchTargetException(target, version);
         }
         
-        SubmissionBuilder builder = new SubmissionBuilder(version.getAuthor());
+        try {
+            return readFingerprint(versionPath, version.getAuthor());
+            
+        } catch (IllegalArgumentException | IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    /**
+     * Reads the fingerprint of a stored version. This implementation reads the fingerprint file of the version. If
+     * there is none (e.g. because the version was stored before fingerprints were introduced), the fingerprint is
+     * calculated from the files of the version and written for the next time.
+     * 
+     * @param versionPath The path of the version in the group directory.
+     * @param author The author of the version.
+     * 
+     * @return The fingerprint of the version.
+     * 
+     * @throws IOException If reading the version fails.
+     * @throws IllegalArgumentException If the fingerprint file is malformed.
+     */
+    protected SubmissionFingerprint readFingerprint(Path versionPath, String author)
+            throws IOException, IllegalArgumentException {
+        
+        SubmissionFingerprint result;
+        
+        Path fingerprintFile = getFingerprintPath(versionPath);
+        if (Files.isRegularFile(fingerprintFile)) {
+            result = SubmissionFingerprint.parse(Files.readString(fingerprintFile, StandardCharsets.UTF_8));
+        } else {
+            result = readVersion(versionPath, author).getFingerprint();
+            writeFingerprint(versionPath, result);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Checks whether the given path in a group directory holds a stored version. This implementation checks for a
+     * directory.
+     * 
+     * @param versionPath The path of the version in the group directory.
+     * 
+     * @return Whether the version exists.
+     */
+    protected boolean isVersion(Path versionPath) {
+        return Files.isDirectory(versionPath);
+    }
+    
+    /**
+     * Passes the files of a stored version to a consumer, one at a time. This implementation opens each file in the
+     * version directory while it is consumed.
+     * 
+     * @param versionPath The path of the version in the group directory.
+     * @param consumer The consumer to pass the files to.
+     * 
+     * @throws IOException If reading the version fails, or the consumer fails.
+     */
+    protected void streamVersion(Path versionPath, SubmissionFileConsumer consumer) throws IOException {
+        for (Path file : FileUtils.findAllFiles(versionPath)) {
+            try (InputStream content = Files.newInputStream(file)) {
+                consumer.accept(versionPath.relativize(file), content);
+            }
+        }
+    }
+    
+    /**
+     * Reads the files of a stored version. This implementation reads all files in the version directory.
+     * 
+     * @param versionPath The path of the version in the group directory.
+     * @param author The author of the version.
+     * 
+     * @return The submission of the version.
+     * 
+     * @throws IOException If reading the version fails.
+     */
+    protected Submission readVersion(Path versionPath, String author) throws IOException {
+        SubmissionBuilder builder = new SubmissionBuilder(author);
         
         try {
-            Files.walk(versionDir)
+            Files.walk(versionPath)
                 .filter(Files::isRegularFile)
                 .forEach(file -> {
                     try {
-                        builder.addFile(versionDir.relativize(file), Files.readAllBytes(file));
+                        builder.addFile(versionPath.relativize(file), Files.readAllBytes(file));
                     } catch (IOException e) {
                         throw new UncheckedIOException(e);
                     }
                 });
             
-            return builder.build();
-            
         } catch (UncheckedIOException e) {
-            throw new StorageException(e.getCause());
-        } catch (IOException e) {
-            throw new StorageException(e);
+            throw e.getCause();
         }
+        
+        return builder.build();
     }
 
 }
@@ -0,0 +1,298 @@
+package net.ssehub.teaching.exercise_submitter.server.storage.filesystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.storage.Version;
+
+/**
+ * An index of the versions in the group directories of a {@link FilesystemStorage}. The versions of each target are
+ * loaded lazily on first access and then kept in memory, so that listing and looking up versions does not require
+ * any file system access. The index is updated by the storage whenever it writes a version.
+ * <p>
+ * Each loaded target is also written to an index file at the same relative path in the {@value #INDEX_DIRECTORY}
+ * directory, so that the group directories do not have to be listed again after a restart. The index file records
+ * the modification time of the group directory; if the group directory was modified by someone else, the index file
+ * is ignored and the group directory is listed again.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+class VersionIndex {
+    
+    /**
+     * The name of the directory in the base directory that holds the index files.
+     */
+    static final String INDEX_DIRECTORY = ".versions";
+    
+    private static final Logger LOGGER = Logger.getLogger(VersionIndex.class.getName());
+    
+    private Path baseDirectory;
+    
+    private Map<SubmissionTarget, Entry> entries;
+    
+    /**
+     * The versions of a single target.
+     */
+    static final class Entry {
+        
+        private Path groupDirectory;
+        
+        private volatile List<Version> versions;
+        
+        private volatile Map<Long, Version> byTimestamp;
+        
+        /**
+         * Creates an entry.
+         * 
+         * @param groupDirectory The group directory of the target.
+         * @param versions The versions in the group directory, in any order.
+         */
+        private Entry(Path groupDirectory, List<Version> versions) {
+            this.groupDirectory = groupDirectory;
+            setVersions(versions);
+        }
+        
+        /**
+         * Sets the versions of this entry.
+         * 
+         * @param versions The versions, in any order.
+         */
+        private void setVersions(List<Version> versions) {
+            List<Version> sorted = new LinkedList<>(versions);
+            sorted.sort(Comparator.comparing(Version::getCreationTime).reversed());
+            
+            Map<Long, Version> timestamps = new HashMap<>();
+            for (Version version : sorted) {
+                timestamps.putIfAbsent(version.getCreationTime().getEpochSecond(), version);
+            }
+            
+            this.versions = Collections.unmodifiableList(sorted);
+            this.byTimestamp = Collections.unmodifiableMap(timestamps);
+        }
+        
+        /**
+         * Returns the group directory of the target.
+         * 
+         * @return The group directory.
+         */
+        Path getGroupDirectory() {
+            return groupDirectory;
+        }
+        
+        /**
+         * Returns all versions of the target.
+         * 
+         * @return An unmodifiable list of the versions, in reverse-chronological order.
+         */
+        List<Version> getVersions() {
+            return versions;
+        }
+        
+        /**
+         * Returns the version with the given timestamp.
+         * 
+         * @param timestamp The Unix timestamp (in seconds) of the version.
+         * 
+         * @return The version, or {@link Optional#empty()} if there is no version with this timestamp.
+         */
+        Optional<Version> getVersion(long timestamp) {
+            return Optional.ofNullable(byTimestamp.get(timestamp));
+        }
+        
+    }
+    
+    /**
+     * Creates an empty index.
+     * 
+     * @param baseDirectory The base directory of the storage.
+     */
+    VersionIndex(Path baseDirectory) {
+        this.baseDirectory = baseDirectory;
+        this.entries = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Returns the entry for the given target, if it is already loaded.
+     * 
+     * @param target The target.
+     * 
+     * @return The entry, or <code>null</code> if it is not loaded yet.
+     */
+    Entry get(SubmissionTarget target) {
+        return entries.get(target);
+    }
+    
+    /**
+     * Loads the entry for the given target, either from its index file or by listing the group directory.
+     * 
+     * @param target The target.
+     * @param groupDirectory The existing group directory of the target.
+     * 
+     * @return The loaded entry.
+     * 
+     * @throws IOException If reading the group directory fails.
+     * @throws IllegalArgumentException If the group directory contains an entry that is not a valid version.
+     */
+    Entry load(SubmissionTarget target, Path groupDirectory) throws IOException, IllegalArgumentException {
+        Entry result = entries.get(target);
+        
+        if (result == null) {
+            String modificationTime = Files.getLastModifiedTime(groupDirectory).toString();
+            
+            Optional<List<Version>> versions = readIndexFile(groupDirectory, modificationTime);
+            if (versions.isEmpty()) {
+                LOGGER.fine(() -> "Listing versions in " + groupDirectory);
+                versions = Optional.of(listGroupDirectory(groupDirectory));
+                writeIndexFile(groupDirectory, modificationTime, versions.get());
+            }
+            
+            Entry entry = new Entry(groupDirectory, versions.get());
+            result = entries.putIfAbsent(target, entry);
+            if (result == null) {
+                result = entry;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Adds a version to an entry, after it was written to the group directory.
+     * 
+     * @param entry The entry of the target.
+     * @param version The new version.
+     */
+    void add(Entry entry, Version version) {
+        synchronized (entry) {
+            List<Version> versions = new LinkedList<>(entry.getVersions());
+            versions.add(version);
+            entry.setVersions(versions);
+    
+            try {
+                writeIndexFile(entry.getGroupDirectory(),
+                        Files.getLastModifiedTime(entry.getGroupDirectory()).toString(), entry.getVersions());
+            } catch (IOException e) {
+                // the modification time of the group directory changed, so the old index file is ignored anyway
+                LOGGER.log(Level.WARNING, "Failed to update version index of " + entry.getGroupDirectory(), e);
+            }
+        }
+    }
+    
+    /**
+     * Lists the versions in a group directory. Hidden files are ignored.
+     * 
+     * @param groupDirectory The group directory.
+     * 
+     * @return The versions, in any order.
+     * 
+     * @throws IOException If listing the directory fails.
+     * @throws IllegalArgumentException If the group directory contains an entry that is not a valid version.
+     */
+    private static List<Version> listGroupDirectory(Path groupDirectory) throws IOException, IllegalArgumentException {
+        try (Stream<Path> files = Files.list(groupDirectory)) {
+            return files
+                    .map(p -> p.getFileName().toString())
+                    .filter(filename -> !filename.startsWith(".")) // hidden files are not versions
+                    .map(FilesystemStorage::filenameToVersion)
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Returns the path of the index file for the given group directory.
+     * 
+     * @param groupDirectory The group directory.
+     * 
+     * @return The path of the index file.
+     */
+    private Path getIndexFile(Path groupDirectory) {
+        return baseDirectory.resolve(INDEX_DIRECTORY).resolve(baseDirectory.relativize(groupDirectory));
+    }
+    
+    /**
+     * Reads the index file of a group directory. The first line is the modification time of the group directory
+     * when the file was written, each further line is the filename of a version.
+     * 
+     * @param groupDirectory The group directory.
+     * @param modificationTime The current modification time of the group directory.
+     * 
+     * @return The versions from the index file, or {@link Optional#empty()} if there is no index file or it is
+     *      outdated or malformed.
+     */
+    private Optional<List<Version>> readIndexFile(Path groupDirectory, String modificationTime) {
+        Optional<List<Version>> result = Optional.empty();
+        
+        try {
+            List<String> lines = Files.readAllLines(getIndexFile(groupDirectory), StandardCharsets.UTF_8);
+            
+            if (!lines.isEmpty() && lines.get(0).equals(modificationTime)) {
+                result = Optional.of(lines.stream()
+                        .skip(1)
+                        .map(FilesystemStorage::filenameToVersion)
+                        .collect(Collectors.toList()));
+            } else {
+                LOGGER.fine(() -> "Version index of " + groupDirectory + " is outdated");
+            }
+            
+        } catch (NoSuchFileException e) {
+            // not indexed yet
+            
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Failed to read version index of " + groupDirectory, e);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Writes the index file of a group directory. Failures are only logged, as the index can be re-created from the
+     * group directory.
+     * 
+     * @param groupDirectory The group directory.
+     * @param modificationTime The modification time of the group directory.
+     * @param versions The versions in the group directory.
+     */
+    private void writeIndexFile(Path groupDirectory, String modificationTime, List<Version> versions) {
+        StringBuilder content = new StringBuilder(modificationTime).append('\n');
+        for (Version version : versions) {
+            content.append(FilesystemStorage.versionToFilename(version)).append('\n');
+        }
+        
+        try {
+            Path indexFile = getIndexFile(groupDirectory);
+            Files.createDirectories(indexFile.getParent());
+            
+            Path temporaryFile = Files.createTempFile(indexFile.getParent(), ".", ".tmp");
+            try {
+                Files.writeString(temporaryFile, content, StandardCharsets.UTF_8);
+                Files.move(temporaryFile, indexFile, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write version index of " + groupDirectory, e);
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Caches the assessments that check results are added to in the student management system, so that repeated
+ * submissions of the same user or group do not need to look up their assessment again.
+ * <p>
+ * Entries are invalidated when the student management system notifies about changes. A lookup that started before an
+ * invalidation may return outdated data; to prevent caching it, lookups pass the generation that they started in to
+ * {@link #put(Key, Entry, long)}.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+final class AssessmentCache {
+    
+    /**
+     * Identifies the assessment of a user or group for an assignment.
+     */
+    static final class Key {
+        
+        private String courseId;
+        
+        private String assignmentId;
+        
+        private String userOrGroupId;
+        
+        private boolean group;
+        
+        /**
+         * Creates a key.
+         * 
+         * @param courseId The ID of the course.
+         * @param assignmentId The ID of the assignment in the student management system.
+         * @param userOrGroupId The ID of the user or group in the student management system.
+         * @param group Whether userOrGroupId is the ID of a group.
+         */
+        Key(String courseId, String assignmentId, String userOrGroupId, boolean group) {
+            this.courseId = courseId;
+            this.assignmentId = assignmentId;
+            this.userOrGroupId = userOrGroupId;
+            this.group = group;
+        }
+        
+        /**
+         * Returns the ID of the course.
+         * 
+         * @return The course ID.
+         */
+        String getCourseId() {
+            return courseId;
+        }
+        
+        /**
+         * Returns the ID of the assignment.
+         * 
+         * @return The assignment ID.
+         */
+        String getAssignmentId() {
+            return assignmentId;
+        }
+        
+        /**
+         * Returns the ID of the user or group.
+         * 
+         * @return The user or group ID.
+         */
+        String getUserOrGroupId() {
+            return userOrGroupId;
+        }
+        
+        /**
+         * Returns whether this key identifies the assessment of a group.
+         * 
+         * @return Whether {@link #getUserOrGroupId()} is a group ID.
+         */
+        boolean isGroup() {
+            return group;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(assignmentId, courseId, group, userOrGroupId);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(assignmentId, other.assignmentId) && Objects.equals(courseId, other.courseId)
+                    && group == other.group && Objects.equals(userOrGroupId, other.userOrGroupId);
+        }
+        
+        @Override
+        public String toString() {
+            return "Key [courseId=" + courseId + ", assignmentId=" + assignmentId + ", "
+                    + (group ? "groupId=" : "userId=") + userOrGroupId + "]";
+        }
+        
+    }
+    
+    /**
+     * A cached assessment.
+     */
+    static final class Entry {
+        
+        private String assessmentId;
+        
+        private boolean draft;
+        
+        /**
+         * Creates an entry.
+         * 
+         * @param assessmentId The ID of the assessment in the student management system.
+         * @param draft Whether the assessment is a draft.
+         */
+        Entry(String assessmentId, boolean draft) {
+            this.assessmentId = assessmentId;
+            this.draft = draft;
+        }
+        
+        /**
+         * Returns the ID of the assessment.
+         * 
+         * @return The assessment ID.
+         */
+        String getAssessmentId() {
+            return assessmentId;
+        }
+        
+        /**
+         * Returns whether the assessment is a draft. Check results are only added to drafts.
+         * 
+         * @return Whether the assessment is a draft.
+         */
+        boolean isDraft() {
+            return draft;
+        }
+        
+    }
+    
+    private Map<Key, Entry> entries;
+    
+    private long generation;
+    
+    /**
+     * Creates an empty cache.
+     */
+    AssessmentCache() {
+        this.entries = new HashMap<>();
+    }
+    
+    /**
+     * Returns the current generation of this cache. Pass it to {@link #put(Key, Entry, long)} after the lookup.
+     * 
+     * @return The current generation; changes with every invalidation.
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+    
+    /**
+     * Retrieves a cached assessment.
+     * 
+     * @param key The key of the assessment.
+     * 
+     * @return The cached assessment, or {@link Optional#empty()} if it is not cached.
+     */
+    synchronized Optional<Entry> get(Key key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+    
+    /**
+     * Caches an assessment, unless the cache was invalidated since the lookup of the assessment started.
+     * 
+     * @param key The key of the assessment.
+     * @param entry The assessment that was looked up.
+     * @param lookupGeneration The value of {@link #getGeneration()} before the lookup started.
+     */
+    synchronized void put(Key key, Entry entry, long lookupGeneration) {
+        if (lookupGeneration == generation) {
+            entries.put(key, entry);
+        }
+    }
+    
+    /**
+     * Removes a single assessment, e.g. because using the cached ID failed.
+     * 
+     * @param key The key of the assessment.
+     */
+    synchronized void remove(Key key) {
+        entries.remove(key);
+    }
+    
+    /**
+     * Removes the assessments of an assignment, or of a whole course.
+     * 
+     * @param courseId The ID of the course.
+     * @param assignmentId The ID of the assignment, or <code>null</code> to remove the assessments of all assignments
+     *      in the course.
+     */
+    synchronized void invalidate(String courseId, String assignmentId) {
+        generation++;
+        entries.keySet().removeIf(key -> key.getCourseId().equals(courseId)
+                && (assignmentId == null || key.getAssignmentId().equals(assignmentId)));
+    }
+    
+    /**
+     * Removes all assessments.
+     */
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+    
+    /**
+     * Returns the number of cached assessments.
+     * 
+     * @return The number of entries.
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+}
@@ -39,7 +39,7 @@ public class Assignment {
     
     private Map<String, Group> groupsByNames;
     
-    private List<CheckConfiguration> checkConfigurations;
+    private volatile List<CheckConfiguration> checkConfigurations;
 
     /**
      * Creates an assignment.
@@ -55,7 +55,7 @@ public class Assignment {
         this.state = state;
         this.collaboration = collaboration;
         this.groupsByNames = new HashMap<>();
-        this.checkConfigurations = new LinkedList<>();
+        this.checkConfigurations = Collections.emptyList();
     }
     
     /**
@@ -156,12 +156,16 @@ public class Assignment {
     }
     
     /**
-     * Sets the {@link CheckConfiguration}s for this assignment.
+     * Sets the {@link CheckConfiguration}s for this assignment. The new configurations replace the previous ones at
+     * once, so concurrent readers of {@link #getCheckConfigurations()} see either the old or the new list.
      * 
      * @param checkConfigJson A JSON string representing the configuration.
+     * 
+     * @throws IllegalArgumentException If the configuration string is invalid. The previous configuration is kept in
+     *      this case.
      */
-    public void setCheckConfigurationString(String checkConfigJson) {
-        this.checkConfigurations.clear();
+    public void setCheckConfigurationString(String checkConfigJson) throws IllegalArgumentException {
+        List<CheckConfiguration> parsed = new LinkedList<>();
         
         try {
             JsonArray array = Json.createReader(new StringReader(checkConfigJson)).readArray();
@@ -183,22 +187,45 @@ public class Assignment {
                     }
                 }
                 
-                this.checkConfigurations.add(check);
+                parsed.add(check);
             }
             
+            this.checkConfigurations = Collections.unmodifiableList(parsed);
+            
         } catch (JsonException | JsonParseException | ClassCastException e) {
             throw new IllegalArgumentException("Failed to parse check configuration for assignment " + name
                     + ": " + checkConfigJson, e);
         }
     }
 
+    /**
+     * Sets the already parsed {@link CheckConfiguration}s for this assignment.
+     * 
+     * @param checkConfigurations The configurations. Must not be modified afterwards.
+     */
+    void setCheckConfigurations(List<CheckConfiguration> checkConfigurations) {
+        this.checkConfigurations = Collections.unmodifiableList(checkConfigurations);
+    }
+    
     /**
      * Returns the {@link CheckConfiguration} set for this assignment.
      * 
      * @return The {@link CheckConfiguration} for this assignment.
      */
     public List<CheckConfiguration> getCheckConfigurations() {
-        return Collections.unmodifiableList(this.checkConfigurations);
+        return this.checkConfigurations;
     }
     
+    /**
+     * Creates a new, unpublished assignment with the same attributes and check configurations as this one, but
+     * without any groups.
+     * 
+     * @return The copy of this assignment.
+     */
+    Assignment copyWithoutGroups() {
+        Assignment copy = new Assignment(mgmtId, name, state, collaboration);
+        copy.checkConfigurations = this.checkConfigurations;
+        return copy;
+    }
+
 }
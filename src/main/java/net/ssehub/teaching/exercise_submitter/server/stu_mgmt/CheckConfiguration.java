@@ -1,5 +1,6 @@
 package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -71,6 +72,15 @@ public class CheckConfiguration {
         return Optional.ofNullable(properties.get(key));
     }
 
+    /**
+     * Returns all check-specific properties.
+     * 
+     * @return The properties as an unmodifiable map.
+     */
+    Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(checkName, properties, rejecting);
@@ -8,6 +8,9 @@ import java.util.Optional;
 
 /**
  * A course in the student management system.
+ * <p>
+ * Courses are filled by the {@link StuMgmtView} while loading and are not modified anymore once the view has
+ * published them.
  * 
  * @author Adam
  */
@@ -97,4 +100,35 @@ public class Course {
         this.assignmentsByName.put(assignment.getName(), assignment);
     }
     
+    /**
+     * Removes the participant with the given ID from this course.
+     * 
+     * @param mgmtId The ID of the participant in the student management system.
+     */
+    void removeParticipant(String mgmtId) {
+        this.participantsByName.values().removeIf(participant -> participant.getMgmtId().equals(mgmtId));
+    }
+    
+    /**
+     * Removes the assignment with the given ID from this course.
+     * 
+     * @param mgmtId The ID of the assignment in the student management system.
+     */
+    void removeAssignment(String mgmtId) {
+        this.assignmentsByName.values().removeIf(assignment -> assignment.getMgmtId().equals(mgmtId));
+    }
+    
+    /**
+     * Creates a new, unpublished course with the same participants and assignments as this one. The participant and
+     * assignment instances are shared, only the course itself can be modified independently of this one.
+     * 
+     * @return The copy of this course.
+     */
+    Course copy() {
+        Course copy = new Course(id);
+        copy.participantsByName.putAll(this.participantsByName);
+        copy.assignmentsByName.putAll(this.assignmentsByName);
+        return copy;
+    }
+
 }
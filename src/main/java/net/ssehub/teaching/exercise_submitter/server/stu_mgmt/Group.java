@@ -1,5 +1,7 @@
 package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -66,4 +68,13 @@ public class Group {
         return participantsByName.containsKey(participant.getName());
     }
     
+    /**
+     * Returns all participants in this group.
+     * 
+     * @return All participants as an unmodifiable collection.
+     */
+    Collection<Participant> getParticipants() {
+        return Collections.unmodifiableCollection(participantsByName.values());
+    }
+    
 }
@@ -0,0 +1,551 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonWriter;
+import net.ssehub.studentmgmt.backend_api.ApiException;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
+
+/**
+ * Delivers the check results of accepted submissions to the student management system in the background, so that
+ * submitting does not wait for the management system.
+ * <p>
+ * Results are coalesced per target: only the newest result of a target is delivered, older results that were not
+ * delivered yet are dropped. A failed delivery is retried with exponential backoff, unless the target does not exist
+ * in the {@link StuMgmtView}.
+ * <p>
+ * If a spool directory is given, every pending result is also kept in a file there until it is delivered. After a
+ * restart, {@link #restoreSpool()} enqueues these results again. Spool files are written outside of the monitor of
+ * this queue; a sequence number per target ensures that a slow write never replaces the file of a newer result.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class ResultDeliveryQueue {
+    
+    /**
+     * The default time to wait before the first retry of a failed delivery. Each further retry waits twice as long.
+     */
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    
+    /**
+     * The default maximum time to wait between retries of a failed delivery.
+     */
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(5);
+    
+    private static final Logger LOGGER = Logger.getLogger(ResultDeliveryQueue.class.getName());
+    
+    private static final String SPOOL_FILE_SUFFIX = ".json";
+    
+    private static final int NUM_SPOOL_LOCKS = 64;
+    
+    private StuMgmtView view;
+    
+    private Path spoolDirectory;
+    
+    private Duration initialBackoff;
+    
+    private Duration maxBackoff;
+    
+    private ScheduledExecutorService executor;
+    
+    /**
+     * The newest result of each target that is not delivered yet. Guarded by <code>this</code>.
+     */
+    private Map<SubmissionTarget, List<ResultMessage>> pending;
+    
+    /**
+     * The targets that a delivery is scheduled or running for. At most one delivery per target is scheduled at any
+     * time. Guarded by <code>this</code>.
+     */
+    private Set<SubmissionTarget> scheduled;
+    
+    /**
+     * The sequence number of the newest change (write or deletion) to the spool file of each target. Only this change
+     * may be applied to the file; the entry is removed once the spool file is deleted. Guarded by <code>this</code>.
+     */
+    private Map<SubmissionTarget, Long> spoolSequences;
+    
+    /**
+     * The last sequence number that was handed out. Guarded by <code>this</code>.
+     */
+    private long lastSequence;
+    
+    /**
+     * Lock stripes that serialize changes to the spool file of a target.
+     */
+    private Object[] spoolLocks;
+    
+    /**
+     * Creates a queue.
+     * 
+     * @param view The view to deliver the results with.
+     * @param workers The number of threads that deliver results in parallel.
+     * @param spoolDirectory The directory to keep pending results in, or <code>null</code> if pending results should
+     *      only be kept in memory.
+     * 
+     * @throws IllegalArgumentException If workers is not positive.
+     */
+    public ResultDeliveryQueue(StuMgmtView view, int workers, Path spoolDirectory) throws IllegalArgumentException {
+        this(view, workers, spoolDirectory, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+    
+    /**
+     * Creates a queue with the given backoff times.
+     * 
+     * @param view The view to deliver the results with.
+     * @param workers The number of threads that deliver results in parallel.
+     * @param spoolDirectory The directory to keep pending results in, or <code>null</code> if pending results should
+     *      only be kept in memory.
+     * @param initialBackoff The time to wait before the first retry of a failed delivery.
+     * @param maxBackoff The maximum time to wait between retries.
+     * 
+     * @throws IllegalArgumentException If workers is not positive.
+     */
+    ResultDeliveryQueue(StuMgmtView view, int workers, Path spoolDirectory, Duration initialBackoff,
+            Duration maxBackoff) throws IllegalArgumentException {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        }
+        
+        this.view = view;
+        this.spoolDirectory = spoolDirectory;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.pending = new HashMap<>();
+        this.scheduled = new HashSet<>();
+        this.spoolSequences = new HashMap<>();
+        this.spoolLocks = new Object[NUM_SPOOL_LOCKS];
+        for (int i = 0; i < spoolLocks.length; i++) {
+            spoolLocks[i] = new Object();
+        }
+        
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "result-delivery-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ScheduledThreadPoolExecutor(workers, threadFactory);
+    }
+    
+    /**
+     * Enqueues the result of an accepted submission for delivery. A pending result of the same target is replaced.
+     * 
+     * @param target The target that was submitted.
+     * @param resultMessages The messages created by the checks.
+     */
+    public void enqueue(SubmissionTarget target, List<ResultMessage> resultMessages) {
+        List<ResultMessage> messages = List.copyOf(resultMessages);
+        long sequence;
+        synchronized (this) {
+            pending.put(target, messages);
+            sequence = nextSpoolSequence(target);
+            
+            if (scheduled.add(target)) {
+                executor.execute(() -> deliver(target, 1));
+            }
+        }
+        
+        writeSpoolFile(target, messages, sequence);
+    }
+    
+    /**
+     * Returns the number of targets that have a result that is not delivered yet, including results that are
+     * currently being delivered.
+     * 
+     * @return The number of pending results.
+     */
+    synchronized int getNumPending() {
+        return scheduled.size();
+    }
+    
+    /**
+     * Delivers the pending result of the given target. Afterwards, schedules the next delivery for this target if a
+     * newer result was enqueued in the meantime, or if the delivery failed.
+     * 
+     * @param target The target to deliver the result of.
+     * @param attempt The number of this attempt, starting at 1. Used to calculate the backoff.
+     */
+    private void deliver(SubmissionTarget target, int attempt) {
+        List<ResultMessage> messages;
+        synchronized (this) {
+            messages = pending.remove(target);
+        }
+        
+        boolean delivered = false;
+        try {
+            view.pushSubmissionResult(target, messages);
+            delivered = true;
+        
+        } catch (NoSuchElementException e) {
+            LOGGER.warning(() -> "Can't find " + target + " in student management system; dropping result");
+            delivered = true;
+        
+        } catch (StuMgmtLoadingException | ApiException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Failed to deliver result of " + target + " (attempt " + attempt
+                    + "); retrying");
+        }
+        
+        long deleteSequence = -1;
+        synchronized (this) {
+            if (!delivered) {
+                pending.putIfAbsent(target, messages);
+            }
+            
+            if (!pending.containsKey(target)) {
+                // with a spool file, the target stays scheduled until the file is deleted
+                deleteSequence = nextSpoolSequence(target);
+                if (deleteSequence == -1) {
+                    scheduled.remove(target);
+                }
+            
+            } else if (delivered) {
+                executor.execute(() -> deliver(target, 1));
+            
+            } else {
+                executor.schedule(() -> deliver(target, attempt + 1),
+                        getBackoff(attempt).toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        
+        if (deleteSequence != -1) {
+            deleteSpoolFile(target, deleteSequence);
+            
+            synchronized (this) {
+                if (pending.containsKey(target)) {
+                    executor.execute(() -> deliver(target, 1));
+                } else {
+                    scheduled.remove(target);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Hands out the sequence number for the next change to the spool file of the given target. This makes all
+     * earlier changes to this file stale. Must be called while holding the monitor of <code>this</code>.
+     * 
+     * @param target The target.
+     * 
+     * @return The sequence number of the change, or -1 if no spool directory is set.
+     */
+    private long nextSpoolSequence(SubmissionTarget target) {
+        long result = -1;
+        if (spoolDirectory != null) {
+            result = ++lastSequence;
+            spoolSequences.put(target, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Checks whether the given change is still the newest one to the spool file of the given target.
+     * 
+     * @param target The target.
+     * @param sequence The sequence number of the change.
+     * 
+     * @return Whether the change is the newest one and should be applied.
+     */
+    private synchronized boolean isNewestSpoolChange(SubmissionTarget target, long sequence) {
+        Long newest = spoolSequences.get(target);
+        return newest != null && newest == sequence;
+    }
+    
+    /**
+     * Returns the lock that serializes changes to the spool file of the given target.
+     * 
+     * @param target The target.
+     * 
+     * @return The lock object.
+     */
+    private Object getSpoolLock(SubmissionTarget target) {
+        return spoolLocks[Math.floorMod(target.hashCode(), spoolLocks.length)];
+    }
+    
+    /**
+     * Calculates the time to wait after the given failed attempt.
+     * 
+     * @param attempt The number of the failed attempt, starting at 1.
+     * 
+     * @return The time to wait before the next attempt.
+     */
+    Duration getBackoff(int attempt) {
+        Duration result = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        if (result.compareTo(maxBackoff) > 0) {
+            result = maxBackoff;
+        }
+        return result;
+    }
+    
+    /**
+     * Enqueues all results from the spool directory again. Should be called once after a restart, when the
+     * {@link StuMgmtView} is loaded.
+     * 
+     * @return The number of restored results.
+     */
+    public int restoreSpool() {
+        int result = 0;
+        
+        if (spoolDirectory != null && Files.isDirectory(spoolDirectory)) {
+            List<Path> files;
+            try (Stream<Path> list = Files.list(spoolDirectory)) {
+                files = list
+                        .filter(file -> file.getFileName().toString().endsWith(SPOOL_FILE_SUFFIX))
+                        .collect(Collectors.toList());
+            
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to list spool directory " + spoolDirectory, e);
+                files = List.of();
+            }
+            
+            for (Path file : files) {
+                try {
+                    JsonObject json = readJson(file);
+                    enqueue(new SubmissionTarget(json.getString("course"), json.getString("assignment"),
+                            json.getString("group")), messagesFromJson(json));
+                    result++;
+                
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Dropping invalid spool file " + file, e);
+                    deleteFile(file);
+                }
+            }
+            
+            int numRestored = result;
+            LOGGER.info(() -> "Restored " + numRestored + " undelivered results from " + spoolDirectory);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Returns the spool file of the given target. The file name is a hash of the target, so that names of courses,
+     * assignments, and groups never end up in paths.
+     * 
+     * @param target The target.
+     * 
+     * @return The spool file.
+     */
+    private Path getSpoolFile(SubmissionTarget target) {
+        String key = target.getCourse() + '\0' + target.getAssignmentName() + '\0' + target.getGroupName();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+            return spoolDirectory.resolve(name.append(SPOOL_FILE_SUFFIX).toString());
+        
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+    
+    /**
+     * Writes the pending result of a target to its spool file, if a spool directory is set. The content is written
+     * to a temporary file and forced to disk, which is then moved over the spool file, unless a newer result was
+     * enqueued in the meantime. Failures are only logged, as the result is still delivered from memory.
+     * 
+     * @param target The target.
+     * @param messages The pending result.
+     * @param sequence The sequence number of this write.
+     */
+    private void writeSpoolFile(SubmissionTarget target, List<ResultMessage> messages, long sequence) {
+        if (spoolDirectory != null) {
+            JsonArrayBuilder messagesJson = Json.createArrayBuilder();
+            for (ResultMessage message : messages) {
+                messagesJson.add(messageToJson(message));
+            }
+            
+            JsonObject json = Json.createObjectBuilder()
+                    .add("course", target.getCourse())
+                    .add("assignment", target.getAssignmentName())
+                    .add("group", target.getGroupName())
+                    .add("messages", messagesJson)
+                    .build();
+            
+            StringWriter content = new StringWriter();
+            try (JsonWriter jsonWriter = Json.createWriter(content)) {
+                jsonWriter.writeObject(json);
+            }
+            
+            try {
+                Files.createDirectories(spoolDirectory);
+                Path temporaryFile = Files.createTempFile(spoolDirectory, ".", ".tmp");
+                try {
+                    try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                        ByteBuffer buffer = StandardCharsets.UTF_8.encode(content.toString());
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        channel.force(true);
+                    }
+                    
+                    synchronized (getSpoolLock(target)) {
+                        if (isNewestSpoolChange(target, sequence)) {
+                            Files.move(temporaryFile, getSpoolFile(target), StandardCopyOption.ATOMIC_MOVE,
+                                    StandardCopyOption.REPLACE_EXISTING);
+                        }
+                    }
+                } finally {
+                    Files.deleteIfExists(temporaryFile);
+                }
+            
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to write spool file for " + target, e);
+            }
+        }
+    }
+    
+    /**
+     * Deletes the spool file of a target, if a spool directory is set and no newer result was enqueued in the
+     * meantime.
+     * 
+     * @param target The target.
+     * @param sequence The sequence number of this deletion.
+     */
+    private void deleteSpoolFile(SubmissionTarget target, long sequence) {
+        if (spoolDirectory != null) {
+            synchronized (getSpoolLock(target)) {
+                boolean newest;
+                synchronized (this) {
+                    newest = spoolSequences.remove(target, sequence);
+                }
+                if (newest) {
+                    deleteFile(getSpoolFile(target));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Deletes a file. Failures are only logged.
+     * 
+     * @param file The file to delete.
+     */
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete spool file " + file, e);
+        }
+    }
+    
+    /**
+     * Reads a spool file.
+     * 
+     * @param file The spool file.
+     * 
+     * @return The JSON content of the file.
+     * 
+     * @throws IOException If reading the file fails or it does not contain a JSON object.
+     */
+    private static JsonObject readJson(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                JsonReader jsonReader = Json.createReader(reader)) {
+            return jsonReader.readObject();
+        
+        } catch (JsonException | ClassCastException e) {
+            throw new IOException(e);
+        }
+    }
+    
+    /**
+     * Converts a result message to JSON.
+     * 
+     * @param message The message.
+     * 
+     * @return The JSON representation of the message.
+     */
+    private static JsonObjectBuilder messageToJson(ResultMessage message) {
+        JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("check", message.getCheckName())
+                .add("type", message.getType().name())
+                .add("message", message.getMessage());
+        if (message.getFile() != null) {
+            json.add("file", message.getFile().toString().replace('\\', '/'));
+        }
+        if (message.getLine() != null) {
+            json.add("line", message.getLine());
+        }
+        if (message.getColumn() != null) {
+            json.add("column", message.getColumn());
+        }
+        return json;
+    }
+    
+    /**
+     * Reads the result messages from the JSON content of a spool file.
+     * 
+     * @param json The content of the spool file.
+     * 
+     * @return The result messages.
+     * 
+     * @throws IOException If the JSON does not contain valid result messages.
+     */
+    private static List<ResultMessage> messagesFromJson(JsonObject json) throws IOException {
+        List<ResultMessage> result = new LinkedList<>();
+        
+        try {
+            for (JsonObject messageJson : json.getJsonArray("messages").getValuesAs(JsonObject.class)) {
+                ResultMessage message = new ResultMessage(messageJson.getString("check"),
+                        MessageType.valueOf(messageJson.getString("type")), messageJson.getString("message"));
+                if (messageJson.containsKey("file")) {
+                    message.setFile(Path.of(messageJson.getString("file")));
+                }
+                if (messageJson.containsKey("line")) {
+                    message.setLine(messageJson.getInt("line"));
+                }
+                if (messageJson.containsKey("column")) {
+                    message.setColumn(messageJson.getInt("column"));
+                }
+                result.add(message);
+            }
+        
+        } catch (JsonException | ClassCastException | IllegalArgumentException | NullPointerException e) {
+            // NullPointerException is thrown for missing keys
+            throw new IOException("Invalid result messages", e);
+        }
+        
+        return result;
+    }
+
+}
@@ -1,6 +1,10 @@
 package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -12,11 +16,25 @@ import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -53,10 +71,25 @@ import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMes
 
 /**
  * A local view of the courses, users, groups, and assignment in the student management system.
+ * <p>
+ * Updated data is loaded into new {@link Course} instances that are published with a single atomic swap once they
+ * are complete. Published courses (and their assignments and groups) are not modified anymore, thus readers always
+ * see a consistent snapshot without any locking, even while a reload is running.
  *  
  * @author Adam
  */
 public class StuMgmtView {
+    
+    /**
+     * The default maximum number of requests that are sent in parallel while loading courses.
+     */
+    public static final int DEFAULT_LOADING_THREADS = 8;
+    
+    /**
+     * The default time that writing the snapshot is delayed by after a change. Further changes in this time are
+     * written with the same snapshot.
+     */
+    public static final Duration DEFAULT_SNAPSHOT_DELAY = Duration.ofSeconds(5);
 
     private static final Logger LOGGER = Logger.getLogger(StuMgmtView.class.getName());
     
@@ -82,7 +115,20 @@ public class StuMgmtView {
     
     private static final String CHECK_CONFIGURATION_KEY = "exercise-submitter-checks";
     
-    private Map<String, Course> courses;
+    private static final Set<String> ASSIGNMENT_EVENTS = Set.of(
+            "ASSIGNMENT_CREATED", "ASSIGNMENT_UPDATED", "ASSIGNMENT_STATE_CHANGED");
+    
+    private static final String ASSIGNMENT_REMOVED_EVENT = "ASSIGNMENT_REMOVED";
+    
+    private static final String COURSE_JOINED_EVENT = "COURSE_JOINED";
+    
+    private static final String COURSE_LEFT_EVENT = "COURSE_LEFT";
+    
+    private static final Set<String> GROUP_EVENTS = Set.of(
+            "GROUP_REGISTERED", "GROUP_UNREGISTERED", "USER_REGISTERED", "USER_UNREGISTERED",
+            "REGISTRATIONS_CREATED", "REGISTRATIONS_REMOVED", "USER_JOINED_GROUP", "USER_LEFT_GROUP");
+    
+    private AtomicReference<Map<String, Course>> courses;
     
     private ApiClient mgmtClient;
     
@@ -94,9 +140,21 @@ public class StuMgmtView {
     
     private Instant currentTokenExpiration;
     
+    private ExecutorService loadingExecutor;
+    
+    private Path snapshotFile;
+    
+    private Duration snapshotDelay;
+    
+    private ScheduledThreadPoolExecutor snapshotExecutor;
+    
+    private AtomicBoolean snapshotScheduled;
+    
+    private AssessmentCache assessmentCache;
+    
     /**
      * Creates a view on the given student management system. The view is initially empty, call {@link #fullReload()} to
-     * load initial data.
+     * load initial data. At most {@link #DEFAULT_LOADING_THREADS} requests are sent in parallel while loading.
      * 
      * @param mgmtUrl The URL of the student management system.
      * @param authUrl The URL of the authentication system (sparky-service) to acquire tokens from.
@@ -104,7 +162,50 @@ public class StuMgmtView {
      * @param password The password to log into the management system with.
      */
     public StuMgmtView(String mgmtUrl, String authUrl, String username, String password) {
-        this.courses = new HashMap<>();
+        this(mgmtUrl, authUrl, username, password, DEFAULT_LOADING_THREADS);
+    }
+    
+    /**
+     * Creates a view on the given student management system. The view is initially empty, call {@link #fullReload()} to
+     * load initial data.
+     * 
+     * @param mgmtUrl The URL of the student management system.
+     * @param authUrl The URL of the authentication system (sparky-service) to acquire tokens from.
+     * @param username The username to log into the management system as.
+     * @param password The password to log into the management system with.
+     * @param loadingThreads The maximum number of requests that are sent to the student management system in parallel
+     *      while loading courses.
+     * 
+     * @throws IllegalArgumentException If loadingThreads is not positive.
+     */
+    public StuMgmtView(String mgmtUrl, String authUrl, String username, String password, int loadingThreads)
+            throws IllegalArgumentException {
+        if (loadingThreads <= 0) {
+            throw new IllegalArgumentException("Number of loading threads must be positive: " + loadingThreads);
+        }
+        
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "stu-mgmt-loader-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(loadingThreads, loadingThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        this.loadingExecutor = executor;
+        
+        this.snapshotDelay = DEFAULT_SNAPSHOT_DELAY;
+        this.snapshotExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "stu-mgmt-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotExecutor.setKeepAliveTime(60, TimeUnit.SECONDS);
+        this.snapshotExecutor.allowCoreThreadTimeOut(true);
+        this.snapshotScheduled = new AtomicBoolean();
+        
+        this.courses = new AtomicReference<>(Collections.emptyMap());
 
         this.mgmtClient = new ApiClient();
         this.mgmtClient.setBasePath(mgmtUrl);
@@ -116,6 +217,8 @@ public class StuMgmtView {
         
         this.username = username;
         this.password = password;
+        
+        this.assessmentCache = new AssessmentCache();
     }
     
     /**
@@ -123,7 +226,7 @@ public class StuMgmtView {
      * 
      * @throws StuMgmtLoadingException If authentication fails.
      */
-    private void authenticateMgmtClient() throws StuMgmtLoadingException {
+    private synchronized void authenticateMgmtClient() throws StuMgmtLoadingException {
         if (currentTokenExpiration == null
                 || currentTokenExpiration.isBefore(Instant.now().plus(1, ChronoUnit.HOURS))) {
             
@@ -150,7 +253,8 @@ public class StuMgmtView {
     }
     
     /**
-     * Creates a course in this view.
+     * Creates a course in this view. The course is published immediately, replacing any previous course with the
+     * same ID.
      * <p>
      * Convenience method for test cases.
      * 
@@ -160,10 +264,24 @@ public class StuMgmtView {
      */
     protected Course createCourse(String id) {
         Course course = new Course(id);
-        courses.put(id, course);
+        publishCourse(course);
         return course;
     }
     
+    /**
+     * Publishes the given course by atomically swapping in a new map of courses that contains it. Any previous course
+     * with the same ID is replaced.
+     * 
+     * @param course The course to publish. Must not be modified afterwards.
+     */
+    private void publishCourse(Course course) {
+        courses.updateAndGet(previous -> {
+            Map<String, Course> updated = new HashMap<>(previous);
+            updated.put(course.getId(), course);
+            return Collections.unmodifiableMap(updated);
+        });
+    }
+    
     /**
      * Creates and adds a participant to the given course.
      * <p>
@@ -247,87 +365,471 @@ public class StuMgmtView {
     }
     
     /**
-     * Re-loads the given course. The course is removed and re-created with updated information.
+     * Re-loads the given course. A new instance with updated information is loaded and replaces the previous one.
      * 
      * @param courseId The ID of the course to re-load.
+     * 
+     * @throws StuMgmtLoadingException If the thread is interrupted while waiting for the course to be loaded.
      */
-    private void updateCourse(String courseId) {
-        LOGGER.info(() -> "Re-loading course " + courseId);
-        Course course = createCourse(courseId);
+    private void updateCourse(String courseId) throws StuMgmtLoadingException {
+        publishCourse(loadCourses(List.of(courseId)).get(courseId));
+    }
+    
+    /**
+     * An assignment that is waiting for its registered groups to be loaded.
+     */
+    private static final class PendingGroups {
         
-        CourseParticipantsApi participantsApi = new CourseParticipantsApi(mgmtClient);
-        AssignmentApi assignmentApi = new AssignmentApi(mgmtClient);
-        AssignmentRegistrationApi groupApi = new AssignmentRegistrationApi(mgmtClient);
+        private Course course;
         
-        try {
-            for (ParticipantDto pDto
-                    : participantsApi.getUsersOfCourse(course.getId(), null, null, null, null, null)) {
+        private Assignment assignment;
+        
+        private Future<List<GroupDto>> groups;
+        
+        /**
+         * Creates a pending assignment.
+         * 
+         * @param course The course that the assignment belongs to.
+         * @param assignment The assignment to add the groups to.
+         * @param groups The running request for the groups of the assignment.
+         */
+        private PendingGroups(Course course, Assignment assignment, Future<List<GroupDto>> groups) {
+            this.course = course;
+            this.assignment = assignment;
+            this.groups = groups;
+        }
+        
+    }
+    
+    /**
+     * Loads the given courses from the student management system. The requests for the participants and assignments
+     * of all courses, and then for the groups of all assignments, are run in parallel on the loading executor. The
+     * courses are assembled in the calling thread; tasks on the executor never wait for each other. The returned
+     * courses are not yet published in this view.
+     * 
+     * @param courseIds The IDs of the courses to load.
+     * 
+     * @return The loaded courses by their IDs. If loading the data of a course fails, it may be incomplete.
+     * 
+     * @throws StuMgmtLoadingException If the thread is interrupted while waiting for the requests.
+     */
+    Map<String, Course> loadCourses(Collection<String> courseIds) throws StuMgmtLoadingException {
+        Map<String, Future<List<ParticipantDto>>> participants = new HashMap<>();
+        Map<String, Future<List<AssignmentDto>>> assignments = new HashMap<>();
+        for (String courseId : courseIds) {
+            LOGGER.info(() -> "Re-loading course " + courseId);
+            participants.put(courseId, loadingExecutor.submit(() -> fetchParticipants(courseId)));
+            assignments.put(courseId, loadingExecutor.submit(() -> fetchAssignments(courseId)));
+        }
+        
+        Map<String, Course> result = new HashMap<>();
+        List<PendingGroups> pendingGroups = new LinkedList<>();
+        
+        for (String courseId : courseIds) {
+            Course course = new Course(courseId);
+            result.put(courseId, course);
+            
+            try {
+                for (ParticipantDto pDto : await(participants.get(courseId))) {
+                    addParticipant(course, pDto);
+                }
+                
+                for (AssignmentDto aDto : await(assignments.get(courseId))) {
+                    Assignment assignment = addAssignment(course, aDto);
+                    pendingGroups.add(new PendingGroups(course, assignment,
+                            loadingExecutor.submit(() -> fetchRegisteredGroups(courseId, aDto.getId()))));
+                }
                 
-                LOGGER.fine(() -> "Creating " + pDto.getRole() + " " + pDto.getUsername()
-                        + " in course " + courseId);
+            } catch (ApiException e) {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to update course " + courseId + "; is " + username
+                        + " enrolled as lecturer?\n" + e.getResponseBody());
+            }
+        }
+        
+        for (PendingGroups pending : pendingGroups) {
+            try {
+                addGroups(pending.course, pending.assignment, await(pending.groups));
                 
-                createParticipant(course, pDto.getUserId(), pDto.getUsername(), pDto.getRole());
+            } catch (ApiException e) {
+                LOGGER.log(Level.WARNING, e, () -> "Failed to load groups of assignment "
+                        + pending.assignment.getName() + " in course " + pending.course.getId()
+                        + "\n" + e.getResponseBody());
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Waits for the result of a request that runs on the loading executor.
+     * 
+     * @param <T> The type of the result.
+     * @param request The running request.
+     * 
+     * @return The result of the request.
+     * 
+     * @throws ApiException If the request failed.
+     * @throws StuMgmtLoadingException If the thread is interrupted while waiting, or the request failed unexpectedly.
+     */
+    private static <T> T await(Future<T> request) throws ApiException, StuMgmtLoadingException {
+        try {
+            return request.get();
+            
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new StuMgmtLoadingException("Unexpected failure while loading", e.getCause());
             }
             
-            for (AssignmentDto aDto : assignmentApi.getAssignmentsOfCourse(course.getId())) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StuMgmtLoadingException("Interrupted while loading", e);
+        }
+    }
+    
+    /**
+     * Creates a participant from the given DTO and adds it to the given course.
+     * 
+     * @param course The course to add the participant to.
+     * @param pDto The participant loaded from the student management system.
+     */
+    private void addParticipant(Course course, ParticipantDto pDto) {
+        LOGGER.fine(() -> "Creating " + pDto.getRole() + " " + pDto.getUsername()
+                + " in course " + course.getId());
+        
+        createParticipant(course, pDto.getUserId(), pDto.getUsername(), pDto.getRole());
+    }
+    
+    /**
+     * Creates an assignment from the given DTO and adds it to the given course. Its groups are not loaded yet.
+     * 
+     * @param course The course to add the assignment to.
+     * @param aDto The assignment loaded from the student management system.
+     * 
+     * @return The new assignment.
+     */
+    private Assignment addAssignment(Course course, AssignmentDto aDto) {
+        LOGGER.fine(() -> "Creating " + aDto.getCollaboration() + "-assignment " + aDto.getName()
+                + "(" + aDto.getStartDate() + ") in course " + course.getId());
+        
+        Assignment assignment = createAssignment(
+                course, aDto.getId(), aDto.getName(), aDto.getState(), aDto.getCollaboration());
+        setCheckConfigurationString(assignment, aDto);
+        return assignment;
+    }
+    
+    /**
+     * Loads the registered groups of the given assignment and adds them to it.
+     * 
+     * @param course The course that the assignment belongs to.
+     * @param assignment The assignment to add the groups to. Must not be published yet.
+     * 
+     * @throws ApiException If loading the groups fails.
+     */
+    private void loadGroups(Course course, Assignment assignment) throws ApiException {
+        addGroups(course, assignment, fetchRegisteredGroups(course.getId(), assignment.getMgmtId()));
+    }
+    
+    /**
+     * Creates groups from the given DTOs and adds them to the given assignment. Group members are looked up in the
+     * participants of the given course.
+     * 
+     * @param course The course that the assignment belongs to.
+     * @param assignment The assignment to add the groups to. Must not be published yet.
+     * @param groups The groups loaded from the student management system.
+     */
+    private void addGroups(Course course, Assignment assignment, List<GroupDto> groups) {
+        for (GroupDto gDto : groups) {
+            
+            LOGGER.fine(() -> "Creating group " + gDto.getName() + " with members "
+                    + gDto.getMembers().stream()
+                        .map(ParticipantDto::getUsername)
+                        .collect(Collectors.joining(", "))
+                    + " in assignment " + assignment.getName() + " in course " + course.getId());
+            
+            createGroup(assignment, gDto.getId(), gDto.getName(), gDto.getMembers().stream()
+                    .map(ParticipantDto::getUsername)
+                    .map(course::getParticipant)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .toArray(s -> new Participant[s]));
+        }
+    }
+    
+    /**
+     * Retrieves all participants of a course from the student management system.
+     * 
+     * @param courseId The ID of the course.
+     * 
+     * @return The participants.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    List<ParticipantDto> fetchParticipants(String courseId) throws ApiException {
+        return new CourseParticipantsApi(mgmtClient).getUsersOfCourse(courseId, null, null, null, null, null);
+    }
+    
+    /**
+     * Retrieves all assignments of a course from the student management system.
+     * 
+     * @param courseId The ID of the course.
+     * 
+     * @return The assignments.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    List<AssignmentDto> fetchAssignments(String courseId) throws ApiException {
+        return new AssignmentApi(mgmtClient).getAssignmentsOfCourse(courseId);
+    }
+    
+    /**
+     * Retrieves a single assignment from the student management system.
+     * 
+     * @param courseId The ID of the course.
+     * @param assignmentId The ID of the assignment.
+     * 
+     * @return The assignment.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    AssignmentDto fetchAssignment(String courseId, String assignmentId) throws ApiException {
+        return new AssignmentApi(mgmtClient).getAssignmentById(courseId, assignmentId);
+    }
+    
+    /**
+     * Retrieves the groups registered for an assignment from the student management system.
+     * 
+     * @param courseId The ID of the course.
+     * @param assignmentId The ID of the assignment.
+     * 
+     * @return The registered groups.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    List<GroupDto> fetchRegisteredGroups(String courseId, String assignmentId) throws ApiException {
+        return new AssignmentRegistrationApi(mgmtClient).getRegisteredGroups(courseId, assignmentId, null, null, null);
+    }
+    
+    /**
+     * Retrieves a single participant of a course from the student management system.
+     * 
+     * @param courseId The ID of the course.
+     * @param userId The ID of the user.
+     * 
+     * @return The participant.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    ParticipantDto fetchParticipant(String courseId, String userId) throws ApiException {
+        return new CourseParticipantsApi(mgmtClient).getParticipant(courseId, userId);
+    }
+    
+    /**
+     * Applies the given notification to a copy of the given course. Only the entities that the event of the
+     * notification affects are re-loaded from the student management system; all others are shared with the given
+     * course.
+     * 
+     * @param course The currently published course.
+     * @param notification The notification for this course.
+     * 
+     * @return The patched course, not yet published. {@link Optional#empty()} if the notification cannot be applied
+     *      incrementally (e.g. an unknown event or missing IDs), or loading the affected entities fails; in this case,
+     *      the whole course needs to be re-loaded.
+     */
+    Optional<Course> patchCourse(Course course, NotificationDto notification) {
+        Optional<Course> result = Optional.empty();
+        
+        String event = Objects.requireNonNullElse(notification.getEvent(), "");
+        String assignmentId = notification.getAssignmentId();
+        String userId = notification.getUserId();
+        
+        try {
+            Course patched = course.copy();
+            boolean applied = true;
+            
+            if (ASSIGNMENT_EVENTS.contains(event) && assignmentId != null) {
+                patched.removeAssignment(assignmentId);
+                loadGroups(patched, addAssignment(patched, fetchAssignment(course.getId(), assignmentId)));
                 
-                LOGGER.fine(() -> "Creating " + aDto.getCollaboration() + "-assignment " + aDto.getName()
-                        + "(" + aDto.getStartDate() + ") in course " + courseId);
+            } else if (event.equals(ASSIGNMENT_REMOVED_EVENT) && assignmentId != null) {
+                patched.removeAssignment(assignmentId);
                 
-                Assignment assignment = createAssignment(
-                        course, aDto.getId(), aDto.getName(), aDto.getState(), aDto.getCollaboration());
-                setCheckConfigurationString(assignment, aDto);
+            } else if (event.equals(COURSE_JOINED_EVENT) && userId != null) {
+                addParticipant(patched, fetchParticipant(course.getId(), userId));
                 
-                for (GroupDto gDto : groupApi.getRegisteredGroups(course.getId(), aDto.getId(), null, null, null)) {
-                    
-                    LOGGER.fine(() -> "Creating group " + gDto.getName() + " with members "
-                            + gDto.getMembers().stream()
-                                .map(ParticipantDto::getUsername)
-                                .collect(Collectors.joining(", "))
-                            + " in assignment " + aDto.getName() + " in course " + courseId);
-                    
-                    createGroup(assignment, gDto.getId(), gDto.getName(), gDto.getMembers().stream()
-                            .map(ParticipantDto::getUsername)
-                            .map(course::getParticipant)
-                            .filter(Optional::isPresent)
-                            .map(Optional::get)
-                            .toArray(s -> new Participant[s]));
-                }
+            } else if (event.equals(COURSE_LEFT_EVENT) && userId != null) {
+                patched.removeParticipant(userId);
+                
+            } else if (GROUP_EVENTS.contains(event)) {
+                reloadGroups(patched, assignmentId);
+                
+            } else {
+                applied = false;
             }
-        
+            
+            if (applied) {
+                LOGGER.info(() -> "Applied " + event + " to course " + course.getId());
+                result = Optional.of(patched);
+            }
+            
         } catch (ApiException e) {
-            LOGGER.log(Level.WARNING, e, () -> "Failed to update course " + courseId + "; is " + username
-                    + " enrolled as lecturer?\n" + e.getResponseBody());
+            LOGGER.log(Level.WARNING, e, () -> "Failed to apply " + event + " to course " + course.getId()
+                    + "\n" + e.getResponseBody());
         }
         
+        return result;
     }
     
     /**
-     * Completely reloads this view. Discards all current data and pulls everything from the management system again.
+     * Re-loads the registered groups of assignments in the given course. The affected assignments are replaced by
+     * copies with the new groups.
      * 
-     * @throws StuMgmtLoadingException If loading data from the student management system fails.
+     * @param course The course to re-load the groups in. Must not be published yet.
+     * @param assignmentId The ID of the assignment to re-load the groups of, or <code>null</code> to re-load the
+     *      groups of all assignments. If the course does not contain this assignment yet, the assignment is loaded
+     *      completely.
+     * 
+     * @throws ApiException If loading the groups fails.
+     */
+    private void reloadGroups(Course course, String assignmentId) throws ApiException {
+        List<Assignment> affected = course.getAssignments().stream()
+                .filter(assignment -> assignmentId == null || assignment.getMgmtId().equals(assignmentId))
+                .collect(Collectors.toList());
+        
+        if (affected.isEmpty() && assignmentId != null) {
+            loadGroups(course, addAssignment(course, fetchAssignment(course.getId(), assignmentId)));
+        }
+        
+        for (Assignment previous : affected) {
+            Assignment assignment = previous.copyWithoutGroups();
+            loadGroups(course, assignment);
+            course.addAssignment(assignment);
+        }
+    }
+    
+    /**
+     * Completely reloads this view. Pulls everything from the management system again and replaces all current data
+     * once loading is done. Until then, the previous data stays visible.
+     * 
+     * @throws StuMgmtLoadingException If loading data from the student management system fails. In this case, the
+     *      previous data is kept.
      */
     public void fullReload() throws StuMgmtLoadingException {
         LOGGER.info(() -> "Completely re-loading information");
-        courses.clear();
         
         authenticateMgmtClient();
         CourseApi courseApi = new CourseApi(mgmtClient);
         
+        List<String> courseIds;
         try {
-            for (CourseDto cDto : courseApi.getCourses(null, null, null, null, null)) {
-                updateCourse(cDto.getId());
-            }
+            courseIds = courseApi.getCourses(null, null, null, null, null).stream()
+                    .map(CourseDto::getId)
+                    .collect(Collectors.toList());
             
         } catch (ApiException e) {
             throw new StuMgmtLoadingException("Failed to retrieve course list", e);
         }
         
-        LOGGER.info(() -> "Loaded " + courses.size() + " courses");
+        Map<String, Course> loaded = loadCourses(courseIds);
+        courses.set(Collections.unmodifiableMap(loaded));
+        assessmentCache.clear();
+        
+        LOGGER.info(() -> "Loaded " + loaded.size() + " courses");
+        
+        scheduleSnapshot();
+    }
+    
+    /**
+     * Sets the file that a snapshot of this view is kept in. After each reload or update, the courses are written to
+     * this file in the background; {@link #restoreSnapshot()} reads them back, e.g. after a restart. By default, no
+     * snapshot is kept.
+     * 
+     * @param snapshotFile The snapshot file.
+     * 
+     * @see #setSnapshotDelay(Duration)
+     */
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+    
+    /**
+     * Sets the time that writing the snapshot is delayed by after a reload or update. All changes in this time are
+     * written with a single snapshot. By default, this is {@link #DEFAULT_SNAPSHOT_DELAY}.
+     * 
+     * @param snapshotDelay The delay.
+     * 
+     * @throws IllegalArgumentException If the delay is negative.
+     */
+    public void setSnapshotDelay(Duration snapshotDelay) throws IllegalArgumentException {
+        if (snapshotDelay.isNegative()) {
+            throw new IllegalArgumentException("Snapshot delay must not be negative: " + snapshotDelay);
+        }
+        this.snapshotDelay = snapshotDelay;
+    }
+    
+    /**
+     * Replaces all current data with the courses from the snapshot file, if one is set and exists. This allows
+     * serving requests before the student management system is reachable; a {@link #fullReload()} should follow to
+     * bring the data up-to-date.
+     * 
+     * @return Whether the snapshot was restored. If reading the snapshot fails, the current data is kept.
+     */
+    public boolean restoreSnapshot() {
+        boolean result = false;
+        
+        if (snapshotFile != null && Files.isRegularFile(snapshotFile)) {
+            try {
+                Map<String, Course> restored = ViewSnapshot.read(snapshotFile);
+                courses.set(Collections.unmodifiableMap(restored));
+                
+                LOGGER.info(() -> "Restored " + restored.size() + " courses from snapshot " + snapshotFile);
+                result = true;
+                
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to restore snapshot " + snapshotFile, e);
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Schedules writing the courses to the snapshot file, if one is set. The snapshot is written by a background
+     * thread after the snapshot delay, so that a burst of updates results in a single write and callers don't wait
+     * for the disk. If a write is already scheduled, this does nothing, as that write will contain the current
+     * courses.
+     */
+    void scheduleSnapshot() {
+        if (snapshotFile != null && snapshotScheduled.compareAndSet(false, true)) {
+            snapshotExecutor.schedule(this::writeSnapshot, snapshotDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Writes the current courses to the snapshot file. Failures are only logged, as the snapshot is only used to
+     * speed up restarts.
+     */
+    private void writeSnapshot() {
+        // changes from now on need another write, as they may not be contained in this one
+        snapshotScheduled.set(false);
+        
+        if (snapshotFile != null) {
+            try {
+                ViewSnapshot.write(getCourses(), snapshotFile);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to write snapshot " + snapshotFile, e);
+            }
+        }
     }
     
     /**
-     * Updates this view based on the given notification data.
+     * Updates this view based on the given notification data. If the event of the notification is known and the
+     * course is already loaded, only the affected assignment, groups, or participant are re-loaded (see
+     * {@link #patchCourse(Course, NotificationDto)}). Otherwise, the whole course is re-loaded, or, if the
+     * notification does not specify a course, the whole view.
      * 
      * @param notification The notification data.
      * 
@@ -336,8 +838,18 @@ public class StuMgmtView {
     public void update(NotificationDto notification) throws StuMgmtLoadingException {
         authenticateMgmtClient();
         
-        if (notification.getCourseId() != null) {
-            updateCourse(notification.getCourseId());
+        String courseId = notification.getCourseId();
+        if (courseId != null) {
+            assessmentCache.invalidate(courseId, notification.getAssignmentId());
+            
+            Optional<Course> patched = getCourse(courseId).flatMap(course -> patchCourse(course, notification));
+            if (patched.isPresent()) {
+                publishCourse(patched.get());
+            } else {
+                updateCourse(courseId);
+            }
+            scheduleSnapshot();
+            
         } else {
             fullReload();
         }
@@ -349,7 +861,7 @@ public class StuMgmtView {
      * @return All courses as an unmodifiable collection.
      */
     public Collection<Course> getCourses() {
-        return Collections.unmodifiableCollection(this.courses.values());
+        return this.courses.get().values();
     }
     
     /**
@@ -360,74 +872,162 @@ public class StuMgmtView {
      * @return The course, or {@link Optional#empty()} if no course with this identifier exists.
      */
     public Optional<Course> getCourse(String course) {
-        return Optional.ofNullable(courses.get(course));
+        return Optional.ofNullable(courses.get().get(course));
     }
 
     /**
      * Sends the given result messages of an accepted submission as a draft assessment to the student management system.
+     * Failures are only logged; see {@link ResultDeliveryQueue} for retried delivery.
      * 
      * @param target The target that was submitted.
      * @param resultMessages The messages created by the {@link Check}s.
      */
     public void sendSubmissionResult(SubmissionTarget target, List<ResultMessage> resultMessages) {
-        
         try {
-            Course course = getCourse(target.getCourse()).orElseThrow();
-            Assignment assginment = course.getAssignment(target.getAssignmentName()).orElseThrow();
-            Optional<Group> group = assginment.getGroup(target.getGroupName());
-            String userOrGroupId;
-            boolean isGroup;
-            if (group.isPresent()) {
-                userOrGroupId = group.get().getMgmtId();
-                isGroup = true;
-            } else {
-                userOrGroupId = course.getParticipant(target.getGroupName()).orElseThrow().getMgmtId();
-                isGroup = false;
-            }
+            pushSubmissionResult(target, resultMessages);
             
-            authenticateMgmtClient();
-            AssessmentApi api = new AssessmentApi(mgmtClient);
+        } catch (NoSuchElementException e) {
+            LOGGER.warning(() ->
+                    "Failed to send submission result to management system: can't find assginment " + target);
             
-            AssessmentDto existingAssessment;
-            if (isGroup) {
-                existingAssessment = api.getAssessmentsForAssignment(
-                        course.getId(), assginment.getMgmtId(), null, null, null, userOrGroupId, null, null, null)
-                        .stream().findAny().orElse(null);
-            } else {
-                existingAssessment = api.getAssessmentsForAssignment(
-                        course.getId(), assginment.getMgmtId(), null, null, null, null, userOrGroupId, null, null)
-                        .stream().findAny().orElse(null);
+        } catch (StuMgmtLoadingException | ApiException e) {
+            LOGGER.log(Level.WARNING, "Failed to send submission result to management system", e);
+        }
+    }
+    
+    /**
+     * Sends the given result messages of an accepted submission as a draft assessment to the student management system.
+     * 
+     * @param target The target that was submitted.
+     * @param resultMessages The messages created by the {@link Check}s.
+     * 
+     * @throws NoSuchElementException If the target does not exist in this view.
+     * @throws StuMgmtLoadingException If authenticating to the student management system fails.
+     * @throws ApiException If a request to the student management system fails.
+     */
+    void pushSubmissionResult(SubmissionTarget target, List<ResultMessage> resultMessages)
+            throws NoSuchElementException, StuMgmtLoadingException, ApiException {
+        
+        Course course = getCourse(target.getCourse()).orElseThrow();
+        Assignment assginment = course.getAssignment(target.getAssignmentName()).orElseThrow();
+        Optional<Group> group = assginment.getGroup(target.getGroupName());
+        AssessmentCache.Key key;
+        if (group.isPresent()) {
+            key = new AssessmentCache.Key(course.getId(), assginment.getMgmtId(), group.get().getMgmtId(), true);
+        } else {
+            key = new AssessmentCache.Key(course.getId(), assginment.getMgmtId(),
+                    course.getParticipant(target.getGroupName()).orElseThrow().getMgmtId(), false);
+        }
+        
+        authenticateMgmtClient();
+        pushPartialAssessment(key, createPartialAssessment(resultMessages));
+    }
+        
+    /**
+     * Adds the given partial assessment to the draft assessment of a user or group. The assessment is created if it
+     * doesn't exist yet. If the assessment is cached, this only needs a single request to the student management
+     * system; if the cached assessment turns out to be outdated, it is looked up again.
+     * 
+     * @param key The user or group and the assignment to add the partial assessment for.
+     * @param partialAssessment The partial assessment to add.
+     * 
+     * @throws ApiException If a request to the student management system fails.
+     */
+    void pushPartialAssessment(AssessmentCache.Key key, PartialAssessmentDto partialAssessment) throws ApiException {
+        long generation = assessmentCache.getGeneration();
+        Optional<AssessmentCache.Entry> cached = assessmentCache.get(key);
+        
+        boolean done = false;
+        if (cached.isPresent() && cached.get().isDraft()) {
+            try {
+                uploadPartialAssessment(key, cached.get().getAssessmentId(), partialAssessment);
+                done = true;
+            } catch (ApiException e) {
+                LOGGER.log(Level.FINE, e, () -> "Cached assessment for " + key + " is outdated; looking it up again");
+                assessmentCache.remove(key);
+                generation = assessmentCache.getGeneration();
             }
             
-            if (existingAssessment == null) {
-                AssessmentCreateDto newAssessment = new AssessmentCreateDto();
-                if (isGroup) {
-                    newAssessment.setGroupId(userOrGroupId);
-                } else {
-                    newAssessment.setUserId(userOrGroupId);
-                }
-                newAssessment.setAssignmentId(assginment.getMgmtId());
-                newAssessment.setIsDraft(true);
-                
-                existingAssessment = api.createAssessment(newAssessment, course.getId(), assginment.getMgmtId());
+        } else if (cached.isPresent()) {
+            LOGGER.warning(() -> "Existing assessment for " + key + " is not a draft; not adding partial assessment");
+            done = true;
+        }
+        
+        if (!done) {
+            AssessmentDto assessment = fetchAssessment(key);
+            if (assessment == null) {
+                assessment = createDraftAssessment(key);
             }
             
-            if (existingAssessment.isIsDraft()) {
-                api.setPartialAssessment(createPartialAssessment(resultMessages), course.getId(),
-                        assginment.getMgmtId(), existingAssessment.getId());
-                
+            boolean draft = Boolean.TRUE.equals(assessment.isIsDraft());
+            assessmentCache.put(key, new AssessmentCache.Entry(assessment.getId(), draft), generation);
+            
+            if (draft) {
+                uploadPartialAssessment(key, assessment.getId(), partialAssessment);
             } else {
-                LOGGER.warning(() -> "Existing assessment for " + target
+                LOGGER.warning(() -> "Existing assessment for " + key
                         + " is not a draft; not adding partial assessment");
             }
+        }
+    }
             
-        } catch (NoSuchElementException e) {
-            LOGGER.warning(() ->
-                    "Failed to send submission result to management system: can't find assginment " + target);
-            
-        } catch (StuMgmtLoadingException | ApiException e) {
-            LOGGER.log(Level.WARNING, "Failed to send submission result to management system", e);
+    /**
+     * Retrieves the assessment of a user or group from the student management system.
+     * 
+     * @param key The user or group and the assignment.
+     * 
+     * @return The assessment, or <code>null</code> if none exists.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    AssessmentDto fetchAssessment(AssessmentCache.Key key) throws ApiException {
+        AssessmentApi api = new AssessmentApi(mgmtClient);
+        List<AssessmentDto> assessments;
+        if (key.isGroup()) {
+            assessments = api.getAssessmentsForAssignment(key.getCourseId(), key.getAssignmentId(),
+                    null, null, null, key.getUserOrGroupId(), null, null, null);
+        } else {
+            assessments = api.getAssessmentsForAssignment(key.getCourseId(), key.getAssignmentId(),
+                    null, null, null, null, key.getUserOrGroupId(), null, null);
+        }
+        return assessments.stream().findAny().orElse(null);
+    }
+        
+    /**
+     * Creates a new draft assessment for a user or group in the student management system.
+     * 
+     * @param key The user or group and the assignment.
+     * 
+     * @return The created assessment.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    AssessmentDto createDraftAssessment(AssessmentCache.Key key) throws ApiException {
+        AssessmentCreateDto newAssessment = new AssessmentCreateDto();
+        if (key.isGroup()) {
+            newAssessment.setGroupId(key.getUserOrGroupId());
+        } else {
+            newAssessment.setUserId(key.getUserOrGroupId());
         }
+        newAssessment.setAssignmentId(key.getAssignmentId());
+        newAssessment.setIsDraft(true);
+            
+        return new AssessmentApi(mgmtClient).createAssessment(newAssessment, key.getCourseId(), key.getAssignmentId());
+    }
+    
+    /**
+     * Sets a partial assessment on an existing assessment in the student management system.
+     * 
+     * @param key The user or group and the assignment.
+     * @param assessmentId The ID of the assessment.
+     * @param partialAssessment The partial assessment to set.
+     * 
+     * @throws ApiException If the request fails.
+     */
+    void uploadPartialAssessment(AssessmentCache.Key key, String assessmentId, PartialAssessmentDto partialAssessment)
+            throws ApiException {
+        new AssessmentApi(mgmtClient).setPartialAssessment(partialAssessment, key.getCourseId(),
+                key.getAssignmentId(), assessmentId);
     }
 
     /**
@@ -0,0 +1,270 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.CollaborationEnum;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.StateEnum;
+import net.ssehub.studentmgmt.backend_api.model.ParticipantDto.RoleEnum;
+
+/**
+ * Writes the courses of a {@link StuMgmtView} to a JSON file and reads them back. This allows the view to be restored
+ * after a restart without contacting the student management system.
+ * <p>
+ * Group members are stored by their names and are resolved against the participants of the course when reading.
+ * 
+ * @author Adam
+ */
+final class ViewSnapshot {
+    
+    private static final int FORMAT_VERSION = 1;
+    
+    /**
+     * No instances.
+     */
+    private ViewSnapshot() {
+    }
+    
+    /**
+     * Writes the given courses to the given file. The file is replaced atomically, so that a crash while writing
+     * never leaves a partial snapshot behind.
+     * 
+     * @param courses The courses to write.
+     * @param file The file to write the snapshot to. Parent directories are created if necessary.
+     * 
+     * @throws IOException If writing the file fails.
+     */
+    static void write(Collection<Course> courses, Path file) throws IOException {
+        JsonArrayBuilder coursesJson = Json.createArrayBuilder();
+        for (Course course : courses) {
+            coursesJson.add(courseToJson(course));
+        }
+        
+        JsonObject snapshot = Json.createObjectBuilder()
+                .add("version", FORMAT_VERSION)
+                .add("courses", coursesJson)
+                .build();
+        
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        
+        Path temporaryFile = Files.createTempFile(directory, ".", ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8);
+                    JsonWriter jsonWriter = Json.createWriter(writer)) {
+                jsonWriter.writeObject(snapshot);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+    
+    /**
+     * Reads the courses from the given snapshot file.
+     * 
+     * @param file The snapshot file.
+     * 
+     * @return The courses by their IDs.
+     * 
+     * @throws IOException If reading the file fails, or it is not a valid snapshot.
+     */
+    static Map<String, Course> read(Path file) throws IOException {
+        Map<String, Course> result = new HashMap<>();
+        
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                JsonReader jsonReader = Json.createReader(reader)) {
+            
+            JsonObject snapshot = jsonReader.readObject();
+            if (snapshot.getInt("version") != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version in " + file);
+            }
+            
+            for (JsonObject courseJson : snapshot.getJsonArray("courses").getValuesAs(JsonObject.class)) {
+                Course course = courseFromJson(courseJson);
+                result.put(course.getId(), course);
+            }
+            
+        } catch (JsonException | ClassCastException | IllegalArgumentException | NullPointerException e) {
+            // NullPointerException is thrown for missing keys
+            throw new IOException("Invalid snapshot " + file, e);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Converts a course with all its participants and assignments to JSON.
+     * 
+     * @param course The course.
+     * 
+     * @return The JSON representation of the course.
+     */
+    private static JsonObjectBuilder courseToJson(Course course) {
+        JsonArrayBuilder participants = Json.createArrayBuilder();
+        for (Participant participant : course.getParticipants()) {
+            JsonObjectBuilder participantJson = Json.createObjectBuilder();
+            addString(participantJson, "id", participant.getMgmtId());
+            addString(participantJson, "name", participant.getName());
+            addString(participantJson, "role", participant.getRole() != null ? participant.getRole().name() : null);
+            participants.add(participantJson);
+        }
+        
+        JsonArrayBuilder assignments = Json.createArrayBuilder();
+        for (Assignment assignment : course.getAssignments()) {
+            assignments.add(assignmentToJson(assignment));
+        }
+        
+        return Json.createObjectBuilder()
+                .add("id", course.getId())
+                .add("participants", participants)
+                .add("assignments", assignments);
+    }
+    
+    /**
+     * Converts an assignment with its groups and check configurations to JSON. The check configurations use the same
+     * format as the configuration string in the student management system.
+     * 
+     * @param assignment The assignment.
+     * 
+     * @return The JSON representation of the assignment.
+     */
+    private static JsonObjectBuilder assignmentToJson(Assignment assignment) {
+        JsonArrayBuilder groups = Json.createArrayBuilder();
+        for (Group group : assignment.getGroups()) {
+            JsonArrayBuilder members = Json.createArrayBuilder();
+            for (Participant participant : group.getParticipants()) {
+                members.add(participant.getName());
+            }
+            
+            JsonObjectBuilder groupJson = Json.createObjectBuilder();
+            addString(groupJson, "id", group.getMgmtId());
+            groupJson.add("name", group.getName());
+            groupJson.add("members", members);
+            groups.add(groupJson);
+        }
+        
+        JsonArrayBuilder checks = Json.createArrayBuilder();
+        for (CheckConfiguration check : assignment.getCheckConfigurations()) {
+            JsonObjectBuilder checkJson = Json.createObjectBuilder()
+                    .add("check", check.getCheckName())
+                    .add("rejecting", check.isRejecting());
+            check.getProperties().forEach(checkJson::add);
+            checks.add(checkJson);
+        }
+        
+        JsonObjectBuilder assignmentJson = Json.createObjectBuilder();
+        addString(assignmentJson, "id", assignment.getMgmtId());
+        assignmentJson.add("name", assignment.getName());
+        addString(assignmentJson, "state", assignment.getState() != null ? assignment.getState().name() : null);
+        addString(assignmentJson, "collaboration",
+                assignment.getCollaboration() != null ? assignment.getCollaboration().name() : null);
+        assignmentJson.add("groups", groups);
+        assignmentJson.add("checks", checks);
+        return assignmentJson;
+    }
+    
+    /**
+     * Reads a course from its JSON representation.
+     * 
+     * @param courseJson The JSON representation of the course.
+     * 
+     * @return The course.
+     * 
+     * @throws JsonException If the JSON does not match the expected structure.
+     * @throws ClassCastException If a value has an unexpected type.
+     * @throws IllegalArgumentException If an enum value is unknown.
+     */
+    private static Course courseFromJson(JsonObject courseJson)
+            throws JsonException, ClassCastException, IllegalArgumentException {
+        
+        Course course = new Course(courseJson.getString("id"));
+        
+        for (JsonObject participantJson : courseJson.getJsonArray("participants").getValuesAs(JsonObject.class)) {
+            String role = getString(participantJson, "role");
+            course.addParticipant(new Participant(getString(participantJson, "id"), getString(participantJson, "name"),
+                    role != null ? RoleEnum.valueOf(role) : null));
+        }
+        
+        for (JsonObject assignmentJson : courseJson.getJsonArray("assignments").getValuesAs(JsonObject.class)) {
+            String state = getString(assignmentJson, "state");
+            String collaboration = getString(assignmentJson, "collaboration");
+            Assignment assignment = new Assignment(getString(assignmentJson, "id"), assignmentJson.getString("name"),
+                    state != null ? StateEnum.valueOf(state) : null,
+                    collaboration != null ? CollaborationEnum.valueOf(collaboration) : null);
+            
+            for (JsonObject groupJson : assignmentJson.getJsonArray("groups").getValuesAs(JsonObject.class)) {
+                Group group = new Group(getString(groupJson, "id"), groupJson.getString("name"));
+                for (JsonString member : groupJson.getJsonArray("members").getValuesAs(JsonString.class)) {
+                    course.getParticipant(member.getString()).ifPresent(group::addParticipant);
+                }
+                assignment.addGroup(group);
+            }
+            
+            List<CheckConfiguration> checks = new LinkedList<>();
+            for (JsonObject checkJson : assignmentJson.getJsonArray("checks").getValuesAs(JsonObject.class)) {
+                CheckConfiguration check = new CheckConfiguration(checkJson.getString("check"),
+                        checkJson.getBoolean("rejecting"));
+                for (String key : checkJson.keySet()) {
+                    if (!key.equals("check") && !key.equals("rejecting")) {
+                        check.setProperty(key, checkJson.getString(key));
+                    }
+                }
+                checks.add(check);
+            }
+            assignment.setCheckConfigurations(checks);
+            
+            course.addAssignment(assignment);
+        }
+        
+        return course;
+    }
+    
+    /**
+     * Adds a string that may be <code>null</code> to a JSON object.
+     * 
+     * @param builder The builder of the JSON object.
+     * @param key The key to add.
+     * @param value The value to add, may be <code>null</code>.
+     */
+    private static void addString(JsonObjectBuilder builder, String key, String value) {
+        if (value != null) {
+            builder.add(key, value);
+        } else {
+            builder.addNull(key);
+        }
+    }
+    
+    /**
+     * Reads a string that may be <code>null</code> or missing from a JSON object.
+     * 
+     * @param object The JSON object.
+     * @param key The key to read.
+     * 
+     * @return The string value, or <code>null</code> if the key is missing or not a string.
+     */
+    private static String getString(JsonObject object, String key) {
+        JsonValue value = object.get(key);
+        return value instanceof JsonString ? ((JsonString) value).getString() : null;
+    }
+
+}
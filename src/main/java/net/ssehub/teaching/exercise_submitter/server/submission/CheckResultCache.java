@@ -0,0 +1,245 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.Check;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage;
+
+/**
+ * A global cache of the outcome of all {@link Check}s for a submission. Many groups submit identical files (e.g.
+ * unchanged starter code); for these, the checks only need to run once per check configuration.
+ * <p>
+ * Results are identified by a {@link Key} of the submission content, the {@link CheckConfiguration}s of the
+ * assignment, and the state of the files that the configurations refer to (e.g. Checkstyle rules). If any of these
+ * change, the key changes, so outdated results are never returned; they are evicted eventually.
+ * <p>
+ * The cache is bounded by an estimate of the memory that the cached results use. If it is exceeded, the least
+ * recently used results are evicted.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class CheckResultCache {
+    
+    /**
+     * The default memory (in bytes) that cached results may use.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    
+    /**
+     * Estimated memory that an object uses without its fields, in bytes.
+     */
+    private static final int OBJECT_OVERHEAD = 64;
+    
+    private long maxBytes;
+    
+    private long usedBytes;
+    
+    private Map<Key, Result> results;
+    
+    /**
+     * Identifies the input of the checks for a submission.
+     */
+    static final class Key {
+        
+        private String submissionHash;
+        
+        private List<CheckConfiguration> configurations;
+        
+        private String resourceState;
+        
+        /**
+         * Creates a key.
+         * 
+         * @param submissionHash The aggregate hash over the files of the submission.
+         * @param configurations The configurations of the assignment-specific checks, in the order they run.
+         * @param resourceState Describes the state of files that the configurations refer to; e.g. their
+         *      modification times.
+         */
+        Key(String submissionHash, List<CheckConfiguration> configurations, String resourceState) {
+            this.submissionHash = submissionHash;
+            this.configurations = List.copyOf(configurations);
+            this.resourceState = resourceState;
+        }
+        
+        /**
+         * Estimates the memory used by this key. The configurations are shared with the assignment, so they are not
+         * counted.
+         * 
+         * @return The estimated size in bytes.
+         */
+        private long estimateBytes() {
+            return OBJECT_OVERHEAD * 2 + 2L * (submissionHash.length() + resourceState.length())
+                    + 8L * configurations.size();
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(configurations, resourceState, submissionHash);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(submissionHash, other.submissionHash)
+                    && Objects.equals(configurations, other.configurations)
+                    && Objects.equals(resourceState, other.resourceState);
+        }
+        
+    }
+    
+    /**
+     * The cached outcome of the checks for a submission.
+     */
+    static final class Result {
+        
+        private boolean accepted;
+        
+        private List<ResultMessage> messages;
+        
+        private long bytes;
+        
+        /**
+         * Creates a result.
+         * 
+         * @param accepted Whether the submission was accepted.
+         * @param messages The messages of all checks.
+         * @param bytes The estimated memory used by the result and its key.
+         */
+        private Result(boolean accepted, List<ResultMessage> messages, long bytes) {
+            this.accepted = accepted;
+            this.messages = messages;
+            this.bytes = bytes;
+        }
+        
+        /**
+         * Returns whether the submission was accepted.
+         * 
+         * @return Whether all rejecting checks passed.
+         */
+        boolean isAccepted() {
+            return accepted;
+        }
+        
+        /**
+         * Returns the messages of all checks.
+         * 
+         * @return An unmodifiable list of the messages.
+         */
+        List<ResultMessage> getMessages() {
+            return messages;
+        }
+        
+    }
+    
+    /**
+     * Creates an empty cache.
+     * 
+     * @param maxBytes The estimated memory (in bytes) that cached results may use.
+     * 
+     * @throws IllegalArgumentException If maxBytes is not positive.
+     */
+    public CheckResultCache(long maxBytes) throws IllegalArgumentException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maxBytes);
+        }
+        
+        this.maxBytes = maxBytes;
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    /**
+     * Retrieves the cached outcome of the checks.
+     * 
+     * @param key The input of the checks.
+     * 
+     * @return The cached result, or {@link Optional#empty()} if the checks did not run on this input before.
+     */
+    synchronized Optional<Result> get(Key key) {
+        return Optional.ofNullable(results.get(key));
+    }
+    
+    /**
+     * Caches the outcome of the checks. Evicts the least recently used results if the cache becomes too large.
+     * Results that alone exceed the maximum size are not cached.
+     * 
+     * @param key The input of the checks.
+     * @param accepted Whether the submission was accepted.
+     * @param messages The messages of all checks.
+     */
+    synchronized void put(Key key, boolean accepted, List<ResultMessage> messages) {
+        long bytes = key.estimateBytes() + OBJECT_OVERHEAD;
+        for (ResultMessage message : messages) {
+            bytes += estimateBytes(message);
+        }
+        
+        if (bytes <= maxBytes) {
+            Result previous = results.put(key, new Result(accepted, List.copyOf(messages), bytes));
+            if (previous != null) {
+                usedBytes -= previous.bytes;
+            }
+            usedBytes += bytes;
+            
+            Iterator<Result> eldest = results.values().iterator();
+            while (usedBytes > maxBytes) {
+                usedBytes -= eldest.next().bytes;
+                eldest.remove();
+            }
+        }
+    }
+    
+    /**
+     * Estimates the memory used by a message.
+     * 
+     * @param message The message.
+     * 
+     * @return The estimated size in bytes.
+     */
+    private static long estimateBytes(ResultMessage message) {
+        long result = OBJECT_OVERHEAD * 2 + 2L * (message.getCheckName().length() + message.getMessage().length());
+        if (message.getFile() != null) {
+            result += OBJECT_OVERHEAD + 2L * message.getFile().toString().length();
+        }
+        return result;
+    }
+    
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void clear() {
+        results.clear();
+        usedBytes = 0;
+    }
+    
+    /**
+     * Returns the number of cached results.
+     * 
+     * @return The number of results.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+    
+    /**
+     * Returns the estimated memory used by the cached results.
+     * 
+     * @return The estimated size in bytes; at most the configured maximum.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+}
@@ -0,0 +1,46 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Indicates that a submission could not be accepted for processing because the queue of waiting submissions is full.
+ * 
+ * @author Adam
+ */
+public class QueueFullException extends Exception {
+    
+    private static final long serialVersionUID = -3409843386367297124L;
+    
+    private Duration retryAfter;
+    
+    /**
+     * Creates this exception.
+     * 
+     * @param message A message describing the queue that is full.
+     */
+    public QueueFullException(String message) {
+        super(message);
+    }
+    
+    /**
+     * Creates this exception with an estimate of when the queue accepts submissions again.
+     * 
+     * @param message A message describing the queue that is full.
+     * @param retryAfter The estimated time after which the submission should be retried.
+     */
+    public QueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    /**
+     * Returns the estimated time after which the submission should be retried.
+     * 
+     * @return The time to wait, or {@link Optional#empty()} if no estimate is available.
+     */
+    public Optional<Duration> getRetryAfter() {
+        return Optional.ofNullable(retryAfter);
+    }
+
+}
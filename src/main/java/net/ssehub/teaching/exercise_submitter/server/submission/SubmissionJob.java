@@ -0,0 +1,181 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+
+/**
+ * A submission that is processed asynchronously by the {@link SubmissionJobManager}.
+ * 
+ * @author Adam
+ */
+public class SubmissionJob {
+    
+    /**
+     * The processing state of a job.
+     */
+    public enum State {
+        
+        /**
+         * The job waits in the queue for a free worker.
+         */
+        QUEUED,
+        
+        /**
+         * The job is currently processed by a worker.
+         */
+        RUNNING,
+        
+        /**
+         * The job is done and a result is available.
+         */
+        FINISHED,
+        
+        /**
+         * The job could not be processed due to an internal error.
+         */
+        FAILED;
+    }
+    
+    private String id;
+    
+    private String user;
+    
+    private SubmissionTarget target;
+    
+    private volatile State state;
+    
+    private volatile SubmissionResultDto result;
+    
+    private Instant creationTime;
+    
+    private volatile Instant startTime;
+    
+    private volatile Instant completionTime;
+    
+    /**
+     * Creates a new job in the {@link State#QUEUED} state.
+     * 
+     * @param id The unique identifier of this job.
+     * @param user The name of the user that submitted.
+     * @param target The target that is submitted to.
+     */
+    SubmissionJob(String id, String user, SubmissionTarget target) {
+        this.id = id;
+        this.user = user;
+        this.target = target;
+        this.state = State.QUEUED;
+        this.creationTime = Instant.now();
+    }
+    
+    /**
+     * Returns the unique identifier of this job.
+     * 
+     * @return The job ID.
+     */
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * Returns the name of the user that created this job.
+     * 
+     * @return The username.
+     */
+    public String getUser() {
+        return user;
+    }
+    
+    /**
+     * Returns the target that this job submits to.
+     * 
+     * @return The submission target.
+     */
+    public SubmissionTarget getTarget() {
+        return target;
+    }
+    
+    /**
+     * Returns the current state of this job.
+     * 
+     * @return The state.
+     */
+    public State getState() {
+        return state;
+    }
+    
+    /**
+     * Returns the result of this job.
+     * 
+     * @return The result, or {@link Optional#empty()} if this job is not {@link State#FINISHED}.
+     */
+    public Optional<SubmissionResultDto> getResult() {
+        return Optional.ofNullable(result);
+    }
+    
+    /**
+     * Returns the point in time when this job was finished or failed.
+     * 
+     * @return The completion time, or {@link Optional#empty()} if this job is not done yet.
+     */
+    public Optional<Instant> getCompletionTime() {
+        return Optional.ofNullable(completionTime);
+    }
+    
+    /**
+     * Returns how long this job waited for a free worker.
+     * 
+     * @return The time between the creation of this job and the start of its execution, or {@link Optional#empty()}
+     *      if this job did not start yet.
+     */
+    public Optional<Duration> getQueueTime() {
+        return Optional.ofNullable(startTime).map(start -> Duration.between(creationTime, start));
+    }
+    
+    /**
+     * Returns how long the execution of this job took.
+     * 
+     * @return The time between the start and the completion of this job, or {@link Optional#empty()} if this job is
+     *      not done yet.
+     */
+    public Optional<Duration> getExecutionTime() {
+        Optional<Duration> result = Optional.empty();
+        Instant start = startTime;
+        Instant completion = completionTime;
+        if (start != null && completion != null) {
+            result = Optional.of(Duration.between(start, completion));
+        }
+        return result;
+    }
+    
+    /**
+     * Marks this job as running.
+     */
+    void setRunning() {
+        this.startTime = Instant.now();
+        this.state = State.RUNNING;
+    }
+    
+    /**
+     * Marks this job as finished with the given result.
+     * 
+     * @param result The result of the submission.
+     */
+    void setFinished(SubmissionResultDto result) {
+        this.result = result;
+        this.completionTime = Instant.now();
+        this.state = State.FINISHED;
+    }
+    
+    /**
+     * Marks this job as failed.
+     */
+    void setFailed() {
+        this.completionTime = Instant.now();
+        this.state = State.FAILED;
+    }
+
+}
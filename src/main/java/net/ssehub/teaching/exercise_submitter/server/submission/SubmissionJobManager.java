@@ -0,0 +1,205 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetException;
+import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+
+/**
+ * Runs submissions asynchronously on the bounded pool of worker threads of a {@link SubmissionScheduler}. Each
+ * submission is represented by a {@link SubmissionJob} that can be polled for its result.
+ * <p>
+ * Finished jobs are kept for a retention period, after which they are discarded.
+ * 
+ * @author Adam
+ */
+public class SubmissionJobManager {
+    
+    /**
+     * The default duration for which the results of finished jobs are kept.
+     */
+    public static final Duration DEFAULT_RETENTION = Duration.ofHours(1);
+    
+    private static final Logger LOGGER = Logger.getLogger(SubmissionJobManager.class.getName());
+    
+    private SubmissionScheduler scheduler;
+    
+    private boolean ownsScheduler;
+    
+    private Map<String, SubmissionJob> jobs;
+    
+    private Duration retention;
+    
+    /**
+     * The work that a {@link SubmissionJob} executes.
+     */
+    @FunctionalInterface
+    public interface SubmissionTask {
+        
+        /**
+         * Executes the submission.
+         * 
+         * @return The result of the submission.
+         * 
+         * @throws NoSuchTargetException If the target does not exist.
+         * @throws StorageException If an exception occurred in the storage backend.
+         */
+        public SubmissionResultDto run() throws NoSuchTargetException, StorageException;
+    
+    }
+    
+    /**
+     * Creates a new job manager with its own {@link SubmissionScheduler}.
+     * 
+     * @param numWorkers The number of worker threads that process submissions in parallel.
+     * @param queueCapacity The maximum number of submissions that may wait for a free worker. Further submissions are
+     *      rejected.
+     * 
+     * @throws IllegalArgumentException If numWorkers or queueCapacity are not positive.
+     */
+    public SubmissionJobManager(int numWorkers, int queueCapacity) throws IllegalArgumentException {
+        this(new SubmissionScheduler(numWorkers, queueCapacity), true);
+    }
+    
+    /**
+     * Creates a new job manager that runs the jobs on the given scheduler. The scheduler may be shared with other
+     * work, e.g. synchronous submissions; it is not shut down by {@link #shutdown()}.
+     * 
+     * @param scheduler The scheduler that runs the jobs.
+     */
+    public SubmissionJobManager(SubmissionScheduler scheduler) {
+        this(scheduler, false);
+    }
+    
+    /**
+     * Creates a new job manager.
+     * 
+     * @param scheduler The scheduler that runs the jobs.
+     * @param ownsScheduler Whether the scheduler is shut down with this manager.
+     */
+    private SubmissionJobManager(SubmissionScheduler scheduler, boolean ownsScheduler) {
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.jobs = new ConcurrentHashMap<>();
+        this.retention = DEFAULT_RETENTION;
+    }
+    
+    /**
+     * Sets for how long the results of finished jobs are kept. Default is {@link #DEFAULT_RETENTION}.
+     * 
+     * @param retention The retention duration.
+     */
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+    
+    /**
+     * Queues a new submission job.
+     * 
+     * @param user The name of the user that submits. Only this user may retrieve the job later.
+     * @param target The target that is submitted to.
+     * @param task The work that executes the submission.
+     * 
+     * @return The new job, initially in the {@link SubmissionJob.State#QUEUED} state.
+     * 
+     * @throws QueueFullException If the queue is full and the job is rejected.
+     */
+    public SubmissionJob submit(String user, SubmissionTarget target, SubmissionTask task)
+            throws QueueFullException {
+        
+        removeExpiredJobs();
+        
+        SubmissionJob job = new SubmissionJob(UUID.randomUUID().toString(), user, target);
+        jobs.put(job.getId(), job);
+        
+        try {
+            scheduler.schedule(target.getCourse(), () -> runJob(job, task));
+        } catch (QueueFullException e) {
+            jobs.remove(job.getId());
+            LOGGER.warning(() -> "Rejecting submission to " + target + ": queue is full");
+            throw e;
+        }
+        
+        LOGGER.info(() -> "Queued submission to " + target + " as job " + job.getId());
+        return job;
+    }
+    
+    /**
+     * Runs the given job. Called by a worker thread.
+     * 
+     * @param job The job to run.
+     * @param task The work of the job.
+     */
+    private void runJob(SubmissionJob job, SubmissionTask task) {
+        job.setRunning();
+        
+        try {
+            job.setFinished(task.run());
+            LOGGER.info(() -> "Submission job " + job.getId() + " waited " + job.getQueueTime().get().toMillis()
+                    + " ms in the queue and ran for " + job.getExecutionTime().get().toMillis() + " ms");
+        
+        } catch (StorageException e) {
+            LOGGER.log(Level.WARNING, "Submission job " + job.getId() + " to " + job.getTarget() + " failed", e);
+            job.setFailed();
+        
+        // checkstyle: stop exception type check
+        } catch (RuntimeException e) {
+        // checkstyle: resume exception type check
+            // mark the job as done, otherwise it would stay running forever
+            LOGGER.log(Level.SEVERE, "Unexpected exception in submission job " + job.getId(), e);
+            job.setFailed();
+        }
+    }
+    
+    /**
+     * Retrieves a job.
+     * 
+     * @param id The ID of the job.
+     * 
+     * @return The job, or {@link Optional#empty()} if no such job exists (or it already expired).
+     */
+    public Optional<SubmissionJob> getJob(String id) {
+        removeExpiredJobs();
+        return Optional.ofNullable(jobs.get(id));
+    }
+    
+    /**
+     * Returns the number of submissions that are waiting for a free worker. If the scheduler is shared, this includes
+     * submissions that are not jobs of this manager.
+     * 
+     * @return The number of queued submissions.
+     */
+    public int getQueueSize() {
+        return scheduler.getQueueSize();
+    }
+    
+    /**
+     * Removes all jobs that were completed longer than the retention period ago.
+     */
+    private void removeExpiredJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getCompletionTime()
+                .map(time -> time.isBefore(threshold))
+                .orElse(false));
+    }
+    
+    /**
+     * Shuts down the scheduler if this manager created it: new jobs are no longer accepted, jobs that are already
+     * queued are still processed, after which the worker threads terminate. A shared scheduler is left running.
+     */
+    public void shutdown() {
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+}
@@ -8,10 +8,23 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.CheckMessageDto;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionResultDto;
@@ -19,19 +32,25 @@ import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
 import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFingerprint;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
 import net.ssehub.teaching.exercise_submitter.server.storage.Version;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Assignment;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.CheckConfiguration;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.ResultDeliveryQueue;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.Check;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.CheckstyleCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.CliJavacCheck;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.CompilationCache;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.EncodingCheck;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileSizeCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.InMemoryCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.InternalJavacCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.JavacCheck;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.JavacWorkerPool;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.SrcFolderCheck;
@@ -52,17 +71,111 @@ public class SubmissionManager {
     
     private List<Check> defaultRejectingChecks;
     
+    private ExecutorService checkExecutor;
+    
+    private ResultDeliveryQueue resultDeliveryQueue;
+    
+    private JavacWorkerPool javacWorkerPool;
+    
+    private CompilationCache compilationCache;
+    
+    private CheckResultCache checkResultCache;
+    
+    private Map<List<String>, CheckPlan> checkPlans;
+    
     /**
-     * Creates a new {@link SubmissionManager}.
+     * Creates a new {@link SubmissionManager}. Independent checks are run in parallel on as many threads as there
+     * are processors available.
      * 
      * @param storage The storage component to use.
      * @param stuMgmtView The view on the student management system to inform about check results. 
      */
     public SubmissionManager(ISubmissionStorage storage, StuMgmtView stuMgmtView) {
+        this(storage, stuMgmtView, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Creates a new {@link SubmissionManager}.
+     * 
+     * @param storage The storage component to use.
+     * @param stuMgmtView The view on the student management system to inform about check results.
+     * @param numCheckThreads The number of threads that independent checks are run on in parallel. This pool is
+     *      shared by all submissions.
+     * 
+     * @throws IllegalArgumentException If numCheckThreads is not positive.
+     */
+    public SubmissionManager(ISubmissionStorage storage, StuMgmtView stuMgmtView, int numCheckThreads)
+            throws IllegalArgumentException {
+        if (numCheckThreads <= 0) {
+            throw new IllegalArgumentException("Number of check threads must be positive: " + numCheckThreads);
+        }
+        
         this.storage = storage;
         this.stuMgmtView = stuMgmtView;
         
         this.defaultRejectingChecks = new LinkedList<>();
+        this.checkPlans = new ConcurrentHashMap<>();
+        
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "check-worker-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numCheckThreads, numCheckThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        this.checkExecutor = executor;
+        
+        if (!InternalJavacCheck.isSupported()) {
+            // at most one compilation per check thread can run at the same time
+            this.javacWorkerPool = new JavacWorkerPool("javac", numCheckThreads);
+        }
+    }
+    
+    /**
+     * Sets the queue that check results of accepted submissions are delivered through. Without a queue, results are
+     * sent to the student management system before {@link #submit(SubmissionTarget, Submission)} returns.
+     * 
+     * @param resultDeliveryQueue The queue to deliver results through, or <code>null</code> to send them directly.
+     */
+    public void setResultDeliveryQueue(ResultDeliveryQueue resultDeliveryQueue) {
+        this.resultDeliveryQueue = resultDeliveryQueue;
+    }
+    
+    /**
+     * Sets the cache that compilation results of all {@link JavacCheck}s are shared through.
+     * 
+     * @param compilationCache The cache to use, or <code>null</code> to always run the compiler.
+     */
+    public void setCompilationCache(CompilationCache compilationCache) {
+        this.compilationCache = compilationCache;
+        
+        // existing checks were created with the previous cache
+        this.checkPlans.clear();
+    }
+    
+    /**
+     * Sets the cache for the outcome of all checks of a submission. Submissions with the same content as an earlier
+     * one (of any group) to an assignment with the same check configuration get the cached outcome instead of
+     * running the checks again.
+     * 
+     * @param checkResultCache The cache to use, or <code>null</code> to always run the checks.
+     */
+    public void setCheckResultCache(CheckResultCache checkResultCache) {
+        this.checkResultCache = checkResultCache;
+    }
+    
+    /**
+     * Stops the threads that run checks in parallel and the compiler processes of this manager. Checks that are
+     * already running are finished, but no further submissions can be checked afterwards. Calling this more than once
+     * has no further effect.
+     */
+    public void close() {
+        checkExecutor.shutdown();
+        if (javacWorkerPool != null) {
+            javacWorkerPool.close();
+        }
     }
     
     /**
@@ -72,16 +185,79 @@ public class SubmissionManager {
      */
     public void addDefaultRejectingCheck(Check check) {
         this.defaultRejectingChecks.add(check);
+        
+        // the default checks are not part of the cache key
+        if (checkResultCache != null) {
+            checkResultCache.clear();
+        }
+    }
+    
+    /**
+     * Creates a {@link ZipSubmissionReader} that enforces the limits of the default rejecting {@link FileSizeCheck}s
+     * while reading. Uploads that these checks would reject anyway are thus aborted before they are read completely.
+     * 
+     * @return A reader for zip uploads; without limits if no {@link FileSizeCheck} is added as a default rejecting
+     *      check.
+     */
+    public ZipSubmissionReader createZipSubmissionReader() {
+        long maxFileSize = Long.MAX_VALUE;
+        long maxSubmissionSize = Long.MAX_VALUE;
+        
+        for (Check check : defaultRejectingChecks) {
+            if (check instanceof FileSizeCheck) {
+                FileSizeCheck fileSizeCheck = (FileSizeCheck) check;
+                maxFileSize = Math.min(maxFileSize, fileSizeCheck.getMaxFileSize());
+                maxSubmissionSize = Math.min(maxSubmissionSize, fileSizeCheck.getMaxSubmissionSize());
+            }
+        }
+        
+        return new ZipSubmissionReader(maxFileSize, maxSubmissionSize);
     }
 
     /**
      * Helper class to hold checks to run.
      */
     private static class Checks {
+        private List<CheckConfiguration> configurations = new LinkedList<>();
         private List<Check> rejecting = new LinkedList<>();
+        private List<Check> independentRejecting = new LinkedList<>();
         private List<Check> nonRejecting = new LinkedList<>();
     }
     
+    /**
+     * The assignment-specific {@link Check}s created from the {@link CheckConfiguration}s of an assignment. Since
+     * {@link Check}s are not modified after their creation and keep their result messages per thread, a plan is built
+     * once and re-used for all submissions to the assignment, until its configurations change.
+     * <p>
+     * Rejecting checks with the configuration property <code>independent</code> set to <code>true</code> don't
+     * require the checks before them to pass, so they may run in parallel to other checks.
+     */
+    private static class CheckPlan {
+        private List<CheckConfiguration> configurations;
+        private List<Check> rejecting = new LinkedList<>();
+        private List<Check> independentRejecting = new LinkedList<>();
+        private List<Check> nonRejecting = new LinkedList<>();
+    }
+    
+    /**
+     * Helper class to hold the outcome of a single {@link Check} run.
+     */
+    private static class CheckResult {
+        private boolean passed;
+        private List<ResultMessage> messages;
+        
+        /**
+         * Creates a new result.
+         * 
+         * @param passed Whether the check passed.
+         * @param messages The messages created by the check.
+         */
+        CheckResult(boolean passed, List<ResultMessage> messages) {
+            this.passed = passed;
+            this.messages = messages;
+        }
+    }
+    
     /**
      * Creates the {link Check}s to run for the given target.
      * 
@@ -97,25 +273,67 @@ public class SubmissionManager {
             Course course = stuMgmtView.getCourse(target.getCourse()).orElseThrow();
             Assignment assignment = course.getAssignment(target.getAssignmentName()).orElseThrow();
             
-            for (CheckConfiguration checkConfig : assignment.getCheckConfigurations()) {
+            CheckPlan plan = getCheckPlan(target, assignment.getCheckConfigurations());
+            result.configurations.addAll(plan.configurations);
+            result.rejecting.addAll(plan.rejecting);
+            result.independentRejecting.addAll(plan.independentRejecting);
+            result.nonRejecting.addAll(plan.nonRejecting);
+            
+        } catch (NoSuchElementException e) {
+            LOGGER.warning(() -> "Could not get assignment " + target.getAssignmentName() + " in course "
+                    + target.getCourse() + " to create checks; only running default rejecting checks");
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Returns the {@link CheckPlan} for the assignment of the given target. The plan is only built again if the
+     * configurations of the assignment changed since it was built the last time.
+     * 
+     * @param target The target that is submitted to.
+     * @param configurations The current check configurations of the assignment.
+     * 
+     * @return The plan with the assignment-specific {@link Check}s.
+     * 
+     * @throws IllegalArgumentException If a check could not be created.
+     */
+    private CheckPlan getCheckPlan(SubmissionTarget target, List<CheckConfiguration> configurations)
+            throws IllegalArgumentException {
+        
+        List<String> key = List.of(target.getCourse(), target.getAssignmentName());
+        CheckPlan plan = checkPlans.get(key);
+        
+        if (plan == null || !plan.configurations.equals(configurations)) {
+            LOGGER.fine(() -> "Creating checks for assignment " + target.getAssignmentName() + " in course "
+                    + target.getCourse());
+            
+            plan = new CheckPlan();
+            plan.configurations = configurations;
+            for (CheckConfiguration checkConfig : configurations) {
                 Check check = createCheck(checkConfig);
                 if (checkConfig.isRejecting()) {
-                    result.rejecting.add(check);
+                    if (checkConfig.getProperty("independent").map(Boolean::parseBoolean).orElse(false)) {
+                        plan.independentRejecting.add(check);
+                    } else {
+                        plan.rejecting.add(check);
+                    }
                 } else {
-                    result.nonRejecting.add(check);
+                    plan.nonRejecting.add(check);
                 }
             }
             
-        } catch (NoSuchElementException e) {
-            LOGGER.warning(() -> "Could not get assignment " + target.getAssignmentName() + " in course "
-                    + target.getCourse() + " to create checks; only running default rejecting checks");
+            // concurrent submissions may build the same plan; as checks are not modified after their creation and
+            // their result messages are confined to the thread that runs them, either plan can be kept
+            checkPlans.put(key, plan);
         }
         
-        return result;
+        return plan;
     }
     
     /**
-     * Creates a {@link Check} instance for the given {@link CheckConfiguration}.
+     * Creates a {@link Check} instance for the given {@link CheckConfiguration}. The instance is re-used for all
+     * submissions to assignments with this configuration, possibly on multiple threads at the same time.
      * <p>
      * Protected visibility for test cases.
      * 
@@ -137,10 +355,12 @@ public class SubmissionManager {
             break;
             
         case JavacCheck.CHECK_NAME:
-            JavacCheck javacCheck = InternalJavacCheck.isSupported() ? new InternalJavacCheck() : new CliJavacCheck();
+            JavacCheck javacCheck = InternalJavacCheck.isSupported()
+                    ? new InternalJavacCheck() : new CliJavacCheck(javacWorkerPool);
             checkConfiguration.getProperty("version")
                     .map(Integer::parseInt)
                     .ifPresent(version -> javacCheck.setJavaVersion(version));
+            javacCheck.setCompilationCache(compilationCache);
             result = javacCheck;
             break;
             
@@ -183,10 +403,10 @@ public class SubmissionManager {
         
         if (submissionContentDiffers(target, submission)) {
             Checks checks = createChecks(target);
-            hasAssignmentSpecificTests = checks.nonRejecting.size() > 0
+            hasAssignmentSpecificTests = checks.nonRejecting.size() > 0 || checks.independentRejecting.size() > 0
                     || checks.rejecting.size() > defaultRejectingChecks.size();
             
-            accept = runChecks(submission, checks, checkMessages);
+            accept = runChecksCached(submission, checks, checkMessages);
             if (accept) {
                 storage.submitNewVersion(target, submission);
             }
@@ -208,14 +428,19 @@ public class SubmissionManager {
                 .collect(Collectors.toList()));
         
         if (accept && hasAssignmentSpecificTests) {
-            stuMgmtView.sendSubmissionResult(target, checkMessages);
+            if (resultDeliveryQueue != null) {
+                resultDeliveryQueue.enqueue(target, checkMessages);
+            } else {
+                stuMgmtView.sendSubmissionResult(target, checkMessages);
+            }
         }
         
         return result;
     }
     
     /**
-     * Checks if the given submission content differs from the latest submission in the storage.
+     * Checks if the given submission content differs from the latest submission in the storage. Only the
+     * {@link SubmissionFingerprint}s are compared, so the files of the latest submission are not read.
      * 
      * @param target The target of the submission.
      * @param newSubmission The new submission.
@@ -231,30 +456,92 @@ public class SubmissionManager {
         boolean different;
         List<Version> versions = storage.getVersions(target);
         if (!versions.isEmpty()) {
-            Submission latest = storage.getSubmission(target, versions.get(0));
+            SubmissionFingerprint latest = storage.getFingerprint(target, versions.get(0));
+            different = !latest.equals(newSubmission.getFingerprint());
             
-            if (latest.getFilepaths().equals(newSubmission.getFilepaths())) {
-                different = false;
-                for (Path file : latest.getFilepaths()) {
-                    if (!Arrays.equals(latest.getFileContent(file), newSubmission.getFileContent(file))) {
-                        different = true;
-                        break;
-                    }
-                }
+        } else {
+            different = true;
+        }
+        
+        return different;
+    }
+
+    /**
+     * Looks up the outcome of the {@link Check}s in the {@link CheckResultCache}, or runs them and caches their
+     * outcome. Outcomes with internal errors are not cached, as these errors are not caused by the submission.
+     * 
+     * @param submission The submission to run {@link Check}s on.
+     * @param checks The checks to run on the submission.
+     * @param checkMessages {@link ResultMessage}s from the checks are added to this list.
+     * 
+     * @return Whether the submission should be accepted (<code>true</code>) or rejected (<code>false</code>).
+     */
+    private boolean runChecksCached(Submission submission, Checks checks, List<ResultMessage> checkMessages) {
+        boolean accept;
+        
+        if (checkResultCache != null) {
+            CheckResultCache.Key key = new CheckResultCache.Key(submission.getFingerprint().getAggregateHash(),
+                    checks.configurations, getResourceState(checks.configurations));
+            Optional<CheckResultCache.Result> cached = checkResultCache.get(key);
+            
+            if (cached.isPresent()) {
+                LOGGER.fine("Using cached check results for identical submission");
+                accept = cached.get().isAccepted();
+                checkMessages.addAll(cached.get().getMessages());
                 
             } else {
-                different = true;
+                List<ResultMessage> messages = new LinkedList<>();
+                accept = runChecks(submission, checks, messages);
+                checkMessages.addAll(messages);
+                
+                if (messages.stream().noneMatch(ResultMessage::isInternalError)) {
+                    checkResultCache.put(key, accept, messages);
+                }
             }
             
         } else {
-            different = true;
+            accept = runChecks(submission, checks, checkMessages);
         }
         
-        return different;
+        return accept;
+    }
+    
+    /**
+     * Describes the state of the files that the given {@link CheckConfiguration}s refer to, i.e. the Checkstyle rules
+     * files. Part of the {@link CheckResultCache.Key}, so that changing such a file invalidates cached results.
+     * 
+     * @param configurations The check configurations.
+     * 
+     * @return The paths, sizes and last modification times of the referenced files.
+     */
+    private static String getResourceState(List<CheckConfiguration> configurations) {
+        StringBuilder result = new StringBuilder();
+        for (CheckConfiguration configuration : configurations) {
+            if (configuration.getCheckName().equals(CheckstyleCheck.CHECK_NAME)) {
+                Optional<Path> rules = configuration.getProperty("rules").map(Path::of);
+                if (rules.isPresent()) {
+                    result.append(rules.get()).append('\0');
+                    try {
+                        result.append(Files.size(rules.get())).append('\0')
+                                .append(Files.getLastModifiedTime(rules.get()).toMillis());
+                    } catch (IOException e) {
+                        result.append("missing");
+                    }
+                    result.append('\n');
+                }
+            }
+        }
+        return result.toString();
     }
 
     /**
-     * Runs {@link Check}s on the given submission. For this, the submission is written to a temporary directory.
+     * Runs {@link Check}s on the given submission. {@link InMemoryCheck}s run directly on the files of the submission.
+     * Only if there are other checks, the submission is written to a temporary directory for them.
+     * <p>
+     * Rejecting checks that are not independent (see {@link CheckPlan}) run first, one after another. If all of them
+     * pass, the independent rejecting checks and all non-rejecting checks are run in parallel. Their results
+     * are still evaluated in the configured order, so that the outcome and the messages are the same as if all
+     * checks ran sequentially.
      * 
      * @param submission The submission to run {@link Check}s on.
      * @param checks The checks to run on the submission.
@@ -266,33 +553,38 @@ public class SubmissionManager {
         
         boolean accept = true;
         
+        Map<Path, byte[]> files = submission.getFiles();
+        boolean needsDirectory = Stream.of(checks.rejecting, checks.independentRejecting, checks.nonRejecting)
+                .flatMap(List::stream)
+                .anyMatch(check -> !(check instanceof InMemoryCheck));
+        
         Path temporaryDirectory = null;
         try {
-            temporaryDirectory = Files.createTempDirectory("exercise-submission");
-            submission.writeToDirectory(temporaryDirectory);
+            if (needsDirectory) {
+                temporaryDirectory = Files.createTempDirectory("exercise-submission");
+                submission.writeToDirectory(temporaryDirectory);
+            }
             
             for (Check check : checks.rejecting) {
-                boolean passed = check.run(temporaryDirectory);
-                checkMessages.addAll(check.getResultMessages());
-                
-                if (!passed) {
+                CheckResult result = runCheck(check, files, temporaryDirectory);
+                checkMessages.addAll(result.messages);
+                    
+                if (!result.passed) {
                     accept = false;
                     break;
                 }
             }
             
             if (accept) {
-                for (Check check : checks.nonRejecting) {
-                    check.run(temporaryDirectory);
-                    checkMessages.addAll(check.getResultMessages());
-                }
+                accept = runParallelChecks(checks.independentRejecting, checks.nonRejecting, files, temporaryDirectory,
+                        checkMessages);
             }
             
-            
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Failed to create temporary submission directory", e);
             accept = false;
-            checkMessages.add(new ResultMessage("hook", MessageType.ERROR, "An internal error occurred"));
+            checkMessages.add(new ResultMessage("hook", MessageType.ERROR, "An internal error occurred")
+                    .setInternalError(true));
             
         } finally {
             if (temporaryDirectory != null) {
@@ -307,4 +599,168 @@ public class SubmissionManager {
         return accept;
     }
     
+    /**
+     * Runs the given {@link Check}s in parallel on the check executor. The results of the rejecting checks are
+     * evaluated in order; the first failing rejecting check rejects the submission, and the messages of all checks
+     * after it are discarded. The messages of the non-rejecting checks are only added if no rejecting check failed.
+     * <p>
+     * Returns only after all started checks are done, so that the submission directory can safely be deleted.
+     * 
+     * @param rejecting The rejecting checks.
+     * @param nonRejecting The non-rejecting checks.
+     * @param files The files of the submission, for {@link InMemoryCheck}s.
+     * @param submissionDirectory The directory that contains the submission, for all other checks.
+     * @param checkMessages {@link ResultMessage}s from the checks are added to this list.
+     * 
+     * @return Whether all rejecting checks passed.
+     */
+    private boolean runParallelChecks(List<Check> rejecting, List<Check> nonRejecting, Map<Path, byte[]> files,
+            Path submissionDirectory, List<ResultMessage> checkMessages) {
+        
+        // set once the outcome is known, so that checks that did not start yet are skipped
+        AtomicBoolean done = new AtomicBoolean(false);
+        
+        List<Future<CheckResult>> rejectingResults = startChecks(rejecting, files, submissionDirectory, done);
+        List<Future<CheckResult>> nonRejectingResults = startChecks(nonRejecting, files, submissionDirectory, done);
+        
+        boolean accept = true;
+        try {
+            for (Future<CheckResult> future : rejectingResults) {
+                CheckResult result = awaitResult(future);
+                checkMessages.addAll(result.messages);
+                
+                if (!result.passed) {
+                    accept = false;
+                    break;
+                }
+            }
+            
+            if (accept) {
+                for (Future<CheckResult> future : nonRejectingResults) {
+                    checkMessages.addAll(awaitResult(future).messages);
+                }
+            }
+            
+        } finally {
+            done.set(true);
+            awaitCompletion(rejectingResults);
+            awaitCompletion(nonRejectingResults);
+        }
+        
+        return accept;
+    }
+    
+    /**
+     * Submits the given {@link Check}s to the check executor.
+     * 
+     * @param checks The checks to run.
+     * @param files The files of the submission, for {@link InMemoryCheck}s.
+     * @param submissionDirectory The directory that contains the submission, for all other checks.
+     * @param skip If this is <code>true</code> when a check is about to start, it is skipped instead.
+     * 
+     * @return The pending results of the checks, in the same order as the checks.
+     */
+    private List<Future<CheckResult>> startChecks(List<Check> checks, Map<Path, byte[]> files,
+            Path submissionDirectory, AtomicBoolean skip) {
+        List<Future<CheckResult>> results = new LinkedList<>();
+        for (Check check : checks) {
+            results.add(checkExecutor.submit(() -> {
+                CheckResult result;
+                if (skip.get()) {
+                    result = new CheckResult(false, Collections.emptyList());
+                } else {
+                    result = runCheck(check, files, submissionDirectory);
+                }
+                return result;
+            }));
+        }
+        return results;
+    }
+    
+    /**
+     * Runs a single {@link Check}. {@link InMemoryCheck}s run on the files in memory, all other checks on the
+     * submission directory. The {@link ResultMessage}s of the check are retrieved even if it throws, so that they do
+     * not remain on the current thread and show up in the result of the next submission that runs on it.
+     * 
+     * @param check The check to run.
+     * @param files The files of the submission.
+     * @param submissionDirectory The directory that contains the submission. May be <code>null</code> if the check
+     *      is an {@link InMemoryCheck}.
+     * 
+     * @return Whether the check was successful, and its messages.
+     */
+    private static CheckResult runCheck(Check check, Map<Path, byte[]> files, Path submissionDirectory) {
+        boolean passed;
+        List<ResultMessage> messages;
+        try {
+            if (check instanceof InMemoryCheck) {
+                passed = ((InMemoryCheck) check).run(files);
+            } else {
+                passed = check.run(submissionDirectory);
+            }
+        } finally {
+            messages = check.getResultMessages();
+        }
+        return new CheckResult(passed, messages);
+    }
+    
+    /**
+     * Waits for the result of a {@link Check} that runs on the check executor. If the check threw an unchecked
+     * exception, it is re-thrown in the current thread.
+     * 
+     * @param future The pending result of the check.
+     * 
+     * @return The result of the check. If waiting is interrupted, a failed result with an internal error message.
+     */
+    private static CheckResult awaitResult(Future<CheckResult> future) {
+        CheckResult result;
+        try {
+            result = future.get();
+            
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            LOGGER.log(Level.WARNING, "Check failed with unexpected exception", e);
+            result = new CheckResult(false, Arrays.asList(
+                    new ResultMessage("hook", MessageType.ERROR, "An internal error occurred").setInternalError(true)));
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, "Interrupted while waiting for check", e);
+            result = new CheckResult(false, Arrays.asList(
+                    new ResultMessage("hook", MessageType.ERROR, "An internal error occurred").setInternalError(true)));
+        }
+        return result;
+    }
+    
+    /**
+     * Waits until all of the given checks are done. Their results and exceptions are ignored.
+     * 
+     * @param futures The pending results of the checks.
+     */
+    private static void awaitCompletion(List<Future<CheckResult>> futures) {
+        boolean interrupted = false;
+        for (Future<CheckResult> future : futures) {
+            boolean finished = false;
+            while (!finished) {
+                try {
+                    future.get();
+                    finished = true;
+                } catch (ExecutionException e) {
+                    finished = true;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
 }
@@ -0,0 +1,313 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs submissions on a bounded pool of worker threads, independent of the threads that receive the HTTP requests.
+ * <p>
+ * Waiting submissions are ordered by weighted fair queuing per course (start-time fair queuing): each course gets a
+ * share of the workers proportional to its weight, so a large course with many submissions shortly before a deadline
+ * cannot starve the submissions of a small course. Within a course, submissions run in the order they were scheduled.
+ * <p>
+ * The number of waiting submissions is limited, both in total and per course. Further submissions are rejected with a
+ * {@link QueueFullException} that contains an estimate of when the client should try again.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class SubmissionScheduler {
+    
+    /**
+     * The weight of courses that no explicit weight is set for.
+     */
+    public static final double DEFAULT_WEIGHT = 1.0;
+    
+    private static final Logger LOGGER = Logger.getLogger(SubmissionScheduler.class.getName());
+    
+    /**
+     * How strongly a new execution time influences the average execution time.
+     */
+    private static final double AVERAGE_FACTOR = 0.2;
+    
+    private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+    
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(1);
+    
+    private int numWorkers;
+    
+    private int maxQueued;
+    
+    private int maxQueuedPerCourse;
+    
+    private Queue<Entry> queue;
+    
+    private Map<String, Integer> queuedPerCourse;
+    
+    private Map<String, Double> weights;
+    
+    /**
+     * The virtual finish time of the last scheduled submission of each course. Courses that are not behind the
+     * virtual time are removed.
+     */
+    private Map<String, Double> finishTags;
+    
+    private double virtualTime;
+    
+    private long sequence;
+    
+    private double averageExecutionNanos;
+    
+    private boolean shutdown;
+    
+    /**
+     * A waiting submission.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        
+        private String course;
+        
+        private Runnable task;
+        
+        private double startTag;
+        
+        private long sequence;
+        
+        /**
+         * Creates an entry.
+         * 
+         * @param course The course that the submission belongs to.
+         * @param task The work of the submission.
+         * @param startTag The virtual time at which this submission should start.
+         * @param sequence Increasing number to order submissions with the same start tag.
+         */
+        private Entry(String course, Runnable task, double startTag, long sequence) {
+            this.course = course;
+            this.task = task;
+            this.startTag = startTag;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public int compareTo(Entry other) {
+            int result = Double.compare(startTag, other.startTag);
+            if (result == 0) {
+                result = Long.compare(sequence, other.sequence);
+            }
+            return result;
+        }
+    
+    }
+    
+    /**
+     * Creates and starts a new scheduler.
+     * 
+     * @param numWorkers The number of worker threads that process submissions in parallel.
+     * @param maxQueued The maximum number of submissions that may wait for a free worker. This is also the limit
+     *      per course, unless {@link #setMaxQueuedPerCourse(int)} is used.
+     * 
+     * @throws IllegalArgumentException If numWorkers or maxQueued are not positive.
+     */
+    public SubmissionScheduler(int numWorkers, int maxQueued) throws IllegalArgumentException {
+        if (numWorkers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + numWorkers);
+        }
+        if (maxQueued <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + maxQueued);
+        }
+        
+        this.numWorkers = numWorkers;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerCourse = maxQueued;
+        this.queue = new PriorityQueue<>();
+        this.queuedPerCourse = new HashMap<>();
+        this.weights = new HashMap<>();
+        this.finishTags = new HashMap<>();
+        
+        for (int i = 1; i <= numWorkers; i++) {
+            Thread worker = new Thread(this::work, "submission-scheduler-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        
+        LOGGER.config(() -> "Processing submissions with " + numWorkers + " workers and a queue of " + maxQueued);
+    }
+    
+    /**
+     * Sets the maximum number of submissions of a single course that may wait for a free worker. By default, this is
+     * the total limit of the queue.
+     * 
+     * @param maxQueuedPerCourse The maximum number of waiting submissions per course.
+     * 
+     * @throws IllegalArgumentException If maxQueuedPerCourse is not positive.
+     */
+    public synchronized void setMaxQueuedPerCourse(int maxQueuedPerCourse) throws IllegalArgumentException {
+        if (maxQueuedPerCourse <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + maxQueuedPerCourse);
+        }
+        this.maxQueuedPerCourse = maxQueuedPerCourse;
+    }
+    
+    /**
+     * Sets the weight of a course. A course with twice the weight of another course gets twice as many workers while
+     * both have waiting submissions. Default is {@link #DEFAULT_WEIGHT}.
+     * 
+     * @param course The identifier of the course.
+     * @param weight The weight of the course.
+     * 
+     * @throws IllegalArgumentException If the weight is not positive.
+     */
+    public synchronized void setWeight(String course, double weight) throws IllegalArgumentException {
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        weights.put(course, weight);
+    }
+    
+    /**
+     * Queues a submission. It is run by a worker thread once all submissions that are due earlier are started.
+     * 
+     * @param course The identifier of the course that the submission belongs to.
+     * @param task The work of the submission. Exceptions thrown by it are logged.
+     * 
+     * @throws QueueFullException If too many submissions are waiting, in total or for the given course.
+     * @throws IllegalStateException If this scheduler is shut down.
+     */
+    public synchronized void schedule(String course, Runnable task) throws QueueFullException, IllegalStateException {
+        if (shutdown) {
+            throw new IllegalStateException("Scheduler is shut down");
+        }
+        
+        int queuedForCourse = queuedPerCourse.getOrDefault(course, 0);
+        if (queue.size() >= maxQueued || queuedForCourse >= maxQueuedPerCourse) {
+            Duration retryAfter = estimateRetryAfter();
+            LOGGER.warning(() -> "Rejecting submission for course " + course + ": " + queue.size()
+                    + " submissions waiting, " + queuedForCourse + " of them for this course");
+            throw new QueueFullException("Submission queue is full", retryAfter);
+        }
+        
+        double startTag = Math.max(virtualTime, finishTags.getOrDefault(course, 0.0));
+        finishTags.put(course, startTag + 1.0 / weights.getOrDefault(course, DEFAULT_WEIGHT));
+        queuedPerCourse.put(course, queuedForCourse + 1);
+        
+        queue.add(new Entry(course, task, startTag, sequence++));
+        notify();
+    }
+    
+    /**
+     * Estimates how long it takes until the currently waiting submissions are started, based on the average
+     * execution time of previous submissions.
+     * 
+     * @return The estimated duration, rounded up to full seconds.
+     */
+    private Duration estimateRetryAfter() {
+        long nanos = (long) (averageExecutionNanos * (queue.size() + 1) / numWorkers);
+        Duration result = Duration.ofSeconds((nanos + 999_999_999L) / 1_000_000_000L);
+        
+        if (result.compareTo(MIN_RETRY_AFTER) < 0) {
+            result = MIN_RETRY_AFTER;
+        } else if (result.compareTo(MAX_RETRY_AFTER) > 0) {
+            result = MAX_RETRY_AFTER;
+        }
+        return result;
+    }
+    
+    /**
+     * The loop of a worker thread. Runs submissions until the scheduler is shut down and the queue is empty.
+     */
+    private void work() {
+        Entry entry;
+        while ((entry = take()) != null) {
+            long start = System.nanoTime();
+            try {
+                entry.task.run();
+            
+            // checkstyle: stop exception type check
+            } catch (RuntimeException e) {
+            // checkstyle: resume exception type check
+                // the worker must survive faulty tasks
+                LOGGER.log(Level.SEVERE, "Unexpected exception in submission for course " + entry.course, e);
+            }
+            
+            recordExecutionTime(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Waits for and removes the submission that is due next.
+     * 
+     * @return The next submission, or <code>null</code> if the scheduler is shut down and no submissions are left.
+     */
+    private synchronized Entry take() {
+        while (queue.isEmpty() && !shutdown) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                // workers are only stopped via shutdown()
+            }
+        }
+        
+        Entry result = queue.poll();
+        if (result != null) {
+            virtualTime = Math.max(virtualTime, result.startTag);
+            finishTags.values().removeIf(finishTag -> finishTag <= virtualTime);
+            
+            int remaining = queuedPerCourse.get(result.course) - 1;
+            if (remaining > 0) {
+                queuedPerCourse.put(result.course, remaining);
+            } else {
+                queuedPerCourse.remove(result.course);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Updates the average execution time of submissions.
+     * 
+     * @param nanos The execution time of a submission, in nanoseconds.
+     */
+    private synchronized void recordExecutionTime(long nanos) {
+        if (averageExecutionNanos == 0) {
+            averageExecutionNanos = nanos;
+        } else {
+            averageExecutionNanos = AVERAGE_FACTOR * nanos + (1 - AVERAGE_FACTOR) * averageExecutionNanos;
+        }
+    }
+    
+    /**
+     * Returns the number of submissions that are waiting for a free worker.
+     * 
+     * @return The number of queued submissions.
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+    
+    /**
+     * Returns the number of submissions of the given course that are waiting for a free worker.
+     * 
+     * @param course The identifier of the course.
+     * 
+     * @return The number of queued submissions of the course.
+     */
+    public synchronized int getQueueSize(String course) {
+        return queuedPerCourse.getOrDefault(course, 0);
+    }
+    
+    /**
+     * Stops accepting new submissions. Submissions that are already queued are still processed, after which the
+     * worker threads terminate.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        notifyAll();
+    }
+
+}
@@ -0,0 +1,140 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
+
+/**
+ * Manages the locks that keep concurrent operations on the {@link ISubmissionStorage} and the {@link StuMgmtView}
+ * from interfering with each other.
+ * <p>
+ * Operations on a single {@link SubmissionTarget} lock only that target (via a fixed set of lock stripes), so
+ * submissions to different groups can run in parallel. Updates of the {@link StuMgmtView} (e.g. notifications or
+ * full reloads) are serialized by a separate lock. They do not block operations on targets, as the
+ * {@link StuMgmtView} publishes new data atomically.
+ * 
+ * @author Adam
+ */
+public class TargetLockManager {
+    
+    /**
+     * The default number of lock stripes.
+     */
+    public static final int DEFAULT_NUM_STRIPES = 64;
+    
+    private Lock[] stripes;
+    
+    private Lock viewUpdateLock;
+    
+    /**
+     * Creates a new lock manager with {@link #DEFAULT_NUM_STRIPES} stripes.
+     */
+    public TargetLockManager() {
+        this(DEFAULT_NUM_STRIPES);
+    }
+    
+    /**
+     * Creates a new lock manager with the given number of stripes.
+     * 
+     * @param numStripes The number of lock stripes. Targets are distributed among these; two different targets that
+     *      happen to map to the same stripe will block each other.
+     * 
+     * @throws IllegalArgumentException If numStripes is not positive.
+     */
+    public TargetLockManager(int numStripes) throws IllegalArgumentException {
+        if (numStripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + numStripes);
+        }
+        
+        this.stripes = new Lock[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        
+        this.viewUpdateLock = new ReentrantLock();
+    }
+    
+    /**
+     * Returns the number of lock stripes.
+     * 
+     * @return The number of stripes.
+     */
+    public int getNumStripes() {
+        return stripes.length;
+    }
+    
+    /**
+     * Returns the stripe index that the given target maps to.
+     * <p>
+     * Package visibility for test cases.
+     * 
+     * @param target The target.
+     * 
+     * @return The index of the stripe in the range <code>[0, numStripes)</code>.
+     */
+    int getStripeIndex(SubmissionTarget target) {
+        int hash = target.hashCode();
+        hash ^= hash >>> 16; // spread higher bits, as the low bits of string hashes are poorly distributed
+        return Math.floorMod(hash, stripes.length);
+    }
+    
+    /**
+     * Locks the given target for an operation on it. Blocks until the lock of the stripe that the target maps to is
+     * acquired.
+     * 
+     * @param target The target to lock.
+     * 
+     * @return A handle that releases the lock when closed; intended to be used in a try-with-resources statement.
+     */
+    public LockHandle lockTarget(SubmissionTarget target) {
+        Lock stripe = stripes[getStripeIndex(target)];
+        stripe.lock();
+        return new LockHandle(stripe);
+    }
+    
+    /**
+     * Locks the {@link StuMgmtView} for updating it (and creating the corresponding targets in the storage). Only one
+     * update can run at a time; operations on targets are not blocked by this.
+     * 
+     * @return A handle that releases the lock when closed; intended to be used in a try-with-resources statement.
+     */
+    public LockHandle lockView() {
+        viewUpdateLock.lock();
+        return new LockHandle(viewUpdateLock);
+    }
+    
+    /**
+     * An acquired lock. Closing this handle releases it.
+     */
+    public static final class LockHandle implements AutoCloseable {
+        
+        private Lock lock;
+        
+        private boolean closed;
+        
+        /**
+         * Creates a handle for the given lock, which must already be acquired.
+         * 
+         * @param lock The acquired lock.
+         */
+        private LockHandle(Lock lock) {
+            this.lock = lock;
+        }
+        
+        /**
+         * Releases the lock of this handle. Calling this more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                lock.unlock();
+            }
+        }
+    
+    }
+
+}
@@ -0,0 +1,22 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+/**
+ * Indicates that an uploaded submission exceeds the configured size limits. The upload is aborted as soon as this is
+ * detected, so the rest of it is not read.
+ * 
+ * @author Adam
+ */
+public class UploadTooLargeException extends Exception {
+
+    private static final long serialVersionUID = 6829015724308211342L;
+
+    /**
+     * Creates this exception.
+     * 
+     * @param message A message describing which limit was exceeded.
+     */
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,179 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileSizeCheck;
+
+/**
+ * Reads a {@link Submission} from a zip archive. The archive is decoded while it is read from the stream, so that
+ * the content of each file is only held once in memory. The size limits (usually those of the {@link FileSizeCheck})
+ * are enforced on the uncompressed content while reading; the upload is aborted as soon as one is exceeded. The
+ * number of entries is limited as well, so that an archive of many empty files can't exhaust memory.
+ * <p>
+ * Directory entries in the archive are ignored. Filenames are interpreted with <code>/</code> as separator.
+ * 
+ * @author Adam
+ */
+public class ZipSubmissionReader {
+    
+    /**
+     * The media type of zip archives.
+     */
+    public static final String MEDIA_TYPE = "application/zip";
+    
+    /**
+     * The default maximum number of entries (files and directories) in an archive.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private long maxFileSize;
+    
+    private long maxSubmissionSize;
+    
+    private int maxEntries;
+    
+    /**
+     * Creates a reader with the given size limits. At most {@link #DEFAULT_MAX_ENTRIES} entries are allowed.
+     * 
+     * @param maxFileSize The maximum number of bytes a single file may have.
+     * @param maxSubmissionSize The maximum number of bytes that all files may have combined.
+     */
+    public ZipSubmissionReader(long maxFileSize, long maxSubmissionSize) {
+        this(maxFileSize, maxSubmissionSize, DEFAULT_MAX_ENTRIES);
+    }
+    
+    /**
+     * Creates a reader with the given limits.
+     * 
+     * @param maxFileSize The maximum number of bytes a single file may have.
+     * @param maxSubmissionSize The maximum number of bytes that all files may have combined.
+     * @param maxEntries The maximum number of entries (files and directories) the archive may have.
+     */
+    public ZipSubmissionReader(long maxFileSize, long maxSubmissionSize, int maxEntries) {
+        this.maxFileSize = maxFileSize;
+        this.maxSubmissionSize = maxSubmissionSize;
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Returns the maximum size of a single file.
+     * 
+     * @return The maximum size in bytes.
+     */
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+    
+    /**
+     * Returns the maximum size of all files combined.
+     * 
+     * @return The maximum size in bytes.
+     */
+    public long getMaxSubmissionSize() {
+        return maxSubmissionSize;
+    }
+    
+    /**
+     * Returns the maximum number of entries in an archive.
+     * 
+     * @return The maximum number of entries.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    /**
+     * Reads a submission from the given zip archive. The stream is read until the last entry of the archive, but not
+     * closed.
+     * 
+     * @param author The author of the submission.
+     * @param archive The stream with the zip archive.
+     * 
+     * @return The submission with all files of the archive.
+     * 
+     * @throws IOException If reading the stream fails or the archive is malformed.
+     * @throws IllegalArgumentException If an entry of the archive has an invalid filepath, or a file is contained
+     *      twice.
+     * @throws UploadTooLargeException If a file or the whole submission exceeds the size limits, or the archive has
+     *      too many entries.
+     */
+    public Submission read(String author, InputStream archive)
+            throws IOException, IllegalArgumentException, UploadTooLargeException {
+        
+        SubmissionBuilder builder = new SubmissionBuilder(author);
+        Set<Path> filepaths = new HashSet<>();
+        long submissionSize = 0;
+        int numEntries = 0;
+        
+        ZipInputStream zip = new ZipInputStream(archive);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            numEntries++;
+            if (numEntries > maxEntries) {
+                throw new UploadTooLargeException("Submission contains too many files");
+            }
+            
+            if (!entry.isDirectory()) {
+                Path filepath = Path.of(entry.getName()).normalize();
+                if (!filepaths.add(filepath)) {
+                    throw new IllegalArgumentException(filepath + " is contained multiple times");
+                }
+                
+                byte[] content = readEntry(zip, filepath, submissionSize);
+                submissionSize += content.length;
+                
+                builder.addFile(filepath, content);
+            }
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * Reads the content of the current entry of the archive.
+     * 
+     * @param zip The archive, positioned at the start of the entry.
+     * @param filepath The filepath of the entry, for error messages.
+     * @param previousSize The combined size of all previously read entries.
+     * 
+     * @return The uncompressed content of the entry.
+     * 
+     * @throws IOException If reading the entry fails.
+     * @throws UploadTooLargeException If the entry exceeds the size limits.
+     */
+    private byte[] readEntry(ZipInputStream zip, Path filepath, long previousSize)
+            throws IOException, UploadTooLargeException {
+        
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        
+        int read;
+        while ((read = zip.read(buffer)) != -1) {
+            size += read;
+            
+            if (size > maxFileSize) {
+                throw new UploadTooLargeException("File " + filepath + " is too large");
+            }
+            if (previousSize + size > maxSubmissionSize) {
+                throw new UploadTooLargeException("Submission size is too large");
+            }
+            
+            content.write(buffer, 0, read);
+        }
+        
+        return content.toByteArray();
+    }
+    
+}
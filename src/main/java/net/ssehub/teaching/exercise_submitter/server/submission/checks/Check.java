@@ -23,18 +23,21 @@ import java.util.List;
  * A check that runs on a submission directory. Checks whether a certain requirement is fulfilled by the submission.
  * Can either fail or succeed (return value of {@link #run(Path)}) and creates {@link ResultMessage}s with further
  * information (see {@link #getResultMessages()}).
+ * <p>
+ * The result messages are kept per thread, so a configured instance can be re-used for many submissions and may run
+ * on multiple threads at the same time. {@link #getResultMessages()} must be called on the thread that ran the check.
  * 
  * @author Adam
  */
 public abstract class Check {
     
-    private List<ResultMessage> messages;
+    private ThreadLocal<List<ResultMessage>> messages;
     
     /**
      * Creates a re-usable {@link Check}.
      */
     public Check() {
-        this.messages = new LinkedList<>();
+        this.messages = ThreadLocal.withInitial(LinkedList::new);
     }
 
     /**
@@ -47,23 +50,24 @@ public abstract class Check {
     public abstract boolean run(Path submissionDirectory);
     
     /**
-     * Adds a {@link ResultMessage} created during a {@link #run(Path)} execution.
+     * Adds a {@link ResultMessage} created during a {@link #run(Path)} execution on the current thread.
      * 
      * @param message The message to add.
      */
     protected void addResultMessage(ResultMessage message) {
-        this.messages.add(message);
+        this.messages.get().add(message);
     }
     
     /**
-     * Retrieves the result messages from the previous {@link #run(Path)}. The result messages are cleared after this
-     * method is invoked, i.e. further invocations will return empty sets until {@link #run(Path)} is called again.
+     * Retrieves the result messages from the previous {@link #run(Path)} on the current thread. The result messages
+     * are cleared after this method is invoked, i.e. further invocations will return empty sets until
+     * {@link #run(Path)} is called again.
      * 
      * @return The {@link ResultMessage}s for the previous {@link #run(Path)}.
      */
     public List<ResultMessage> getResultMessages() {
-        List<ResultMessage> result = this.messages;
-        this.messages = new LinkedList<>();
+        List<ResultMessage> result = this.messages.get();
+        this.messages.remove();
         return result;
     }
     
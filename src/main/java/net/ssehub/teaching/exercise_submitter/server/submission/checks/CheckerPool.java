@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * A cache of parsed Checkstyle rules files, with a pool of configured {@link Checker}s for each of them. This avoids
+ * parsing the rules XML and instantiating all Checkstyle modules for every run.
+ * <p>
+ * The rules files are identified by their absolute path. Their last modification time and size are checked on
+ * each {@link #acquire(Path)}; if either changed, the cached configuration and all idle {@link Checker}s for that
+ * file are discarded and the file is parsed again.
+ * <p>
+ * A {@link Checker} is not thread-safe, so each one is only handed out to one run at a time. At most
+ * <code>maxIdle</code> idle {@link Checker}s are kept over all rules files; further returned ones are destroyed.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class CheckerPool {
+
+    /**
+     * The default maximum number of idle {@link Checker}s to keep.
+     */
+    public static final int DEFAULT_MAX_IDLE = 8;
+    
+    private static final Logger LOGGER = Logger.getLogger(CheckerPool.class.getName());
+    
+    private int maxIdle;
+    
+    private Map<Path, RulesFile> rulesFiles;
+    
+    private int numIdle;
+    
+    /**
+     * A parsed rules file, together with the idle {@link Checker}s configured with it.
+     */
+    private static class RulesFile {
+        
+        private FileTime lastModified;
+        
+        private long size;
+        
+        private Configuration configuration;
+        
+        private Deque<Checker> idle;
+        
+        /**
+         * Creates a new entry for a parsed rules file.
+         * 
+         * @param attributes The attributes of the file at the time it was parsed.
+         * @param configuration The parsed configuration.
+         */
+        RulesFile(BasicFileAttributes attributes, Configuration configuration) {
+            this.lastModified = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.configuration = configuration;
+            this.idle = new LinkedList<>();
+        }
+        
+        /**
+         * Checks whether this entry still matches the file with the given attributes.
+         * 
+         * @param attributes The current attributes of the rules file.
+         * 
+         * @return Whether the file is unchanged since this entry was created.
+         */
+        boolean isUpToDate(BasicFileAttributes attributes) {
+            return lastModified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+        
+    }
+    
+    /**
+     * Creates a new pool.
+     * 
+     * @param maxIdle The maximum number of idle {@link Checker}s that are kept for re-use. 0 disables the re-use of
+     *      {@link Checker}s; the parsed configurations are still cached.
+     * 
+     * @throws IllegalArgumentException If maxIdle is negative.
+     */
+    public CheckerPool(int maxIdle) throws IllegalArgumentException {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Maximum number of idle checkers must not be negative: " + maxIdle);
+        }
+        
+        this.maxIdle = maxIdle;
+        this.rulesFiles = new HashMap<>();
+    }
+    
+    /**
+     * Acquires a {@link Checker} that is configured with the given rules file. The returned lease must be closed after
+     * the run is done, to return the {@link Checker} to this pool.
+     * <p>
+     * The base directory, charset and listeners are not part of the configuration; the caller has to set them
+     * for each run. Listeners added to the {@link Checker} must be removed again before the lease is closed.
+     * 
+     * @param rules The Checkstyle rules file.
+     * 
+     * @return A lease for a configured {@link Checker}; intended to be used in a try-with-resources statement.
+     * 
+     * @throws IOException If reading the attributes of the rules file fails.
+     * @throws CheckstyleException If parsing the rules file or configuring the {@link Checker} fails.
+     */
+    public Lease acquire(Path rules) throws IOException, CheckstyleException {
+        Path key = rules.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        
+        RulesFile rulesFile;
+        Checker checker = null;
+        List<Checker> outdated = new LinkedList<>();
+        synchronized (this) {
+            rulesFile = rulesFiles.get(key);
+            
+            if (rulesFile == null || !rulesFile.isUpToDate(attributes)) {
+                if (rulesFile != null) {
+                    LOGGER.info(() -> "Checkstyle rules " + key + " changed, parsing again");
+                    outdated.addAll(rulesFile.idle);
+                    numIdle -= rulesFile.idle.size();
+                }
+                
+                // parsing while holding the lock is fine, as the rules change rarely
+                rulesFile = new RulesFile(attributes,
+                        ConfigurationLoader.loadConfiguration(key.toString(), null));
+                rulesFiles.put(key, rulesFile);
+                
+            } else if (!rulesFile.idle.isEmpty()) {
+                checker = rulesFile.idle.pop();
+                numIdle--;
+            }
+        }
+        
+        outdated.forEach(Checker::destroy);
+        
+        if (checker == null) {
+            LOGGER.fine(() -> "Creating new Checker for " + key);
+            checker = new Checker();
+            checker.setModuleClassLoader(Checker.class.getClassLoader());
+            checker.configure(rulesFile.configuration);
+            checker.setHaltOnException(false);
+        }
+        
+        return new Lease(key, rulesFile, checker);
+    }
+    
+    /**
+     * Returns a {@link Checker} to this pool. Destroys it if the pool already holds the maximum number of idle
+     * {@link Checker}s, or if the rules file changed since it was acquired.
+     * 
+     * @param key The absolute path of the rules file.
+     * @param rulesFile The entry of the rules file that the {@link Checker} was configured with.
+     * @param checker The {@link Checker} to return.
+     */
+    private void release(Path key, RulesFile rulesFile, Checker checker) {
+        boolean keep;
+        synchronized (this) {
+            keep = numIdle < maxIdle && rulesFiles.get(key) == rulesFile;
+            if (keep) {
+                rulesFile.idle.push(checker);
+                numIdle++;
+            }
+        }
+        
+        if (!keep) {
+            checker.destroy();
+        }
+    }
+    
+    /**
+     * Returns the number of {@link Checker}s that are currently idle in this pool.
+     * 
+     * @return The number of idle {@link Checker}s.
+     */
+    public synchronized int getNumIdle() {
+        return numIdle;
+    }
+    
+    /**
+     * Removes all cached configurations and destroys all idle {@link Checker}s. {@link Checker}s that are currently
+     * leased are destroyed when they are returned.
+     */
+    public void clear() {
+        List<Checker> toDestroy = new LinkedList<>();
+        synchronized (this) {
+            rulesFiles.values().forEach(rulesFile -> toDestroy.addAll(rulesFile.idle));
+            rulesFiles.clear();
+            numIdle = 0;
+        }
+        
+        toDestroy.forEach(Checker::destroy);
+    }
+    
+    /**
+     * A {@link Checker} acquired from the pool. Closing this lease returns the {@link Checker} to the pool.
+     */
+    public final class Lease implements AutoCloseable {
+        
+        private Path key;
+        
+        private RulesFile rulesFile;
+        
+        private Checker checker;
+        
+        private boolean closed;
+        
+        /**
+         * Creates a lease.
+         * 
+         * @param key The absolute path of the rules file.
+         * @param rulesFile The entry of the rules file that the {@link Checker} is configured with.
+         * @param checker The leased {@link Checker}.
+         */
+        private Lease(Path key, RulesFile rulesFile, Checker checker) {
+            this.key = key;
+            this.rulesFile = rulesFile;
+            this.checker = checker;
+        }
+        
+        /**
+         * Returns the leased {@link Checker}. Must not be used after this lease is closed.
+         * 
+         * @return The {@link Checker}.
+         */
+        public Checker getChecker() {
+            return checker;
+        }
+        
+        /**
+         * Destroys the leased {@link Checker} instead of returning it to the pool. Should be called if the
+         * {@link Checker} may be left in an inconsistent state, e.g. after it threw an exception.
+         */
+        public void discard() {
+            if (!closed) {
+                closed = true;
+                LOGGER.log(Level.FINE, "Discarding Checker for {0}", key);
+                checker.destroy();
+            }
+        }
+        
+        /**
+         * Returns the {@link Checker} to the pool. Calling this more than once (or after {@link #discard()}) has no
+         * effect.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(key, rulesFile, checker);
+            }
+        }
+        
+    }
+    
+}
@@ -16,7 +16,6 @@
 package net.ssehub.teaching.exercise_submitter.server.submission.checks;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -28,17 +27,18 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.puppycrawl.tools.checkstyle.Checker;
-import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
-import com.puppycrawl.tools.checkstyle.api.Configuration;
 
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
 
 /**
  * Runs Checkstyle on all Java source files. Fails if there are any Checkstyle errors. Creates {@link ResultMessage}s
  * for all Checkstyle errors and warnings.
+ * <p>
+ * The parsed rules and configured {@link Checker}s are cached in a {@link CheckerPool}, so that they are only
+ * re-created when the rules file changes.
  * 
  * @author Adam
  */
@@ -48,18 +48,34 @@ public class CheckstyleCheck extends Check {
     
     private static final Logger LOGGER = Logger.getLogger(CheckstyleCheck.class.getName());
     
+    private static final CheckerPool DEFAULT_CHECKER_POOL = new CheckerPool(CheckerPool.DEFAULT_MAX_IDLE);
+    
     private Path checkstyleRules;
 
     private Charset charset;
     
+    private CheckerPool checkerPool;
+    
     /**
-     * Creates a re-usable {@link CheckstyleCheck}.
+     * Creates a re-usable {@link CheckstyleCheck}. {@link Checker}s are taken from a pool that is shared by all
+     * instances created with this constructor.
      * 
      * @param checkstyleRules A file with the XML ruleset for Checkstyle.
      */
     public CheckstyleCheck(Path checkstyleRules) {
+        this(checkstyleRules, DEFAULT_CHECKER_POOL);
+    }
+    
+    /**
+     * Creates a re-usable {@link CheckstyleCheck} that takes its {@link Checker}s from the given pool.
+     * 
+     * @param checkstyleRules A file with the XML ruleset for Checkstyle.
+     * @param checkerPool The pool to acquire configured {@link Checker}s from.
+     */
+    public CheckstyleCheck(Path checkstyleRules, CheckerPool checkerPool) {
         this.checkstyleRules = checkstyleRules;
         this.charset = StandardCharsets.UTF_8;
+        this.checkerPool = checkerPool;
     }
 
     /**
@@ -110,7 +126,7 @@ public class CheckstyleCheck extends Check {
             LOGGER.log(Level.WARNING, "Exception while getting files for Checkstyle", e);
             
             addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while running Checkstyle"));
+                    "An internal error occurred while running Checkstyle").setInternalError(true));
             success = false;
         }
         
@@ -131,30 +147,33 @@ public class CheckstyleCheck extends Check {
         LOGGER.log(Level.FINE, "Using rules: {0}", checkstyleRules);
         LOGGER.log(Level.FINE, "Running on files: {0}...", javaFiles);
         
-        try {
-            Configuration configuration = ConfigurationLoader.loadConfiguration(
-                    checkstyleRules.toAbsolutePath().toString(), null);
-            
-            Checker checkstyle = new Checker();
-            checkstyle.setModuleClassLoader(Checker.class.getClassLoader());
-            checkstyle.configure(configuration);
+        try (CheckerPool.Lease lease = checkerPool.acquire(checkstyleRules)) {
+            Checker checkstyle = lease.getChecker();
             checkstyle.setBasedir(submissionDirectory.toAbsolutePath().toString());
-            checkstyle.setCharset(this.charset.name());
-            checkstyle.setHaltOnException(false);
             
             CheckstyleOutputListener listener = new CheckstyleOutputListener();
             checkstyle.addListener(listener);
-            
-            checkstyle.process(javaFiles.stream().map(Path::toFile).collect(Collectors.toList()));
-            checkstyle.destroy();
+            boolean completed = false;
+            try {
+                checkstyle.setCharset(this.charset.name());
+                checkstyle.process(javaFiles.stream().map(Path::toFile).collect(Collectors.toList()));
+                completed = true;
+                
+            } finally {
+                checkstyle.removeListener(listener);
+                if (!completed) {
+                    // don't return a checker that may be in an inconsistent state to the pool
+                    lease.discard();
+                }
+            }
             
             success = listener.getNumErrors() == 0;
             
-        } catch (CheckstyleException | UnsupportedEncodingException e) {
+        } catch (CheckstyleException | IOException e) {
             LOGGER.log(Level.WARNING, "Exception while running Checkstyle", e);
             
             addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while running Checkstyle"));
+                    "An internal error occurred while running Checkstyle").setInternalError(true));
             success = false;
         }
         
@@ -16,6 +16,7 @@
 package net.ssehub.teaching.exercise_submitter.server.submission.checks;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.ProcessBuilder.Redirect;
@@ -23,17 +24,22 @@ import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
 
 /**
  * Implements a {@link JavacCheck} that uses standard command-line process <code>javac</code> to run the Java compiler.
+ * <p>
+ * If a {@link JavacWorkerPool} is given, the compiler runs in one of its long-lived processes instead of a new
+ * <code>javac</code> process per compilation. If the pool fails, a <code>javac</code> process is started as before.
  *  
  * @author Adam
  */
@@ -46,11 +52,24 @@ public class CliJavacCheck extends JavacCheck {
 
     private String javacCommand;
     
+    private JavacWorkerPool workerPool;
+    
     /**
      * Creates a re-usable {@link CliJavacCheck} with the standard <code>javac</code> command.
      */
     public CliJavacCheck() {
+        this(null);
+    }
+    
+    /**
+     * Creates a re-usable {@link CliJavacCheck} that compiles in the processes of the given pool.
+     * 
+     * @param workerPool The pool to compile in, or <code>null</code> to start a <code>javac</code> process for every
+     *      compilation.
+     */
+    public CliJavacCheck(JavacWorkerPool workerPool) {
         this.javacCommand = "javac";
+        this.workerPool = workerPool;
     }
     
     /**
@@ -74,11 +93,67 @@ public class CliJavacCheck extends JavacCheck {
         return javacCommand;
     }
     
+    @Override
+    protected String getCompilerIdentifier() {
+        return javacCommand;
+    }
+    
     @Override
     protected boolean runJavac(Path submissionDirectory, Set<Path> javaFiles) {
+        Optional<Boolean> result = Optional.empty();
+        if (workerPool != null) {
+            result = runInWorker(submissionDirectory, javaFiles);
+        }
+        return result.orElseGet(() -> runProcess(submissionDirectory, javaFiles));
+    }
+    
+    /**
+     * Runs the compiler in a process of the {@link #workerPool}.
+     * 
+     * @param submissionDirectory The submission directory that contains all the Java files.
+     * @param javaFiles The Java files to compile.
+     * 
+     * @return Whether the compilation was successful, or {@link Optional#empty()} if the pool failed.
+     */
+    private Optional<Boolean> runInWorker(Path submissionDirectory, Set<Path> javaFiles) {
+        Optional<Boolean> result;
+        
+        // the worker runs in a different working directory, so it gets absolute paths and reports them in its output
+        String directoryPrefix = submissionDirectory.toAbsolutePath().toString() + File.separator;
+        
+        try {
+            JavacWorkerPool.Result compileResult = workerPool.compile(
+                    buildArguments(submissionDirectory, javaFiles, true));
+            
+            List<String> output = compileResult.getOutput().stream()
+                    .map(line -> line.startsWith(directoryPrefix) ? line.substring(directoryPrefix.length()) : line)
+                    .collect(Collectors.toList());
+            
+            result = Optional.of(createResult(compileResult.getExitCode(), output));
+            
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Compiler worker failed; falling back to javac process", e);
+            result = Optional.empty();
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Runs the compiler in a new <code>javac</code> process.
+     * 
+     * @param submissionDirectory The submission directory that contains all the Java files.
+     * @param javaFiles The Java files to compile.
+     * 
+     * @return Whether the compilation was successful.
+     */
+    private boolean runProcess(Path submissionDirectory, Set<Path> javaFiles) {
         boolean success;
         
-        ProcessBuilder processBuilder = new ProcessBuilder(buildCommand(submissionDirectory, javaFiles));
+        List<String> command = buildArguments(submissionDirectory, javaFiles, false);
+        command.add(0, javacCommand);
+        
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
         processBuilder.redirectOutput(Redirect.DISCARD);
         processBuilder.redirectError(Redirect.PIPE);
         processBuilder.directory(submissionDirectory.toFile());
@@ -96,40 +171,55 @@ public class CliJavacCheck extends JavacCheck {
                 output.add(line);
             }
             
-            int exitCode = process.waitFor();
-            success = exitCode == 0;
-            
-            int numCreated = createMessagesFromOutput(output);
-            
-            if (!success && numCreated == 0) {
-                addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "javac failed without message"));
-            }
+            success = createResult(process.waitFor(), output);
             
         } catch (IOException | InterruptedException e) {
             LOGGER.log(Level.WARNING, "Exception while running javac", e);
             
             success = false;
-            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while running javac"));
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, INTERNAL_ERROR_MESSAGE)
+                    .setInternalError(true));
+        }
+        
+        return success;
+    }
+    
+    /**
+     * Creates the {@link ResultMessage}s for a finished compilation.
+     * 
+     * @param exitCode The exit code of the Java compiler.
+     * @param output The output lines of the Java compiler. File paths must be relative to the submission directory.
+     * 
+     * @return Whether the compilation was successful.
+     */
+    private boolean createResult(int exitCode, List<String> output) {
+        boolean success = exitCode == 0;
+        
+        int numCreated = createMessagesFromOutput(output);
+        
+        if (!success && numCreated == 0) {
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "javac failed without message"));
         }
         
         return success;
     }
     
     /**
-     * Creates the full command for running the Java compiler on the given source files. Includes all settings
-     * (e.g. Java version and file encoding). The command is expected to run with the given directory as the working
-     * directory.
+     * Creates the arguments for running the Java compiler on the given source files. Includes all settings
+     * (e.g. Java version and file encoding). With relative paths, the compiler is expected to run with the given
+     * directory as the working directory.
      * 
      * @param submissionDirectory The submission directory that contains all the Java file.
      * @param filesToCompile The set of files to compile. File paths are considered relative to current working
      *      directory, <b>not</b> relative to <code>directory</code>.
+     * @param absolutePaths Whether to pass the source files as absolute paths instead of relative to the submission
+     *      directory. In this case, the class path is always set explicitly, so that the compiler does not depend on
+     *      its working directory or the classpath of its JVM.
      * 
-     * @return The command that runs the Java compiler on the given files.
+     * @return The modifiable list of arguments for the Java compiler, without the command itself.
      */
-    private List<String> buildCommand(Path submissionDirectory, Set<Path> filesToCompile) {
+    private List<String> buildArguments(Path submissionDirectory, Set<Path> filesToCompile, boolean absolutePaths) {
         List<String> command = new LinkedList<>();
-        command.add(javacCommand);
         
         command.add("-encoding");
         command.add(getCharset().name());
@@ -150,10 +240,21 @@ public class CliJavacCheck extends JavacCheck {
             }
             
             command.add(classpath.toString());
+            
+        } else if (absolutePaths) {
+            // without a class path, the in-process compiler of a worker would use the classpath of the worker JVM
+            // (i.e. of the server), and an empty one means the working directory of the worker; the javac process
+            // implicitly uses its working directory, which is the submission directory
+            command.add("--class-path");
+            command.add(submissionDirectory.toAbsolutePath().toString());
         }
         
         for (Path javaSourceFile : filesToCompile) {
-            command.add(submissionDirectory.relativize(javaSourceFile).toString());
+            if (absolutePaths) {
+                command.add(javaSourceFile.toAbsolutePath().toString());
+            } else {
+                command.add(submissionDirectory.relativize(javaSourceFile).toString());
+            }
         }
         
         return command;
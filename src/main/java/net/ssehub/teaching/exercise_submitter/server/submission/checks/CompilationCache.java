@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A bounded cache of compilation results for the {@link JavacCheck}. The key is a hash over the compiler settings
+ * and the content of all files in the submission (see {@link JavacCheck#setCompilationCache(CompilationCache)}), so
+ * identical inputs replay the {@link ResultMessage}s of the earlier compilation instead of running the compiler
+ * again. This is common for resubmissions that only fix a Checkstyle problem, or for unchanged starter code that
+ * many groups submit.
+ * <p>
+ * If more than <code>maxSize</code> results are cached, the least recently used one is removed.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class CompilationCache {
+    
+    /**
+     * The default maximum number of cached compilation results.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    
+    private Map<String, Result> results;
+    
+    /**
+     * The result of a compilation.
+     */
+    public static final class Result {
+        
+        private boolean success;
+        
+        private List<ResultMessage> messages;
+        
+        /**
+         * Creates a result.
+         * 
+         * @param success Whether the compilation was successful.
+         * @param messages The messages that the compilation created.
+         */
+        private Result(boolean success, List<ResultMessage> messages) {
+            this.success = success;
+            this.messages = messages;
+        }
+        
+        /**
+         * Returns whether the compilation was successful.
+         * 
+         * @return Whether the compilation was successful.
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+        
+        /**
+         * Returns the messages that the compilation created.
+         * 
+         * @return An unmodifiable list of the messages.
+         */
+        public List<ResultMessage> getMessages() {
+            return messages;
+        }
+        
+    }
+    
+    /**
+     * Creates an empty cache.
+     * 
+     * @param maxSize The maximum number of cached compilation results.
+     * 
+     * @throws IllegalArgumentException If maxSize is not positive.
+     */
+    public CompilationCache(int maxSize) throws IllegalArgumentException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maxSize);
+        }
+        
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                return size() > maxSize;
+            }
+            
+        };
+    }
+    
+    /**
+     * Retrieves a cached compilation result.
+     * 
+     * @param key The hash over the compilation input.
+     * 
+     * @return The cached result, or {@link Optional#empty()} if this input was not compiled before.
+     */
+    public synchronized Optional<Result> get(String key) {
+        return Optional.ofNullable(results.get(key));
+    }
+    
+    /**
+     * Caches the result of a compilation.
+     * 
+     * @param key The hash over the compilation input.
+     * @param success Whether the compilation was successful.
+     * @param messages The messages that the compilation created.
+     */
+    public synchronized void put(String key, boolean success, List<ResultMessage> messages) {
+        results.put(key, new Result(success, List.copyOf(messages)));
+    }
+    
+    /**
+     * Returns the number of cached compilation results.
+     * 
+     * @return The number of cached results.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+    
+}
@@ -24,6 +24,7 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,11 +33,11 @@ import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMes
 /**
  * Checks that all text files in the submission have a valid encoding. Fails if any text file cannot be decoded with the
  * required encoding. Creates {@link ResultMessage}s for each such incorrectly encoded file. Which files are text files
- * is determined via {@link Files#probeContentType(java.nio.file.Path)}.
+ * is determined via {@link Files#probeContentType(java.nio.file.Path)}, based on the file name.
  * 
  * @author Adam
  */
-public class EncodingCheck extends Check {
+public class EncodingCheck extends Check implements InMemoryCheck {
     
     public static final String CHECK_NAME = "encoding";
     
@@ -75,13 +76,9 @@ public class EncodingCheck extends Check {
         
         try {
             for (Path file : FileUtils.findAllFiles(submissionDirectory)) {
-                String mimeType = Files.probeContentType(file);
-                if (mimeType != null && mimeType.startsWith("text")) {
+                if (isTextFile(file)) {
                     LOGGER.log(Level.FINE, "Checking file {0}...", file);
                     success &= checkFile(file, submissionDirectory);
-                } else {
-                    LOGGER.log(Level.FINE, "Skipping file {0} with non-text mime-type {1}", new Object[] {
-                        file, mimeType});
                 }
             }
             
@@ -90,12 +87,54 @@ public class EncodingCheck extends Check {
             
             success = false;
             addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while checking file encoding"));
+                    "An internal error occurred while checking file encoding").setInternalError(true));
         }
         
         return success;
     }
 
+    @Override
+    public boolean run(Map<Path, byte[]> files) {
+        boolean success = true;
+        
+        try {
+            for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+                if (isTextFile(file.getKey())) {
+                    LOGGER.log(Level.FINE, "Checking file {0}...", file.getKey());
+                    success &= checkContent(file.getKey(), file.getValue());
+                }
+            }
+            
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Exception while checking encoding", e);
+            
+            success = false;
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
+                    "An internal error occurred while checking file encoding").setInternalError(true));
+        }
+        
+        return success;
+    }
+    
+    /**
+     * Checks whether the given file is a text file, based on its mime-type.
+     * 
+     * @param file The file to check. Only the file name is considered, so the file does not need to exist.
+     * 
+     * @return Whether the file is a text file.
+     * 
+     * @throws IOException If determining the mime-type fails.
+     */
+    private static boolean isTextFile(Path file) throws IOException {
+        String mimeType = Files.probeContentType(file);
+        boolean isText = mimeType != null && mimeType.startsWith("text");
+        if (!isText) {
+            LOGGER.log(Level.FINE, "Skipping file {0} with non-text mime-type {1}", new Object[] {
+                file, mimeType});
+        }
+        return isText;
+    }
+    
     /**
      * Checks the encoding of a single file. Creates and adds a {@link ResultMessage} if the file has a wrong encoding. 
      * 
@@ -107,14 +146,30 @@ public class EncodingCheck extends Check {
      * @throws IOException If reading the file fails.
      */
     private boolean checkFile(Path file, Path submissionDirectory) throws IOException {
+        byte[] content;
+        try (InputStream input = FileUtils.newInputStream(file)) {
+            content = input.readAllBytes();
+        }
+        
+        return checkContent(submissionDirectory.relativize(file), content);
+    }
+    
+    /**
+     * Checks the encoding of the content of a single file. Creates and adds a {@link ResultMessage} if the content
+     * has a wrong encoding.
+     * 
+     * @param file The relative path of the file in the submission.
+     * @param content The content of the file.
+     * 
+     * @return Whether the content has the correct encoding.
+     */
+    private boolean checkContent(Path file, byte[] content) {
         boolean result;
         
         CharsetDecoder decoder = wantedCharset.newDecoder();
         
-        try (InputStream input = FileUtils.newInputStream(file)) {
-            ByteBuffer buffer = ByteBuffer.wrap(input.readAllBytes());
-            
-            decoder.decode(buffer);
+        try {
+            decoder.decode(ByteBuffer.wrap(content));
             
             result = true;
             
@@ -123,7 +178,7 @@ public class EncodingCheck extends Check {
             
             ResultMessage resultMessage = new ResultMessage(CHECK_NAME, MessageType.ERROR,
                     "File has invalid encoding; expected " + wantedCharset.displayName());
-            resultMessage.setFile(submissionDirectory.relativize(file));
+            resultMessage.setFile(file);
             
             addResultMessage(resultMessage);
         }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * A pool of warm {@link StandardJavaFileManager}s for a {@link JavaCompiler}. A file manager caches the opened
+ * platform classes (e.g. <code>ct.sym</code> for <code>--release</code>) and classpath archives, so re-using it for
+ * further compilations saves re-reading these every time (see {@link JavaCompiler}).
+ * <p>
+ * File managers are not thread-safe and the compiler stores some options in them. Thus each file manager is only
+ * handed out to one compilation at a time, and only to compilations with the same release, charset and classpath
+ * as it was used for before. If no idle file manager is available, a new one is created. At most
+ * <code>maxIdle</code> idle file managers are kept; further returned ones are closed.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class FileManagerPool {
+
+    /**
+     * The default maximum number of idle file managers to keep.
+     */
+    public static final int DEFAULT_MAX_IDLE = 8;
+    
+    private static final Logger LOGGER = Logger.getLogger(FileManagerPool.class.getName());
+    
+    private JavaCompiler compiler;
+    
+    private int maxIdle;
+    
+    private Map<List<Object>, Deque<StandardJavaFileManager>> idle;
+    
+    private int numIdle;
+    
+    /**
+     * Creates a new pool.
+     * 
+     * @param compiler The compiler to create file managers for.
+     * @param maxIdle The maximum number of idle file managers that are kept for re-use. 0 disables re-use.
+     * 
+     * @throws IllegalArgumentException If maxIdle is negative.
+     */
+    public FileManagerPool(JavaCompiler compiler, int maxIdle) throws IllegalArgumentException {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Maximum number of idle file managers must not be negative: "
+                    + maxIdle);
+        }
+        
+        this.compiler = compiler;
+        this.maxIdle = maxIdle;
+        this.idle = new HashMap<>();
+    }
+    
+    /**
+     * Returns the compiler that the file managers of this pool are created for.
+     * 
+     * @return The compiler.
+     */
+    public JavaCompiler getCompiler() {
+        return compiler;
+    }
+    
+    /**
+     * Acquires a file manager for a compilation. The returned lease must be closed after the compilation is done, to
+     * return the file manager to this pool.
+     * 
+     * @param release The Java version that is passed via <code>--release</code> to the compiler.
+     * @param charset The charset of the source files.
+     * @param classpath The classpath that is passed to the compiler.
+     * 
+     * @return A lease for a file manager; intended to be used in a try-with-resources statement.
+     */
+    public Lease acquire(int release, Charset charset, List<Path> classpath) {
+        List<Object> key = Arrays.asList(release, charset, List.copyOf(classpath));
+        
+        StandardJavaFileManager fileManager = null;
+        synchronized (this) {
+            Deque<StandardJavaFileManager> available = idle.get(key);
+            if (available != null && !available.isEmpty()) {
+                fileManager = available.pop();
+                numIdle--;
+            }
+        }
+        
+        if (fileManager == null) {
+            LOGGER.fine(() -> "Creating new file manager for " + key);
+            fileManager = compiler.getStandardFileManager(
+                    new DiagnosticCollector<>(), // discard error messages from FileManager
+                    Locale.ROOT, charset);
+        }
+        
+        return new Lease(key, fileManager);
+    }
+    
+    /**
+     * Returns a file manager to this pool. Closes it if the pool already holds the maximum number of idle file
+     * managers.
+     * 
+     * @param key The key that the file manager was acquired for.
+     * @param fileManager The file manager to return.
+     */
+    private void release(List<Object> key, StandardJavaFileManager fileManager) {
+        boolean keep;
+        synchronized (this) {
+            keep = numIdle < maxIdle;
+            if (keep) {
+                idle.computeIfAbsent(key, k -> new LinkedList<>()).push(fileManager);
+                numIdle++;
+            }
+        }
+        
+        if (!keep) {
+            close(fileManager);
+        }
+    }
+    
+    /**
+     * Returns the number of file managers that are currently idle in this pool.
+     * 
+     * @return The number of idle file managers.
+     */
+    public synchronized int getNumIdle() {
+        return numIdle;
+    }
+    
+    /**
+     * Closes all idle file managers in this pool. File managers that are currently leased are not affected.
+     */
+    public void clear() {
+        List<StandardJavaFileManager> toClose = new LinkedList<>();
+        synchronized (this) {
+            idle.values().forEach(toClose::addAll);
+            idle.clear();
+            numIdle = 0;
+        }
+        
+        toClose.forEach(FileManagerPool::close);
+    }
+    
+    /**
+     * Closes the given file manager.
+     * 
+     * @param fileManager The file manager to close.
+     */
+    private static void close(StandardJavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close file manager", e);
+        }
+    }
+    
+    /**
+     * A file manager acquired from the pool. Closing this lease returns the file manager to the pool.
+     */
+    public final class Lease implements AutoCloseable {
+        
+        private List<Object> key;
+        
+        private StandardJavaFileManager fileManager;
+        
+        private boolean closed;
+        
+        /**
+         * Creates a lease.
+         * 
+         * @param key The key that the file manager was acquired for.
+         * @param fileManager The leased file manager.
+         */
+        private Lease(List<Object> key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+        
+        /**
+         * Returns the leased file manager. Must not be used after this lease is closed.
+         * 
+         * @return The file manager.
+         */
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+        
+        /**
+         * Returns the file manager to the pool. Calling this more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(key, fileManager);
+            }
+        }
+        
+    }
+    
+}
@@ -17,6 +17,7 @@ package net.ssehub.teaching.exercise_submitter.server.submission.checks;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,7 +30,7 @@ import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMes
  * 
  * @author Adma
  */
-public class FileSizeCheck extends Check {
+public class FileSizeCheck extends Check implements InMemoryCheck {
     
     public static final String CHECK_NAME = "file-size";
     
@@ -97,37 +98,84 @@ public class FileSizeCheck extends Check {
         try {
             for (Path file : FileUtils.findAllFiles(submissionDirectory)) {
                 long fileSize = FileUtils.getFileSize(file);
-                
-                LOGGER.log(Level.FINE, "File {0} has size of {1} bytes", new Object[] {
-                    file, fileSize});
-                
                 submissionSize += fileSize;
                 
-                if (fileSize > this.maxFileSize) {
+                if (!checkFileSize(submissionDirectory.relativize(file), fileSize)) {
                     numErrors++;
-                    
-                    ResultMessage message = new ResultMessage(CHECK_NAME, MessageType.ERROR, "File is too large");
-                    message.setFile(submissionDirectory.relativize(file));
-                    addResultMessage(message);
                 }
-                
             }
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Exception while checking file-size", e);
             
             numErrors++;
             addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while checking file-sizes"));
+                    "An internal error occurred while checking file-sizes").setInternalError(true));
         }
         
-        LOGGER.log(Level.FINE, "Submission has total size of {0} bytes", submissionSize);
+        if (!checkSubmissionSize(submissionSize)) {
+            numErrors++;
+        }
+        
+        return numErrors == 0;
+    }
+    
+    @Override
+    public boolean run(Map<Path, byte[]> files) {
+        int numErrors = 0;
+        long submissionSize = 0;
         
-        if (submissionSize > this.maxSubmissionSize) {
+        for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+            long fileSize = file.getValue().length;
+            submissionSize += fileSize;
+            
+            if (!checkFileSize(file.getKey(), fileSize)) {
+                numErrors++;
+            }
+        }
+        
+        if (!checkSubmissionSize(submissionSize)) {
             numErrors++;
-            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "Submission size is too large"));
         }
         
         return numErrors == 0;
     }
     
+    /**
+     * Checks the size of a single file. Creates and adds a {@link ResultMessage} if the file is too large.
+     * 
+     * @param file The relative path of the file in the submission.
+     * @param fileSize The size of the file in bytes.
+     * 
+     * @return Whether the file size is within the limit.
+     */
+    private boolean checkFileSize(Path file, long fileSize) {
+        LOGGER.log(Level.FINE, "File {0} has size of {1} bytes", new Object[] {
+            file, fileSize});
+        
+        boolean result = fileSize <= this.maxFileSize;
+        if (!result) {
+            ResultMessage message = new ResultMessage(CHECK_NAME, MessageType.ERROR, "File is too large");
+            message.setFile(file);
+            addResultMessage(message);
+        }
+        return result;
+    }
+    
+    /**
+     * Checks the total size of the submission. Creates and adds a {@link ResultMessage} if it is too large.
+     * 
+     * @param submissionSize The size of all files in bytes.
+     * 
+     * @return Whether the submission size is within the limit.
+     */
+    private boolean checkSubmissionSize(long submissionSize) {
+        LOGGER.log(Level.FINE, "Submission has total size of {0} bytes", submissionSize);
+        
+        boolean result = submissionSize <= this.maxSubmissionSize;
+        if (!result) {
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "Submission size is too large"));
+        }
+        return result;
+    }
+    
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * A {@link Check} that can also run directly on the files of a submission held in memory. This saves writing the
+ * submission to a directory and reading it back. The in-memory run must produce the same result and
+ * {@link ResultMessage}s as {@link Check#run(Path)} would for the same files written to a directory.
+ * 
+ * @author Adam
+ */
+public interface InMemoryCheck {
+
+    /**
+     * Runs this check on the given submission files. The {@link ResultMessage}s are retrieved via
+     * {@link Check#getResultMessages()}, as usual.
+     * 
+     * @param files The files of the submission. Maps the relative path of each file in the submission to its content.
+     * 
+     * @return Whether this check was successful.
+     */
+    public boolean run(Map<Path, byte[]> files);
+    
+}
@@ -15,22 +15,31 @@
  */
 package net.ssehub.teaching.exercise_submitter.server.submission.checks;
 
+import java.io.OutputStream;
 import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 
@@ -39,13 +48,114 @@ import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMes
 /**
  * A {@link JavacCheck} that uses the internal {@link JavaCompiler} interface. Use {@link #isSupported()} to check
  * if the current runtime supports the internal {@link JavaCompiler}.
+ * <p>
+ * When run as an {@link InMemoryCheck}, the source files are passed to the compiler directly from memory and the
+ * generated class files are discarded, so the compilation does not touch the file system (except for reading the
+ * classpath).
  * 
  * @author Adam
  */
-public class InternalJavacCheck extends JavacCheck {
+public class InternalJavacCheck extends JavacCheck implements InMemoryCheck {
     
     private static final Logger LOGGER = Logger.getLogger(InternalJavacCheck.class.getName());
+    
+    private static final FileManagerPool DEFAULT_FILE_MANAGER_POOL = isSupported()
+            ? new FileManagerPool(ToolProvider.getSystemJavaCompiler(), FileManagerPool.DEFAULT_MAX_IDLE) : null;
+    
+    private FileManagerPool fileManagerPool;
+    
+    /**
+     * A Java source file that is held in memory.
+     */
+    private static class InMemorySourceFile extends SimpleJavaFileObject {
+        
+        private Path filepath;
+        
+        private String content;
+        
+        /**
+         * Creates a source file.
+         * 
+         * @param filepath The relative path of the file in the submission.
+         * @param content The decoded content of the file.
+         * 
+         * @throws URISyntaxException If the filepath cannot be converted to an URI.
+         */
+        InMemorySourceFile(Path filepath, String content) throws URISyntaxException {
+            // the URI must end with the file name, as javac checks that public classes are in a file of that name
+            super(new URI("memory", null, "/" + filepath.toString().replace('\\', '/'), null), Kind.SOURCE);
+            this.filepath = filepath;
+            this.content = content;
+        }
+        
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+        
+    }
+    
+    /**
+     * A {@link JavaFileObject} for compiler output that discards everything written to it.
+     */
+    private static class DiscardedOutputFile extends SimpleJavaFileObject {
+        
+        /**
+         * Creates an output file.
+         * 
+         * @param className The name of the class that is written to this file.
+         * @param kind The kind of the file.
+         */
+        DiscardedOutputFile(String className, Kind kind) {
+            super(URI.create("memory:///" + className.replace('.', '/') + kind.extension), kind);
+        }
+        
+        @Override
+        public OutputStream openOutputStream() {
+            return OutputStream.nullOutputStream();
+        }
+        
+    }
+    
+    /**
+     * A {@link JavaFileManager} that discards all class files generated by the compiler.
+     */
+    private static class OutputDiscardingFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        
+        /**
+         * Creates a file manager.
+         * 
+         * @param fileManager The file manager to forward everything but output files to.
+         */
+        OutputDiscardingFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+        
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                FileObject sibling) {
+            return new DiscardedOutputFile(className, kind);
+        }
+        
+    }
 
+    /**
+     * Creates a re-usable {@link InternalJavacCheck}. File managers are taken from a pool that is shared by all
+     * instances created with this constructor.
+     */
+    public InternalJavacCheck() {
+        this(DEFAULT_FILE_MANAGER_POOL);
+    }
+    
+    /**
+     * Creates a re-usable {@link InternalJavacCheck} that takes its file managers from the given pool.
+     * 
+     * @param fileManagerPool The pool to acquire file managers (and the compiler) from.
+     */
+    public InternalJavacCheck(FileManagerPool fileManagerPool) {
+        this.fileManagerPool = fileManagerPool;
+    }
+    
     /**
      * Checks whether the internal compiler is supported by this runtime.
      * 
@@ -57,19 +167,96 @@ public class InternalJavacCheck extends JavacCheck {
     
     @Override
     protected boolean runJavac(Path submissionDirectory, Set<Path> javaFiles) {
-        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        boolean success;
+        
+        try (FileManagerPool.Lease lease = fileManagerPool.acquire(getJavaVersion(), getCharset(), getClasspath())) {
+            StandardJavaFileManager fileManager = lease.getFileManager();
+            Iterable<? extends JavaFileObject> javaFileObjects
+                    = fileManager.getJavaFileObjects(javaFiles.toArray(new Path[0]));
+            
+            success = compile(fileManager, javaFileObjects,
+                source -> submissionDirectory.relativize(Path.of(source.getName())));
+        }
+        
+        return success;
+    }
+    
+    @Override
+    public boolean run(Map<Path, byte[]> files) {
+        boolean success;
+        
+        if (files.keySet().stream().anyMatch(file -> file.getFileName().toString().endsWith(".java"))) {
+            success = runCached(files, () -> compileFromMemory(files));
+            
+        } else {
+            success = false;
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "No Java files found"));
+        }
+        
+        return success;
+    }
+    
+    /**
+     * Compiles all Java source files of an in-memory submission.
+     * 
+     * @param files The files of the submission, with their paths relative to the submission root.
+     * 
+     * @return Whether the compilation was successful.
+     */
+    private boolean compileFromMemory(Map<Path, byte[]> files) {
+        boolean success;
         
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(
-                new DiagnosticCollector<>(), // discard error messages from FileManager
-                Locale.ROOT, getCharset());
-        Iterable<? extends JavaFileObject> javaFileObjects
-                = fileManager.getJavaFileObjects(javaFiles.toArray(new Path[0]));
+        List<JavaFileObject> javaFileObjects = new LinkedList<>();
+        try {
+            for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+                if (file.getKey().getFileName().toString().endsWith(".java")) {
+                    // decoding replaces malformed input, just like the standard file manager does
+                    String content = new String(file.getValue(), getCharset());
+                    javaFileObjects.add(new InMemorySourceFile(file.getKey(), content));
+                }
+            }
+            
+            LOGGER.log(Level.FINE, "Compiling {0} files from memory...", javaFileObjects.size());
+                
+            try (FileManagerPool.Lease lease = fileManagerPool.acquire(
+                    getJavaVersion(), getCharset(), getClasspath())) {
+                    
+                JavaFileManager fileManager = new OutputDiscardingFileManager(lease.getFileManager());
+                    
+                // sources may also be found outside of the submission, e.g. in the classpath
+                success = compile(fileManager, javaFileObjects, source -> source instanceof InMemorySourceFile
+                        ? ((InMemorySourceFile) source).filepath : Path.of(source.getName()));
+            }
+            
+        } catch (URISyntaxException e) {
+            LOGGER.log(Level.WARNING, "Could not create in-memory source file", e);
+            
+            success = false;
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, INTERNAL_ERROR_MESSAGE)
+                    .setInternalError(true));
+        }
+        
+        return success;
+    }
+    
+    /**
+     * Runs the compiler on the given source files.
+     * 
+     * @param fileManager The file manager to use.
+     * @param javaFileObjects The source files to compile.
+     * @param sourceToFilepath Converts the source files to their relative path in the submission. Used for the
+     *      {@link ResultMessage}s.
+     * 
+     * @return Whether the compilation was successful.
+     */
+    private boolean compile(JavaFileManager fileManager,
+            Iterable<? extends JavaFileObject> javaFileObjects, Function<JavaFileObject, Path> sourceToFilepath) {
         
         DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
         
         boolean success;
         try {
-            CompilationTask task = compiler.getTask(
+            CompilationTask task = fileManagerPool.getCompiler().getTask(
                     Writer.nullWriter(), // discard additional output
                     fileManager,
                     diagnosticCollector,
@@ -84,12 +271,12 @@ public class InternalJavacCheck extends JavacCheck {
             LOGGER.log(Level.WARNING, "Exception while setting up compilaton task", e);
             
             success = false;
-            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while running javac"));
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, INTERNAL_ERROR_MESSAGE)
+                    .setInternalError(true));
         }
         
         for (Diagnostic<? extends JavaFileObject> diagnostic : diagnosticCollector.getDiagnostics()) {
-            convertDiagnostToResultMessage(diagnostic, submissionDirectory);
+            convertDiagnostToResultMessage(diagnostic, sourceToFilepath);
         }
         
         return success;
@@ -134,10 +321,10 @@ public class InternalJavacCheck extends JavacCheck {
      * {@link #addResultMessage(ResultMessage)} with it.
      * 
      * @param diagnostic The {@link Diagnostic} as produced by the compiler.
-     * @param submissionDirectory The directory that contains the submission files.
+     * @param sourceToFilepath Converts the source file of the diagnostic to its relative path in the submission.
      */
     private void convertDiagnostToResultMessage(Diagnostic<? extends JavaFileObject> diagnostic,
-            Path submissionDirectory) {
+            Function<JavaFileObject, Path> sourceToFilepath) {
         
         ResultMessage.MessageType type;
         switch (diagnostic.getKind()) {
@@ -165,7 +352,7 @@ public class InternalJavacCheck extends JavacCheck {
             ResultMessage resultMessage = new ResultMessage(CHECK_NAME, type, message);
             
             if (diagnostic.getSource() != null) {
-                resultMessage.setFile(submissionDirectory.relativize(Path.of(diagnostic.getSource().getName())));
+                resultMessage.setFile(sourceToFilepath.apply(diagnostic.getSource()));
                 
                 if (diagnostic.getLineNumber() != Diagnostic.NOPOS) {
                     resultMessage.setLine((int) diagnostic.getLineNumber());
@@ -18,11 +18,21 @@ package net.ssehub.teaching.exercise_submitter.server.submission.checks;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +48,11 @@ public abstract class JavacCheck extends Check {
     
     public static final String CHECK_NAME = "javac";
     
+    /**
+     * The message for errors in the infrastructure, as opposed to errors in the submission.
+     */
+    protected static final String INTERNAL_ERROR_MESSAGE = "An internal error occurred while running javac";
+    
     private static final Logger LOGGER = Logger.getLogger(JavacCheck.class.getName());
     
     private int javaVersion;
@@ -48,6 +63,8 @@ public abstract class JavacCheck extends Check {
     
     private List<Path> additionalClasspath;
     
+    private CompilationCache compilationCache;
+    
     /**
      * Creates a re-usable {@link JavacCheck}.
      */
@@ -105,6 +122,21 @@ public abstract class JavacCheck extends Check {
         this.additionalClasspath.clear();
     }
     
+    /**
+     * Sets the cache for compilation results. If set, the compiler only runs if the cache does not contain a result
+     * for the same compiler settings and the same content of all files in the submission; otherwise, the
+     * cached {@link ResultMessage}s are replayed. Classpath entries are identified by their path, and for files also
+     * by their size and last modification time. Compilations that failed with an internal error are not cached.
+     * By default, no cache is used.
+     * <p>
+     * The cache may be shared between multiple {@link JavacCheck}s.
+     * 
+     * @param compilationCache The cache to use, or <code>null</code> to always run the compiler.
+     */
+    public void setCompilationCache(CompilationCache compilationCache) {
+        this.compilationCache = compilationCache;
+    }
+    
     /**
      * Returns the configured value for this setting.
      * 
@@ -158,8 +190,16 @@ public abstract class JavacCheck extends Check {
             Set<Path> javaFiles = FileUtils.findFilesBySuffix(submissionDirectory, ".java");
             
             if (!javaFiles.isEmpty()) {
-                LOGGER.log(Level.FINE, "Compiling files {0}...", javaFiles);
-                success = runJavac(submissionDirectory, javaFiles);
+                BooleanSupplier compilation = () -> {
+                    LOGGER.log(Level.FINE, "Compiling files {0}...", javaFiles);
+                    return runJavac(submissionDirectory, javaFiles);
+                };
+                
+                if (compilationCache != null) {
+                    success = runCached(createCacheKey(hashFiles(submissionDirectory)), compilation);
+                } else {
+                    success = compilation.getAsBoolean();
+                }
                 
             } else {
                 success = false;
@@ -170,14 +210,199 @@ public abstract class JavacCheck extends Check {
             LOGGER.log(Level.WARNING, "Exception while collecting java files", e);
             
             success = false;
-            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "An internal error occurred while running javac"));
+            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, INTERNAL_ERROR_MESSAGE)
+                    .setInternalError(true));
         }
         
         
         return success;
     }
     
+    /**
+     * Runs the given compilation of in-memory files through the {@link CompilationCache}, if one is set. The cache
+     * key is the same as for a submission directory with the same files, so both ways of running this check share
+     * their cached results.
+     * 
+     * @param files The files of the submission, with their paths relative to the submission root.
+     * @param compilation Runs the compiler and returns whether the compilation was successful.
+     * 
+     * @return Whether the compilation was successful.
+     */
+    protected boolean runCached(Map<Path, byte[]> files, BooleanSupplier compilation) {
+        boolean success;
+        
+        if (compilationCache != null) {
+            String key;
+            try {
+                key = createCacheKey(hashFiles(files));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Exception while reading the classpath, compiling without cache", e);
+                key = null;
+            }
+            
+            if (key != null) {
+                success = runCached(key, compilation);
+            } else {
+                success = compilation.getAsBoolean();
+            }
+            
+        } else {
+            success = compilation.getAsBoolean();
+        }
+        
+        return success;
+    }
+    
+    /**
+     * Replays the cached result for the given key, or runs the compilation and caches its result.
+     * 
+     * @param key The key for the {@link CompilationCache}.
+     * @param compilation Runs the compiler and returns whether the compilation was successful.
+     * 
+     * @return Whether the compilation was successful.
+     */
+    private boolean runCached(String key, BooleanSupplier compilation) {
+        boolean success;
+        
+        Optional<CompilationCache.Result> cached = compilationCache.get(key);
+        
+        if (cached.isPresent()) {
+            LOGGER.log(Level.FINE, "Replaying cached compilation result for key {0}", key);
+            success = cached.get().isSuccess();
+            cached.get().getMessages().forEach(this::addResultMessage);
+            
+        } else {
+            // messages of an earlier run that were not retrieved yet must not end up in the cache
+            List<ResultMessage> earlierMessages = getResultMessages();
+            success = compilation.getAsBoolean();
+            List<ResultMessage> messages = getResultMessages();
+            
+            earlierMessages.forEach(this::addResultMessage);
+            messages.forEach(this::addResultMessage);
+            
+            if (messages.stream().noneMatch(ResultMessage::isInternalError)) {
+                compilationCache.put(key, success, messages);
+            }
+        }
+        
+        return success;
+    }
+    
+    /**
+     * Hashes the content of all files in the submission directory.
+     * 
+     * @param submissionDirectory The submission directory.
+     * 
+     * @return The SHA-256 hashes of the files, by their relative path (see {@link #toRelativeName(Path)}).
+     * 
+     * @throws IOException If reading the files in the submission directory fails.
+     */
+    private static SortedMap<String, byte[]> hashFiles(Path submissionDirectory) throws IOException {
+        SortedMap<String, byte[]> result = new TreeMap<>();
+        
+        MessageDigest fileDigest = createSha256();
+        for (Path file : FileUtils.findAllFiles(submissionDirectory)) {
+            result.put(toRelativeName(submissionDirectory.relativize(file)),
+                    fileDigest.digest(Files.readAllBytes(file)));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Hashes the content of all files of an in-memory submission.
+     * 
+     * @param files The files of the submission, with their paths relative to the submission root.
+     * 
+     * @return The SHA-256 hashes of the files, by their relative path (see {@link #toRelativeName(Path)}).
+     */
+    private static SortedMap<String, byte[]> hashFiles(Map<Path, byte[]> files) {
+        SortedMap<String, byte[]> result = new TreeMap<>();
+        
+        MessageDigest fileDigest = createSha256();
+        for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+            result.put(toRelativeName(file.getKey()), fileDigest.digest(file.getValue()));
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Converts a relative path to a name that does not depend on the file system, by joining its elements with
+     * <code>/</code>.
+     * 
+     * @param relativePath The path relative to the submission root.
+     * 
+     * @return The name of the path.
+     */
+    private static String toRelativeName(Path relativePath) {
+        StringJoiner result = new StringJoiner("/");
+        relativePath.forEach(element -> result.add(element.toString()));
+        return result.toString();
+    }
+    
+    /**
+     * Creates the key for the {@link CompilationCache}: a hash over all compiler settings and the relative paths and
+     * contents of all files in the submission.
+     * 
+     * @param fileHashes The hashes of all files in the submission, sorted by their relative path, so that the key
+     *      does not depend on the order in which the files are listed.
+     * 
+     * @return The hash, as lower-case hex string.
+     * 
+     * @throws IOException If reading the attributes of the classpath entries fails.
+     */
+    private String createCacheKey(SortedMap<String, byte[]> fileHashes) throws IOException {
+        MessageDigest digest = createSha256();
+        
+        StringBuilder settings = new StringBuilder();
+        settings.append(getClass().getName()).append('\0')
+                .append(getCompilerIdentifier()).append('\0')
+                .append(javaVersion).append('\0')
+                .append(charset.name()).append('\0')
+                .append(enableWarnings).append('\n');
+        for (Path classpathEntry : additionalClasspath) {
+            settings.append(classpathEntry.toAbsolutePath());
+            if (Files.isRegularFile(classpathEntry)) {
+                settings.append('\0').append(Files.size(classpathEntry))
+                        .append('\0').append(Files.getLastModifiedTime(classpathEntry).toMillis());
+            }
+            settings.append('\n');
+        }
+        digest.update(settings.toString().getBytes(StandardCharsets.UTF_8));
+        
+        for (Map.Entry<String, byte[]> file : fileHashes.entrySet()) {
+            digest.update((file.getKey() + '\0').getBytes(StandardCharsets.UTF_8));
+            digest.update(file.getValue());
+        }
+        
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Creates a SHA-256 {@link MessageDigest}.
+     * 
+     * @return The new digest.
+     */
+    private static MessageDigest createSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Identifies the compiler that this check runs, if sub-classes can be configured to use different ones. Part of
+     * the key for the {@link CompilationCache}, so that results of different compilers are not mixed up.
+     * 
+     * @return An identifier of the compiler; empty by default.
+     */
+    protected String getCompilerIdentifier() {
+        return "";
+    }
+    
     /**
      * Runs the Java compiler on the given Java source files in the given directory.
      * 
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * The main class of the long-lived compiler processes that a {@link JavacWorkerPool} starts. Reads compile jobs from
+ * standard input and writes the results to standard output, until standard input is closed.
+ * <p>
+ * A job is a line with the number of arguments, followed by one line per argument for <code>javac</code>. The result
+ * is a line with the exit code of the compiler, the number of output lines, and the number of bytes that were used on
+ * the heap after the last garbage collection, separated by spaces; followed by the output lines of the compiler.
+ * 
+ * @author Adam
+ */
+public final class JavacWorker {
+    
+    /**
+     * No instances.
+     */
+    private JavacWorker() {
+    }
+    
+    /**
+     * Runs the worker.
+     * 
+     * @param args Ignored.
+     * 
+     * @throws IOException If reading a job or writing a result fails.
+     */
+    public static void main(String[] args) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("No system Java compiler available");
+            System.exit(1);
+        }
+        
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        // nothing else may write to the standard output, as the pool would read it as a result
+        System.setOut(System.err);
+        
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String numArgs;
+        while ((numArgs = in.readLine()) != null) {
+            List<String> javacArgs = new LinkedList<>();
+            for (int i = Integer.parseInt(numArgs); i > 0; i--) {
+                javacArgs.add(in.readLine());
+            }
+            
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            int exitCode;
+            try (PrintStream outputStream = new PrintStream(output, true, StandardCharsets.UTF_8)) {
+                exitCode = compiler.run(null, outputStream, outputStream, javacArgs.toArray(new String[0]));
+            }
+            
+            String[] lines = output.toString(StandardCharsets.UTF_8).split("\\R");
+            int numLines = lines.length == 1 && lines[0].isEmpty() ? 0 : lines.length;
+            
+            out.write(exitCode + " " + numLines + " " + getUsedHeapAfterGc() + "\n");
+            for (int i = 0; i < numLines; i++) {
+                out.write(lines[i]);
+                out.write('\n');
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Returns the heap usage after the last garbage collection. Unlike the current heap usage, this does not include
+     * garbage that was not collected yet, so it only grows if the compiler really retains memory.
+     * 
+     * @return The number of bytes used on the heap after the last garbage collection; 0 if there was none yet.
+     */
+    private static long getUsedHeapAfterGc() {
+        long result = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = memoryPool.getCollectionUsage();
+            if (memoryPool.getType() == MemoryType.HEAP && usage != null) {
+                result += usage.getUsed();
+            }
+        }
+        return result;
+    }
+
+}
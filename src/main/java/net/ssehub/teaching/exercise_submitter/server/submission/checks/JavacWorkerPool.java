@@ -0,0 +1,541 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A pool of long-lived compiler processes for the {@link CliJavacCheck}. Each process runs a {@link JavacWorker} in a
+ * JVM that has a Java compiler, and compiles one job at a time. As the processes are re-used, the JVM startup and
+ * JIT warm-up is only paid once per process instead of once per compilation.
+ * <p>
+ * Processes are started on demand, up to <code>maxWorkers</code>; further compilations wait for a process to become
+ * idle. A process is replaced by a fresh one after <code>maxJobsPerWorker</code> compilations, or if its heap usage
+ * after the last garbage collection exceeds <code>maxHeapBytes</code>. A process that does not finish a compilation
+ * within the timeout (see {@link #setTimeout(Duration)}) is killed.
+ * <p>
+ * This class is thread-safe.
+ * 
+ * @author Adam
+ */
+public class JavacWorkerPool {
+    
+    /**
+     * The default number of compilations after which a process is replaced.
+     */
+    public static final int DEFAULT_MAX_JOBS_PER_WORKER = 200;
+    
+    /**
+     * The default heap usage (in bytes) after which a process is replaced.
+     */
+    public static final long DEFAULT_MAX_HEAP_BYTES = 256L * 1024 * 1024;
+    
+    /**
+     * The default time that a process may take for a single compilation.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(2);
+    
+    private static final Logger LOGGER = Logger.getLogger(JavacWorkerPool.class.getName());
+    
+    /**
+     * Kills processes that exceed their timeout. Shared by all pools, as it is idle most of the time.
+     */
+    private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+    
+    private List<String> workerCommand;
+    
+    private int maxWorkers;
+    
+    private int maxJobsPerWorker;
+    
+    private long maxHeapBytes;
+    
+    private Duration timeout;
+    
+    private Deque<Worker> idle;
+    
+    private int numWorkers;
+    
+    private boolean closed;
+    
+    /**
+     * The result of a compilation.
+     */
+    public static final class Result {
+        
+        private int exitCode;
+        
+        private List<String> output;
+        
+        /**
+         * Creates a result.
+         * 
+         * @param exitCode The exit code of the compiler.
+         * @param output The output lines of the compiler.
+         */
+        private Result(int exitCode, List<String> output) {
+            this.exitCode = exitCode;
+            this.output = output;
+        }
+        
+        /**
+         * Returns the exit code of the compiler. 0 means success.
+         * 
+         * @return The exit code.
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+        
+        /**
+         * Returns the lines that the compiler printed, i.e. errors and warnings.
+         * 
+         * @return The output lines.
+         */
+        public List<String> getOutput() {
+            return output;
+        }
+        
+    }
+    
+    /**
+     * A running compiler process.
+     */
+    private static final class Worker {
+        
+        private Process process;
+        
+        private BufferedWriter in;
+        
+        private BufferedReader out;
+        
+        private int numJobs;
+        
+        private long usedHeap;
+        
+        private volatile boolean killed;
+        
+        /**
+         * Starts a compiler process.
+         * 
+         * @param command The command to start the process with.
+         * 
+         * @throws IOException If starting the process fails.
+         */
+        private Worker(List<String> command) throws IOException {
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+            processBuilder.redirectError(Redirect.INHERIT);
+            this.process = processBuilder.start();
+            this.in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+        
+        /**
+         * Sends a job to this process and waits for its result. Afterwards, {@link #usedHeap} holds the heap usage of
+         * the process.
+         * 
+         * @param javacArgs The arguments for the compiler.
+         * @param timeout The time after which the process is killed if it did not send its result.
+         * 
+         * @return The result of the compilation.
+         * 
+         * @throws IOException If communicating with the process fails or the process was killed after the timeout.
+         */
+        private Result compile(List<String> javacArgs, Duration timeout) throws IOException {
+            // killing the process closes its output, so that the blocked reads return
+            ScheduledFuture<?> deadline = WATCHDOG.schedule(this::kill, timeout.toMillis(), TimeUnit.MILLISECONDS);
+            
+            Result result;
+            try {
+                in.write(javacArgs.size() + "\n");
+                for (String arg : javacArgs) {
+                    in.write(arg);
+                    in.write('\n');
+                }
+                in.flush();
+                numJobs++;
+                
+                result = readResult();
+                
+            } catch (IOException e) {
+                if (killed) {
+                    throw new InterruptedIOException("Compiler process did not finish within " + timeout);
+                }
+                throw e;
+                
+            } finally {
+                deadline.cancel(false);
+            }
+            return result;
+        }
+            
+        /**
+         * Reads the result of a job from this process.
+         * 
+         * @return The result of the compilation.
+         * 
+         * @throws IOException If reading from the process fails.
+         */
+        private Result readResult() throws IOException {
+            String header = out.readLine();
+            if (header == null) {
+                throw new EOFException("Compiler process exited with code " + waitForExit());
+            }
+            
+            Result result;
+            try {
+                String[] parts = header.split(" ");
+                int exitCode = Integer.parseInt(parts[0]);
+                int numLines = Integer.parseInt(parts[1]);
+                this.usedHeap = Long.parseLong(parts[2]);
+                
+                List<String> output = new LinkedList<>();
+                for (int i = 0; i < numLines; i++) {
+                    String line = out.readLine();
+                    if (line == null) {
+                        throw new EOFException("Compiler process exited while sending output");
+                    }
+                    output.add(line);
+                }
+                result = new Result(exitCode, output);
+                
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Invalid response from compiler process: " + header, e);
+            }
+            return result;
+        }
+        
+        /**
+         * Waits a short time for the process to exit.
+         * 
+         * @return The exit code, or <code>-1</code> if it did not exit (yet).
+         */
+        private int waitForExit() {
+            int result = -1;
+            try {
+                if (process.waitFor(1, TimeUnit.SECONDS)) {
+                    result = process.exitValue();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+        
+        /**
+         * Kills this process because it did not finish its compilation in time.
+         */
+        private void kill() {
+            killed = true;
+            process.destroyForcibly();
+        }
+        
+        /**
+         * Stops this process. Closing its standard input lets it exit normally.
+         */
+        private void stop() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // process is already gone
+            }
+            if (waitForExit() == -1) {
+                process.destroyForcibly();
+            }
+        }
+        
+    }
+    
+    /**
+     * Creates a pool.
+     * 
+     * @param workerCommand The command to start a compiler process; see {@link #createWorkerCommand(String)}.
+     * @param maxWorkers The maximum number of processes that run at the same time.
+     * @param maxJobsPerWorker The number of compilations after which a process is replaced.
+     * @param maxHeapBytes The heap usage after the last garbage collection (in bytes) above which a process is
+     *      replaced.
+     * 
+     * @throws IllegalArgumentException If maxWorkers or maxJobsPerWorker is not positive.
+     */
+    public JavacWorkerPool(List<String> workerCommand, int maxWorkers, int maxJobsPerWorker, long maxHeapBytes)
+            throws IllegalArgumentException {
+        if (maxWorkers <= 0) {
+            throw new IllegalArgumentException("Maximum number of workers must be positive: " + maxWorkers);
+        }
+        if (maxJobsPerWorker <= 0) {
+            throw new IllegalArgumentException("Maximum number of jobs per worker must be positive: "
+                    + maxJobsPerWorker);
+        }
+        
+        this.workerCommand = List.copyOf(workerCommand);
+        this.maxWorkers = maxWorkers;
+        this.maxJobsPerWorker = maxJobsPerWorker;
+        this.maxHeapBytes = maxHeapBytes;
+        this.timeout = DEFAULT_TIMEOUT;
+        this.idle = new LinkedList<>();
+    }
+    
+    /**
+     * Creates the executor for {@link #WATCHDOG}.
+     * 
+     * @return An executor with a single daemon thread.
+     */
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "javac-worker-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        result.setRemoveOnCancelPolicy(true);
+        return result;
+    }
+    
+    /**
+     * Sets the time that a process may take for a single compilation. If a process does not finish a compilation
+     * within this time, it is killed and {@link #compile(List)} throws an exception. By default, this is
+     * {@link #DEFAULT_TIMEOUT}.
+     * 
+     * @param timeout The maximum duration of a compilation.
+     * 
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public void setTimeout(Duration timeout) throws IllegalArgumentException {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        this.timeout = timeout;
+    }
+    
+    /**
+     * Creates a pool with {@link #DEFAULT_MAX_JOBS_PER_WORKER} and {@link #DEFAULT_MAX_HEAP_BYTES}. The processes run
+     * in the JDK of the given <code>javac</code> command.
+     * 
+     * @param javacCommand The <code>javac</code> command; see {@link CliJavacCheck#setJavacCommand(String)}.
+     * @param maxWorkers The maximum number of processes that run at the same time.
+     * 
+     * @throws IllegalArgumentException If maxWorkers is not positive.
+     */
+    public JavacWorkerPool(String javacCommand, int maxWorkers) throws IllegalArgumentException {
+        this(createWorkerCommand(findJavaCommand(javacCommand)), maxWorkers, DEFAULT_MAX_JOBS_PER_WORKER,
+                DEFAULT_MAX_HEAP_BYTES);
+    }
+    
+    /**
+     * Creates the command that starts a {@link JavacWorker} with the given <code>java</code> executable. The worker
+     * uses the same classpath as the current JVM.
+     * 
+     * @param javaCommand The <code>java</code> executable of a JDK.
+     * 
+     * @return The command to start a worker.
+     */
+    public static List<String> createWorkerCommand(String javaCommand) {
+        return List.of(javaCommand, "-cp", System.getProperty("java.class.path"), JavacWorker.class.getName());
+    }
+    
+    /**
+     * Finds the <code>java</code> executable that belongs to the same JDK as the given <code>javac</code> command.
+     * Symbolic links (e.g. <code>/usr/bin/javac</code>) are resolved to find the JDK.
+     * 
+     * @param javacCommand The <code>javac</code> command, either a path or the name of a binary in the
+     *      <code>PATH</code>.
+     * 
+     * @return The <code>java</code> executable next to <code>javac</code>, or <code>java</code> if it can't be
+     *      found.
+     */
+    static String findJavaCommand(String javacCommand) {
+        Optional<Path> javac = Optional.empty();
+        if (javacCommand.contains(File.separator)) {
+            javac = Optional.of(Path.of(javacCommand));
+        } else if (System.getenv("PATH") != null) {
+            javac = Arrays.stream(System.getenv("PATH").split(File.pathSeparator))
+                    .map(directory -> Path.of(directory, javacCommand))
+                    .filter(Files::isExecutable)
+                    .findFirst();
+        }
+        
+        String result = "java";
+        if (javac.isPresent()) {
+            Path javacFile = javac.get();
+            try {
+                javacFile = javacFile.toRealPath();
+            } catch (IOException e) {
+                // use the path as given
+            }
+            Path java = javacFile.resolveSibling(javacFile.getFileName().toString().replaceFirst("^javac", "java"));
+            if (Files.isExecutable(java)) {
+                result = java.toString();
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Compiles with the given arguments in an idle process, starting one if necessary. Blocks while all
+     * <code>maxWorkers</code> processes are busy.
+     * <p>
+     * The processes don't share the working directory of the caller, so all paths in the arguments must be absolute.
+     * 
+     * @param javacArgs The arguments for the compiler.
+     * 
+     * @return The result of the compilation.
+     * 
+     * @throws IOException If starting or communicating with a process fails, the process did not finish within the
+     *      timeout, or this pool is closed.
+     */
+    public Result compile(List<String> javacArgs) throws IOException {
+        for (String arg : javacArgs) {
+            if (arg.indexOf('\n') != -1 || arg.indexOf('\r') != -1) {
+                throw new IOException("Line breaks in compiler arguments are not supported: " + arg);
+            }
+        }
+        
+        Worker worker = acquire();
+        Result result;
+        try {
+            result = worker.compile(javacArgs, timeout);
+        } catch (IOException e) {
+            release(worker, true);
+            throw e;
+        }
+        
+        boolean recycle = worker.numJobs >= maxJobsPerWorker || worker.usedHeap > maxHeapBytes;
+        if (recycle) {
+            LOGGER.fine(() -> "Replacing compiler process after " + worker.numJobs + " jobs with "
+                    + worker.usedHeap + " bytes used heap");
+        }
+        release(worker, recycle);
+        
+        return result;
+    }
+    
+    /**
+     * Takes an idle process, or starts a new one if the maximum number of processes is not reached yet.
+     * 
+     * @return The process to compile in.
+     * 
+     * @throws IOException If starting a process fails, this pool is closed, or the thread is interrupted while
+     *      waiting.
+     */
+    private Worker acquire() throws IOException {
+        Worker result = null;
+        synchronized (this) {
+            while (result == null) {
+                if (closed) {
+                    throw new IOException("Compiler pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    result = idle.pop();
+                } else if (numWorkers < maxWorkers) {
+                    numWorkers++;
+                    break;
+                } else {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for compiler process");
+                    }
+                }
+            }
+        }
+        
+        if (result == null) {
+            try {
+                LOGGER.fine(() -> "Starting compiler process " + workerCommand);
+                result = new Worker(workerCommand);
+            } catch (IOException e) {
+                synchronized (this) {
+                    numWorkers--;
+                    notifyAll();
+                }
+                throw e;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Returns a process to the pool.
+     * 
+     * @param worker The process that finished its compilation.
+     * @param stop Whether to stop the process instead of keeping it for further compilations.
+     */
+    private void release(Worker worker, boolean stop) {
+        boolean keep;
+        synchronized (this) {
+            keep = !stop && !closed;
+            if (keep) {
+                idle.push(worker);
+            } else {
+                numWorkers--;
+            }
+            notifyAll();
+        }
+        
+        if (!keep) {
+            worker.stop();
+        }
+    }
+    
+    /**
+     * Returns the number of processes that are currently running, both idle and busy.
+     * 
+     * @return The number of processes.
+     */
+    public synchronized int getNumWorkers() {
+        return numWorkers;
+    }
+    
+    /**
+     * Stops all idle processes and prevents further compilations. Busy processes are stopped after their
+     * compilation.
+     */
+    public void close() {
+        List<Worker> toStop;
+        synchronized (this) {
+            closed = true;
+            toStop = new LinkedList<>(idle);
+            numWorkers -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        
+        toStop.forEach(Worker::stop);
+    }
+
+}
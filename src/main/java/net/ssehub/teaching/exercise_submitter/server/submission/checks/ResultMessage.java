@@ -46,6 +46,8 @@ public class ResultMessage implements Comparable<ResultMessage> {
     
     private Integer column;
     
+    private boolean internalError;
+    
     /**
      * Creates a new {@link ResultMessage} with a simple message.
      *  
@@ -95,6 +97,20 @@ public class ResultMessage implements Comparable<ResultMessage> {
         return this;
     }
     
+    /**
+     * Marks this message as reporting an error in the infrastructure (e.g. an I/O error while running the check), as
+     * opposed to a problem in the submission. Results with such messages are not cached, as running the check again
+     * may give a different result. This flag is not sent to the client and not part of {@link #equals(Object)}.
+     * 
+     * @param internalError Whether this message reports an internal error.
+     * 
+     * @return this (for convenience)
+     */
+    public ResultMessage setInternalError(boolean internalError) {
+        this.internalError = internalError;
+        return this;
+    }
+    
     /**
      * Returns the name of the {@link Check} that created this message.
      * 
@@ -149,6 +165,17 @@ public class ResultMessage implements Comparable<ResultMessage> {
         return column;
     }
     
+    /**
+     * Returns whether this message reports an internal error.
+     * 
+     * @return Whether this message reports an internal error.
+     * 
+     * @see #setInternalError(boolean)
+     */
+    public boolean isInternalError() {
+        return internalError;
+    }
+    
     @Override
     public int hashCode() {
         return Objects.hash(checkName, column, file, line, message, type);
@@ -3,6 +3,7 @@ package net.ssehub.teaching.exercise_submitter.server.submission.checks;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,7 +16,7 @@ import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMes
  * 
  * @author Adam
  */
-public class SrcFolderCheck extends Check {
+public class SrcFolderCheck extends Check implements InMemoryCheck {
     
     public static final String CHECK_NAME = "src-folder";
     
@@ -39,16 +40,36 @@ public class SrcFolderCheck extends Check {
                 srcContainsJavaFiles = true; // be conservative here; assume a src folder is bad
                 
                 addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                        "An internal error occurred while checking the src folder"));
+                        "An internal error occurred while checking the src folder").setInternalError(true));
             }
         }
         
         if (srcContainsJavaFiles) {
-            addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
-                    "Submission contains a src folder with Java source files"));
+            addSrcFolderMessage();
         }
         
         return !srcContainsJavaFiles;
     }
+    
+    @Override
+    public boolean run(Map<Path, byte[]> files) {
+        boolean srcContainsJavaFiles = files.keySet().stream()
+                .filter(file -> file.getNameCount() > 1 && file.getName(0).toString().equals("src"))
+                .anyMatch(file -> file.getFileName().toString().endsWith(".java"));
+        
+        if (srcContainsJavaFiles) {
+            addSrcFolderMessage();
+        }
+        
+        return !srcContainsJavaFiles;
+    }
+    
+    /**
+     * Adds the {@link ResultMessage} for a src folder that contains Java source files.
+     */
+    private void addSrcFolderMessage() {
+        addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
+                "Submission contains a src folder with Java source files"));
+    }
 
 }
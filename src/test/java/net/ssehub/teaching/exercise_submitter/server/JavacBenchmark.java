@@ -0,0 +1,82 @@
+package net.ssehub.teaching.exercise_submitter.server;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.tools.ToolProvider;
+
+import net.ssehub.teaching.exercise_submitter.server.logging.LoggingSetup;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileManagerPool;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.InternalJavacCheck;
+
+/**
+ * Compiles the sample programs of the {@link Stresstest} repeatedly, once with fresh file managers for each
+ * compilation and once with a {@link FileManagerPool} that re-uses them.
+ */
+public class JavacBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(JavacBenchmark.class.getName());
+
+    private static final List<String> SAMPLES = Arrays.asList(
+            "public class Main {\n"
+            + "    public static void main(String[] args) {\n"
+            + "        System.out.println(\"Hello Request\");\n"
+            + "    }\n"
+            + "}\n",
+
+            "public class Main {\n"
+            + "    public static void main(String[] args) {\n"
+            + "        System.println(\"Hello Request\");\n"
+            + "    }\n"
+            + "}\n",
+
+            "public class Main {\n"
+            + "public static void main(String[] args) {\n"
+            + "System.out.println(\"Hello Request\");\n"
+            + "}\n"
+            + "}\n");
+
+    private static long run(FileManagerPool pool, int release, int iterations) {
+        long t0 = System.currentTimeMillis();
+        for (int i = 0; i < iterations; i++) {
+            InternalJavacCheck check = new InternalJavacCheck(pool);
+            check.setJavaVersion(release);
+            check.run(Map.of(Path.of("Main.java"), SAMPLES.get(i % SAMPLES.size()).getBytes(StandardCharsets.UTF_8)));
+            check.getResultMessages();
+        }
+        return System.currentTimeMillis() - t0;
+    }
+
+    private static void benchmark(int release, int iterations) {
+        FileManagerPool fresh = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 0);
+        FileManagerPool pooled = new FileManagerPool(ToolProvider.getSystemJavaCompiler(),
+                FileManagerPool.DEFAULT_MAX_IDLE);
+
+        // warm up the JIT
+        run(fresh, release, iterations / 4);
+        run(pooled, release, iterations / 4);
+
+        long freshTime = run(fresh, release, iterations);
+        long pooledTime = run(pooled, release, iterations);
+
+        LOGGER.info("--release " + release + ", " + iterations + " compilations: fresh file managers "
+                + (freshTime * 1.0 / iterations) + "ms per compilation, pooled file managers "
+                + (pooledTime * 1.0 / iterations) + "ms per compilation");
+
+        pooled.clear();
+    }
+
+    public static void main(String[] args) {
+        LoggingSetup.init();
+        LoggingSetup.setLevel("INFO");
+
+        benchmark(17, 200);
+        benchmark(11, 200);
+        benchmark(8, 200);
+    }
+
+}
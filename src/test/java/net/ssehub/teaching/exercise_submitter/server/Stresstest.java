@@ -286,6 +286,8 @@ public class Stresstest {
     }
     
     public void stresstest(int numThreads, int numRequestsPerThread) {
+        requestRuntimes.clear();
+        
         Thread[] threads = new Thread[numThreads];
         for (int i = 0; i < threads.length; i++) {
             threads[i] = new Thread(() -> {
@@ -295,6 +297,7 @@ public class Stresstest {
             });
         }
         
+        long t0 = System.currentTimeMillis();
         Arrays.stream(threads).forEach(Thread::start);
         Arrays.stream(threads).forEach(t -> {
             try {
@@ -303,10 +306,13 @@ public class Stresstest {
                 e.printStackTrace();
             }
         });
+        long wallTime = System.currentTimeMillis() - t0;
         
         IntSummaryStatistics runtimeStats = requestRuntimes.stream().mapToInt(Integer::intValue).summaryStatistics();
         LOGGER.info("Request runtime stats: count=" + runtimeStats.getCount() + ", average=" + runtimeStats.getAverage()
                 + "ms, min=" + runtimeStats.getMin() + "ms, max=" + runtimeStats.getMax() + "ms");
+        LOGGER.info("Throughput with " + numThreads + " threads: " + (runtimeStats.getCount() * 1000.0 / wallTime)
+                + " requests/s (total " + wallTime + "ms)");
         LOGGER.info("Request runtimes: " + requestRuntimes);
     }
     
@@ -318,7 +324,10 @@ public class Stresstest {
                 Files.createDirectories(storage);
             }
             Stresstest stresstest = Stresstest.createLocalServerWithDummyStuMgmt(storage);
-            stresstest.stresstest(4, 100);
+            // increase the number of client threads to see how throughput scales with parallel submissions
+            for (int numThreads = 1; numThreads <= 16; numThreads *= 2) {
+                stresstest.stresstest(numThreads, 400 / numThreads);
+            }
         } catch (Throwable e) {
             System.exit(1);
         }
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import javax.crypto.spec.SecretKeySpec;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
@@ -51,6 +53,15 @@ public class AuthManagerIT {
             assertEquals("someuser", user);
         }
         
+        @Test
+        public void tokenNotVerifiableLocallyFallsBackToAuthSystem() {
+            AuthManager auth = new AuthManager(docker.getAuthUrl(), new EmptyStuMgmtView());
+            auth.setJwtVerifier(new JwtVerifier(new SecretKeySpec(JwtVerifierTest.SECRET, "HmacSHA256"), "sub"));
+            
+            String user = assertDoesNotThrow(() -> auth.authenticate(docker.getAuthToken("someuser")));
+            assertEquals("someuser", user);
+        }
+        
     }
     
 }
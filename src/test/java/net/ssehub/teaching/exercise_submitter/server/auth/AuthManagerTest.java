@@ -1,8 +1,13 @@
 package net.ssehub.teaching.exercise_submitter.server.auth;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.Instant;
+
+import javax.crypto.spec.SecretKeySpec;
+
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -20,6 +25,43 @@ import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedExce
 
 public class AuthManagerTest {
 
+    @Nested
+    public class Authenticate {
+        
+        @Test
+        public void locallyVerifiedTokenReturnsUsername() {
+            AuthManager auth = new AuthManager("http://doesnt_exist.local", new EmptyStuMgmtView());
+            auth.setJwtVerifier(new JwtVerifier(new SecretKeySpec(JwtVerifierTest.SECRET, "HmacSHA256"), "sub"));
+            
+            String token = JwtVerifierTest.createHmacToken(JwtVerifierTest.SECRET,
+                    "{\"sub\":\"student1\",\"exp\":" + (Instant.now().getEpochSecond() + 60) + "}");
+            
+            assertEquals("student1", assertDoesNotThrow(() -> auth.authenticate(token)));
+        }
+        
+        @Test
+        public void locallyRejectedTokenThrows() {
+            AuthManager auth = new AuthManager("http://doesnt_exist.local", new EmptyStuMgmtView());
+            auth.setJwtVerifier(new JwtVerifier(new SecretKeySpec(JwtVerifierTest.SECRET, "HmacSHA256"), "sub"));
+            
+            String token = JwtVerifierTest.createHmacToken(JwtVerifierTest.SECRET,
+                    "{\"sub\":\"student1\",\"exp\":" + (Instant.now().getEpochSecond() - 60) + "}");
+            
+            assertThrows(UnauthorizedException.class, () -> auth.authenticate(token));
+        }
+        
+        @Test
+        public void unreachableAuthSystemNotCached() {
+            TokenCache cache = new TokenCache(
+                    TokenCache.DEFAULT_TTL, TokenCache.DEFAULT_NEGATIVE_TTL, TokenCache.DEFAULT_MAX_SIZE);
+            AuthManager auth = new AuthManager("http://doesnt_exist.local", new EmptyStuMgmtView(), cache);
+            
+            assertThrows(UnauthorizedException.class, () -> auth.authenticate("token"));
+            assertEquals(0, cache.size());
+        }
+        
+    }
+    
     @Nested
     public class CheckSubmissionAllowed {
         
@@ -0,0 +1,225 @@
+package net.ssehub.teaching.exercise_submitter.server.auth;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedException;
+
+public class JwtVerifierTest {
+    
+    static final byte[] SECRET = "a shared secret that is long enough".getBytes(StandardCharsets.UTF_8);
+    
+    private static final Instant NOW = Instant.ofEpochSecond(1634831371L);
+    
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+    
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    
+    private static String encode(String json) {
+        return ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static String createHmacToken(byte[] secret, String claims) {
+        String signingInput = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}") + "." + encode(claims);
+        
+        byte[] signature = assertDoesNotThrow(() -> {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        });
+        
+        return signingInput + "." + ENCODER.encodeToString(signature);
+    }
+    
+    private static String createRsaToken(PrivateKey key, String claims) throws GeneralSecurityException {
+        String signingInput = encode("{\"alg\":\"RS256\",\"typ\":\"JWT\"}") + "." + encode(claims);
+        
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(key);
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        
+        return signingInput + "." + ENCODER.encodeToString(signature.sign());
+    }
+    
+    private static KeyPair createRsaKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+    
+    private static JwtVerifier createHmacVerifier() {
+        return new JwtVerifier(new SecretKeySpec(SECRET, "HmacSHA256"), "sub", CLOCK);
+    }
+    
+    @Test
+    public void invalidKeyTypeThrows() throws GeneralSecurityException {
+        PrivateKey privateKey = createRsaKeyPair().getPrivate();
+        
+        assertThrows(IllegalArgumentException.class, () -> new JwtVerifier(privateKey, "sub"));
+    }
+    
+    @Test
+    public void validHmacTokenReturnsUsername() {
+        String token = createHmacToken(SECRET, "{\"sub\":\"student1\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        assertEquals(Optional.of("student1"), assertDoesNotThrow(() -> createHmacVerifier().verify(token)));
+    }
+    
+    @Test
+    public void configuredUsernameClaimUsed() {
+        String token = createHmacToken(SECRET, "{\"sub\":\"123\",\"username\":\"student1\",\"exp\":"
+                + (NOW.getEpochSecond() + 60) + "}");
+        JwtVerifier verifier = new JwtVerifier(new SecretKeySpec(SECRET, "HmacSHA256"), "username", CLOCK);
+        
+        assertEquals(Optional.of("student1"), assertDoesNotThrow(() -> verifier.verify(token)));
+    }
+    
+    @Test
+    public void wrongSecretCannotBeVerified() {
+        String token = createHmacToken("another secret".getBytes(StandardCharsets.UTF_8),
+                "{\"sub\":\"student1\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        assertEquals(Optional.empty(), assertDoesNotThrow(() -> createHmacVerifier().verify(token)));
+    }
+    
+    @Test
+    public void modifiedPayloadCannotBeVerified() {
+        String token = createHmacToken(SECRET, "{\"sub\":\"student1\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        String[] parts = token.split("\\.");
+        String modified = parts[0] + "." + encode("{\"sub\":\"tutor\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}")
+                + "." + parts[2];
+        
+        assertEquals(Optional.empty(), assertDoesNotThrow(() -> createHmacVerifier().verify(modified)));
+    }
+    
+    @Test
+    public void nonJwtTokenCannotBeVerified() {
+        assertAll(
+            () -> assertEquals(Optional.empty(), createHmacVerifier().verify("123")),
+            () -> assertEquals(Optional.empty(), createHmacVerifier().verify("a.b.c"))
+        );
+    }
+    
+    @Test
+    public void unsignedTokenCannotBeVerified() {
+        String token = encode("{\"alg\":\"none\"}") + "." + encode("{\"sub\":\"student1\",\"exp\":"
+                + (NOW.getEpochSecond() + 60) + "}") + ".";
+        
+        assertEquals(Optional.empty(), assertDoesNotThrow(() -> createHmacVerifier().verify(token)));
+    }
+    
+    @Test
+    public void expiredTokenRejected() {
+        String token = createHmacToken(SECRET, "{\"sub\":\"student1\",\"exp\":" + NOW.getEpochSecond() + "}");
+        
+        assertThrows(UnauthorizedException.class, () -> createHmacVerifier().verify(token));
+    }
+    
+    @Test
+    public void tokenWithoutExpiryRejected() {
+        String token = createHmacToken(SECRET, "{\"sub\":\"student1\"}");
+        
+        assertThrows(UnauthorizedException.class, () -> createHmacVerifier().verify(token));
+    }
+    
+    @Test
+    public void tokenNotValidYetRejected() {
+        String token = createHmacToken(SECRET, "{\"sub\":\"student1\",\"nbf\":" + (NOW.getEpochSecond() + 10)
+                + ",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        assertThrows(UnauthorizedException.class, () -> createHmacVerifier().verify(token));
+    }
+    
+    @Test
+    public void tokenWithoutUsernameRejected() {
+        String token = createHmacToken(SECRET, "{\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        assertThrows(UnauthorizedException.class, () -> createHmacVerifier().verify(token));
+    }
+    
+    @Test
+    public void validRsaTokenReturnsUsername() throws GeneralSecurityException {
+        KeyPair keyPair = createRsaKeyPair();
+        String token = createRsaToken(keyPair.getPrivate(),
+                "{\"sub\":\"student1\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        JwtVerifier verifier = new JwtVerifier(keyPair.getPublic(), "sub", CLOCK);
+        
+        assertEquals(Optional.of("student1"), assertDoesNotThrow(() -> verifier.verify(token)));
+    }
+    
+    @Test
+    public void rsaTokenWithOtherKeyCannotBeVerified() throws GeneralSecurityException {
+        String token = createRsaToken(createRsaKeyPair().getPrivate(),
+                "{\"sub\":\"student1\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        JwtVerifier verifier = new JwtVerifier(createRsaKeyPair().getPublic(), "sub", CLOCK);
+        
+        assertEquals(Optional.empty(), assertDoesNotThrow(() -> verifier.verify(token)));
+    }
+    
+    @Test
+    public void hmacTokenCannotBeVerifiedWithPublicKey() throws GeneralSecurityException {
+        KeyPair keyPair = createRsaKeyPair();
+        // an attacker signs with the (public) RSA key as HMAC secret
+        String token = createHmacToken(keyPair.getPublic().getEncoded(),
+                "{\"sub\":\"student1\",\"exp\":" + (NOW.getEpochSecond() + 60) + "}");
+        
+        JwtVerifier verifier = new JwtVerifier(keyPair.getPublic(), "sub", CLOCK);
+        
+        assertEquals(Optional.empty(), assertDoesNotThrow(() -> verifier.verify(token)));
+    }
+    
+    @Test
+    public void readPublicKeyFromPem() throws GeneralSecurityException, IOException {
+        PublicKey publicKey = createRsaKeyPair().getPublic();
+        
+        Path pemFile = Files.createTempFile("JwtVerifierTest.readPublicKeyFromPem", ".pem");
+        try {
+            Files.writeString(pemFile, "-----BEGIN PUBLIC KEY-----\n"
+                    + Base64.getMimeEncoder().encodeToString(publicKey.getEncoded())
+                    + "\n-----END PUBLIC KEY-----\n", StandardCharsets.US_ASCII);
+            
+            assertEquals(publicKey, JwtVerifier.readPublicKey(pemFile));
+        } finally {
+            Files.delete(pemFile);
+        }
+    }
+    
+    @Test
+    public void readPublicKeyInvalidThrows() throws IOException {
+        Path pemFile = Files.createTempFile("JwtVerifierTest.readPublicKeyInvalidThrows", ".pem");
+        try {
+            Files.writeString(pemFile, "-----BEGIN PUBLIC KEY-----\nnot a key\n-----END PUBLIC KEY-----\n",
+                    StandardCharsets.US_ASCII);
+            
+            assertThrows(IOException.class, () -> JwtVerifier.readPublicKey(pemFile));
+        } finally {
+            Files.delete(pemFile);
+        }
+    }
+
+}
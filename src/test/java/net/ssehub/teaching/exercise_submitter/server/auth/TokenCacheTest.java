@@ -0,0 +1,319 @@
+package net.ssehub.teaching.exercise_submitter.server.auth;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedException;
+
+public class TokenCacheTest {
+    
+    private static final Instant START = Instant.ofEpochSecond(1634831371L);
+    
+    private static class MutableClock extends Clock {
+        
+        private Instant now = START;
+        
+        public void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+        
+        @Override
+        public Instant instant() {
+            return now;
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+    }
+    
+    private static class CountingAuthenticator implements TokenCache.Authenticator {
+        
+        private AtomicInteger calls = new AtomicInteger();
+        
+        @Override
+        public String authenticate(String token) throws UnauthorizedException {
+            calls.incrementAndGet();
+            if (token.startsWith("invalid")) {
+                throw new UnauthorizedException();
+            }
+            return "user_" + token;
+        }
+        
+    }
+    
+    private static String createJwt(long expiry) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(("{\"sub\":\"student\",\"exp\":" + expiry + "}")
+                        .getBytes(StandardCharsets.UTF_8))
+                + ".c2lnbmF0dXJl";
+    }
+    
+    @Test
+    public void nonPositiveMaxSizeThrows() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 0));
+    }
+    
+    @Test
+    public void authenticatesUnknownToken() {
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 10, new MutableClock());
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        assertAll(
+            () -> assertEquals("user_123", cache.get("123", authenticator)),
+            () -> assertEquals(1, authenticator.calls.get())
+        );
+    }
+    
+    @Test
+    public void cachedTokenNotAuthenticatedAgain() {
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 10, new MutableClock());
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        assertDoesNotThrow(() -> cache.get("123", authenticator));
+        
+        assertAll(
+            () -> assertEquals("user_123", cache.get("123", authenticator)),
+            () -> assertEquals(1, authenticator.calls.get())
+        );
+    }
+    
+    @Test
+    public void differentTokensAuthenticatedSeparately() {
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 10, new MutableClock());
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        assertAll(
+            () -> assertEquals("user_123", cache.get("123", authenticator)),
+            () -> assertEquals("user_456", cache.get("456", authenticator)),
+            () -> assertEquals(2, authenticator.calls.get())
+        );
+    }
+    
+    @Test
+    public void expiredTokenAuthenticatedAgain() {
+        MutableClock clock = new MutableClock();
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(1), 10, clock);
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        assertDoesNotThrow(() -> cache.get("123", authenticator));
+        clock.advance(Duration.ofSeconds(59));
+        assertDoesNotThrow(() -> cache.get("123", authenticator));
+        assertEquals(1, authenticator.calls.get());
+        
+        clock.advance(Duration.ofSeconds(1));
+        assertDoesNotThrow(() -> cache.get("123", authenticator));
+        assertEquals(2, authenticator.calls.get());
+    }
+    
+    @Test
+    public void rejectedTokenCachedForNegativeTtl() {
+        MutableClock clock = new MutableClock();
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 10, clock);
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        assertThrows(UnauthorizedException.class, () -> cache.get("invalid", authenticator));
+        clock.advance(Duration.ofSeconds(9));
+        assertThrows(UnauthorizedException.class, () -> cache.get("invalid", authenticator));
+        assertEquals(1, authenticator.calls.get());
+        
+        clock.advance(Duration.ofSeconds(1));
+        assertThrows(UnauthorizedException.class, () -> cache.get("invalid", authenticator));
+        assertEquals(2, authenticator.calls.get());
+    }
+    
+    @Test
+    public void runtimeExceptionNotCached() {
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 10, new MutableClock());
+        AtomicInteger calls = new AtomicInteger();
+        
+        TokenCache.Authenticator authenticator = token -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("mock");
+            }
+            return "user_" + token;
+        };
+        
+        assertThrows(IllegalStateException.class, () -> cache.get("123", authenticator));
+        
+        assertAll(
+            () -> assertEquals("user_123", cache.get("123", authenticator)),
+            () -> assertEquals(2, calls.get())
+        );
+    }
+    
+    @Test
+    public void upstreamErrorNotCached() {
+        MutableClock clock = new MutableClock();
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 10, clock);
+        AtomicInteger calls = new AtomicInteger();
+        
+        TokenCache.Authenticator authenticator = token -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new TokenCache.UpstreamException(new Exception("connection refused"));
+            }
+            return "user_" + token;
+        };
+        
+        assertThrows(TokenCache.UpstreamException.class, () -> cache.get("123", authenticator));
+        clock.advance(Duration.ofSeconds(1));
+        
+        assertAll(
+            () -> assertEquals("user_123", cache.get("123", authenticator)),
+            () -> assertEquals(2, calls.get())
+        );
+    }
+    
+    @Test
+    public void tokenExpiryLimitsTtl() {
+        MutableClock clock = new MutableClock();
+        TokenCache cache = new TokenCache(Duration.ofMinutes(5), Duration.ofSeconds(10), 10, clock);
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        String token = createJwt(START.getEpochSecond() + 30);
+        
+        assertDoesNotThrow(() -> cache.get(token, authenticator));
+        clock.advance(Duration.ofSeconds(29));
+        assertDoesNotThrow(() -> cache.get(token, authenticator));
+        assertEquals(1, authenticator.calls.get());
+        
+        clock.advance(Duration.ofSeconds(1));
+        assertDoesNotThrow(() -> cache.get(token, authenticator));
+        assertEquals(2, authenticator.calls.get());
+    }
+    
+    @Test
+    public void sizeIsBounded() {
+        MutableClock clock = new MutableClock();
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 3, clock);
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        for (int i = 0; i < 10; i++) {
+            String token = "token" + i;
+            assertDoesNotThrow(() -> cache.get(token, authenticator));
+            clock.advance(Duration.ofSeconds(1));
+        }
+        
+        assertAll(
+            () -> assertEquals(3, cache.size()),
+            // the most recent token expires last, so it is still cached
+            () -> assertEquals("user_token9", cache.get("token9", authenticator)),
+            () -> assertEquals(10, authenticator.calls.get())
+        );
+    }
+    
+    @Test
+    public void fullCacheEvictedInBatch() {
+        MutableClock clock = new MutableClock();
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 20, clock);
+        CountingAuthenticator authenticator = new CountingAuthenticator();
+        
+        for (int i = 0; i < 21; i++) {
+            String token = "token" + i;
+            assertDoesNotThrow(() -> cache.get(token, authenticator));
+            clock.advance(Duration.ofSeconds(1));
+        }
+        
+        assertAll(
+            () -> assertEquals(18, cache.size()),
+            // the oldest tokens expire soonest, so they are evicted
+            () -> assertEquals("user_token3", cache.get("token3", authenticator)),
+            () -> assertEquals(21, authenticator.calls.get()),
+            () -> assertEquals("user_token2", cache.get("token2", authenticator)),
+            () -> assertEquals(22, authenticator.calls.get())
+        );
+    }
+    
+    @Test
+    public void concurrentLookupsAuthenticateOnce() throws InterruptedException {
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 10, new MutableClock());
+        
+        CountDownLatch authenticating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        
+        TokenCache.Authenticator authenticator = token -> {
+            calls.incrementAndGet();
+            authenticating.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new UnauthorizedException(e);
+            }
+            return "user_" + token;
+        };
+        
+        AtomicReference<String> first = new AtomicReference<>();
+        Thread firstThread = new Thread(() -> first.set(assertDoesNotThrow(() -> cache.get("123", authenticator))));
+        firstThread.start();
+        assertTrue(authenticating.await(5, TimeUnit.SECONDS));
+        
+        AtomicReference<String> second = new AtomicReference<>();
+        Thread secondThread = new Thread(() -> second.set(assertDoesNotThrow(() -> cache.get("123", authenticator))));
+        secondThread.start();
+        
+        release.countDown();
+        firstThread.join(5000);
+        secondThread.join(5000);
+        
+        assertAll(
+            () -> assertEquals("user_123", first.get()),
+            () -> assertEquals("user_123", second.get()),
+            () -> assertEquals(1, calls.get())
+        );
+    }
+    
+    @Test
+    public void rejectedTokenRethrowsSameException() {
+        TokenCache cache = new TokenCache(Duration.ofMinutes(1), Duration.ofSeconds(10), 10, new MutableClock());
+        UnauthorizedException exception = new UnauthorizedException();
+        
+        UnauthorizedException thrown = assertThrows(UnauthorizedException.class, () -> cache.get("123", token -> {
+            throw exception;
+        }));
+        
+        assertSame(exception, thrown);
+    }
+    
+    @Test
+    public void getExpiryOfJwt() {
+        assertEquals(Optional.of(Instant.ofEpochSecond(1634831401L)), TokenCache.getExpiry(createJwt(1634831401L)));
+    }
+    
+    @Test
+    public void getExpiryOfNonJwtEmpty() {
+        assertAll(
+            () -> assertEquals(Optional.empty(), TokenCache.getExpiry("123")),
+            () -> assertEquals(Optional.empty(), TokenCache.getExpiry("a.b%.c"))
+        );
+    }
+
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Map;
 
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.junit.jupiter.api.Test;
@@ -45,8 +46,10 @@ public class ExerciseSubmitterServerTest {
     public void startWithNoStorageThrows() {
         ExerciseSubmitterServer server = new ExerciseSubmitterServer();
         server.setPort(8000);
-        server.setSubmissionManager(new SubmissionManager(null, null));
+        SubmissionManager submissionManager = new SubmissionManager(null, null);
+        server.setSubmissionManager(submissionManager);
         IllegalStateException e = assertThrows(IllegalStateException.class, () -> server.start());
+        submissionManager.close();
         assertEquals("No storage specified", e.getMessage());
     }
     
@@ -131,6 +134,18 @@ public class ExerciseSubmitterServerTest {
         assertEquals("Server already started", e.getMessage());
     }
     
+    @Test
+    public void courseWeightsParsed() {
+        assertEquals(Map.of("java-wise2122", 2.0, "ad-wise2122", 0.5),
+                ExerciseSubmitterServer.parseCourseWeights("java-wise2122:2, ad-wise2122 : 0.5"));
+    }
+    
+    @Test
+    public void invalidCourseWeightsSkipped() {
+        assertEquals(Map.of("c", 3.0),
+                ExerciseSubmitterServer.parseCourseWeights("a:0,b:x,:1,nocolon,,d:-1,e:Infinity,c:3"));
+    }
+    
     @Test
     public void startAlreadyStartedThrows() {
         ExerciseSubmitterServer server = createStartedServer();
@@ -19,6 +19,7 @@ import net.ssehub.teaching.exercise_submitter.server.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.EmptyStuMgmtView;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
 import net.ssehub.teaching.exercise_submitter.server.submission.NoChecksSubmissionManager;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionJobManager;
 import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionManager;
 
 public abstract class AbstractRestTest {
@@ -43,6 +44,8 @@ public abstract class AbstractRestTest {
     
     private StuMgmtView stuMgmtView;
     
+    private SubmissionJobManager submissionJobManager;
+    
     @BeforeEach
     public void setupServer() {
         port = generateRandomPort();
@@ -53,9 +56,11 @@ public abstract class AbstractRestTest {
         submissionManager = new NoChecksSubmissionManager(storage);
         authManager = new PermissiveAuthManager();
         stuMgmtView = new EmptyStuMgmtView();
+        submissionJobManager = null;
     }
     
     protected void setSubmissionManager(SubmissionManager submissionManager) {
+        this.submissionManager.close();
         this.submissionManager = submissionManager;
     }
     
@@ -71,6 +76,10 @@ public abstract class AbstractRestTest {
         this.stuMgmtView = stuMgmtView;
     }
     
+    protected void setSubmissionJobManager(SubmissionJobManager submissionJobManager) {
+        this.submissionJobManager = submissionJobManager;
+    }
+    
     protected void startServer() {
         assertDoesNotThrow(() -> stuMgmtView.fullReload());
         
@@ -79,7 +88,8 @@ public abstract class AbstractRestTest {
                 .setStorage(storage)
                 .setSubmissionManager(submissionManager)
                 .setAuthManager(authManager)
-                .setStuMgmtView(stuMgmtView);
+                .setStuMgmtView(stuMgmtView)
+                .setSubmissionJobManager(submissionJobManager);
         server.start();
     }
     
@@ -88,6 +98,10 @@ public abstract class AbstractRestTest {
         if (server != null) {
             server.stop();
         }
+        submissionManager.close();
+        if (submissionJobManager != null) {
+            submissionJobManager.shutdown();
+        }
     }
     
     /**
@@ -1,5 +1,6 @@
 package net.ssehub.teaching.exercise_submitter.server.rest.routes;
 
+import static net.ssehub.teaching.exercise_submitter.server.submission.ZipSubmissionReaderTest.createZip;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -7,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -15,9 +18,13 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -29,6 +36,7 @@ import jakarta.ws.rs.core.Response;
 import net.ssehub.teaching.exercise_submitter.server.auth.PermissiveAuthManager;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.CheckMessageDto;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.FileDto;
+import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionJobDto;
 import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionResultDto;
 import net.ssehub.teaching.exercise_submitter.server.storage.EmptyStorage;
 import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetException;
@@ -38,7 +46,9 @@ import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
 import net.ssehub.teaching.exercise_submitter.server.storage.Version;
 import net.ssehub.teaching.exercise_submitter.server.submission.NoChecksSubmissionManager;
+import net.ssehub.teaching.exercise_submitter.server.submission.SubmissionJobManager;
 import net.ssehub.teaching.exercise_submitter.server.submission.UnauthorizedException;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileSizeCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
 
 public class SubmissionRouteIT extends AbstractRestTest {
@@ -255,6 +265,324 @@ public class SubmissionRouteIT extends AbstractRestTest {
         
     }
     
+    @Nested
+    public class SubmitZip {
+        
+        @Test
+        public void noTokenUnauthorized() throws IOException {
+            startServer();
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01")
+                    .request()
+                    .post(Entity.entity(createZip("test.txt", "some content\n"), "application/zip"));
+            
+            assertAll(
+                () -> assertEquals(403, response.getStatus()),
+                () -> assertEquals("Unauthorized", response.getStatusInfo().getReasonPhrase())
+            );
+        }
+        
+        @Test
+        public void invalidFilepathBadRequest() throws IOException {
+            startServer();
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(createZip("../test.txt", "some content\n"), "application/zip"));
+            
+            assertAll(
+                () -> assertEquals(400, response.getStatus()),
+                () -> assertEquals("Invalid filepath: .. is not allowed in submission paths",
+                        response.getStatusInfo().getReasonPhrase())
+            );
+        }
+        
+        @Test
+        public void malformedArchiveBadRequest() throws IOException {
+            startServer();
+            byte[] zip = createZip("test.txt", "some content that is long enough to be cut off\n");
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(Arrays.copyOf(zip, 40), "application/zip"));
+            
+            assertAll(
+                () -> assertEquals(400, response.getStatus()),
+                () -> assertEquals("Malformed zip archive", response.getStatusInfo().getReasonPhrase())
+            );
+        }
+        
+        @Test
+        public void fileTooLarge() throws IOException {
+            AtomicReference<Submission> result = new AtomicReference<>();
+            
+            NoChecksSubmissionManager manager = new NoChecksSubmissionManager(new EmptyStorage() {
+                @Override
+                public void submitNewVersion(SubmissionTarget target, Submission submission)
+                        throws NoSuchTargetException, StorageException {
+                    result.set(submission);
+                }
+            });
+            FileSizeCheck fileSizeCheck = new FileSizeCheck();
+            fileSizeCheck.setMaxFileSize(10);
+            manager.addDefaultRejectingCheck(fileSizeCheck);
+            setSubmissionManager(manager);
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(createZip("test.txt", "some content\n"), "application/zip"));
+            
+            assertAll(
+                () -> assertEquals(413, response.getStatus()),
+                () -> assertEquals("File test.txt is too large", response.getStatusInfo().getReasonPhrase()),
+                () -> assertNull(result.get())
+            );
+        }
+        
+        @Test
+        public void submissionAccepted() throws IOException {
+            AtomicReference<Submission> result = new AtomicReference<>();
+            
+            setSubmissionManager(new NoChecksSubmissionManager(new EmptyStorage() {
+                @Override
+                public void submitNewVersion(SubmissionTarget target, Submission submission)
+                        throws NoSuchTargetException, StorageException {
+                    result.set(submission);
+                }
+            }));
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(createZip("test.txt", "some content\n", "dir/other.txt", "other\n"),
+                            "application/zip"));
+            
+            SubmissionResultDto dto = response.readEntity(SubmissionResultDto.class);
+            
+            assertAll(
+                () -> assertEquals(201, response.getStatus()),
+                () -> assertTrue(dto.getAccepted()),
+                () -> assertEquals(GENERATED_USERNAME, result.get().getAuthor()),
+                () -> assertEquals(2, result.get().getNumFiles()),
+                () -> assertArrayEquals("some content\n".getBytes(StandardCharsets.UTF_8),
+                        result.get().getFileContent(Path.of("test.txt"))),
+                () -> assertArrayEquals("other\n".getBytes(StandardCharsets.UTF_8),
+                        result.get().getFileContent(Path.of("dir/other.txt")))
+            );
+        }
+        
+    }
+    
+    @Nested
+    public class SubmitAsync {
+        
+        @Test
+        public void notEnabled() {
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/async")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(Arrays.asList(new FileDto("test.txt", "some content\n")), MediaType.APPLICATION_JSON));
+            
+            assertAll(
+                () -> assertEquals(501, response.getStatus()),
+                () -> assertEquals("Asynchronous submissions are not enabled",
+                        response.getStatusInfo().getReasonPhrase())
+            );
+        }
+        
+        @Test
+        public void noTokenUnauthorized() {
+            setSubmissionJobManager(new SubmissionJobManager(1, 10));
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/async")
+                    .request()
+                    .post(Entity.entity(Arrays.asList(), MediaType.APPLICATION_JSON));
+            
+            assertEquals(403, response.getStatus());
+        }
+        
+        @Test
+        public void invalidFilepathBadRequest() {
+            setSubmissionJobManager(new SubmissionJobManager(1, 10));
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/async")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(Arrays.asList(new FileDto("../test.txt", "some content\n")), MediaType.APPLICATION_JSON));
+            
+            assertEquals(400, response.getStatus());
+        }
+        
+        @Test
+        public void acceptedAndResultRetrievable() throws InterruptedException {
+            AtomicReference<Submission> result = new AtomicReference<>();
+            setSubmissionManager(new NoChecksSubmissionManager(new EmptyStorage() {
+                @Override
+                public void submitNewVersion(SubmissionTarget target, Submission submission)
+                        throws NoSuchTargetException, StorageException {
+                    result.set(submission);
+                }
+            }));
+            setSubmissionJobManager(new SubmissionJobManager(1, 10));
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/async")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(Arrays.asList(new FileDto("test.txt", "some content\n")), MediaType.APPLICATION_JSON));
+            
+            SubmissionJobDto job = response.readEntity(SubmissionJobDto.class);
+            assertAll(
+                () -> assertEquals(202, response.getStatus()),
+                () -> assertTrue(response.getLocation().toString().endsWith("/submission/jobs/" + job.getJobId()))
+            );
+            
+            SubmissionJobDto polled = pollUntilDone(job.getJobId());
+            
+            assertAll(
+                () -> assertEquals("FINISHED", polled.getState()),
+                () -> assertTrue(polled.getResult().getAccepted()),
+                () -> assertArrayEquals("some content\n".getBytes(StandardCharsets.UTF_8),
+                        result.get().getFileContent(Path.of("test.txt")))
+            );
+        }
+        
+        @Test
+        public void storageExceptionFailed() throws InterruptedException {
+            setSubmissionManager(new NoChecksSubmissionManager(new EmptyStorage() {
+                @Override
+                public void submitNewVersion(SubmissionTarget target, Submission submission)
+                        throws NoSuchTargetException, StorageException {
+                    throw new StorageException("mock");
+                }
+            }));
+            setSubmissionJobManager(new SubmissionJobManager(1, 10));
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/async")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(Arrays.asList(new FileDto("test.txt", "some content\n")), MediaType.APPLICATION_JSON));
+            
+            SubmissionJobDto polled = pollUntilDone(response.readEntity(SubmissionJobDto.class).getJobId());
+            
+            assertAll(
+                () -> assertEquals("FAILED", polled.getState()),
+                () -> assertNull(polled.getResult())
+            );
+        }
+        
+        @Test
+        public void queueFullServiceUnavailable() {
+            CountDownLatch block = new CountDownLatch(1);
+            setSubmissionManager(new NoChecksSubmissionManager(new EmptyStorage()) {
+                @Override
+                public SubmissionResultDto submit(SubmissionTarget target, Submission submission)
+                        throws NoSuchTargetException, StorageException {
+                    try {
+                        block.await();
+                    } catch (InterruptedException e) {
+                    }
+                    return super.submit(target, submission);
+                }
+            });
+            setSubmissionJobManager(new SubmissionJobManager(1, 1));
+            startServer();
+            
+            try {
+                int[] statusCodes = new int[3];
+                for (int i = 0; i < statusCodes.length; i++) {
+                    statusCodes[i] = target.path("/submission/foo-wise2122/Homework01/Group0" + i + "/async")
+                            .request()
+                            .header("Authorization", JWT_TOKEN)
+                            .post(Entity.entity(Arrays.asList(new FileDto("test.txt", "some content\n")),
+                                    MediaType.APPLICATION_JSON))
+                            .getStatus();
+                }
+                
+                // first is running, second is queued, third is rejected
+                assertAll(
+                    () -> assertEquals(202, statusCodes[0]),
+                    () -> assertEquals(202, statusCodes[1]),
+                    () -> assertEquals(503, statusCodes[2])
+                );
+                
+            } finally {
+                block.countDown();
+            }
+        }
+        
+    }
+    
+    @Nested
+    public class GetJob {
+        
+        @Test
+        public void notExistingNotFound() {
+            setSubmissionJobManager(new SubmissionJobManager(1, 10));
+            startServer();
+            
+            Response response = target.path("/submission/jobs/does-not-exist")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            
+            assertEquals(404, response.getStatus());
+        }
+        
+        @Test
+        public void notEnabledNotFound() {
+            startServer();
+            
+            Response response = target.path("/submission/jobs/does-not-exist")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            
+            assertEquals(404, response.getStatus());
+        }
+        
+        @Test
+        public void otherUserUnauthorized() {
+            setSubmissionJobManager(new SubmissionJobManager(1, 10));
+            startServer();
+            
+            SubmissionJobDto job = target.path("/submission/foo-wise2122/Homework01/Group01/async")
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .post(Entity.entity(Arrays.asList(new FileDto("test.txt", "some content\n")), MediaType.APPLICATION_JSON))
+                    .readEntity(SubmissionJobDto.class);
+            
+            Response response = target.path("/submission/jobs/" + job.getJobId())
+                    .request()
+                    .header("Authorization", "Bearer 456")
+                    .get();
+            
+            assertEquals(403, response.getStatus());
+        }
+        
+    }
+    
+    private SubmissionJobDto pollUntilDone(String jobId) throws InterruptedException {
+        SubmissionJobDto result;
+        do {
+            Thread.sleep(50);
+            Response response = target.path("/submission/jobs/" + jobId)
+                    .request()
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            assertEquals(200, response.getStatus());
+            result = response.readEntity(SubmissionJobDto.class);
+        } while (result.getState().equals("QUEUED") || result.getState().equals("RUNNING"));
+        return result;
+    }
+    
     @Nested
     public class ListVersions {
         
@@ -746,6 +1074,117 @@ public class SubmissionRouteIT extends AbstractRestTest {
         
     }
     
+    private static Map<String, String> readZip(InputStream in) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                result.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+    
+    @Nested
+    public class GetZip {
+        
+        private final Instant timestamp = Instant.ofEpochSecond(1634831371L);
+        
+        @BeforeEach
+        public void setupStorage() {
+            setStorage(new EmptyStorage() {
+                @Override
+                public List<Version> getVersions(SubmissionTarget target)
+                        throws NoSuchTargetException, StorageException {
+                    return Arrays.asList(new Version("student123", timestamp));
+                }
+                
+                @Override
+                public Submission getSubmission(SubmissionTarget target, Version version)
+                        throws NoSuchTargetException, StorageException {
+                    
+                    SubmissionBuilder builder = new SubmissionBuilder(version.getAuthor());
+                    builder.addUtf8File(Path.of("test.txt"), "Some content.\n");
+                    builder.addUtf8File(Path.of("dir/other.txt"), "Other content.\n");
+                    return builder.build();
+                }
+            });
+        }
+        
+        @Test
+        public void latestAsZip() throws IOException {
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/latest")
+                    .request()
+                    .accept("application/zip")
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            
+            assertEquals(200, response.getStatus());
+            
+            Map<String, String> files = readZip(response.readEntity(InputStream.class));
+            
+            assertAll(
+                () -> assertEquals("application/zip", response.getMediaType().toString()),
+                () -> assertEquals("attachment; filename=\"Group01-1634831371.zip\"",
+                        response.getHeaderString("Content-Disposition")),
+                () -> assertEquals(Map.of(
+                        "test.txt", "Some content.\n",
+                        "dir/other.txt", "Other content.\n"), files)
+            );
+        }
+        
+        @Test
+        public void versionAsZip() throws IOException {
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/1634831371")
+                    .request()
+                    .accept("application/zip")
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            
+            assertEquals(200, response.getStatus());
+            
+            Map<String, String> files = readZip(response.readEntity(InputStream.class));
+            
+            assertEquals(Map.of(
+                    "test.txt", "Some content.\n",
+                    "dir/other.txt", "Other content.\n"), files);
+        }
+        
+        @Test
+        public void nonExistingVersionNotFound() {
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/123456")
+                    .request()
+                    .accept("application/zip")
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            
+            assertEquals(404, response.getStatus());
+        }
+        
+        @Test
+        public void anyMediaTypeReturnsJson() {
+            startServer();
+            
+            Response response = target.path("/submission/foo-wise2122/Homework01/Group01/latest")
+                    .request()
+                    .accept(MediaType.WILDCARD)
+                    .header("Authorization", JWT_TOKEN)
+                    .get();
+            
+            assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType())
+            );
+        }
+        
+    }
+    
     @Nested
     public class Cors {
         
@@ -0,0 +1,124 @@
+package net.ssehub.teaching.exercise_submitter.server.storage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class SubmissionFingerprintTest {
+
+    private static final String HASH_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    
+    @Test
+    public void hashIsSha256() {
+        assertEquals(HASH_ABC, SubmissionFingerprint.hash("abc".getBytes(StandardCharsets.US_ASCII)));
+    }
+    
+    @Test
+    public void fileHashesOfSubmission() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("dir/test.txt"), "abc");
+        
+        SubmissionFingerprint fingerprint = SubmissionFingerprint.of(builder.build());
+        
+        assertEquals(Map.of(Path.of("dir/test.txt"), HASH_ABC), fingerprint.getFileHashes());
+    }
+    
+    @Test
+    public void sameContentEqual() {
+        SubmissionBuilder first = new SubmissionBuilder("author1");
+        first.addUtf8File(Path.of("Main.java"), "some content");
+        first.addUtf8File(Path.of("Util.java"), "other content");
+        
+        SubmissionBuilder second = new SubmissionBuilder("author2");
+        second.addUtf8File(Path.of("Util.java"), "other content");
+        second.addUtf8File(Path.of("Main.java"), "some content");
+        
+        SubmissionFingerprint f1 = first.build().getFingerprint();
+        SubmissionFingerprint f2 = second.build().getFingerprint();
+        
+        assertAll(
+            () -> assertEquals(f1, f2),
+            () -> assertEquals(f1.hashCode(), f2.hashCode()),
+            () -> assertEquals(f1.getAggregateHash(), f2.getAggregateHash())
+        );
+    }
+    
+    @Test
+    public void differentContentNotEqual() {
+        SubmissionBuilder first = new SubmissionBuilder("author");
+        first.addUtf8File(Path.of("Main.java"), "some content");
+        
+        SubmissionBuilder second = new SubmissionBuilder("author");
+        second.addUtf8File(Path.of("Main.java"), "different content");
+        
+        assertNotEquals(first.build().getFingerprint(), second.build().getFingerprint());
+    }
+    
+    @Test
+    public void differentFilenamesNotEqual() {
+        SubmissionBuilder first = new SubmissionBuilder("author");
+        first.addUtf8File(Path.of("Main.java"), "some content");
+        
+        SubmissionBuilder second = new SubmissionBuilder("author");
+        second.addUtf8File(Path.of("Main2.java"), "some content");
+        
+        assertNotEquals(first.build().getFingerprint(), second.build().getFingerprint());
+    }
+    
+    @Test
+    public void emptySubmissionsEqual() {
+        assertEquals(new SubmissionBuilder("a").build().getFingerprint(),
+                new SubmissionBuilder("b").build().getFingerprint());
+    }
+    
+    @Test
+    public void fingerprintOfSubmissionCached() {
+        Submission submission = new SubmissionBuilder("author").build();
+        
+        assertSame(submission.getFingerprint(), submission.getFingerprint());
+    }
+    
+    @Test
+    public void serializeSortedByPath() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("b.txt"), "abc");
+        builder.addUtf8File(Path.of("a/c.txt"), "abc");
+        
+        assertEquals(HASH_ABC + " a/c.txt\n" + HASH_ABC + " b.txt\n",
+                builder.build().getFingerprint().serialize());
+    }
+    
+    @Test
+    public void parseInverseOfSerialize() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("dir/sub dir/test.txt"), "some content");
+        builder.addUtf8File(Path.of("weird\nname%0A.txt"), "other content");
+        SubmissionFingerprint fingerprint = builder.build().getFingerprint();
+        
+        SubmissionFingerprint parsed = SubmissionFingerprint.parse(fingerprint.serialize());
+        
+        assertAll(
+            () -> assertEquals(fingerprint, parsed),
+            () -> assertEquals(fingerprint.getFileHashes(), parsed.getFileHashes())
+        );
+    }
+    
+    @Test
+    public void parseMalformedThrows() {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> SubmissionFingerprint.parse("nospace\n")),
+            () -> assertThrows(IllegalArgumentException.class, () -> SubmissionFingerprint.parse("abc test.txt\n")),
+            () -> assertThrows(IllegalArgumentException.class,
+                () -> SubmissionFingerprint.parse("../../etc/passwd test.txt\n"))
+        );
+    }
+    
+}
@@ -0,0 +1,334 @@
+package net.ssehub.teaching.exercise_submitter.server.storage.filesystem;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetException;
+import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
+import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFingerprint;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.storage.Version;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
+
+public class ContentAddressedStorageTest {
+    
+    private static final SubmissionTarget TARGET = new SubmissionTarget("course", "Homework01", "Group01");
+    
+    private Path temporaryDirectory;
+    
+    @Test
+    public void constructorNonExistingDirectoryThrows()  {
+        IOException e = assertThrows(IOException.class, () -> new ContentAddressedStorage(Path.of("doesnt_exist")));
+        assertEquals("doesnt_exist is not a directory", e.getMessage());
+    }
+    
+    @Test
+    public void constructorCreatesObjectsDirectory() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.constructorCreatesObjectsDirectory");
+        
+        new ContentAddressedStorage(temporaryDirectory);
+        
+        assertTrue(Files.isDirectory(temporaryDirectory.resolve(ContentAddressedStorage.OBJECTS_DIRECTORY)));
+    }
+    
+    @Test
+    public void submitNewVersionWritesManifest() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.submitNewVersionWritesManifest");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        SubmissionBuilder builder = new SubmissionBuilder("random-author");
+        builder.addUtf8File(Path.of("test.txt"), "some content\n");
+        
+        assertDoesNotThrow(() -> storage.submitNewVersion(TARGET, builder.build()));
+        
+        List<Path> versions = listVisible(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        assertAll(
+            () -> assertEquals(1, versions.size()),
+            () -> assertTrue(versions.get(0).getFileName().toString().endsWith("_random-author")),
+            () -> assertTrue(Files.isRegularFile(versions.get(0))),
+            () -> assertEquals(SubmissionFingerprint.hash("some content\n".getBytes(StandardCharsets.UTF_8))
+                    + " test.txt\n", Files.readString(versions.get(0), StandardCharsets.UTF_8))
+        );
+    }
+    
+    @Test
+    public void submittedVersionCanBeRead() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.submittedVersionCanBeRead");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        SubmissionBuilder builder = new SubmissionBuilder("student");
+        builder.addUtf8File(Path.of("test.txt"), "first content\n");
+        builder.addUtf8File(Path.of("dir/sub dir/other.txt"), "third cöntent\n");
+        Submission submission = builder.build();
+        
+        assertDoesNotThrow(() -> storage.submitNewVersion(TARGET, submission));
+        
+        List<Version> versions = assertDoesNotThrow(() -> storage.getVersions(TARGET));
+        assertEquals(1, versions.size());
+        
+        Submission read = assertDoesNotThrow(() -> storage.getSubmission(TARGET, versions.get(0)));
+        
+        assertAll(
+            () -> assertEquals("student", read.getAuthor()),
+            () -> assertEquals(2, read.getNumFiles()),
+            () -> assertArrayEquals("first content\n".getBytes(StandardCharsets.UTF_8),
+                    read.getFileContent(Path.of("test.txt"))),
+            () -> assertArrayEquals("third cöntent\n".getBytes(StandardCharsets.UTF_8),
+                    read.getFileContent(Path.of("dir/sub dir/other.txt")))
+        );
+    }
+    
+    @Test
+    public void equalContentStoredOnce() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.equalContentStoredOnce");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group02"));
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        SubmissionBuilder builder = new SubmissionBuilder("student");
+        builder.addUtf8File(Path.of("Main.java"), "public class Main {}\n");
+        builder.addUtf8File(Path.of("Copy.java"), "public class Main {}\n");
+        builder.addUtf8File(Path.of("Util.java"), "public class Util {}\n");
+        Submission submission = builder.build();
+        
+        assertDoesNotThrow(() -> storage.submitNewVersion(TARGET, submission));
+        assertDoesNotThrow(() -> storage.submitNewVersion(
+                new SubmissionTarget("course", "Homework01", "Group02"), submission));
+        
+        assertEquals(2, countBlobs());
+    }
+    
+    @Test
+    public void getVersionsIgnoresHiddenFiles() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.getVersionsIgnoresHiddenFiles");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"), "");
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/.12345.manifest"), "");
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        assertEquals(Arrays.asList(new Version("student", Instant.ofEpochSecond(1634738601L))),
+                assertDoesNotThrow(() -> storage.getVersions(TARGET)));
+    }
+    
+    @Test
+    public void getSubmissionNonExistingVersionThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "ContentAddressedStorageTest.getSubmissionNonExistingVersionThrows");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        assertThrows(NoSuchTargetException.class, () -> storage.getSubmission(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L))));
+    }
+    
+    @Test
+    public void getSubmissionMalformedManifestThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "ContentAddressedStorageTest.getSubmissionMalformedManifestThrows");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"),
+                "../../../etc/passwd test.txt\n");
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        assertThrows(StorageException.class, () -> storage.getSubmission(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L))));
+    }
+    
+    @Test
+    public void getSubmissionMissingBlobThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.getSubmissionMissingBlobThrows");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"),
+                SubmissionFingerprint.hash(new byte[0]) + " test.txt\n");
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        assertThrows(StorageException.class, () -> storage.getSubmission(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L))));
+    }
+    
+    @Test
+    public void getSubmissionReadsVersionDirectory() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "ContentAddressedStorageTest.getSubmissionReadsVersionDirectory");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        Submission submission = assertDoesNotThrow(() -> storage.getSubmission(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L))));
+        
+        assertAll(
+            () -> assertEquals(1, submission.getNumFiles()),
+            () -> assertArrayEquals("some content\n".getBytes(StandardCharsets.UTF_8),
+                    submission.getFileContent(Path.of("test.txt")))
+        );
+    }
+    
+    @Test
+    public void streamFilesReadsBlobs() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.streamFilesReadsBlobs");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        SubmissionBuilder builder = new SubmissionBuilder("student");
+        builder.addUtf8File(Path.of("test.txt"), "first content\n");
+        builder.addUtf8File(Path.of("dir/sub dir/other.txt"), "third cöntent\n");
+        assertDoesNotThrow(() -> storage.submitNewVersion(TARGET, builder.build()));
+        
+        Version version = assertDoesNotThrow(() -> storage.getVersions(TARGET).get(0));
+        
+        Map<Path, String> files = new HashMap<>();
+        assertDoesNotThrow(() -> storage.streamFiles(TARGET, version, (filepath, content) -> files.put(filepath,
+                new String(content.readAllBytes(), StandardCharsets.UTF_8))));
+        
+        assertEquals(Map.of(
+                Path.of("test.txt"), "first content\n",
+                Path.of("dir/sub dir/other.txt"), "third cöntent\n"), files);
+    }
+    
+    @Test
+    public void streamFilesReadsVersionDirectory() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.streamFilesReadsVersionDirectory");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        Map<Path, String> files = new HashMap<>();
+        assertDoesNotThrow(() -> storage.streamFiles(TARGET, new Version("student", Instant.ofEpochSecond(1634738601L)),
+                (filepath, content) -> files.put(filepath, new String(content.readAllBytes(), StandardCharsets.UTF_8))));
+        
+        assertEquals(Map.of(Path.of("test.txt"), "some content\n"), files);
+    }
+    
+    @Test
+    public void migrateConvertsVersionDirectories() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "ContentAddressedStorageTest.migrateConvertsVersionDirectories");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/dir"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/dir/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634801393_friend"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634801393_friend/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        assertEquals(2, storage.migrate());
+        
+        Submission submission = assertDoesNotThrow(() -> storage.getSubmission(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L))));
+        
+        assertAll(
+            () -> assertEquals(Arrays.asList(
+                    temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"),
+                    temporaryDirectory.resolve("course/Homework01/Group01/1634801393_friend")),
+                    listVisible(temporaryDirectory.resolve("course/Homework01/Group01"))),
+            () -> assertTrue(Files.isRegularFile(
+                    temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"))),
+            () -> assertEquals(1, countBlobs()),
+            () -> assertArrayEquals("some content\n".getBytes(StandardCharsets.UTF_8),
+                    submission.getFileContent(Path.of("dir/test.txt"))),
+            () -> assertEquals(0, storage.migrate())
+        );
+    }
+    
+    @Test
+    public void migrateContinuesInterruptedMigration() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "ContentAddressedStorageTest.migrateContinuesInterruptedMigration");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/.1634738601_student.legacy"));
+        Files.writeString(temporaryDirectory.resolve(
+                "course/Homework01/Group01/.1634738601_student.legacy/test.txt"), "some content\n");
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        assertEquals(1, storage.migrate());
+        
+        Submission submission = assertDoesNotThrow(() -> storage.getSubmission(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L))));
+        
+        assertAll(
+            () -> assertFalse(Files.exists(
+                    temporaryDirectory.resolve("course/Homework01/Group01/.1634738601_student.legacy"))),
+            () -> assertArrayEquals("some content\n".getBytes(StandardCharsets.UTF_8),
+                    submission.getFileContent(Path.of("test.txt")))
+        );
+    }
+    
+    @Test
+    public void getFingerprintReadsOnlyManifest() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ContentAddressedStorageTest.getFingerprintReadsOnlyManifest");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        // the blob of this manifest does not exist
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"),
+                SubmissionFingerprint.hash(new byte[0]) + " test.txt\n");
+        
+        ContentAddressedStorage storage = new ContentAddressedStorage(temporaryDirectory);
+        
+        SubmissionBuilder expected = new SubmissionBuilder("student");
+        expected.addFile(Path.of("test.txt"), new byte[0]);
+        
+        assertEquals(expected.build().getFingerprint(), assertDoesNotThrow(() -> storage.getFingerprint(
+                TARGET, new Version("student", Instant.ofEpochSecond(1634738601L)))));
+    }
+    
+    private List<Path> listVisible(Path directory) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream
+                    .filter(p -> !p.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private long countBlobs() throws IOException {
+        try (Stream<Path> stream = Files.walk(temporaryDirectory.resolve(ContentAddressedStorage.OBJECTS_DIRECTORY))) {
+            return stream.filter(Files::isRegularFile).count();
+        }
+    }
+    
+    @AfterEach
+    public void cleanTemporaryDirectory() throws IOException {
+        if (temporaryDirectory != null) {
+            FileUtils.deleteDirectory(temporaryDirectory);
+        }
+    }
+
+}
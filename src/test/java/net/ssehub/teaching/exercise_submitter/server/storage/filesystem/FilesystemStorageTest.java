@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -15,18 +16,28 @@ import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.CollaborationEnum;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.StateEnum;
+import net.ssehub.studentmgmt.backend_api.model.ParticipantDto.RoleEnum;
 import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
 import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFingerprint;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
 import net.ssehub.teaching.exercise_submitter.server.storage.Version;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.EmptyStuMgmtView;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
 
 public class FilesystemStorageTest {
@@ -78,6 +89,133 @@ public class FilesystemStorageTest {
         );
     }
     
+    private static class GroupsView extends EmptyStuMgmtView {
+        
+        private List<String> groupNames = new LinkedList<>();
+        
+        @Override
+        public void fullReload() {
+            Course course = createCourse("course-wise2122");
+            createParticipant(course, "s1", "student1", RoleEnum.STUDENT);
+            createAssignment(course, "a1", "Homework01", StateEnum.IN_PROGRESS, CollaborationEnum.SINGLE);
+            Assignment homework02 = createAssignment(course, "a2", "Homework02", StateEnum.IN_PROGRESS,
+                    CollaborationEnum.GROUP);
+            for (String groupName : groupNames) {
+                createGroup(homework02, groupName, groupName);
+            }
+        }
+        
+    }
+    
+    @Test
+    public void createOrUpdateAssignmentsFromViewCreatesDirectories() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.createOrUpdateAssignmentsFromViewCreatesDirectories");
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        GroupsView view = new GroupsView();
+        view.groupNames.add("Group01");
+        view.fullReload();
+        
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        assertAll(
+            () -> assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework01/student1"))),
+            () -> assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework02/Group01"))),
+            () -> assertEquals(1, Files.list(temporaryDirectory.resolve("course-wise2122/Homework02")).count())
+        );
+    }
+    
+    @Test
+    public void createOrUpdateAssignmentsFromViewOnlyCreatesNewGroups() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.createOrUpdateAssignmentsFromViewOnlyCreatesNewGroups");
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        GroupsView view = new GroupsView();
+        view.groupNames.add("Group01");
+        view.fullReload();
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        // directories of known groups are not touched again
+        Files.delete(temporaryDirectory.resolve("course-wise2122/Homework02/Group01"));
+        view.groupNames.add("Group02");
+        view.fullReload();
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        assertAll(
+            () -> assertFalse(Files.exists(temporaryDirectory.resolve("course-wise2122/Homework02/Group01"))),
+            () -> assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework02/Group02")))
+        );
+    }
+    
+    @Test
+    public void createOrUpdateAssignmentsFromViewRecreatesRemovedGroups() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.createOrUpdateAssignmentsFromViewRecreatesRemovedGroups");
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        GroupsView view = new GroupsView();
+        view.groupNames.add("Group01");
+        view.fullReload();
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        // a group that leaves the view is forgotten
+        view.groupNames.clear();
+        view.fullReload();
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        Files.delete(temporaryDirectory.resolve("course-wise2122/Homework02/Group01"));
+        
+        view.groupNames.add("Group01");
+        view.fullReload();
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework02/Group01")));
+    }
+    
+    @Test
+    public void createOrUpdateAssignmentsFromViewRecreatesMissingGroupAfterSubmission() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.createOrUpdateAssignmentsFromViewRecreatesMissingGroupAfterSubmission");
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        GroupsView view = new GroupsView();
+        view.groupNames.add("Group01");
+        view.fullReload();
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        Files.delete(temporaryDirectory.resolve("course-wise2122/Homework02/Group01"));
+        assertThrows(NoSuchTargetException.class, () -> storage.submitNewVersion(
+                new SubmissionTarget("course-wise2122", "Homework02", "Group01"),
+                new SubmissionBuilder("student1").build()));
+        
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework02/Group01")));
+    }
+    
+    @Test
+    public void createOrUpdateAssignmentsFromViewRetriesFailedAssignments() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.createOrUpdateAssignmentsFromViewRetriesFailedAssignments");
+        Files.createDirectories(temporaryDirectory.resolve("course-wise2122/Homework01"));
+        Files.writeString(temporaryDirectory.resolve("course-wise2122/Homework01/student1"), "blocking file");
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        GroupsView view = new GroupsView();
+        view.fullReload();
+        
+        assertThrows(StorageException.class, () -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        Files.delete(temporaryDirectory.resolve("course-wise2122/Homework01/student1"));
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignmentsFromView(view));
+        
+        assertAll(
+            () -> assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework01/student1"))),
+            () -> assertTrue(Files.isDirectory(temporaryDirectory.resolve("course-wise2122/Homework02")))
+        );
+    }
+    
     @Test
     public void getVersionsEmptyForEmptyGroup() throws IOException {
         temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getVersionsEmptyForEmptyGroup");
@@ -149,6 +287,19 @@ public class FilesystemStorageTest {
         assertInstanceOf(IllegalArgumentException.class, e.getCause());
     }
     
+    @Test
+    public void getVersionsIgnoresHiddenFiles() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getVersionsIgnoresHiddenFiles");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student1"));
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/.hidden"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        Instant timestamp = Instant.ofEpochSecond(1634738601L);
+        assertEquals(Arrays.asList(new Version("student1", timestamp)),
+                assertDoesNotThrow(() -> storage.getVersions(new SubmissionTarget("course", "Homework01", "Group01"))));
+    }
+    
     @Test
     public void getMultipleVersionsSorted() throws IOException {
         temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getMultipleVersionsSorted");
@@ -170,6 +321,74 @@ public class FilesystemStorageTest {
                 assertDoesNotThrow(() -> storage.getVersions(new SubmissionTarget("course", "Homework01", "Group01"))));
     }
     
+    @Test
+    public void getVersionByTimestamp() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getVersionByTimestamp");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student1"));
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738611_student2"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        SubmissionTarget target = new SubmissionTarget("course", "Homework01", "Group01");
+        
+        assertAll(
+            () -> assertEquals(Optional.of(new Version("student1", Instant.ofEpochSecond(1634738601L))),
+                    storage.getVersion(target, 1634738601L)),
+            () -> assertEquals(Optional.of(new Version("student2", Instant.ofEpochSecond(1634738611L))),
+                    storage.getVersion(target, 1634738611L)),
+            () -> assertEquals(Optional.empty(), storage.getVersion(target, 1634738602L))
+        );
+    }
+    
+    @Test
+    public void getVersionNonExistingGroupThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getVersionNonExistingGroupThrows");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        assertThrows(NoSuchTargetException.class,
+            () -> storage.getVersion(new SubmissionTarget("course", "Homework01", "Group01"), 1634738601L));
+    }
+    
+    @Test
+    public void getVersionsContainsSubmittedVersion() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getVersionsContainsSubmittedVersion");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/32400_student1"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        SubmissionTarget target = new SubmissionTarget("course", "Homework01", "Group01");
+        
+        // load the versions before the new version is submitted
+        assertEquals(1, assertDoesNotThrow(() -> storage.getVersions(target)).size());
+        
+        assertDoesNotThrow(() -> storage.submitNewVersion(target, new SubmissionBuilder("student2").build()));
+        
+        List<Version> versions = assertDoesNotThrow(() -> storage.getVersions(target));
+        assertAll(
+            () -> assertEquals(2, versions.size()),
+            () -> assertEquals("student2", versions.get(0).getAuthor()),
+            () -> assertEquals(new Version("student1", Instant.ofEpochSecond(32400L)), versions.get(1)),
+            () -> assertEquals(Optional.of(versions.get(0)),
+                    storage.getVersion(target, versions.get(0).getCreationTime().getEpochSecond()))
+        );
+    }
+    
+    @Test
+    public void getVersionsAfterRestartContainsSubmittedVersion() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.getVersionsAfterRestartContainsSubmittedVersion");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        SubmissionTarget target = new SubmissionTarget("course", "Homework01", "Group01");
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        assertDoesNotThrow(() -> storage.submitNewVersion(target, new SubmissionBuilder("student").build()));
+        
+        FilesystemStorage restarted = new FilesystemStorage(temporaryDirectory);
+        
+        assertEquals(assertDoesNotThrow(() -> storage.getVersions(target)),
+                assertDoesNotThrow(() -> restarted.getVersions(target)));
+    }
+    
     @Test
     public void filenameToVersionInvalidFormats() {
         assertAll(
@@ -467,6 +686,143 @@ public class FilesystemStorageTest {
         );
     }
     
+    @Test
+    public void submitNewVersionWritesFingerprint() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.submitNewVersionWritesFingerprint");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        SubmissionBuilder builder = new SubmissionBuilder("student");
+        builder.addUtf8File(Path.of("test.txt"), "some content\n");
+        Submission submission = builder.build();
+        
+        SubmissionTarget target = new SubmissionTarget("course", "Homework01", "Group01");
+        assertDoesNotThrow(() -> storage.submitNewVersion(target, submission));
+        
+        Version version = assertDoesNotThrow(() -> storage.getVersions(target)).get(0);
+        Path fingerprintFile = temporaryDirectory.resolve(FilesystemStorage.FINGERPRINTS_DIRECTORY)
+                .resolve("course/Homework01/Group01").resolve(FilesystemStorage.versionToFilename(version));
+        
+        assertAll(
+            () -> assertEquals(submission.getFingerprint().serialize(),
+                    Files.readString(fingerprintFile, StandardCharsets.UTF_8)),
+            () -> assertEquals(submission.getFingerprint(),
+                    assertDoesNotThrow(() -> storage.getFingerprint(target, version)))
+        );
+    }
+    
+    @Test
+    public void getFingerprintReadsFingerprintFile() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getFingerprintReadsFingerprintFile");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        
+        // fingerprint file that does not match the content, to check that the content is not read
+        SubmissionBuilder other = new SubmissionBuilder("student");
+        other.addUtf8File(Path.of("other.txt"), "other content\n");
+        SubmissionFingerprint otherFingerprint = other.build().getFingerprint();
+        Files.createDirectories(temporaryDirectory.resolve(".fingerprints/course/Homework01/Group01"));
+        Files.writeString(temporaryDirectory.resolve(".fingerprints/course/Homework01/Group01/1634738601_student"),
+                otherFingerprint.serialize(), StandardCharsets.UTF_8);
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        assertEquals(otherFingerprint, assertDoesNotThrow(() -> storage.getFingerprint(
+                new SubmissionTarget("course", "Homework01", "Group01"),
+                new Version("student", Instant.ofEpochSecond(1634738601L)))));
+    }
+    
+    @Test
+    public void getFingerprintWithoutFingerprintFileCalculatesAndWritesIt() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.getFingerprintWithoutFingerprintFileCalculatesAndWritesIt");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        SubmissionBuilder expected = new SubmissionBuilder("student");
+        expected.addUtf8File(Path.of("test.txt"), "some content\n");
+        
+        assertAll(
+            () -> assertEquals(expected.build().getFingerprint(), assertDoesNotThrow(() -> storage.getFingerprint(
+                    new SubmissionTarget("course", "Homework01", "Group01"),
+                    new Version("student", Instant.ofEpochSecond(1634738601L))))),
+            () -> assertTrue(Files.isRegularFile(
+                    temporaryDirectory.resolve(".fingerprints/course/Homework01/Group01/1634738601_student")))
+        );
+    }
+    
+    @Test
+    public void getFingerprintNonExistingVersionThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.getFingerprintNonExistingVersionThrows");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        assertThrows(NoSuchTargetException.class, () -> storage.getFingerprint(
+                new SubmissionTarget("course", "Homework01", "Group01"),
+                new Version("student", Instant.ofEpochSecond(1634738601L))));
+    }
+    
+    @Test
+    public void streamFilesPassesAllFiles() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.streamFilesPassesAllFiles");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/dir"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/dir/other.txt"),
+                "other content\n", StandardCharsets.UTF_8);
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        Map<Path, String> files = new HashMap<>();
+        assertDoesNotThrow(() -> storage.streamFiles(new SubmissionTarget("course", "Homework01", "Group01"),
+                new Version("student", Instant.ofEpochSecond(1634738601L)),
+                (filepath, content) -> files.put(filepath,
+                        new String(content.readAllBytes(), StandardCharsets.UTF_8))));
+        
+        assertEquals(Map.of(
+                Path.of("test.txt"), "some content\n",
+                Path.of("dir/other.txt"), "other content\n"), files);
+    }
+    
+    @Test
+    public void streamFilesNonExistingVersionThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("FilesystemStorageTest.streamFilesNonExistingVersionThrows");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01"));
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        assertThrows(NoSuchTargetException.class, () -> storage.streamFiles(
+                new SubmissionTarget("course", "Homework01", "Group01"),
+                new Version("student", Instant.ofEpochSecond(1634738601L)),
+                (filepath, content) -> { }));
+    }
+    
+    @Test
+    public void streamFilesConsumerExceptionThrowsStorageException() throws IOException {
+        temporaryDirectory = Files.createTempDirectory(
+                "FilesystemStorageTest.streamFilesConsumerExceptionThrowsStorageException");
+        Files.createDirectories(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student"));
+        Files.writeString(temporaryDirectory.resolve("course/Homework01/Group01/1634738601_student/test.txt"),
+                "some content\n", StandardCharsets.UTF_8);
+        
+        FilesystemStorage storage = new FilesystemStorage(temporaryDirectory);
+        
+        StorageException exception = assertThrows(StorageException.class, () -> storage.streamFiles(
+                new SubmissionTarget("course", "Homework01", "Group01"),
+                new Version("student", Instant.ofEpochSecond(1634738601L)),
+                (filepath, content) -> {
+                    throw new IOException("mock");
+                }));
+        
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+    
     @AfterEach
     public void cleanTemporaryDirectory() throws IOException {
         if (temporaryDirectory != null) {
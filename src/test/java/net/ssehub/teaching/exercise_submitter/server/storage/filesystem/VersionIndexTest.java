@@ -0,0 +1,193 @@
+package net.ssehub.teaching.exercise_submitter.server.storage.filesystem;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.storage.Version;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
+
+public class VersionIndexTest {
+
+    private static final SubmissionTarget TARGET = new SubmissionTarget("course", "Homework01", "Group01");
+    
+    private Path temporaryDirectory;
+    
+    private Path createGroupDirectory(String testName, String... versions) throws IOException {
+        temporaryDirectory = Files.createTempDirectory("VersionIndexTest." + testName);
+        Path groupDir = temporaryDirectory.resolve("course/Homework01/Group01");
+        Files.createDirectories(groupDir);
+        for (String version : versions) {
+            Files.createDirectory(groupDir.resolve(version));
+        }
+        return groupDir;
+    }
+    
+    private Path getIndexFile() {
+        return temporaryDirectory.resolve(".versions/course/Homework01/Group01");
+    }
+    
+    @Test
+    public void getNotLoadedReturnsNull() throws IOException {
+        createGroupDirectory("getNotLoadedReturnsNull");
+        
+        VersionIndex index = new VersionIndex(temporaryDirectory);
+        
+        assertNull(index.get(TARGET));
+    }
+    
+    @Test
+    public void loadListsGroupDirectory() throws IOException {
+        Path groupDir = createGroupDirectory("loadListsGroupDirectory", "32400_student1", "1634738601_student2");
+        
+        VersionIndex index = new VersionIndex(temporaryDirectory);
+        VersionIndex.Entry entry = index.load(TARGET, groupDir);
+        
+        assertAll(
+            () -> assertEquals(groupDir, entry.getGroupDirectory()),
+            () -> assertEquals(Arrays.asList(
+                    new Version("student2", Instant.ofEpochSecond(1634738601L)),
+                    new Version("student1", Instant.ofEpochSecond(32400L))),
+                    entry.getVersions()),
+            () -> assertSame(entry, index.get(TARGET))
+        );
+    }
+    
+    @Test
+    public void loadInvalidVersionThrows() throws IOException {
+        Path groupDir = createGroupDirectory("loadInvalidVersionThrows", "invalid");
+        
+        VersionIndex index = new VersionIndex(temporaryDirectory);
+        
+        assertThrows(IllegalArgumentException.class, () -> index.load(TARGET, groupDir));
+        assertNull(index.get(TARGET));
+    }
+    
+    @Test
+    public void loadWritesIndexFile() throws IOException {
+        Path groupDir = createGroupDirectory("loadWritesIndexFile", "1634738601_student");
+        
+        new VersionIndex(temporaryDirectory).load(TARGET, groupDir);
+        
+        assertEquals(Arrays.asList(Files.getLastModifiedTime(groupDir).toString(), "1634738601_student"),
+                Files.readAllLines(getIndexFile(), StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void loadUsesIndexFileOfUnmodifiedGroupDirectory() throws IOException {
+        Path groupDir = createGroupDirectory("loadUsesIndexFileOfUnmodifiedGroupDirectory", "1634738601_student");
+        Files.createDirectories(getIndexFile().getParent());
+        // contains a version that is not in the group directory, to see that the directory is not listed
+        Files.writeString(getIndexFile(), Files.getLastModifiedTime(groupDir) + "\n1634738601_student\n32400_other\n",
+                StandardCharsets.UTF_8);
+        
+        VersionIndex.Entry entry = new VersionIndex(temporaryDirectory).load(TARGET, groupDir);
+        
+        assertEquals(Arrays.asList(
+                new Version("student", Instant.ofEpochSecond(1634738601L)),
+                new Version("other", Instant.ofEpochSecond(32400L))),
+                entry.getVersions());
+    }
+    
+    @Test
+    public void loadIgnoresOutdatedIndexFile() throws IOException {
+        Path groupDir = createGroupDirectory("loadIgnoresOutdatedIndexFile", "1634738601_student");
+        Files.createDirectories(getIndexFile().getParent());
+        Files.writeString(getIndexFile(), "1970-01-01T00:00:00Z\n32400_other\n", StandardCharsets.UTF_8);
+        
+        VersionIndex.Entry entry = new VersionIndex(temporaryDirectory).load(TARGET, groupDir);
+        
+        assertAll(
+            () -> assertEquals(List.of(new Version("student", Instant.ofEpochSecond(1634738601L))),
+                    entry.getVersions()),
+            () -> assertEquals(Arrays.asList(Files.getLastModifiedTime(groupDir).toString(), "1634738601_student"),
+                    Files.readAllLines(getIndexFile(), StandardCharsets.UTF_8))
+        );
+    }
+    
+    @Test
+    public void loadIgnoresMalformedIndexFile() throws IOException {
+        Path groupDir = createGroupDirectory("loadIgnoresMalformedIndexFile", "1634738601_student");
+        Files.createDirectories(getIndexFile().getParent());
+        Files.writeString(getIndexFile(), Files.getLastModifiedTime(groupDir) + "\ninvalid\n",
+                StandardCharsets.UTF_8);
+        
+        VersionIndex.Entry entry = new VersionIndex(temporaryDirectory).load(TARGET, groupDir);
+        
+        assertEquals(List.of(new Version("student", Instant.ofEpochSecond(1634738601L))), entry.getVersions());
+    }
+    
+    @Test
+    public void getVersionByTimestamp() throws IOException {
+        Path groupDir = createGroupDirectory("getVersionByTimestamp", "32400_student1", "1634738601_student2");
+        
+        VersionIndex.Entry entry = new VersionIndex(temporaryDirectory).load(TARGET, groupDir);
+        
+        assertAll(
+            () -> assertEquals(Optional.of(new Version("student1", Instant.ofEpochSecond(32400L))),
+                    entry.getVersion(32400L)),
+            () -> assertEquals(Optional.of(new Version("student2", Instant.ofEpochSecond(1634738601L))),
+                    entry.getVersion(1634738601L)),
+            () -> assertEquals(Optional.empty(), entry.getVersion(32401L))
+        );
+    }
+    
+    @Test
+    public void addUpdatesEntryAndIndexFile() throws IOException {
+        Path groupDir = createGroupDirectory("addUpdatesEntryAndIndexFile", "32400_student1");
+        
+        VersionIndex index = new VersionIndex(temporaryDirectory);
+        VersionIndex.Entry entry = index.load(TARGET, groupDir);
+        
+        Files.createDirectory(groupDir.resolve("1634738601_student2"));
+        Version newVersion = new Version("student2", Instant.ofEpochSecond(1634738601L));
+        index.add(entry, newVersion);
+        
+        assertAll(
+            () -> assertEquals(Arrays.asList(newVersion, new Version("student1", Instant.ofEpochSecond(32400L))),
+                    entry.getVersions()),
+            () -> assertEquals(Optional.of(newVersion), entry.getVersion(1634738601L)),
+            () -> assertEquals(Arrays.asList(Files.getLastModifiedTime(groupDir).toString(), "1634738601_student2",
+                    "32400_student1"), Files.readAllLines(getIndexFile(), StandardCharsets.UTF_8))
+        );
+    }
+    
+    @Test
+    public void newIndexReadsVersionsAddedByPreviousIndex() throws IOException {
+        Path groupDir = createGroupDirectory("newIndexReadsVersionsAddedByPreviousIndex");
+        
+        VersionIndex index = new VersionIndex(temporaryDirectory);
+        VersionIndex.Entry entry = index.load(TARGET, groupDir);
+        Files.createDirectory(groupDir.resolve("1634738601_student"));
+        index.add(entry, new Version("student", Instant.ofEpochSecond(1634738601L)));
+        
+        VersionIndex.Entry reloaded = new VersionIndex(temporaryDirectory).load(TARGET, groupDir);
+        
+        assertTrue(Files.isRegularFile(getIndexFile()));
+        assertEquals(List.of(new Version("student", Instant.ofEpochSecond(1634738601L))), reloaded.getVersions());
+    }
+    
+    @AfterEach
+    public void cleanTemporaryDirectory() throws IOException {
+        if (temporaryDirectory != null) {
+            FileUtils.deleteDirectory(temporaryDirectory);
+        }
+    }
+    
+}
@@ -0,0 +1,88 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class AssessmentCacheTest {
+    
+    private static final AssessmentCache.Key GROUP_A1 = new AssessmentCache.Key("java-wise2122", "a1", "g1", true);
+    
+    private static final AssessmentCache.Key USER_A1 = new AssessmentCache.Key("java-wise2122", "a1", "g1", false);
+    
+    private static final AssessmentCache.Key GROUP_A2 = new AssessmentCache.Key("java-wise2122", "a2", "g1", true);
+    
+    private static final AssessmentCache.Key OTHER_COURSE = new AssessmentCache.Key("java-sose22", "a1", "g1", true);
+    
+    private static AssessmentCache createFilledCache() {
+        AssessmentCache cache = new AssessmentCache();
+        long generation = cache.getGeneration();
+        cache.put(GROUP_A1, new AssessmentCache.Entry("as1", true), generation);
+        cache.put(USER_A1, new AssessmentCache.Entry("as2", false), generation);
+        cache.put(GROUP_A2, new AssessmentCache.Entry("as3", true), generation);
+        cache.put(OTHER_COURSE, new AssessmentCache.Entry("as4", true), generation);
+        return cache;
+    }
+    
+    @Test
+    public void groupAndUserKeysDiffer() {
+        AssessmentCache cache = createFilledCache();
+        
+        assertAll(
+            () -> assertEquals("as1", cache.get(GROUP_A1).get().getAssessmentId()),
+            () -> assertTrue(cache.get(GROUP_A1).get().isDraft()),
+            () -> assertEquals("as2", cache.get(USER_A1).get().getAssessmentId()),
+            () -> assertFalse(cache.get(USER_A1).get().isDraft())
+        );
+    }
+    
+    @Test
+    public void invalidateAssignment() {
+        AssessmentCache cache = createFilledCache();
+        
+        cache.invalidate("java-wise2122", "a1");
+        
+        assertAll(
+            () -> assertFalse(cache.get(GROUP_A1).isPresent()),
+            () -> assertFalse(cache.get(USER_A1).isPresent()),
+            () -> assertTrue(cache.get(GROUP_A2).isPresent()),
+            () -> assertTrue(cache.get(OTHER_COURSE).isPresent())
+        );
+    }
+    
+    @Test
+    public void invalidateCourse() {
+        AssessmentCache cache = createFilledCache();
+        
+        cache.invalidate("java-wise2122", null);
+        
+        assertAll(
+            () -> assertEquals(1, cache.size()),
+            () -> assertTrue(cache.get(OTHER_COURSE).isPresent())
+        );
+    }
+    
+    @Test
+    public void lookupFromBeforeInvalidationNotCached() {
+        AssessmentCache cache = new AssessmentCache();
+        long generation = cache.getGeneration();
+        
+        cache.invalidate("java-wise2122", "a1");
+        cache.put(GROUP_A1, new AssessmentCache.Entry("as1", true), generation);
+        
+        assertFalse(cache.get(GROUP_A1).isPresent());
+    }
+    
+    @Test
+    public void clearRemovesAll() {
+        AssessmentCache cache = createFilledCache();
+        
+        cache.clear();
+        
+        assertEquals(0, cache.size());
+    }
+
+}
@@ -154,6 +154,15 @@ public class AssignmentTest {
                     a.getCheckConfigurations());
         }
         
+        @Test
+        public void invalidKeepsPreviousConfiguration() {
+            Assignment a = new Assignment("", "", StateEnum.IN_PROGRESS, CollaborationEnum.SINGLE);
+            assertDoesNotThrow(() -> a.setCheckConfigurationString("[{\"check\":\"javac\"}]"));
+            assertThrows(IllegalArgumentException.class,
+                () -> a.setCheckConfigurationString("[{\"check\":\"checkstyle\"},{}]"));
+            assertEquals(Arrays.asList(new CheckConfiguration("javac", false)), a.getCheckConfigurations());
+        }
+        
     }
     
 }
@@ -0,0 +1,231 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.studentmgmt.backend_api.ApiException;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
+
+public class ResultDeliveryQueueTest {
+    
+    private static final SubmissionTarget TARGET = new SubmissionTarget("java-wise2122", "Homework01", "Group01");
+    
+    private Path temporaryDirectory;
+    
+    private static class DeliveringView extends EmptyStuMgmtView {
+        
+        private BlockingQueue<List<ResultMessage>> delivered = new LinkedBlockingQueue<>();
+        
+        private AtomicInteger failuresLeft = new AtomicInteger();
+        
+        private boolean unknownTarget;
+        
+        private CountDownLatch started = new CountDownLatch(1);
+        
+        private CountDownLatch release = new CountDownLatch(0);
+        
+        @Override
+        void pushSubmissionResult(SubmissionTarget target, List<ResultMessage> resultMessages)
+                throws NoSuchElementException, StuMgmtLoadingException, ApiException {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new StuMgmtLoadingException("Interrupted", e);
+            }
+            
+            if (unknownTarget) {
+                throw new NoSuchElementException();
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new ApiException("unavailable");
+            }
+            delivered.add(resultMessages);
+        }
+        
+        private List<ResultMessage> awaitDelivery() throws InterruptedException {
+            return delivered.poll(10, TimeUnit.SECONDS);
+        }
+        
+    }
+    
+    private static List<ResultMessage> messages(String text) {
+        return List.of(new ResultMessage("javac", MessageType.ERROR, text)
+                .setFile(Path.of("dir/Main.java")).setLine(3).setColumn(5));
+    }
+    
+    private static ResultDeliveryQueue createQueue(StuMgmtView view, Path spoolDirectory) {
+        return new ResultDeliveryQueue(view, 2, spoolDirectory, Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+    
+    private static void awaitNoPending(ResultDeliveryQueue queue) throws InterruptedException {
+        for (int i = 0; i < 1000 && queue.getNumPending() > 0; i++) {
+            Thread.sleep(10);
+        }
+    }
+    
+    @Test
+    public void nonPositiveWorkersThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new ResultDeliveryQueue(new EmptyStuMgmtView(), 0, null));
+    }
+    
+    @Test
+    public void resultDelivered() throws InterruptedException {
+        DeliveringView view = new DeliveringView();
+        ResultDeliveryQueue queue = createQueue(view, null);
+        
+        queue.enqueue(TARGET, messages("error"));
+        
+        assertEquals(messages("error"), view.awaitDelivery());
+    }
+    
+    @Test
+    public void newerResultsReplacePending() throws InterruptedException {
+        DeliveringView view = new DeliveringView();
+        view.release = new CountDownLatch(1);
+        ResultDeliveryQueue queue = createQueue(view, null);
+        
+        queue.enqueue(TARGET, messages("first"));
+        assertTrue(view.started.await(10, TimeUnit.SECONDS));
+        queue.enqueue(TARGET, messages("second"));
+        queue.enqueue(TARGET, messages("third"));
+        view.release.countDown();
+        
+        assertAll(
+            () -> assertEquals(messages("first"), view.awaitDelivery()),
+            () -> assertEquals(messages("third"), view.awaitDelivery()),
+            () -> assertNull(view.delivered.poll(200, TimeUnit.MILLISECONDS))
+        );
+    }
+    
+    @Test
+    public void failedDeliveryRetried() throws InterruptedException {
+        DeliveringView view = new DeliveringView();
+        view.failuresLeft.set(3);
+        ResultDeliveryQueue queue = createQueue(view, null);
+        
+        queue.enqueue(TARGET, messages("error"));
+        
+        assertEquals(messages("error"), view.awaitDelivery());
+    }
+    
+    @Test
+    public void unknownTargetDropped() throws InterruptedException {
+        DeliveringView view = new DeliveringView();
+        view.unknownTarget = true;
+        ResultDeliveryQueue queue = createQueue(view, null);
+        
+        queue.enqueue(TARGET, messages("error"));
+        assertTrue(view.started.await(10, TimeUnit.SECONDS));
+        awaitNoPending(queue);
+        
+        assertEquals(0, queue.getNumPending());
+    }
+    
+    @Test
+    public void backoffDoublesUpToMaximum() {
+        ResultDeliveryQueue queue = createQueue(new EmptyStuMgmtView(), null);
+        
+        assertAll(
+            () -> assertEquals(Duration.ofMillis(10), queue.getBackoff(1)),
+            () -> assertEquals(Duration.ofMillis(20), queue.getBackoff(2)),
+            () -> assertEquals(Duration.ofMillis(40), queue.getBackoff(3)),
+            () -> assertEquals(Duration.ofMillis(50), queue.getBackoff(4)),
+            () -> assertEquals(Duration.ofMillis(50), queue.getBackoff(100))
+        );
+    }
+    
+    @Test
+    public void spoolFileDeletedAfterDelivery() throws InterruptedException, IOException {
+        temporaryDirectory = Files.createTempDirectory("ResultDeliveryQueueTest.spoolFileDeletedAfterDelivery");
+        DeliveringView view = new DeliveringView();
+        view.release = new CountDownLatch(1);
+        ResultDeliveryQueue queue = createQueue(view, temporaryDirectory);
+        
+        queue.enqueue(TARGET, messages("error"));
+        assertEquals(1, Files.list(temporaryDirectory).count());
+        
+        view.release.countDown();
+        view.awaitDelivery();
+        awaitNoPending(queue);
+        
+        assertEquals(0, Files.list(temporaryDirectory).count());
+    }
+    
+    @Test
+    public void newestResultSpooled() throws InterruptedException, IOException {
+        temporaryDirectory = Files.createTempDirectory("ResultDeliveryQueueTest.newestResultSpooled");
+        DeliveringView unavailableView = new DeliveringView();
+        unavailableView.failuresLeft.set(Integer.MAX_VALUE);
+        ResultDeliveryQueue unavailableQueue = createQueue(unavailableView, temporaryDirectory);
+        unavailableQueue.enqueue(TARGET, messages("first"));
+        unavailableQueue.enqueue(TARGET, messages("second"));
+        
+        DeliveringView view = new DeliveringView();
+        ResultDeliveryQueue queue = createQueue(view, temporaryDirectory);
+        
+        assertAll(
+            () -> assertEquals(1, Files.list(temporaryDirectory).count()),
+            () -> assertEquals(1, queue.restoreSpool()),
+            () -> assertEquals(messages("second"), view.awaitDelivery())
+        );
+    }
+    
+    @Test
+    public void spoolRestoredAfterRestart() throws InterruptedException, IOException {
+        temporaryDirectory = Files.createTempDirectory("ResultDeliveryQueueTest.spoolRestoredAfterRestart");
+        DeliveringView unavailableView = new DeliveringView();
+        unavailableView.failuresLeft.set(Integer.MAX_VALUE);
+        createQueue(unavailableView, temporaryDirectory).enqueue(TARGET, messages("error"));
+        
+        DeliveringView view = new DeliveringView();
+        ResultDeliveryQueue queue = createQueue(view, temporaryDirectory);
+        
+        assertAll(
+            () -> assertEquals(1, queue.restoreSpool()),
+            () -> assertEquals(messages("error"), view.awaitDelivery())
+        );
+    }
+    
+    @Test
+    public void invalidSpoolFileDeleted() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ResultDeliveryQueueTest.invalidSpoolFileDeleted");
+        Files.writeString(temporaryDirectory.resolve("invalid.json"), "{\"course\":", StandardCharsets.UTF_8);
+        ResultDeliveryQueue queue = createQueue(new DeliveringView(), temporaryDirectory);
+        
+        assertAll(
+            () -> assertEquals(0, queue.restoreSpool()),
+            () -> assertEquals(0, Files.list(temporaryDirectory).count())
+        );
+    }
+    
+    @AfterEach
+    public void cleanTemporaryDirectory() throws IOException {
+        if (temporaryDirectory != null) {
+            FileUtils.deleteDirectory(temporaryDirectory);
+        }
+    }
+
+}
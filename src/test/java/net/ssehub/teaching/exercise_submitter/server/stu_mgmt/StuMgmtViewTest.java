@@ -0,0 +1,658 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.studentmgmt.backend_api.ApiException;
+import net.ssehub.studentmgmt.backend_api.model.AssessmentDto;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.CollaborationEnum;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.StateEnum;
+import net.ssehub.studentmgmt.backend_api.model.GroupDto;
+import net.ssehub.studentmgmt.backend_api.model.NotificationDto;
+import net.ssehub.studentmgmt.backend_api.model.PartialAssessmentDto;
+import net.ssehub.studentmgmt.backend_api.model.ParticipantDto;
+import net.ssehub.studentmgmt.backend_api.model.ParticipantDto.RoleEnum;
+
+public class StuMgmtViewTest {
+
+    @Test
+    public void initiallyEmpty() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        
+        assertAll(
+            () -> assertTrue(view.getCourses().isEmpty()),
+            () -> assertFalse(view.getCourse("java-wise2122").isPresent())
+        );
+    }
+    
+    @Test
+    public void createdCourseVisible() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        Course course = view.createCourse("java-wise2122");
+        
+        assertAll(
+            () -> assertSame(course, view.getCourse("java-wise2122").get()),
+            () -> assertEquals(1, view.getCourses().size())
+        );
+    }
+    
+    @Test
+    public void previousCourseCollectionNotModified() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        view.createCourse("java-wise2122");
+        
+        Collection<Course> before = view.getCourses();
+        view.createCourse("java-sose22");
+        
+        assertAll(
+            () -> assertEquals(1, before.size()),
+            () -> assertEquals(2, view.getCourses().size())
+        );
+    }
+    
+    @Test
+    public void replacedCourseKeepsOldData() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        Course oldCourse = view.createCourse("java-wise2122");
+        view.createParticipant(oldCourse, "1", "student1", RoleEnum.STUDENT);
+        
+        Course newCourse = view.createCourse("java-wise2122");
+        
+        assertAll(
+            () -> assertSame(newCourse, view.getCourse("java-wise2122").get()),
+            () -> assertTrue(oldCourse.getParticipant("student1").isPresent()),
+            () -> assertFalse(newCourse.getParticipant("student1").isPresent())
+        );
+    }
+    
+    @Test
+    public void courseCollectionUnmodifiable() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        Course course = view.createCourse("java-wise2122");
+        
+        assertThrows(UnsupportedOperationException.class, () -> view.getCourses().remove(course));
+    }
+    
+    @Test
+    public void restoreSnapshotWithoutFileDoesNothing() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        view.createCourse("java-wise2122");
+        
+        assertAll(
+            () -> assertFalse(view.restoreSnapshot()),
+            () -> assertTrue(view.getCourse("java-wise2122").isPresent())
+        );
+    }
+    
+    @Test
+    public void restoreSnapshotReplacesCourses() throws IOException {
+        Path snapshot = Files.createTempFile("StuMgmtViewTest.restoreSnapshotReplacesCourses", ".json");
+        try {
+            StuMgmtView previous = new EmptyStuMgmtView();
+            Course course = previous.createCourse("java-wise2122");
+            previous.createParticipant(course, "s1", "student1", RoleEnum.STUDENT);
+            ViewSnapshot.write(previous.getCourses(), snapshot);
+            
+            StuMgmtView view = new EmptyStuMgmtView();
+            view.createCourse("java-sose22");
+            view.setSnapshotFile(snapshot);
+            
+            assertAll(
+                () -> assertTrue(view.restoreSnapshot()),
+                () -> assertFalse(view.getCourse("java-sose22").isPresent()),
+                () -> assertTrue(view.getCourse("java-wise2122").get().getParticipant("student1").isPresent())
+            );
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+    
+    @Test
+    public void restoreInvalidSnapshotKeepsCourses() throws IOException {
+        Path snapshot = Files.createTempFile("StuMgmtViewTest.restoreInvalidSnapshotKeepsCourses", ".json");
+        try {
+            Files.writeString(snapshot, "not json", StandardCharsets.UTF_8);
+            
+            StuMgmtView view = new EmptyStuMgmtView();
+            view.createCourse("java-wise2122");
+            view.setSnapshotFile(snapshot);
+            
+            assertAll(
+                () -> assertFalse(view.restoreSnapshot()),
+                () -> assertTrue(view.getCourse("java-wise2122").isPresent())
+            );
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+    
+    @Test
+    public void scheduledSnapshotContainsLaterChanges() throws IOException, InterruptedException {
+        Path snapshot = Files.createTempFile("StuMgmtViewTest.scheduledSnapshotContainsLaterChanges", ".json");
+        Files.delete(snapshot);
+        try {
+            StuMgmtView view = new EmptyStuMgmtView();
+            view.createCourse("java-wise2122");
+            view.setSnapshotFile(snapshot);
+            view.setSnapshotDelay(Duration.ofMillis(200));
+            
+            view.scheduleSnapshot();
+            view.createCourse("java-sose22");
+            view.scheduleSnapshot();
+            
+            for (int i = 0; i < 1000 && !Files.isRegularFile(snapshot); i++) {
+                Thread.sleep(10);
+            }
+            
+            assertEquals(Set.of("java-wise2122", "java-sose22"), ViewSnapshot.read(snapshot).keySet());
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+    
+    @Test
+    public void negativeSnapshotDelayThrows() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        
+        assertThrows(IllegalArgumentException.class, () -> view.setSnapshotDelay(Duration.ofSeconds(-1)));
+    }
+    
+    @Test
+    public void nonPositiveLoadingThreadsThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new StuMgmtView(null, null, null, null, 0));
+    }
+    
+    @Nested
+    public class LoadCourses {
+        
+        private static final ParticipantDto STUDENT1 = new ParticipantDto()
+                .userId("s1").username("student1").role(RoleEnum.STUDENT);
+        
+        private static final ParticipantDto STUDENT2 = new ParticipantDto()
+                .userId("s2").username("student2").role(RoleEnum.STUDENT);
+        
+        private FakeStuMgmtView createView(int loadingThreads) {
+            FakeStuMgmtView view = new FakeStuMgmtView(loadingThreads);
+            
+            view.courseParticipants.put("java-wise2122", List.of(STUDENT1, STUDENT2));
+            view.courseAssignments.put("java-wise2122", List.of(
+                    new AssignmentDto().id("a1").name("Homework01").state(StateEnum.IN_PROGRESS)
+                        .collaboration(CollaborationEnum.GROUP),
+                    new AssignmentDto().id("a2").name("Homework02").state(StateEnum.INVISIBLE)
+                        .collaboration(CollaborationEnum.SINGLE)));
+            view.groups.put("a1", List.of(new GroupDto().id("g1").name("Group01").members(List.of(STUDENT1))));
+            view.groups.put("a2", List.of());
+            
+            view.courseParticipants.put("java-sose22", List.of(STUDENT2));
+            view.courseAssignments.put("java-sose22", List.of(
+                    new AssignmentDto().id("a3").name("Homework01").state(StateEnum.IN_PROGRESS)
+                        .collaboration(CollaborationEnum.GROUP)));
+            view.groups.put("a3", List.of(new GroupDto().id("g3").name("Group03").members(List.of(STUDENT2))));
+            
+            return view;
+        }
+        
+        @Test
+        public void coursesAssembled() {
+            FakeStuMgmtView view = createView(4);
+            
+            Map<String, Course> courses = assertDoesNotThrow(
+                () -> view.loadCourses(List.of("java-wise2122", "java-sose22")));
+            
+            Course wise = courses.get("java-wise2122");
+            Course sose = courses.get("java-sose22");
+            
+            assertAll(
+                () -> assertEquals(2, courses.size()),
+                () -> assertEquals(2, wise.getParticipants().size()),
+                () -> assertEquals(2, wise.getAssignments().size()),
+                () -> assertTrue(wise.getAssignment("Homework01").get().getGroup("Group01").get()
+                        .hasParticipant(wise.getParticipant("student1").get())),
+                () -> assertTrue(wise.getAssignment("Homework02").get().getGroups().isEmpty()),
+                () -> assertEquals(1, sose.getParticipants().size()),
+                () -> assertTrue(sose.getAssignment("Homework01").get().getGroup("Group03").get()
+                        .hasParticipant(sose.getParticipant("student2").get())),
+                () -> assertEquals(7, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void failedCourseDoesNotAffectOthers() {
+            FakeStuMgmtView view = createView(4);
+            view.courseAssignments.remove("java-wise2122");
+            
+            Map<String, Course> courses = assertDoesNotThrow(
+                () -> view.loadCourses(List.of("java-wise2122", "java-sose22")));
+            
+            assertAll(
+                () -> assertEquals(2, courses.get("java-wise2122").getParticipants().size()),
+                () -> assertTrue(courses.get("java-wise2122").getAssignments().isEmpty()),
+                () -> assertEquals(1, courses.get("java-sose22").getAssignments().size())
+            );
+        }
+        
+        @Test
+        public void failedGroupsKeepAssignment() {
+            FakeStuMgmtView view = createView(4);
+            view.groups.remove("a1");
+            
+            Course course = assertDoesNotThrow(() -> view.loadCourses(List.of("java-wise2122"))).get("java-wise2122");
+            
+            assertAll(
+                () -> assertTrue(course.getAssignment("Homework01").get().getGroups().isEmpty()),
+                () -> assertTrue(course.getAssignment("Homework02").isPresent())
+            );
+        }
+        
+        @Test
+        public void requestsRunInParallel() {
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            FakeStuMgmtView view = new FakeStuMgmtView(2) {
+                @Override
+                List<GroupDto> fetchRegisteredGroups(String courseId, String assignmentId) throws ApiException {
+                    // only completes if the groups of both assignments are requested at the same time
+                    try {
+                        barrier.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                        throw new ApiException(e.toString());
+                    }
+                    return List.of(new GroupDto().id("g" + assignmentId).name("Group" + assignmentId)
+                            .members(List.of()));
+                }
+            };
+            view.courseParticipants.put("java-wise2122", List.of());
+            view.courseAssignments.put("java-wise2122", List.of(
+                    new AssignmentDto().id("a1").name("Homework01"), new AssignmentDto().id("a2").name("Homework02")));
+            
+            Course course = assertDoesNotThrow(() -> view.loadCourses(List.of("java-wise2122"))).get("java-wise2122");
+            
+            assertAll(
+                () -> assertTrue(course.getAssignment("Homework01").get().getGroup("Groupa1").isPresent()),
+                () -> assertTrue(course.getAssignment("Homework02").get().getGroup("Groupa2").isPresent())
+            );
+        }
+        
+    }
+    
+    @Nested
+    public class PatchCourse {
+        
+        private FakeStuMgmtView view;
+        
+        private Course course;
+        
+        private Assignment homework01;
+        
+        private Assignment homework02;
+        
+        @BeforeEach
+        public void setup() {
+            view = new FakeStuMgmtView();
+            course = view.createCourse("java-wise2122");
+            Participant student1 = view.createParticipant(course, "s1", "student1", RoleEnum.STUDENT);
+            view.createParticipant(course, "s2", "student2", RoleEnum.STUDENT);
+            
+            homework01 = view.createAssignment(course, "a1", "Homework01", StateEnum.IN_PROGRESS,
+                    CollaborationEnum.GROUP);
+            view.createGroup(homework01, "g1", "Group01", student1);
+            homework02 = view.createAssignment(course, "a2", "Homework02", StateEnum.INVISIBLE,
+                    CollaborationEnum.GROUP);
+        }
+        
+        @Test
+        public void unknownEventNotApplied() {
+            assertAll(
+                () -> assertEquals(Optional.empty(), view.patchCourse(course,
+                        new NotificationDto().event("SOMETHING_ELSE").assignmentId("a1"))),
+                () -> assertEquals(Optional.empty(), view.patchCourse(course, new NotificationDto())),
+                () -> assertEquals(0, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void assignmentEventWithoutAssignmentIdNotApplied() {
+            assertEquals(Optional.empty(), view.patchCourse(course, new NotificationDto().event("ASSIGNMENT_UPDATED")));
+        }
+        
+        @Test
+        public void assignmentUpdatedReloadsOnlyThisAssignment() {
+            view.assignments.put("a2", new AssignmentDto().id("a2").name("Homework02").state(StateEnum.IN_PROGRESS)
+                    .collaboration(CollaborationEnum.GROUP));
+            view.groups.put("a2", List.of(new GroupDto().id("g2").name("Group02").members(List.of(
+                    new ParticipantDto().userId("s2").username("student2").role(RoleEnum.STUDENT)))));
+            
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("ASSIGNMENT_STATE_CHANGED").assignmentId("a2")).orElseThrow();
+            Assignment assignment = patched.getAssignment("Homework02").orElseThrow();
+            
+            assertAll(
+                () -> assertEquals(StateEnum.IN_PROGRESS, assignment.getState()),
+                () -> assertEquals(1, assignment.getGroups().size()),
+                () -> assertTrue(assignment.getGroup("Group02").get()
+                        .hasParticipant(course.getParticipant("student2").get())),
+                () -> assertSame(homework01, patched.getAssignment("Homework01").get()),
+                () -> assertSame(homework02, course.getAssignment("Homework02").get()),
+                () -> assertEquals(2, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void assignmentRenamedReplacesOldName() {
+            view.assignments.put("a2", new AssignmentDto().id("a2").name("Homework02b").state(StateEnum.INVISIBLE)
+                    .collaboration(CollaborationEnum.GROUP));
+            view.groups.put("a2", List.of());
+            
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("ASSIGNMENT_UPDATED").assignmentId("a2")).orElseThrow();
+            
+            assertAll(
+                () -> assertFalse(patched.getAssignment("Homework02").isPresent()),
+                () -> assertTrue(patched.getAssignment("Homework02b").isPresent()),
+                () -> assertEquals(2, patched.getAssignments().size())
+            );
+        }
+        
+        @Test
+        public void assignmentRemovedNeedsNoRequests() {
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("ASSIGNMENT_REMOVED").assignmentId("a1")).orElseThrow();
+            
+            assertAll(
+                () -> assertFalse(patched.getAssignment("Homework01").isPresent()),
+                () -> assertTrue(course.getAssignment("Homework01").isPresent()),
+                () -> assertEquals(0, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void courseJoinedAddsParticipant() {
+            view.participants.put("s3", new ParticipantDto().userId("s3").username("student3").role(RoleEnum.STUDENT));
+            
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("COURSE_JOINED").userId("s3")).orElseThrow();
+            
+            assertAll(
+                () -> assertTrue(patched.getParticipant("student3").isPresent()),
+                () -> assertFalse(course.getParticipant("student3").isPresent()),
+                () -> assertSame(homework01, patched.getAssignment("Homework01").get()),
+                () -> assertEquals(1, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void courseLeftRemovesParticipant() {
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("COURSE_LEFT").userId("s2")).orElseThrow();
+            
+            assertAll(
+                () -> assertFalse(patched.getParticipant("student2").isPresent()),
+                () -> assertTrue(patched.getParticipant("student1").isPresent()),
+                () -> assertEquals(0, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void groupEventReloadsGroupsOfAssignment() {
+            view.groups.put("a1", List.of(new GroupDto().id("g1").name("Group01").members(List.of(
+                    new ParticipantDto().userId("s1").username("student1").role(RoleEnum.STUDENT),
+                    new ParticipantDto().userId("s2").username("student2").role(RoleEnum.STUDENT)))));
+            
+            Participant student2 = course.getParticipant("student2").orElseThrow();
+            
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("USER_REGISTERED").assignmentId("a1").userId("s2")).orElseThrow();
+            Assignment assignment = patched.getAssignment("Homework01").orElseThrow();
+            
+            assertAll(
+                () -> assertTrue(assignment.getGroup("Group01").get().hasParticipant(student2)),
+                () -> assertFalse(homework01.getGroup("Group01").get().hasParticipant(student2)),
+                () -> assertEquals(StateEnum.IN_PROGRESS, assignment.getState()),
+                () -> assertSame(homework02, patched.getAssignment("Homework02").get()),
+                () -> assertEquals(1, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void groupEventWithoutAssignmentReloadsAllGroups() {
+            view.groups.put("a1", List.of());
+            view.groups.put("a2", List.of());
+            
+            Course patched = view.patchCourse(course,
+                    new NotificationDto().event("USER_LEFT_GROUP").groupId("g1")).orElseThrow();
+            
+            assertAll(
+                () -> assertTrue(patched.getAssignment("Homework01").get().getGroups().isEmpty()),
+                () -> assertNotSame(homework02, patched.getAssignment("Homework02").get()),
+                () -> assertEquals(2, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void failedRequestNotApplied() {
+            assertAll(
+                () -> assertEquals(Optional.empty(), view.patchCourse(course,
+                        new NotificationDto().event("ASSIGNMENT_CREATED").assignmentId("a3"))),
+                () -> assertTrue(course.getAssignment("Homework01").isPresent())
+            );
+        }
+        
+    }
+    
+    @Nested
+    public class PushPartialAssessment {
+        
+        private final AssessmentCache.Key key = new AssessmentCache.Key("java-wise2122", "a1", "g1", true);
+        
+        private FakeStuMgmtView view;
+        
+        @BeforeEach
+        public void setupView() {
+            view = new FakeStuMgmtView();
+        }
+        
+        private AssessmentDto assessment(String id, boolean draft) {
+            AssessmentDto assessment = new AssessmentDto();
+            assessment.setId(id);
+            assessment.setIsDraft(draft);
+            return assessment;
+        }
+        
+        @Test
+        public void existingAssessmentLookedUp() {
+            view.assessments.put(key, assessment("as1", true));
+            
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            
+            assertAll(
+                () -> assertEquals(List.of("as1"), view.uploads),
+                () -> assertEquals(2, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void repeatedPushNeedsSingleRequest() {
+            view.assessments.put(key, assessment("as1", true));
+            
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            view.calls.set(0);
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            
+            assertAll(
+                () -> assertEquals(List.of("as1", "as1"), view.uploads),
+                () -> assertEquals(1, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void missingAssessmentCreatedAndCached() {
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            assertEquals(3, view.calls.get());
+            view.calls.set(0);
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            
+            assertAll(
+                () -> assertEquals(List.of("created-g1", "created-g1"), view.uploads),
+                () -> assertEquals(1, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void nonDraftAssessmentNotUpdated() {
+            view.assessments.put(key, assessment("as1", false));
+            
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            
+            assertAll(
+                () -> assertTrue(view.uploads.isEmpty()),
+                () -> assertEquals(1, view.calls.get())
+            );
+        }
+        
+        @Test
+        public void outdatedCachedAssessmentLookedUpAgain() {
+            view.assessments.put(key, assessment("as1", true));
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            
+            view.removedAssessments.add("as1");
+            view.assessments.put(key, assessment("as2", true));
+            assertDoesNotThrow(() -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+            
+            assertEquals(List.of("as1", "as2"), view.uploads);
+        }
+        
+        @Test
+        public void failedLookupThrows() {
+            view.failLookups = true;
+            
+            assertThrows(ApiException.class, () -> view.pushPartialAssessment(key, new PartialAssessmentDto()));
+        }
+        
+    }
+    
+    private static class FakeStuMgmtView extends StuMgmtView {
+        
+        private Map<String, List<ParticipantDto>> courseParticipants = new HashMap<>();
+        
+        private Map<String, List<AssignmentDto>> courseAssignments = new HashMap<>();
+        
+        private Map<String, AssignmentDto> assignments = new HashMap<>();
+        
+        private Map<String, List<GroupDto>> groups = new HashMap<>();
+        
+        private Map<String, ParticipantDto> participants = new HashMap<>();
+        
+        private Map<AssessmentCache.Key, AssessmentDto> assessments = new HashMap<>();
+        
+        private Set<String> removedAssessments = new HashSet<>();
+        
+        private boolean failLookups;
+        
+        private List<String> uploads = new LinkedList<>();
+        
+        private AtomicInteger calls = new AtomicInteger();
+        
+        public FakeStuMgmtView() {
+            this(1);
+        }
+        
+        public FakeStuMgmtView(int loadingThreads) {
+            super(null, null, null, null, loadingThreads);
+        }
+        
+        private <T> T getOrThrow(Map<String, T> map, String key) throws ApiException {
+            calls.incrementAndGet();
+            T result = map.get(key);
+            if (result == null) {
+                throw new ApiException("Not found: " + key);
+            }
+            return result;
+        }
+        
+        @Override
+        List<ParticipantDto> fetchParticipants(String courseId) throws ApiException {
+            return getOrThrow(courseParticipants, courseId);
+        }
+        
+        @Override
+        List<AssignmentDto> fetchAssignments(String courseId) throws ApiException {
+            return getOrThrow(courseAssignments, courseId);
+        }
+        
+        @Override
+        AssignmentDto fetchAssignment(String courseId, String assignmentId) throws ApiException {
+            return getOrThrow(assignments, assignmentId);
+        }
+        
+        @Override
+        List<GroupDto> fetchRegisteredGroups(String courseId, String assignmentId) throws ApiException {
+            return getOrThrow(groups, assignmentId);
+        }
+        
+        @Override
+        ParticipantDto fetchParticipant(String courseId, String userId) throws ApiException {
+            return getOrThrow(participants, userId);
+        }
+        
+        @Override
+        AssessmentDto fetchAssessment(AssessmentCache.Key key) throws ApiException {
+            calls.incrementAndGet();
+            if (failLookups) {
+                throw new ApiException("Unavailable");
+            }
+            return assessments.get(key);
+        }
+        
+        @Override
+        AssessmentDto createDraftAssessment(AssessmentCache.Key key) throws ApiException {
+            calls.incrementAndGet();
+            AssessmentDto assessment = new AssessmentDto();
+            assessment.setId("created-" + key.getUserOrGroupId());
+            assessment.setIsDraft(true);
+            assessments.put(key, assessment);
+            return assessment;
+        }
+        
+        @Override
+        void uploadPartialAssessment(AssessmentCache.Key key, String assessmentId,
+                PartialAssessmentDto partialAssessment) throws ApiException {
+            calls.incrementAndGet();
+            if (removedAssessments.contains(assessmentId)) {
+                throw new ApiException("Not found: " + assessmentId);
+            }
+            uploads.add(assessmentId);
+        }
+        
+    }
+    
+}
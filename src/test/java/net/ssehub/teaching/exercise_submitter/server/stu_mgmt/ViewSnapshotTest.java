@@ -0,0 +1,142 @@
+package net.ssehub.teaching.exercise_submitter.server.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.CollaborationEnum;
+import net.ssehub.studentmgmt.backend_api.model.AssignmentDto.StateEnum;
+import net.ssehub.studentmgmt.backend_api.model.ParticipantDto.RoleEnum;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileUtils;
+
+public class ViewSnapshotTest {
+    
+    private Path temporaryDirectory;
+    
+    private static Course createCourse() {
+        StuMgmtView view = new EmptyStuMgmtView();
+        Course course = view.createCourse("java-wise2122");
+        Participant student1 = view.createParticipant(course, "s1", "student1", RoleEnum.STUDENT);
+        Participant student2 = view.createParticipant(course, "s2", "student2", RoleEnum.STUDENT);
+        view.createParticipant(course, "t1", "tutor1", RoleEnum.TUTOR);
+        
+        Assignment homework01 = view.createAssignment(course, "a1", "Homework01", StateEnum.IN_PROGRESS,
+                CollaborationEnum.GROUP);
+        view.createGroup(homework01, "g1", "Group01", student1, student2);
+        homework01.setCheckConfigurationString(
+                "[{\"check\":\"javac\",\"rejecting\":true,\"version\":\"11\"},{\"check\":\"checkstyle\"}]");
+        
+        view.createAssignment(course, "a2", "Homework02", StateEnum.INVISIBLE, CollaborationEnum.SINGLE);
+        
+        return course;
+    }
+    
+    @Test
+    public void restoredCourseEqualsWritten() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ViewSnapshotTest.restoredCourseEqualsWritten");
+        Path file = temporaryDirectory.resolve("snapshot.json");
+        
+        ViewSnapshot.write(List.of(createCourse()), file);
+        Map<String, Course> courses = ViewSnapshot.read(file);
+        
+        Course course = courses.get("java-wise2122");
+        Assignment homework01 = course.getAssignment("Homework01").get();
+        Assignment homework02 = course.getAssignment("Homework02").get();
+        
+        assertAll(
+            () -> assertEquals(1, courses.size()),
+            () -> assertEquals(3, course.getParticipants().size()),
+            () -> assertEquals("s1", course.getParticipant("student1").get().getMgmtId()),
+            () -> assertEquals(RoleEnum.TUTOR, course.getParticipant("tutor1").get().getRole()),
+            
+            () -> assertEquals("a1", homework01.getMgmtId()),
+            () -> assertEquals(StateEnum.IN_PROGRESS, homework01.getState()),
+            () -> assertEquals(CollaborationEnum.GROUP, homework01.getCollaboration()),
+            () -> assertEquals("g1", homework01.getGroup("Group01").get().getMgmtId()),
+            () -> assertTrue(homework01.getGroup("Group01").get()
+                    .hasParticipant(course.getParticipant("student2").get())),
+            () -> assertFalse(homework01.getGroup("Group01").get()
+                    .hasParticipant(course.getParticipant("tutor1").get())),
+            
+            () -> assertEquals(2, homework01.getCheckConfigurations().size()),
+            () -> assertTrue(homework01.getCheckConfigurations().get(0).isRejecting()),
+            () -> assertEquals("11", homework01.getCheckConfigurations().get(0).getProperty("version").get()),
+            () -> assertFalse(homework01.getCheckConfigurations().get(1).isRejecting()),
+            
+            () -> assertEquals(StateEnum.INVISIBLE, homework02.getState()),
+            () -> assertTrue(homework02.getGroups().isEmpty()),
+            () -> assertTrue(homework02.getCheckConfigurations().isEmpty())
+        );
+    }
+    
+    @Test
+    public void writeReplacesExistingFile() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ViewSnapshotTest.writeReplacesExistingFile");
+        Path file = temporaryDirectory.resolve("snapshot.json");
+        
+        ViewSnapshot.write(List.of(createCourse()), file);
+        ViewSnapshot.write(List.of(), file);
+        
+        assertAll(
+            () -> assertTrue(ViewSnapshot.read(file).isEmpty()),
+            () -> assertEquals(1, Files.list(temporaryDirectory).count())
+        );
+    }
+    
+    @Test
+    public void writeCreatesParentDirectories() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ViewSnapshotTest.writeCreatesParentDirectories");
+        Path file = temporaryDirectory.resolve("sub/dir/snapshot.json");
+        
+        assertDoesNotThrow(() -> ViewSnapshot.write(List.of(createCourse()), file));
+        assertTrue(Files.isRegularFile(file));
+    }
+    
+    @Test
+    public void invalidJsonThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ViewSnapshotTest.invalidJsonThrows");
+        Path file = temporaryDirectory.resolve("snapshot.json");
+        Files.writeString(file, "{\"version\":1,\"courses\":[", StandardCharsets.UTF_8);
+        
+        assertThrows(IOException.class, () -> ViewSnapshot.read(file));
+    }
+    
+    @Test
+    public void missingKeysThrow() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ViewSnapshotTest.missingKeysThrow");
+        Path file = temporaryDirectory.resolve("snapshot.json");
+        Files.writeString(file, "{\"version\":1,\"courses\":[{\"id\":\"java-wise2122\"}]}", StandardCharsets.UTF_8);
+        
+        assertThrows(IOException.class, () -> ViewSnapshot.read(file));
+    }
+    
+    @Test
+    public void unsupportedVersionThrows() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("ViewSnapshotTest.unsupportedVersionThrows");
+        Path file = temporaryDirectory.resolve("snapshot.json");
+        Files.writeString(file, "{\"version\":2,\"courses\":[]}", StandardCharsets.UTF_8);
+        
+        assertThrows(IOException.class, () -> ViewSnapshot.read(file));
+    }
+    
+    @AfterEach
+    public void cleanTemporaryDirectory() throws IOException {
+        if (temporaryDirectory != null) {
+            FileUtils.deleteDirectory(temporaryDirectory);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
+
+public class CheckResultCacheTest {
+    
+    private static final List<ResultMessage> MESSAGES = List.of(
+            new ResultMessage("javac", MessageType.ERROR, "cannot find symbol"));
+    
+    private static CheckResultCache.Key key(String submissionHash) {
+        return new CheckResultCache.Key(submissionHash, List.of(new CheckConfiguration("javac", true)), "");
+    }
+    
+    @Test
+    public void nonPositiveMaxBytesThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new CheckResultCache(0));
+    }
+    
+    @Test
+    public void putResultReturned() {
+        CheckResultCache cache = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+        
+        cache.put(key("abc"), false, MESSAGES);
+        CheckResultCache.Result result = cache.get(key("abc")).orElseThrow();
+        
+        assertAll(
+            () -> assertFalse(result.isAccepted()),
+            () -> assertEquals(MESSAGES, result.getMessages())
+        );
+    }
+    
+    @Test
+    public void differentConfigurationsAreDifferentKeys() {
+        CheckResultCache cache = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+        CheckConfiguration version11 = new CheckConfiguration("javac", true);
+        version11.setProperty("version", "11");
+        
+        cache.put(key("abc"), true, MESSAGES);
+        
+        assertAll(
+            () -> assertTrue(cache.get(new CheckResultCache.Key("abc", List.of(version11), "")).isEmpty()),
+            () -> assertTrue(cache.get(new CheckResultCache.Key("abc", List.of(), "")).isEmpty()),
+            () -> assertTrue(cache.get(new CheckResultCache.Key("abc",
+                    List.of(new CheckConfiguration("javac", true)), "rules.xml")).isEmpty())
+        );
+    }
+    
+    @Test
+    public void leastRecentlyUsedEvictedWhenFull() {
+        CheckResultCache sizing = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+        sizing.put(key("aaa"), true, MESSAGES);
+        long entryBytes = sizing.getUsedBytes();
+        CheckResultCache cache = new CheckResultCache(entryBytes * 2);
+        
+        cache.put(key("aaa"), true, MESSAGES);
+        cache.put(key("bbb"), true, MESSAGES);
+        cache.get(key("aaa"));
+        cache.put(key("ccc"), true, MESSAGES);
+        
+        assertAll(
+            () -> assertEquals(2, cache.size()),
+            () -> assertEquals(entryBytes * 2, cache.getUsedBytes()),
+            () -> assertTrue(cache.get(key("aaa")).isPresent()),
+            () -> assertTrue(cache.get(key("bbb")).isEmpty()),
+            () -> assertTrue(cache.get(key("ccc")).isPresent())
+        );
+    }
+    
+    @Test
+    public void tooLargeResultNotCached() {
+        CheckResultCache cache = new CheckResultCache(100);
+        
+        cache.put(key("abc"), true, MESSAGES);
+        
+        assertAll(
+            () -> assertEquals(0, cache.size()),
+            () -> assertEquals(0, cache.getUsedBytes())
+        );
+    }
+    
+    @Test
+    public void replacingResultKeepsSizeAccurate() {
+        CheckResultCache cache = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+        
+        cache.put(key("abc"), true, MESSAGES);
+        long usedBytes = cache.getUsedBytes();
+        cache.put(key("abc"), true, MESSAGES);
+        
+        assertEquals(usedBytes, cache.getUsedBytes());
+    }
+    
+    @Test
+    public void clearRemovesAll() {
+        CheckResultCache cache = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+        cache.put(key("abc"), true, MESSAGES);
+        
+        cache.clear();
+        
+        assertAll(
+            () -> assertEquals(0, cache.size()),
+            () -> assertEquals(0, cache.getUsedBytes())
+        );
+    }
+    
+}
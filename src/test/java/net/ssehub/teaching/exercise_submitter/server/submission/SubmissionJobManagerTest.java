@@ -0,0 +1,189 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.rest.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+
+public class SubmissionJobManagerTest {
+
+    private static final SubmissionTarget TARGET = new SubmissionTarget("course", "assignment", "group");
+
+    private SubmissionJobManager manager;
+
+    @AfterEach
+    public void shutdown() {
+        if (manager != null) {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void invalidArgumentsThrow() {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> new SubmissionJobManager(0, 1)),
+            () -> assertThrows(IllegalArgumentException.class, () -> new SubmissionJobManager(1, 0)),
+            () -> assertThrows(IllegalArgumentException.class, () -> new SubmissionJobManager(-1, -1))
+        );
+    }
+
+    @Test
+    public void jobFinishesWithResult() throws QueueFullException, InterruptedException {
+        manager = new SubmissionJobManager(1, 1);
+        SubmissionResultDto result = new SubmissionResultDto();
+        result.setAccepted(true);
+
+        SubmissionJob job = manager.submit("student1", TARGET, () -> result);
+        waitUntilDone(job);
+
+        assertAll(
+            () -> assertEquals(SubmissionJob.State.FINISHED, job.getState()),
+            () -> assertSame(result, job.getResult().get()),
+            () -> assertEquals("student1", job.getUser()),
+            () -> assertEquals(TARGET, job.getTarget()),
+            () -> assertTrue(job.getCompletionTime().isPresent())
+        );
+    }
+
+    @Test
+    public void jobRetrievableById() throws QueueFullException {
+        manager = new SubmissionJobManager(1, 1);
+
+        SubmissionJob job = manager.submit("student1", TARGET, () -> new SubmissionResultDto());
+
+        assertSame(job, manager.getJob(job.getId()).get());
+    }
+
+    @Test
+    public void unknownIdEmpty() {
+        manager = new SubmissionJobManager(1, 1);
+
+        assertEquals(Optional.empty(), manager.getJob("does-not-exist"));
+    }
+
+    @Test
+    public void storageExceptionFails() throws QueueFullException, InterruptedException {
+        manager = new SubmissionJobManager(1, 1);
+
+        SubmissionJob job = manager.submit("student1", TARGET, () -> {
+            throw new StorageException("mock");
+        });
+        waitUntilDone(job);
+
+        assertAll(
+            () -> assertEquals(SubmissionJob.State.FAILED, job.getState()),
+            () -> assertFalse(job.getResult().isPresent())
+        );
+    }
+
+    @Test
+    public void runtimeExceptionFails() throws QueueFullException, InterruptedException {
+        manager = new SubmissionJobManager(1, 1);
+
+        SubmissionJob job = manager.submit("student1", TARGET, () -> {
+            throw new IllegalStateException("mock");
+        });
+        waitUntilDone(job);
+
+        assertEquals(SubmissionJob.State.FAILED, job.getState());
+    }
+
+    @Test
+    public void queueFullThrows() throws QueueFullException, InterruptedException {
+        manager = new SubmissionJobManager(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch block = new CountDownLatch(1);
+
+        try {
+            SubmissionJob first = manager.submit("student1", TARGET, () -> {
+                running.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                }
+                return new SubmissionResultDto();
+            });
+            running.await();
+            SubmissionJob second = manager.submit("student1", TARGET, () -> new SubmissionResultDto());
+
+            assertAll(
+                () -> assertEquals(SubmissionJob.State.RUNNING, first.getState()),
+                () -> assertEquals(SubmissionJob.State.QUEUED, second.getState()),
+                () -> assertEquals(1, manager.getQueueSize()),
+                () -> assertThrows(QueueFullException.class,
+                    () -> manager.submit("student1", TARGET, () -> new SubmissionResultDto()))
+            );
+
+        } finally {
+            block.countDown();
+        }
+    }
+
+    @Test
+    public void timesReported() throws QueueFullException, InterruptedException {
+        manager = new SubmissionJobManager(1, 1);
+
+        SubmissionJob job = manager.submit("student1", TARGET, () -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+            }
+            return new SubmissionResultDto();
+        });
+        waitUntilDone(job);
+
+        assertAll(
+            () -> assertTrue(job.getQueueTime().isPresent()),
+            () -> assertTrue(job.getExecutionTime().get().toMillis() >= 20)
+        );
+    }
+
+    @Test
+    public void sharedSchedulerNotShutdown() throws QueueFullException, InterruptedException {
+        SubmissionScheduler scheduler = new SubmissionScheduler(1, 1);
+        manager = new SubmissionJobManager(scheduler);
+
+        try {
+            manager.shutdown();
+
+            SubmissionJob job = manager.submit("student1", TARGET, () -> new SubmissionResultDto());
+            waitUntilDone(job);
+
+            assertEquals(SubmissionJob.State.FINISHED, job.getState());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void expiredJobsRemoved() throws QueueFullException, InterruptedException {
+        manager = new SubmissionJobManager(1, 1);
+        manager.setRetention(Duration.ZERO);
+
+        SubmissionJob job = manager.submit("student1", TARGET, () -> new SubmissionResultDto());
+        waitUntilDone(job);
+        Thread.sleep(10);
+
+        assertEquals(Optional.empty(), manager.getJob(job.getId()));
+    }
+
+    private static void waitUntilDone(SubmissionJob job) throws InterruptedException {
+        while (job.getCompletionTime().isEmpty()) {
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -1,22 +1,32 @@
 package net.ssehub.teaching.exercise_submitter.server.submission;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -30,6 +40,7 @@ import net.ssehub.teaching.exercise_submitter.server.storage.NoSuchTargetExcepti
 import net.ssehub.teaching.exercise_submitter.server.storage.StorageException;
 import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionFingerprint;
 import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
 import net.ssehub.teaching.exercise_submitter.server.storage.Version;
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.Assignment;
@@ -40,7 +51,10 @@ import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtLoadingExce
 import net.ssehub.teaching.exercise_submitter.server.stu_mgmt.StuMgmtView;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.Check;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.CheckstyleCheck;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.CompilationCache;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.EncodingCheck;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.FileSizeCheck;
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.InMemoryCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.JavacCheck;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage;
 import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
@@ -48,6 +62,25 @@ import net.ssehub.teaching.exercise_submitter.server.submission.checks.SrcFolder
 
 public class SubmissionManagerTest {
 
+    private List<SubmissionManager> managers = new LinkedList<>();
+    
+    /**
+     * Registers the given manager to be closed after the test.
+     * 
+     * @param manager The manager to close after the test.
+     * 
+     * @return The given manager.
+     */
+    private SubmissionManager managed(SubmissionManager manager) {
+        managers.add(manager);
+        return manager;
+    }
+    
+    @AfterEach
+    public void closeManagers() {
+        managers.forEach(SubmissionManager::close);
+    }
+
     private static class MockCheck extends Check {
 
         private boolean rejecting;
@@ -247,6 +280,35 @@ public class SubmissionManagerTest {
     }
     
     
+    @Test
+    public void zipSubmissionReaderWithoutFileSizeCheckHasNoLimits() {
+        SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
+        manager.addDefaultRejectingCheck(new MockCheck(true, true));
+        
+        ZipSubmissionReader reader = manager.createZipSubmissionReader();
+        
+        assertAll(
+            () -> assertEquals(Long.MAX_VALUE, reader.getMaxFileSize()),
+            () -> assertEquals(Long.MAX_VALUE, reader.getMaxSubmissionSize())
+        );
+    }
+    
+    @Test
+    public void zipSubmissionReaderUsesDefaultFileSizeCheckLimits() {
+        SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
+        FileSizeCheck fileSizeCheck = new FileSizeCheck();
+        fileSizeCheck.setMaxFileSize(1024);
+        fileSizeCheck.setMaxSubmissionSize(4096);
+        manager.addDefaultRejectingCheck(fileSizeCheck);
+        
+        ZipSubmissionReader reader = manager.createZipSubmissionReader();
+        
+        assertAll(
+            () -> assertEquals(1024, reader.getMaxFileSize()),
+            () -> assertEquals(4096, reader.getMaxSubmissionSize())
+        );
+    }
+    
     @Test
     public void failedNonRejectingCheckDoesNotReject() {
         AtomicBoolean submissionStored = new AtomicBoolean(false);
@@ -537,7 +599,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void unknownCheckNameThrows() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("doesnt exist", false);
             
@@ -546,7 +608,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void encodingDefault() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("encoding", false);
             
@@ -560,7 +622,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void encodingUtf16() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("encoding", false);
             config.setProperty("encoding", "utf-16");
@@ -575,7 +637,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void encodingInvalidEncodingThrows() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("encoding", false);
             config.setProperty("encoding", "invalid");
@@ -585,7 +647,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void javacDefault() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("javac", false);
             
@@ -599,7 +661,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void javacVersion() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("javac", false);
             config.setProperty("version", "11");
@@ -614,7 +676,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void javacInvalidVersionThrows() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("javac", false);
             config.setProperty("version", "invalid");
@@ -624,7 +686,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void checkstyleNoRulesThrows() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("checkstyle", false);
             
@@ -634,7 +696,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void checkstyle() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("checkstyle", false);
             config.setProperty("rules", "basic.xml");
@@ -649,7 +711,7 @@ public class SubmissionManagerTest {
         
         @Test
         public void srcFolderCheck() {
-            SubmissionManager manager = new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView()));
             
             CheckConfiguration config = new CheckConfiguration("src-folder", false);
             
@@ -660,6 +722,506 @@ public class SubmissionManagerTest {
         
     }
     
+    private SubmissionManager createManager(String checkConfigurations, Check... checks) {
+        StuMgmtView view = new EmptyStuMgmtView() {
+            @Override
+            public void fullReload() throws StuMgmtLoadingException {
+                Course c = createCourse("c");
+                Assignment a = createAssignment(c, "a", "a", StateEnum.IN_PROGRESS, CollaborationEnum.GROUP);
+                a.setCheckConfigurationString(checkConfigurations);
+            }
+        };
+        assertDoesNotThrow(() -> view.fullReload());
+        
+        return managed(new SubmissionManager(new EmptyStorage(), view, 4) {
+            @Override
+            protected Check createCheck(CheckConfiguration checkConfiguration) throws IllegalArgumentException {
+                return checks[Integer.parseInt(checkConfiguration.getProperty("index").get())];
+            }
+        });
+    }
+    
+    @Test
+    public void messagesOfThrowingCheckNotInNextSubmission() {
+        AtomicBoolean throwing = new AtomicBoolean(true);
+        SubmissionManager manager = createManager("[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\"}]",
+                new MockCheck(true, true) {
+                    @Override
+                    public boolean run(Path submissionDirectory) {
+                        if (throwing.get()) {
+                            addResultMessage(new ResultMessage("mock", MessageType.ERROR, "before exception"));
+                            throw new IllegalStateException("mock");
+                        }
+                        return true;
+                    }
+                });
+        
+        // dependent checks run on the submitting thread, so both runs use the same thread
+        assertThrows(IllegalStateException.class, () -> manager.submit(
+                new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+        throwing.set(false);
+        SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+        
+        assertAll(
+            () -> assertTrue(result.getAccepted()),
+            () -> assertEquals(Collections.emptyList(), result.getMessages())
+        );
+    }
+    
+    @Nested
+    public class ParallelChecks {
+        
+        @Test
+        public void nonRejectingChecksRunConcurrently() {
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"barrier\",\"rejecting\":false,\"index\":\"0\"},"
+                    + "{\"check\":\"barrier\",\"rejecting\":false,\"index\":\"1\"}]",
+                    new BarrierCheck(barrier, true, "one"), new BarrierCheck(barrier, true, "two"));
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+            
+            assertAll(
+                () -> assertTrue(result.getAccepted()),
+                () -> assertEquals(Arrays.asList(
+                        new CheckMessageDto("one", MessageType.WARNING, "mock"),
+                        new CheckMessageDto("two", MessageType.WARNING, "mock")
+                        ), result.getMessages())
+            );
+        }
+        
+        @Test
+        public void independentRejectingRunsConcurrentlyWithNonRejecting() {
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"barrier\",\"rejecting\":true,\"independent\":\"true\",\"index\":\"0\"},"
+                    + "{\"check\":\"barrier\",\"rejecting\":false,\"index\":\"1\"}]",
+                    new BarrierCheck(barrier, true, "one"), new BarrierCheck(barrier, true, "two"));
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+            
+            assertAll(
+                () -> assertTrue(result.getAccepted()),
+                () -> assertEquals(2, result.getMessages().size())
+            );
+        }
+        
+        @Test
+        public void failedIndependentRejectingDiscardsLaterMessages() {
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"mock\",\"rejecting\":true,\"independent\":\"true\",\"index\":\"0\"},"
+                    + "{\"check\":\"mock\",\"rejecting\":true,\"independent\":\"true\",\"index\":\"1\"},"
+                    + "{\"check\":\"mock\",\"rejecting\":false,\"index\":\"2\"}]",
+                    new MockCheck(true, false, new ResultMessage("one", MessageType.ERROR, "mock")),
+                    new MockCheck(true, false, new ResultMessage("two", MessageType.ERROR, "mock")),
+                    new MockCheck(false, false, new ResultMessage("three", MessageType.ERROR, "mock")));
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+            
+            assertAll(
+                () -> assertFalse(result.getAccepted()),
+                () -> assertEquals(Arrays.asList(new CheckMessageDto("one", MessageType.ERROR, "mock")),
+                        result.getMessages())
+            );
+        }
+        
+        @Test
+        public void failedDependentRejectingDoesNotRunIndependentChecks() {
+            AtomicBoolean independentRan = new AtomicBoolean(false);
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\"},"
+                    + "{\"check\":\"mock\",\"rejecting\":true,\"independent\":\"true\",\"index\":\"1\"},"
+                    + "{\"check\":\"mock\",\"rejecting\":false,\"index\":\"1\"}]",
+                    new MockCheck(true, false, new ResultMessage("one", MessageType.ERROR, "mock")),
+                    new MockCheck(true, true) {
+                        @Override
+                        public boolean run(Path submissionDirectory) {
+                            independentRan.set(true);
+                            return true;
+                        }
+                    });
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+            
+            assertAll(
+                () -> assertFalse(result.getAccepted()),
+                () -> assertEquals(Arrays.asList(new CheckMessageDto("one", MessageType.ERROR, "mock")),
+                        result.getMessages()),
+                () -> assertFalse(independentRan.get())
+            );
+        }
+        
+        @Test
+        public void sameCheckInstanceDependentAndIndependent() {
+            AtomicInteger runs = new AtomicInteger();
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\"},"
+                    + "{\"check\":\"mock\",\"rejecting\":true,\"independent\":\"true\",\"index\":\"0\"}]",
+                    new MockCheck(true, false) {
+                        @Override
+                        public boolean run(Path submissionDirectory) {
+                            runs.incrementAndGet();
+                            return false;
+                        }
+                    });
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+            
+            assertAll(
+                () -> assertFalse(result.getAccepted()),
+                () -> assertEquals(1, runs.get())
+            );
+        }
+        
+        @Test
+        public void exceptionInParallelCheckThrown() {
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"mock\",\"rejecting\":false,\"index\":\"0\"}]",
+                    new MockCheck(false, true) {
+                        @Override
+                        public boolean run(Path submissionDirectory) {
+                            throw new IllegalStateException("mock");
+                        }
+                    });
+            
+            assertThrows(IllegalStateException.class, () -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), new SubmissionBuilder("s").build()));
+        }
+        
+    }
+    
+    private static class BarrierCheck extends Check {
+        
+        private CyclicBarrier barrier;
+        
+        private boolean returnValue;
+        
+        private String name;
+        
+        public BarrierCheck(CyclicBarrier barrier, boolean returnValue, String name) {
+            this.barrier = barrier;
+            this.returnValue = returnValue;
+            this.name = name;
+        }
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            // only passes if the other check runs at the same time
+            assertDoesNotThrow(() -> barrier.await(5, TimeUnit.SECONDS));
+            addResultMessage(new ResultMessage(name, MessageType.WARNING, "mock"));
+            return returnValue;
+        }
+        
+    }
+    
+    @Nested
+    public class InMemoryChecks {
+        
+        @Test
+        public void inMemoryCheckGetsFilesWithoutDirectory() {
+            InMemoryMockCheck check = new InMemoryMockCheck();
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\"}]", check);
+            
+            SubmissionBuilder sb = new SubmissionBuilder("student1");
+            sb.addUtf8File(Path.of("dir/Main.java"), "some content");
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), sb.build()));
+            
+            assertAll(
+                () -> assertTrue(result.getAccepted()),
+                () -> assertEquals(1, check.files.size()),
+                () -> assertArrayEquals("some content".getBytes(StandardCharsets.UTF_8),
+                        check.files.get(Path.of("dir/Main.java"))),
+                () -> assertNull(check.directory)
+            );
+        }
+        
+        @Test
+        public void mixedChecksGetDirectory() {
+            InMemoryMockCheck inMemoryCheck = new InMemoryMockCheck();
+            AtomicReference<Path> directory = new AtomicReference<>();
+            AtomicBoolean fileExists = new AtomicBoolean();
+            SubmissionManager manager = createManager(
+                    "[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\"},"
+                    + "{\"check\":\"mock\",\"rejecting\":false,\"index\":\"1\"}]",
+                    inMemoryCheck, new MockCheck(false, true) {
+                        @Override
+                        public boolean run(Path submissionDirectory) {
+                            directory.set(submissionDirectory);
+                            fileExists.set(Files.isRegularFile(submissionDirectory.resolve("Main.java")));
+                            return true;
+                        }
+                    });
+            
+            SubmissionBuilder sb = new SubmissionBuilder("student1");
+            sb.addUtf8File(Path.of("Main.java"), "some content");
+            
+            SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g"), sb.build()));
+            
+            assertAll(
+                () -> assertTrue(result.getAccepted()),
+                () -> assertEquals(1, inMemoryCheck.files.size()),
+                () -> assertNull(inMemoryCheck.directory),
+                () -> assertTrue(fileExists.get()),
+                () -> assertFalse(Files.exists(directory.get()), "temporary directory should be deleted")
+            );
+        }
+        
+        @Test
+        public void inMemoryJavacCheckUsesCompilationCache() {
+            AtomicInteger numHits = new AtomicInteger();
+            CompilationCache cache = new CompilationCache(10) {
+                @Override
+                public synchronized Optional<Result> get(String key) {
+                    Optional<Result> result = super.get(key);
+                    result.ifPresent(r -> numHits.incrementAndGet());
+                    return result;
+                }
+            };
+            SubmissionManager manager = new TestSubmissionManager(new EmptyStorage(), new EmptyStuMgmtView() {
+                @Override
+                public void fullReload() throws StuMgmtLoadingException {
+                    Course c = createCourse("c");
+                    Assignment a = createAssignment(c, "a", "a", StateEnum.IN_PROGRESS, CollaborationEnum.GROUP);
+                    a.setCheckConfigurationString("[{\"check\":\"javac\",\"rejecting\":true}]");
+                }
+            });
+            manager.setCompilationCache(cache);
+            
+            SubmissionBuilder sb = new SubmissionBuilder("student1");
+            sb.addUtf8File(Path.of("Main.java"), "public class Main {}");
+            Submission submission = sb.build();
+            
+            SubmissionResultDto first = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g1"), submission));
+            SubmissionResultDto second = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g2"), submission));
+            
+            assertAll(
+                () -> assertTrue(first.getAccepted()),
+                () -> assertTrue(second.getAccepted()),
+                () -> assertEquals(1, cache.size()),
+                () -> assertEquals(1, numHits.get())
+            );
+        }
+        
+    }
+    
+    private static class InMemoryMockCheck extends Check implements InMemoryCheck {
+        
+        private Map<Path, byte[]> files;
+        
+        private Path directory;
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            this.directory = submissionDirectory;
+            return true;
+        }
+        
+        @Override
+        public boolean run(Map<Path, byte[]> files) {
+            this.files = files;
+            return true;
+        }
+        
+    }
+    
+    private static class CountingCheck extends MockCheck {
+        
+        private AtomicInteger numRuns = new AtomicInteger();
+        
+        public CountingCheck(boolean returnValue, ResultMessage... messages) {
+            super(true, returnValue, messages);
+        }
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            numRuns.incrementAndGet();
+            return super.run(submissionDirectory);
+        }
+        
+    }
+    
+    private static Submission createSubmission(String content) {
+        SubmissionBuilder sb = new SubmissionBuilder("student1");
+        sb.addUtf8File(Path.of("Main.java"), content);
+        return sb.build();
+    }
+    
+    @Nested
+    public class CheckResultCaching {
+        
+        private static final String CONFIGURATION = "[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\"}]";
+        
+        @Test
+        public void identicalSubmissionOfOtherGroupUsesCachedResult() {
+            CountingCheck check = new CountingCheck(false, new ResultMessage("mock", MessageType.ERROR, "failed"));
+            SubmissionManager manager = createManager(CONFIGURATION, check);
+            manager.setCheckResultCache(new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES));
+            
+            SubmissionResultDto first = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g1"), createSubmission("content")));
+            SubmissionResultDto second = assertDoesNotThrow(() -> manager.submit(
+                    new SubmissionTarget("c", "a", "g2"), createSubmission("content")));
+            
+            assertAll(
+                () -> assertEquals(1, check.numRuns.get()),
+                () -> assertFalse(second.getAccepted()),
+                () -> assertEquals(first.getMessages(), second.getMessages())
+            );
+        }
+        
+        @Test
+        public void differentSubmissionRunsChecks() {
+            CountingCheck check = new CountingCheck(true);
+            SubmissionManager manager = createManager(CONFIGURATION, check);
+            manager.setCheckResultCache(new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES));
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("one")));
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g2"), createSubmission("two")));
+            
+            assertEquals(2, check.numRuns.get());
+        }
+        
+        @Test
+        public void changedConfigurationRunsChecks() {
+            CountingCheck check = new CountingCheck(true);
+            AtomicReference<String> configuration = new AtomicReference<>(CONFIGURATION);
+            StuMgmtView view = new EmptyStuMgmtView() {
+                @Override
+                public void fullReload() throws StuMgmtLoadingException {
+                    Course c = createCourse("c");
+                    Assignment a = createAssignment(c, "a", "a", StateEnum.IN_PROGRESS, CollaborationEnum.GROUP);
+                    a.setCheckConfigurationString(configuration.get());
+                }
+            };
+            assertDoesNotThrow(() -> view.fullReload());
+            SubmissionManager manager = managed(new SubmissionManager(new EmptyStorage(), view, 1) {
+                @Override
+                protected Check createCheck(CheckConfiguration checkConfiguration) {
+                    return check;
+                }
+            });
+            manager.setCheckResultCache(new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES));
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("same")));
+            configuration.set("[{\"check\":\"mock\",\"rejecting\":true,\"index\":\"0\",\"version\":\"11\"}]");
+            assertDoesNotThrow(() -> view.fullReload());
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g2"), createSubmission("same")));
+            
+            assertEquals(2, check.numRuns.get());
+        }
+        
+        @Test
+        public void internalErrorNotCached() {
+            CountingCheck check = new CountingCheck(false,
+                    new ResultMessage("mock", MessageType.ERROR, "mock crashed").setInternalError(true));
+            SubmissionManager manager = createManager(CONFIGURATION, check);
+            CheckResultCache cache = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+            manager.setCheckResultCache(cache);
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("same")));
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g2"), createSubmission("same")));
+            
+            assertAll(
+                () -> assertEquals(2, check.numRuns.get()),
+                () -> assertEquals(0, cache.size())
+            );
+        }
+        
+        @Test
+        public void addingDefaultCheckClearsCache() {
+            SubmissionManager manager = createManager(CONFIGURATION, new CountingCheck(true));
+            CheckResultCache cache = new CheckResultCache(CheckResultCache.DEFAULT_MAX_BYTES);
+            manager.setCheckResultCache(cache);
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("same")));
+            manager.addDefaultRejectingCheck(new MockCheck(true, true));
+            
+            assertEquals(0, cache.size());
+        }
+        
+    }
+    
+    @Nested
+    public class CheckPlans {
+        
+        private AtomicReference<String> configuration = new AtomicReference<>(
+                "[{\"check\":\"mock\",\"rejecting\":true}]");
+        
+        private AtomicInteger numCreated = new AtomicInteger();
+        
+        private StuMgmtView view = new EmptyStuMgmtView() {
+            @Override
+            public void fullReload() throws StuMgmtLoadingException {
+                Course c = createCourse("c");
+                Assignment a = createAssignment(c, "a", "a", StateEnum.IN_PROGRESS, CollaborationEnum.GROUP);
+                a.setCheckConfigurationString(configuration.get());
+            }
+        };
+        
+        private SubmissionManager createCountingManager() {
+            assertDoesNotThrow(() -> view.fullReload());
+            return managed(new SubmissionManager(new EmptyStorage(), view, 1) {
+                @Override
+                protected Check createCheck(CheckConfiguration checkConfiguration) {
+                    numCreated.incrementAndGet();
+                    return new MockCheck(true, true);
+                }
+            });
+        }
+        
+        @Test
+        public void checksCreatedOncePerAssignment() {
+            SubmissionManager manager = createCountingManager();
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("one")));
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g2"), createSubmission("two")));
+            
+            assertEquals(1, numCreated.get());
+        }
+        
+        @Test
+        public void reloadWithSameConfigurationKeepsChecks() {
+            SubmissionManager manager = createCountingManager();
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("one")));
+            assertDoesNotThrow(() -> view.fullReload());
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g2"), createSubmission("two")));
+            
+            assertEquals(1, numCreated.get());
+        }
+        
+        @Test
+        public void changedConfigurationRecreatesChecks() {
+            SubmissionManager manager = createCountingManager();
+            
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g1"), createSubmission("one")));
+            configuration.set("[{\"check\":\"mock\",\"rejecting\":false}]");
+            assertDoesNotThrow(() -> view.fullReload());
+            assertDoesNotThrow(() -> manager.submit(new SubmissionTarget("c", "a", "g2"), createSubmission("two")));
+            
+            assertEquals(2, numCreated.get());
+        }
+        
+    }
+    
+    @Test
+    public void invalidNumberOfCheckThreadsThrows() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new SubmissionManager(new EmptyStorage(), new EmptyStuMgmtView(), 0));
+    }
+    
     @Test
     public void submissionWithSameContentRejected() {
         AtomicBoolean submissionStored = new AtomicBoolean(false);
@@ -707,6 +1269,51 @@ public class SubmissionManagerTest {
         );
     }
     
+    @Test
+    public void submissionWithSameFingerprintRejectedWithoutReadingPrevious() {
+        SubmissionBuilder previous = new SubmissionBuilder("student3");
+        previous.addUtf8File(Path.of("Main.java"), "some content");
+        previous.addUtf8File(Path.of("Util.java"), "some different content");
+        SubmissionFingerprint previousFingerprint = previous.build().getFingerprint();
+        
+        SubmissionManager manager = new TestSubmissionManager(new EmptyStorage() {
+                @Override
+                public List<Version> getVersions(SubmissionTarget target) throws NoSuchTargetException, StorageException {
+                    return Arrays.asList(new Version("student3", Instant.now()));
+                }
+                @Override
+                public Submission getSubmission(SubmissionTarget target, Version version)
+                        throws NoSuchTargetException, StorageException {
+                    throw new StorageException("previous submission should not be read");
+                }
+                @Override
+                public SubmissionFingerprint getFingerprint(SubmissionTarget target, Version version)
+                        throws NoSuchTargetException, StorageException {
+                    return previousFingerprint;
+                }
+            }, new EmptyStuMgmtView() {
+                @Override
+                public void fullReload() throws StuMgmtLoadingException {
+                    Course c = createCourse("c");
+                    createAssignment(c, "a", "a", StateEnum.IN_PROGRESS, CollaborationEnum.GROUP);
+                }
+            });
+        
+        SubmissionBuilder sb = new SubmissionBuilder("student1");
+        sb.addUtf8File(Path.of("Util.java"), "some different content");
+        sb.addUtf8File(Path.of("Main.java"), "some content");
+        
+        SubmissionResultDto result = assertDoesNotThrow(() -> manager.submit(
+                new SubmissionTarget("c", "a", "g"), sb.build()));
+        
+        assertAll(
+            () -> assertFalse(result.getAccepted()),
+            () -> assertEquals(
+                    Arrays.asList(new CheckMessageDto("submission", MessageType.WARNING,
+                            "Submission is the same as the previous one")), result.getMessages())
+        );
+    }
+    
     @Test
     public void submissionWithNoPreviousAccepted() {
         AtomicBoolean submissionStored = new AtomicBoolean(false);
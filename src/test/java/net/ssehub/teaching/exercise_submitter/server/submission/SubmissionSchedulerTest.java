@@ -0,0 +1,198 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SubmissionSchedulerTest {
+
+    private SubmissionScheduler scheduler;
+
+    @AfterEach
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void invalidArgumentsThrow() {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> new SubmissionScheduler(0, 1)),
+            () -> assertThrows(IllegalArgumentException.class, () -> new SubmissionScheduler(1, 0)),
+            () -> assertThrows(IllegalArgumentException.class, () -> new SubmissionScheduler(1, 1).setWeight("c", 0)),
+            () -> assertThrows(IllegalArgumentException.class,
+                () -> new SubmissionScheduler(1, 1).setMaxQueuedPerCourse(0))
+        );
+    }
+
+    @Test
+    public void taskRuns() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.schedule("course", done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failingTaskDoesNotStopWorker() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 2);
+        CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.schedule("course", () -> {
+            throw new IllegalStateException("mock");
+        });
+        scheduler.schedule("course", done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void smallCourseNotStarved() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 10);
+        List<String> order = Collections.synchronizedList(new LinkedList<>());
+        CountDownLatch block = blockWorker();
+
+        for (int i = 1; i <= 4; i++) {
+            String name = "big" + i;
+            scheduler.schedule("big", () -> order.add(name));
+        }
+        scheduler.schedule("small", () -> order.add("small1"));
+        scheduler.schedule("small", () -> order.add("small2"));
+
+        block.countDown();
+        waitUntilSize(order, 6);
+
+        assertEquals(Arrays.asList("big1", "small1", "big2", "small2", "big3", "big4"), order);
+    }
+
+    @Test
+    public void weightsShareWorkers() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 10);
+        scheduler.setWeight("big", 2);
+        List<String> order = Collections.synchronizedList(new LinkedList<>());
+        CountDownLatch block = blockWorker();
+
+        for (int i = 1; i <= 6; i++) {
+            String name = "big" + i;
+            scheduler.schedule("big", () -> order.add(name));
+        }
+        scheduler.schedule("small", () -> order.add("small1"));
+        scheduler.schedule("small", () -> order.add("small2"));
+
+        block.countDown();
+        waitUntilSize(order, 8);
+
+        assertEquals(Arrays.asList("big1", "small1", "big2", "big3", "small2", "big4", "big5", "big6"), order);
+    }
+
+    @Test
+    public void totalLimitThrows() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 2);
+        CountDownLatch block = blockWorker();
+
+        try {
+            scheduler.schedule("a", () -> { });
+            scheduler.schedule("b", () -> { });
+
+            QueueFullException e = assertThrows(QueueFullException.class, () -> scheduler.schedule("c", () -> { }));
+            assertAll(
+                () -> assertEquals(2, scheduler.getQueueSize()),
+                () -> assertEquals(1, scheduler.getQueueSize("a")),
+                () -> assertTrue(e.getRetryAfter().isPresent())
+            );
+        } finally {
+            block.countDown();
+        }
+    }
+
+    @Test
+    public void courseLimitThrows() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 10);
+        scheduler.setMaxQueuedPerCourse(1);
+        CountDownLatch block = blockWorker();
+
+        try {
+            scheduler.schedule("a", () -> { });
+
+            assertAll(
+                () -> assertThrows(QueueFullException.class, () -> scheduler.schedule("a", () -> { })),
+                () -> assertDoesNotThrow(() -> scheduler.schedule("b", () -> { }))
+            );
+        } finally {
+            block.countDown();
+        }
+    }
+
+    @Test
+    public void retryAfterWithinBounds() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 1);
+        CountDownLatch block = blockWorker();
+
+        try {
+            scheduler.schedule("a", () -> { });
+
+            Duration retryAfter = assertThrows(QueueFullException.class, () -> scheduler.schedule("a", () -> { }))
+                    .getRetryAfter().get();
+
+            assertAll(
+                () -> assertTrue(retryAfter.compareTo(Duration.ofSeconds(1)) >= 0),
+                () -> assertTrue(retryAfter.compareTo(Duration.ofMinutes(1)) <= 0)
+            );
+        } finally {
+            block.countDown();
+        }
+    }
+
+    @Test
+    public void queuedTasksRunAfterShutdown() throws QueueFullException, InterruptedException {
+        scheduler = new SubmissionScheduler(1, 1);
+        CountDownLatch block = blockWorker();
+        CountDownLatch done = new CountDownLatch(1);
+
+        scheduler.schedule("course", done::countDown);
+        scheduler.shutdown();
+        block.countDown();
+
+        assertAll(
+            () -> assertTrue(done.await(5, TimeUnit.SECONDS)),
+            () -> assertThrows(IllegalStateException.class, () -> scheduler.schedule("course", () -> { }))
+        );
+    }
+
+    private CountDownLatch blockWorker() throws QueueFullException, InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch block = new CountDownLatch(1);
+        scheduler.schedule("blocker", () -> {
+            running.countDown();
+            try {
+                block.await();
+            } catch (InterruptedException e) {
+            }
+        });
+        running.await();
+        return block;
+    }
+
+    private static void waitUntilSize(List<String> order, int expectedSize) throws InterruptedException {
+        while (order.size() < expectedSize) {
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.SubmissionTarget;
+import net.ssehub.teaching.exercise_submitter.server.submission.TargetLockManager.LockHandle;
+
+public class TargetLockManagerTest {
+
+    @Test
+    public void invalidNumberOfStripesThrows() {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> new TargetLockManager(0)),
+            () -> assertThrows(IllegalArgumentException.class, () -> new TargetLockManager(-1))
+        );
+    }
+
+    @Test
+    public void defaultNumberOfStripes() {
+        assertEquals(TargetLockManager.DEFAULT_NUM_STRIPES, new TargetLockManager().getNumStripes());
+    }
+
+    @Test
+    public void stripeIndexInRange() {
+        TargetLockManager locks = new TargetLockManager(7);
+
+        for (int i = 0; i < 100; i++) {
+            int index = locks.getStripeIndex(new SubmissionTarget("course", "assignment", "group" + i));
+            assertTrue(index >= 0 && index < 7, "index " + index + " out of range");
+        }
+    }
+
+    @Test
+    public void equalTargetsSameStripe() {
+        TargetLockManager locks = new TargetLockManager();
+
+        assertEquals(locks.getStripeIndex(new SubmissionTarget("course", "assignment", "group")),
+                locks.getStripeIndex(new SubmissionTarget("course", "assignment", "group")));
+    }
+
+    @Test
+    public void sameTargetBlocksOtherThread() throws InterruptedException {
+        TargetLockManager locks = new TargetLockManager();
+        SubmissionTarget target = new SubmissionTarget("course", "assignment", "group");
+
+        CountDownLatch acquired;
+        Thread other;
+        try (LockHandle lock = locks.lockTarget(target)) {
+            acquired = new CountDownLatch(1);
+            other = startLocking(() -> locks.lockTarget(new SubmissionTarget("course", "assignment", "group")),
+                    acquired);
+
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        other.join();
+    }
+
+    @Test
+    public void differentStripesDontBlock() throws InterruptedException {
+        TargetLockManager locks = new TargetLockManager();
+        SubmissionTarget target1 = new SubmissionTarget("course", "assignment", "group0");
+        SubmissionTarget target2 = null;
+        for (int i = 1; target2 == null; i++) {
+            SubmissionTarget candidate = new SubmissionTarget("course", "assignment", "group" + i);
+            if (locks.getStripeIndex(candidate) != locks.getStripeIndex(target1)) {
+                target2 = candidate;
+            }
+        }
+        assertNotEquals(locks.getStripeIndex(target1), locks.getStripeIndex(target2));
+
+        SubmissionTarget finalTarget2 = target2;
+        try (LockHandle lock = locks.lockTarget(target1)) {
+            CountDownLatch acquired = new CountDownLatch(1);
+            Thread other = startLocking(() -> locks.lockTarget(finalTarget2), acquired);
+
+            assertTrue(acquired.await(5, TimeUnit.SECONDS));
+            other.join();
+        }
+    }
+
+    @Test
+    public void viewLockDoesNotBlockTargets() throws InterruptedException {
+        TargetLockManager locks = new TargetLockManager();
+
+        try (LockHandle lock = locks.lockView()) {
+            CountDownLatch acquired = new CountDownLatch(1);
+            Thread other = startLocking(
+                () -> locks.lockTarget(new SubmissionTarget("course", "assignment", "group")), acquired);
+
+            assertTrue(acquired.await(5, TimeUnit.SECONDS));
+            other.join();
+        }
+    }
+
+    @Test
+    public void viewLockBlocksOtherThread() throws InterruptedException {
+        TargetLockManager locks = new TargetLockManager();
+
+        CountDownLatch acquired;
+        Thread other;
+        try (LockHandle lock = locks.lockView()) {
+            acquired = new CountDownLatch(1);
+            other = startLocking(() -> locks.lockView(), acquired);
+
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        other.join();
+    }
+
+    @Test
+    public void closeTwiceDoesNothing() {
+        TargetLockManager locks = new TargetLockManager();
+        LockHandle lock = locks.lockView();
+
+        lock.close();
+        assertDoesNotThrow(() -> lock.close());
+    }
+
+    private static Thread startLocking(Supplier<LockHandle> locker, CountDownLatch acquired) {
+        Thread thread = new Thread(() -> {
+            try (LockHandle lock = locker.get()) {
+                acquired.countDown();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+}
@@ -0,0 +1,188 @@
+package net.ssehub.teaching.exercise_submitter.server.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.storage.Submission;
+
+public class ZipSubmissionReaderTest {
+
+    public static byte[] createZip(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(result)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                if (namesAndContents[i + 1] != null) {
+                    zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return result.toByteArray();
+    }
+    
+    @Test
+    public void emptyArchive() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024);
+        
+        Submission submission = assertDoesNotThrowTooLarge(reader, createZip());
+        
+        assertAll(
+            () -> assertEquals("student", submission.getAuthor()),
+            () -> assertEquals(0, submission.getNumFiles())
+        );
+    }
+    
+    @Test
+    public void readsFilesAndIgnoresDirectories() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024);
+        
+        Submission submission = assertDoesNotThrowTooLarge(reader, createZip(
+                "Main.java", "public class Main {}\n",
+                "dir/", null,
+                "dir/sub/other.txt", "other content\n"));
+        
+        assertAll(
+            () -> assertEquals(new HashSet<>(Arrays.asList(Path.of("Main.java"), Path.of("dir/sub/other.txt"))),
+                    new HashSet<>(submission.getFilepaths())),
+            () -> assertArrayEquals("public class Main {}\n".getBytes(StandardCharsets.UTF_8),
+                    submission.getFileContent(Path.of("Main.java"))),
+            () -> assertArrayEquals("other content\n".getBytes(StandardCharsets.UTF_8),
+                    submission.getFileContent(Path.of("dir/sub/other.txt")))
+        );
+    }
+    
+    @Test
+    public void parentDirectoryInPathThrows() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024);
+        byte[] zip = createZip("../test.txt", "content\n");
+        
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> reader.read("student", new ByteArrayInputStream(zip)));
+        assertEquals(".. is not allowed in submission paths", e.getMessage());
+    }
+    
+    @Test
+    public void duplicateFileThrows() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024);
+        
+        // different entry names, but the same filepath
+        byte[] zip = createZip("test.txt", "first\n", "./test.txt", "second\n");
+        
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> reader.read("student", new ByteArrayInputStream(zip)));
+        assertTrue(e.getMessage().contains("multiple times"));
+    }
+    
+    @Test
+    public void fileTooLargeThrows() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(10, 1024);
+        byte[] zip = createZip("small.txt", "123", "large.txt", "12345678901");
+        
+        UploadTooLargeException e = assertThrows(UploadTooLargeException.class,
+            () -> reader.read("student", new ByteArrayInputStream(zip)));
+        assertEquals("File large.txt is too large", e.getMessage());
+    }
+    
+    @Test
+    public void fileAtLimitAccepted() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(10, 10);
+        
+        Submission submission = assertDoesNotThrowTooLarge(reader, createZip("file.txt", "1234567890"));
+        
+        assertEquals(1, submission.getNumFiles());
+    }
+    
+    @Test
+    public void submissionTooLargeThrows() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(10, 15);
+        byte[] zip = createZip("first.txt", "1234567890", "second.txt", "123456");
+        
+        UploadTooLargeException e = assertThrows(UploadTooLargeException.class,
+            () -> reader.read("student", new ByteArrayInputStream(zip)));
+        assertEquals("Submission size is too large", e.getMessage());
+    }
+    
+    @Test
+    public void tooManyEntriesThrows() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024, 2);
+        byte[] zip = createZip("dir/", null, "dir/first.txt", "", "dir/second.txt", "");
+        
+        UploadTooLargeException e = assertThrows(UploadTooLargeException.class,
+            () -> reader.read("student", new ByteArrayInputStream(zip)));
+        assertEquals("Submission contains too many files", e.getMessage());
+    }
+    
+    @Test
+    public void entriesAtLimitAccepted() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024, 2);
+        
+        Submission submission = assertDoesNotThrowTooLarge(reader, createZip("first.txt", "", "second.txt", ""));
+        
+        assertEquals(2, submission.getNumFiles());
+    }
+    
+    @Test
+    public void tooLargeAbortsBeforeReadingEverything() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024);
+        
+        // random content, so that the compressed archive is still large
+        Random random = new Random(42);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 1024 * 1024; i++) {
+            large.append((char) ('a' + random.nextInt(26)));
+        }
+        byte[] zip = createZip("large.txt", large.toString(), "after.txt", "content\n");
+        
+        AtomicLong bytesRead = new AtomicLong();
+        InputStream counting = new ByteArrayInputStream(zip) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    bytesRead.addAndGet(read);
+                }
+                return read;
+            }
+        };
+        
+        assertThrows(UploadTooLargeException.class, () -> reader.read("student", counting));
+        assertTrue(bytesRead.get() < zip.length / 2, "read " + bytesRead.get() + " of " + zip.length + " bytes");
+    }
+    
+    @Test
+    public void malformedArchiveThrows() throws IOException {
+        ZipSubmissionReader reader = new ZipSubmissionReader(1024, 1024);
+        byte[] zip = createZip("test.txt", "some content that is long enough to be truncated\n");
+        byte[] truncated = Arrays.copyOf(zip, 40);
+        
+        assertThrows(IOException.class, () -> reader.read("student", new ByteArrayInputStream(truncated)));
+    }
+    
+    private static Submission assertDoesNotThrowTooLarge(ZipSubmissionReader reader, byte[] zip) throws IOException {
+        try {
+            return reader.read("student", new ByteArrayInputStream(zip));
+        } catch (UploadTooLargeException e) {
+            throw new AssertionError(e);
+        }
+    }
+    
+}
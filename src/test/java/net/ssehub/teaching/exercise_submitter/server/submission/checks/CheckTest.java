@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
+
+public class CheckTest {
+    
+    private static class ThreadNameCheck extends Check {
+        
+        private CyclicBarrier barrier;
+        
+        public ThreadNameCheck(CyclicBarrier barrier) {
+            this.barrier = barrier;
+        }
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            addResultMessage(new ResultMessage("mock", MessageType.WARNING, "before"));
+            try {
+                barrier.await();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            addResultMessage(new ResultMessage("mock", MessageType.WARNING, Thread.currentThread().getName()));
+            return true;
+        }
+        
+    }
+    
+    @Test
+    public void messagesClearedAfterRetrieval() {
+        MockCheck check = new MockCheck(true, new ResultMessage("mock", MessageType.ERROR, "message"));
+        
+        check.run(Path.of("."));
+        
+        assertAll(
+            () -> assertEquals(List.of(new ResultMessage("mock", MessageType.ERROR, "message")),
+                    check.getResultMessages()),
+            () -> assertEquals(List.of(), check.getResultMessages())
+        );
+    }
+    
+    @Test
+    public void messagesSeparatedByThread() throws Exception {
+        Check check = new ThreadNameCheck(new CyclicBarrier(2));
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "worker"));
+        
+        try {
+            Future<List<ResultMessage>> first = executor.submit(() -> {
+                Thread.currentThread().setName("first");
+                check.run(Path.of("."));
+                return check.getResultMessages();
+            });
+            Future<List<ResultMessage>> second = executor.submit(() -> {
+                Thread.currentThread().setName("second");
+                check.run(Path.of("."));
+                return check.getResultMessages();
+            });
+            
+            assertAll(
+                () -> assertEquals(List.of(new ResultMessage("mock", MessageType.WARNING, "before"),
+                        new ResultMessage("mock", MessageType.WARNING, "first")), first.get()),
+                () -> assertEquals(List.of(new ResultMessage("mock", MessageType.WARNING, "before"),
+                        new ResultMessage("mock", MessageType.WARNING, "second")), second.get()),
+                () -> assertEquals(List.of(), check.getResultMessages())
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+}
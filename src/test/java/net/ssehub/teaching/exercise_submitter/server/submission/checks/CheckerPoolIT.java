@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+public class CheckerPoolIT {
+
+    private static final Path TESTDATA = Path.of("src/test/resources/CheckstyleCheckTest");
+    
+    private static final Path BEGINNERS_RULES = TESTDATA.resolve("javaBeginners_checks.xml");
+    
+    private static final Path OO_RULES = TESTDATA.resolve("javaOO_checks.xml");
+    
+    private static final Path INVALID_RULES = TESTDATA.resolve("invalid_rules.xml");
+    
+    @Test
+    public void negativeMaxIdleThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new CheckerPool(-1));
+    }
+    
+    @Test
+    public void sameRulesReuseChecker() throws IOException, CheckstyleException {
+        CheckerPool pool = new CheckerPool(2);
+        
+        Checker first;
+        try (CheckerPool.Lease lease = pool.acquire(BEGINNERS_RULES)) {
+            first = lease.getChecker();
+        }
+        assertThat(pool.getNumIdle(), is(1));
+        
+        try (CheckerPool.Lease lease = pool.acquire(BEGINNERS_RULES)) {
+            assertThat(lease.getChecker(), sameInstance(first));
+            assertThat(pool.getNumIdle(), is(0));
+        }
+    }
+    
+    @Test
+    public void differentRulesGetDifferentCheckers() throws IOException, CheckstyleException {
+        CheckerPool pool = new CheckerPool(2);
+        
+        Checker first;
+        try (CheckerPool.Lease lease = pool.acquire(BEGINNERS_RULES)) {
+            first = lease.getChecker();
+        }
+        
+        try (CheckerPool.Lease lease = pool.acquire(OO_RULES)) {
+            assertThat(lease.getChecker(), not(sameInstance(first)));
+        }
+        
+        assertThat(pool.getNumIdle(), is(2));
+    }
+    
+    @Test
+    public void maxIdleLimitsIdleCheckers() throws IOException, CheckstyleException {
+        CheckerPool pool = new CheckerPool(1);
+        
+        try (CheckerPool.Lease first = pool.acquire(BEGINNERS_RULES);
+                CheckerPool.Lease second = pool.acquire(BEGINNERS_RULES)) {
+            
+            assertThat(first.getChecker(), not(sameInstance(second.getChecker())));
+        }
+        
+        assertThat(pool.getNumIdle(), is(1));
+    }
+    
+    @Test
+    public void discardedCheckerNotReturned() throws IOException, CheckstyleException {
+        CheckerPool pool = new CheckerPool(2);
+        
+        try (CheckerPool.Lease lease = pool.acquire(BEGINNERS_RULES)) {
+            lease.discard();
+        }
+        
+        assertThat(pool.getNumIdle(), is(0));
+    }
+    
+    @Test
+    public void changedRulesFileParsedAgain() throws IOException, CheckstyleException {
+        Path rules = Files.createTempFile("CheckerPoolIT.changedRulesFileParsedAgain", ".xml");
+        try {
+            Files.copy(BEGINNERS_RULES, rules, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(rules, FileTime.from(Instant.parse("2020-01-01T00:00:00Z")));
+            
+            CheckerPool pool = new CheckerPool(2);
+            
+            Checker first;
+            CheckerPool.Lease outdatedLease = pool.acquire(rules);
+            try (CheckerPool.Lease lease = pool.acquire(rules)) {
+                first = lease.getChecker();
+            }
+            assertThat(pool.getNumIdle(), is(1));
+            
+            Files.copy(OO_RULES, rules, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(rules, FileTime.from(Instant.parse("2021-01-01T00:00:00Z")));
+            
+            try (CheckerPool.Lease lease = pool.acquire(rules)) {
+                assertThat(lease.getChecker(), not(sameInstance(first)));
+                assertThat("idle checkers of the old rules should be discarded", pool.getNumIdle(), is(0));
+            }
+            assertThat(pool.getNumIdle(), is(1));
+            
+            outdatedLease.close();
+            assertThat("checker of the old rules should not be returned", pool.getNumIdle(), is(1));
+            
+        } finally {
+            Files.delete(rules);
+        }
+    }
+    
+    @Test
+    public void clearRemovesIdleCheckers() throws IOException, CheckstyleException {
+        CheckerPool pool = new CheckerPool(2);
+        
+        Checker first;
+        try (CheckerPool.Lease lease = pool.acquire(BEGINNERS_RULES)) {
+            first = lease.getChecker();
+        }
+        
+        pool.clear();
+        assertThat(pool.getNumIdle(), is(0));
+        
+        try (CheckerPool.Lease lease = pool.acquire(BEGINNERS_RULES)) {
+            assertThat(lease.getChecker(), not(sameInstance(first)));
+        }
+    }
+    
+    @Test
+    public void missingRulesFileThrows() {
+        CheckerPool pool = new CheckerPool(2);
+        
+        assertThrows(NoSuchFileException.class, () -> pool.acquire(TESTDATA.resolve("doesnt_exist.xml")));
+    }
+    
+    @Test
+    public void invalidRulesFileThrows() {
+        CheckerPool pool = new CheckerPool(2);
+        
+        assertThrows(CheckstyleException.class, () -> pool.acquire(INVALID_RULES));
+    }
+    
+}
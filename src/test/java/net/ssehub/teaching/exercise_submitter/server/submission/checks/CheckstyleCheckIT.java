@@ -117,6 +117,31 @@ public class CheckstyleCheckIT {
         );
     }
     
+    @Test
+    @DisplayName("re-used checker from pool creates the same messages")
+    public void reusedCheckerSameResult() {
+        Path directory = TESTDATA.resolve("beginnersIncorrect");
+        assertThat("Precondition: directory with test files does not exist",
+                Files.isDirectory(directory));
+        
+        CheckerPool pool = new CheckerPool(1);
+        
+        CheckstyleCheck first = new CheckstyleCheck(BEGINNERS_RULES, pool);
+        boolean firstSuccess = first.run(directory);
+        
+        assertThat("Precondition: checker should be returned to the pool", pool.getNumIdle(), is(1));
+        
+        CheckstyleCheck second = new CheckstyleCheck(BEGINNERS_RULES, pool);
+        boolean secondSuccess = second.run(directory);
+        
+        assertAll(
+            () -> assertThat("Postcondition: should have the same result", secondSuccess, is(firstSuccess)),
+            () -> assertThat("Postcondition: should create the same result messages",
+                    second.getResultMessages(), is(first.getResultMessages())),
+            () -> assertThat("Postcondition: checker should be returned to the pool", pool.getNumIdle(), is(1))
+        );
+    }
+    
     @Test
     @DisplayName("creates correct message for non-parseable Java file")
     public void notCompiling() {
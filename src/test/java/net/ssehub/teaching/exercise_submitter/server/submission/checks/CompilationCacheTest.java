@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
+
+public class CompilationCacheTest {
+    
+    private static final List<ResultMessage> MESSAGES = List.of(
+            new ResultMessage("javac", MessageType.ERROR, "cannot find symbol"));
+    
+    @Test
+    public void nonPositiveMaxSizeThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new CompilationCache(0));
+    }
+    
+    @Test
+    public void unknownKeyEmpty() {
+        CompilationCache cache = new CompilationCache(10);
+        
+        assertTrue(cache.get("abc").isEmpty());
+    }
+    
+    @Test
+    public void putResultReturned() {
+        CompilationCache cache = new CompilationCache(10);
+        
+        cache.put("abc", false, MESSAGES);
+        CompilationCache.Result result = cache.get("abc").orElseThrow();
+        
+        assertAll(
+            () -> assertEquals(false, result.isSuccess()),
+            () -> assertEquals(MESSAGES, result.getMessages())
+        );
+    }
+    
+    @Test
+    public void messagesCopied() {
+        CompilationCache cache = new CompilationCache(10);
+        List<ResultMessage> messages = new LinkedList<>(MESSAGES);
+        
+        cache.put("abc", false, messages);
+        messages.clear();
+        
+        assertAll(
+            () -> assertEquals(MESSAGES, cache.get("abc").orElseThrow().getMessages()),
+            () -> assertThrows(UnsupportedOperationException.class,
+                () -> cache.get("abc").orElseThrow().getMessages().clear())
+        );
+    }
+    
+    @Test
+    public void leastRecentlyUsedRemoved() {
+        CompilationCache cache = new CompilationCache(2);
+        
+        cache.put("first", true, List.of());
+        cache.put("second", true, List.of());
+        cache.get("first");
+        cache.put("third", true, List.of());
+        
+        assertAll(
+            () -> assertEquals(2, cache.size()),
+            () -> assertTrue(cache.get("first").isPresent()),
+            () -> assertTrue(cache.get("second").isEmpty()),
+            () -> assertTrue(cache.get("third").isPresent())
+        );
+    }
+    
+}
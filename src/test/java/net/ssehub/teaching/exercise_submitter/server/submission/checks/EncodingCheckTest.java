@@ -25,6 +25,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -144,12 +146,15 @@ public class EncodingCheckTest {
             FileUtilsTest.setRigFileOperationsToFail(true);
             
             boolean success = check.run(directory);
+            List<ResultMessage> messages = check.getResultMessages();
             
             assertAll(
                 () -> assertThat("Postcondition: should not succeed", success, is(false)),
-                () -> assertThat("Postcondition: should create an internal error message", check.getResultMessages(), is(Arrays.asList(
+                () -> assertThat("Postcondition: should create an internal error message", messages, is(Arrays.asList(
                         new ResultMessage("encoding", MessageType.ERROR, "An internal error occurred while checking file encoding")
-                    )))
+                    ))),
+                () -> assertThat("Postcondition: message should be flagged as internal error",
+                        messages.get(0).isInternalError(), is(true))
             );
             
         } finally {
@@ -214,4 +219,48 @@ public class EncodingCheckTest {
         }
     }
     
+    @Test
+    @DisplayName("in memory: succeeds on UTF-8 content with UTF-8 required")
+    public void inMemoryExpectUtf8OnUtf8() {
+        EncodingCheck check = new EncodingCheck();
+        
+        boolean success = check.run(Map.of(Path.of("umlauts.txt"), "äöü".getBytes(StandardCharsets.UTF_8)));
+        
+        assertAll(
+            () -> assertThat("Postcondition: should succeed", success, is(true)),
+            () -> assertThat("Postcondition: should create no messages", check.getResultMessages(), is(Arrays.asList()))
+        );
+    }
+    
+    @Test
+    @DisplayName("in memory: fails on ISO 8859-1 content with UTF-8 required")
+    public void inMemoryExpectUtf8OnIso88591() {
+        EncodingCheck check = new EncodingCheck();
+        
+        boolean success = check.run(Map.of(Path.of("dir/umlauts.txt"), "äöü".getBytes(StandardCharsets.ISO_8859_1)));
+        
+        assertAll(
+            () -> assertThat("Postcondition: should not succeed", success, is(false)),
+            () -> assertThat("Postcondition: should create an error message", check.getResultMessages(), is(Arrays.asList(
+                    new ResultMessage("encoding", MessageType.ERROR, "File has invalid encoding; expected UTF-8")
+                            .setFile(Path.of("dir/umlauts.txt"))
+                )))
+        );
+    }
+    
+    @Test
+    @DisplayName("in memory: ignores binary files based on their name")
+    public void inMemoryIgnoreBinaryFile() {
+        EncodingCheck check = new EncodingCheck();
+        
+        boolean success = check.run(Map.of(
+                Path.of("binaryFile.bin"), new byte[] {(byte) 0xFF, (byte) 0xFE, 0x00},
+                Path.of("empty"), new byte[] {(byte) 0xFF}));
+        
+        assertAll(
+            () -> assertThat("Postcondition: should succeed", success, is(true)),
+            () -> assertThat("Postcondition: should create no messages", check.getResultMessages(), is(Arrays.asList()))
+        );
+    }
+
 }
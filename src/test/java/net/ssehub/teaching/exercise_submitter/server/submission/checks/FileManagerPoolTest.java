@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+@EnabledIf("net.ssehub.teaching.exercise_submitter.server.submission.checks.InternalJavacCheck#isSupported")
+public class FileManagerPoolTest {
+
+    @Test
+    public void negativeMaxIdleThrows() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new FileManagerPool(ToolProvider.getSystemJavaCompiler(), -1));
+    }
+    
+    @Test
+    public void sameKeyReusesFileManager() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 2);
+        
+        StandardJavaFileManager first;
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            first = lease.getFileManager();
+        }
+        assertThat(pool.getNumIdle(), is(1));
+        
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            assertThat(lease.getFileManager(), sameInstance(first));
+            assertThat(pool.getNumIdle(), is(0));
+        }
+    }
+    
+    @Test
+    public void concurrentLeasesGetDifferentFileManagers() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 2);
+        
+        try (FileManagerPool.Lease first = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList());
+                FileManagerPool.Lease second = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            
+            assertThat(first.getFileManager(), not(sameInstance(second.getFileManager())));
+        }
+        
+        assertThat(pool.getNumIdle(), is(2));
+    }
+    
+    @Test
+    public void differentKeysGetDifferentFileManagers() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 4);
+        
+        StandardJavaFileManager original;
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            original = lease.getFileManager();
+        }
+        
+        try (FileManagerPool.Lease release = pool.acquire(17, StandardCharsets.UTF_8, Collections.emptyList());
+                FileManagerPool.Lease charset = pool.acquire(11, StandardCharsets.ISO_8859_1,
+                        Collections.emptyList());
+                FileManagerPool.Lease classpath = pool.acquire(11, StandardCharsets.UTF_8,
+                        Arrays.asList(Path.of("lib.jar")))) {
+            
+            assertThat(release.getFileManager(), not(sameInstance(original)));
+            assertThat(charset.getFileManager(), not(sameInstance(original)));
+            assertThat(classpath.getFileManager(), not(sameInstance(original)));
+        }
+    }
+    
+    @Test
+    public void maxIdleZeroKeepsNothing() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 0);
+        
+        StandardJavaFileManager first;
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            first = lease.getFileManager();
+        }
+        assertThat(pool.getNumIdle(), is(0));
+        
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            assertThat(lease.getFileManager(), not(sameInstance(first)));
+        }
+    }
+    
+    @Test
+    public void maxIdleLimitsIdleFileManagers() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 1);
+        
+        try (FileManagerPool.Lease first = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList());
+                FileManagerPool.Lease second = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            // both returned when leaving the block
+        }
+        
+        assertThat(pool.getNumIdle(), is(1));
+    }
+    
+    @Test
+    public void closingLeaseTwiceReturnsOnce() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 2);
+        
+        FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList());
+        lease.close();
+        lease.close();
+        
+        assertThat(pool.getNumIdle(), is(1));
+    }
+    
+    @Test
+    public void clearRemovesIdleFileManagers() {
+        FileManagerPool pool = new FileManagerPool(ToolProvider.getSystemJavaCompiler(), 2);
+        
+        StandardJavaFileManager first;
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            first = lease.getFileManager();
+        }
+        
+        pool.clear();
+        assertThat(pool.getNumIdle(), is(0));
+        
+        try (FileManagerPool.Lease lease = pool.acquire(11, StandardCharsets.UTF_8, Collections.emptyList())) {
+            assertThat(lease.getFileManager(), not(sameInstance(first)));
+        }
+    }
+    
+}
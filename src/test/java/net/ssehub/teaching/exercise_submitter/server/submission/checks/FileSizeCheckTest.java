@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -260,4 +261,37 @@ public class FileSizeCheckTest {
         }
     }
     
+    @Test
+    @DisplayName("in memory: succeeds on files that hold the limits exactly")
+    public void inMemoryLimitsHeldExactly() {
+        FileSizeCheck check = new FileSizeCheck();
+        check.setMaxFileSize(100);
+        check.setMaxSubmissionSize(150);
+        
+        boolean success = check.run(Map.of(Path.of("a.txt"), new byte[100], Path.of("b.txt"), new byte[50]));
+        
+        assertAll(
+            () -> assertThat("Postcondition: should succeed", success, is(true)),
+            () -> assertThat("Postcondition: should create no messages", check.getResultMessages(), is(Arrays.asList()))
+        );
+    }
+    
+    @Test
+    @DisplayName("in memory: fails on file and submission that exceed the limits")
+    public void inMemoryLimitsExceeded() {
+        FileSizeCheck check = new FileSizeCheck();
+        check.setMaxFileSize(100);
+        check.setMaxSubmissionSize(150);
+        
+        boolean success = check.run(Map.of(Path.of("dir/a.txt"), new byte[101], Path.of("b.txt"), new byte[50]));
+        
+        assertAll(
+            () -> assertThat("Postcondition: should not succeed", success, is(false)),
+            () -> assertThat("Postcondition: should create error messages", check.getResultMessages(), containsInAnyOrder(
+                    new ResultMessage("file-size", MessageType.ERROR, "File is too large").setFile(Path.of("dir/a.txt")),
+                    new ResultMessage("file-size", MessageType.ERROR, "Submission size is too large")
+                ))
+        );
+    }
+
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+
+@EnabledIf("net.ssehub.teaching.exercise_submitter.server.submission.checks.InternalJavacCheck#isSupported")
+public class InMemoryJavacCheckIT extends JavacCheckIT {
+
+    @Override
+    protected JavacCheck creatInstance() {
+        // read the test directories into memory and run the in-memory variant instead
+        return new InternalJavacCheck() {
+            @Override
+            public boolean run(Path submissionDirectory) {
+                return run(readIntoMemory(submissionDirectory));
+            }
+        };
+    }
+    
+    private static Map<Path, byte[]> readIntoMemory(Path directory) {
+        Map<Path, byte[]> files = new HashMap<>();
+        try {
+            for (Path file : FileUtils.findAllFiles(directory)) {
+                files.put(directory.relativize(file), Files.readAllBytes(file));
+            }
+        } catch (IOException e) {
+            fail("Setup: Could not read test directory " + directory, e);
+        }
+        return files;
+    }
+
+}
@@ -483,6 +483,25 @@ public abstract class JavacCheckIT {
                 ));
     }
     
+    @Test
+    public void serverClassesNotInClasspath() {
+        testDirectory = TESTDATA.resolve("usesServerClasses");
+        assertThat("Precondition: directory with test files does not exist",
+                Files.isDirectory(testDirectory));
+        
+        JavacCheck check = creatInstance();
+        
+        assertThat("Postcondition: file that uses classes of the server should not compile",
+                check.run(testDirectory), is(false));
+        
+        assertThat("Postcondition: should create error messages",
+                check.getResultMessages(), is(Arrays.asList(
+                        new ResultMessage("javac", MessageType.ERROR,
+                                "package net.ssehub.teaching.exercise_submitter.server.submission.checks does not exist")
+                                .setFile(Path.of("Main.java")).setLine(4).setColumn(72)
+                )));
+    }
+    
     @Test
     public void getters() {
         JavacCheck check = creatInstance();
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage.MessageType;
+
+public class JavacCheckTest {
+    
+    private Path temporaryDirectory;
+    
+    private static class CountingJavacCheck extends JavacCheck {
+        
+        private int numCompilations;
+        
+        private boolean internalError;
+        
+        @Override
+        protected boolean runJavac(Path submissionDirectory, Set<Path> javaFiles) {
+            numCompilations++;
+            if (internalError) {
+                // the flag decides, not the text of the message
+                addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "worker crashed")
+                        .setInternalError(true));
+            } else {
+                addResultMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "compilation " + numCompilations)
+                        .setFile(Path.of("Main.java")));
+            }
+            return false;
+        }
+        
+    }
+    
+    @BeforeEach
+    public void createSubmission() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("JavacCheckTest");
+        Files.writeString(temporaryDirectory.resolve("Main.java"), "public class Main {}", StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void noCacheAlwaysCompiles() {
+        CountingJavacCheck check = new CountingJavacCheck();
+        
+        check.run(temporaryDirectory);
+        check.run(temporaryDirectory);
+        
+        assertEquals(2, check.numCompilations);
+    }
+    
+    @Test
+    public void sameInputReplayed() {
+        CompilationCache cache = new CompilationCache(10);
+        CountingJavacCheck first = new CountingJavacCheck();
+        first.setCompilationCache(cache);
+        CountingJavacCheck second = new CountingJavacCheck();
+        second.setCompilationCache(cache);
+        
+        boolean firstSuccess = first.run(temporaryDirectory);
+        List<ResultMessage> firstMessages = first.getResultMessages();
+        boolean secondSuccess = second.run(temporaryDirectory);
+        
+        assertAll(
+            () -> assertEquals(1, first.numCompilations),
+            () -> assertEquals(0, second.numCompilations),
+            () -> assertFalse(firstSuccess),
+            () -> assertFalse(secondSuccess),
+            () -> assertEquals(firstMessages, second.getResultMessages())
+        );
+    }
+    
+    @Test
+    public void changedFileCompiledAgain() throws IOException {
+        CountingJavacCheck check = new CountingJavacCheck();
+        check.setCompilationCache(new CompilationCache(10));
+        
+        check.run(temporaryDirectory);
+        Files.writeString(temporaryDirectory.resolve("Main.java"), "public class Main { }", StandardCharsets.UTF_8);
+        check.run(temporaryDirectory);
+        
+        assertEquals(2, check.numCompilations);
+    }
+    
+    @Test
+    public void addedNonJavaFileCompiledAgain() throws IOException {
+        CountingJavacCheck check = new CountingJavacCheck();
+        check.setCompilationCache(new CompilationCache(10));
+        
+        check.run(temporaryDirectory);
+        Files.writeString(temporaryDirectory.resolve("lib.jar"), "content", StandardCharsets.UTF_8);
+        check.run(temporaryDirectory);
+        
+        assertEquals(2, check.numCompilations);
+    }
+    
+    @Test
+    public void changedSettingsCompiledAgain() {
+        CountingJavacCheck check = new CountingJavacCheck();
+        check.setCompilationCache(new CompilationCache(10));
+        
+        check.run(temporaryDirectory);
+        check.setJavaVersion(11);
+        check.run(temporaryDirectory);
+        check.setEnableWarnings(true);
+        check.run(temporaryDirectory);
+        check.setCharset(StandardCharsets.ISO_8859_1);
+        check.run(temporaryDirectory);
+        check.addToClasspath(Path.of("lib"));
+        check.run(temporaryDirectory);
+        
+        assertEquals(5, check.numCompilations);
+    }
+    
+    @Test
+    public void internalErrorNotCached() {
+        CompilationCache cache = new CompilationCache(10);
+        CountingJavacCheck check = new CountingJavacCheck();
+        check.setCompilationCache(cache);
+        check.internalError = true;
+        
+        check.run(temporaryDirectory);
+        check.run(temporaryDirectory);
+        
+        assertAll(
+            () -> assertEquals(2, check.numCompilations),
+            () -> assertEquals(0, cache.size())
+        );
+    }
+    
+    @Test
+    public void earlierMessagesKeptButNotCached() {
+        CompilationCache cache = new CompilationCache(10);
+        CountingJavacCheck first = new CountingJavacCheck();
+        first.setCompilationCache(cache);
+        first.addResultMessage(new ResultMessage("javac", MessageType.WARNING, "earlier"));
+        CountingJavacCheck second = new CountingJavacCheck();
+        second.setCompilationCache(cache);
+        
+        first.run(temporaryDirectory);
+        second.run(temporaryDirectory);
+        
+        ResultMessage compilationMessage = new ResultMessage("javac", MessageType.ERROR, "compilation 1")
+                .setFile(Path.of("Main.java"));
+        assertAll(
+            () -> assertEquals(List.of(new ResultMessage("javac", MessageType.WARNING, "earlier"), compilationMessage),
+                    first.getResultMessages()),
+            () -> assertEquals(List.of(compilationMessage), second.getResultMessages())
+        );
+    }
+    
+    @AfterEach
+    public void cleanTemporaryDirectory() throws IOException {
+        FileUtils.deleteDirectory(temporaryDirectory);
+    }
+    
+}
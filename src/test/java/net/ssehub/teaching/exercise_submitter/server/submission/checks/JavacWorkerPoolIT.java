@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class JavacWorkerPoolIT {
+    
+    /**
+     * A worker that never answers.
+     */
+    public static class HangingWorker {
+        
+        public static void main(String[] args) throws InterruptedException {
+            Thread.sleep(Long.MAX_VALUE);
+        }
+        
+    }
+    
+    private static final Path TESTDATA = Path.of("src/test/resources/JavacCheckTest");
+    
+    private JavacWorkerPool pool;
+    
+    private Path outputDirectory;
+    
+    private List<String> compileArguments(String directory) throws IOException {
+        if (outputDirectory == null) {
+            outputDirectory = Files.createTempDirectory("JavacWorkerPoolIT");
+        }
+        return List.of("-d", outputDirectory.toAbsolutePath().toString(),
+                TESTDATA.resolve(directory).resolve("HelloWorld.java").toAbsolutePath().toString());
+    }
+    
+    @Test
+    public void nonPositiveWorkersThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new JavacWorkerPool("javac", 0));
+    }
+    
+    @Test
+    public void nonPositiveJobsPerWorkerThrows() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new JavacWorkerPool(JavacWorkerPool.createWorkerCommand("java"), 1, 0, Long.MAX_VALUE));
+    }
+    
+    @Test
+    public void compilesCorrectFile() throws IOException {
+        pool = new JavacWorkerPool("javac", 1);
+        
+        JavacWorkerPool.Result result = pool.compile(compileArguments("singleCompilingFile"));
+        
+        assertAll(
+            () -> assertEquals(0, result.getExitCode()),
+            () -> assertEquals(List.of(), result.getOutput())
+        );
+    }
+    
+    @Test
+    public void reportsErrors() throws IOException {
+        pool = new JavacWorkerPool("javac", 1);
+        
+        JavacWorkerPool.Result result = pool.compile(compileArguments("singleIncorrectFile"));
+        
+        assertAll(
+            () -> assertEquals(1, result.getExitCode()),
+            () -> assertTrue(result.getOutput().get(0).contains("error"))
+        );
+    }
+    
+    @Test
+    public void workerReused() throws IOException {
+        pool = new JavacWorkerPool("javac", 1);
+        
+        pool.compile(compileArguments("singleCompilingFile"));
+        pool.compile(compileArguments("singleCompilingFile"));
+        
+        assertEquals(1, pool.getNumWorkers());
+    }
+    
+    @Test
+    public void workerReplacedAfterMaxJobs() throws IOException {
+        pool = new JavacWorkerPool(JavacWorkerPool.createWorkerCommand(JavacWorkerPool.findJavaCommand("javac")),
+                1, 1, Long.MAX_VALUE);
+        
+        pool.compile(compileArguments("singleCompilingFile"));
+        
+        assertEquals(0, pool.getNumWorkers());
+    }
+    
+    @Test
+    public void invalidWorkerCommandThrows() {
+        pool = new JavacWorkerPool(List.of("doesnt_exist"), 1, 1, Long.MAX_VALUE);
+        
+        assertAll(
+            () -> assertThrows(IOException.class, () -> pool.compile(List.of("-version"))),
+            () -> assertEquals(0, pool.getNumWorkers())
+        );
+    }
+    
+    @Test
+    public void hangingWorkerKilledAfterTimeout() {
+        pool = new JavacWorkerPool(List.of(JavacWorkerPool.findJavaCommand("javac"),
+                "-cp", System.getProperty("java.class.path"), HangingWorker.class.getName()), 1, 1, Long.MAX_VALUE);
+        pool.setTimeout(Duration.ofSeconds(1));
+        
+        assertAll(
+            () -> assertThrows(IOException.class, () -> pool.compile(List.of("-version"))),
+            () -> assertEquals(0, pool.getNumWorkers())
+        );
+    }
+    
+    @Test
+    public void nonPositiveTimeoutThrows() {
+        pool = new JavacWorkerPool("javac", 1);
+        
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> pool.setTimeout(Duration.ZERO)),
+            () -> assertThrows(IllegalArgumentException.class, () -> pool.setTimeout(Duration.ofSeconds(-1)))
+        );
+    }
+    
+    @Test
+    public void lineBreakInArgumentThrows() {
+        pool = new JavacWorkerPool("javac", 1);
+        
+        assertThrows(IOException.class, () -> pool.compile(List.of("Main\n.java")));
+    }
+    
+    @Test
+    public void closedPoolThrows() {
+        pool = new JavacWorkerPool("javac", 1);
+        pool.close();
+        
+        assertFalse(assertThrows(IOException.class, () -> pool.compile(List.of("-version"))).getMessage().isEmpty());
+    }
+    
+    @AfterEach
+    public void closePool() throws IOException {
+        if (pool != null) {
+            pool.close();
+        }
+        if (outputDirectory != null) {
+            FileUtils.deleteDirectory(outputDirectory);
+        }
+    }
+    
+}
@@ -92,6 +92,18 @@ public class ResultMessageTest {
         assertThat(message.toString(), is("checkstyle warning in Source.java:6:534 \"now with column\""));
     }
     
+    @Test
+    public void internalErrorFlag() {
+        ResultMessage message = new ResultMessage("javac", MessageType.ERROR, "some message");
+        ResultMessage internalError = new ResultMessage("javac", MessageType.ERROR, "some message")
+                .setInternalError(true);
+        
+        assertThat(message.isInternalError(), is(false));
+        assertThat(internalError.isInternalError(), is(true));
+        assertThat(internalError, is(message));
+        assertThat(internalError.toString(), is(message.toString()));
+    }
+    
     @Test
     public void equalsMissingFields() {
         ResultMessage full = new ResultMessage("tool", MessageType.WARNING, "some message").setFile(Path.of("Source.java")).setLine(6).setColumn(534);
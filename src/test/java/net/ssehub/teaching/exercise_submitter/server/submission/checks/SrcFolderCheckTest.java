@@ -9,6 +9,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -63,5 +64,44 @@ public class SrcFolderCheckTest {
                     "Submission contains a src folder with Java source files")), check.getResultMessages())
         );
     }
+    
+    @Test
+    public void inMemoryNoSrcFolderSucceeds() {
+        SrcFolderCheck check = new SrcFolderCheck();
+        
+        boolean success = check.run(Map.of(
+                Path.of("Main.java"), new byte[0],
+                Path.of("main/src/Util.java"), new byte[0]));
+        
+        assertAll(
+            () -> assertTrue(success),
+            () -> assertEquals(Collections.EMPTY_LIST, check.getResultMessages())
+        );
+    }
+    
+    @Test
+    public void inMemorySrcFolderWithNoJavaFilesSucceeds() {
+        SrcFolderCheck check = new SrcFolderCheck();
+        
+        boolean success = check.run(Map.of(Path.of("src/readme.txt"), new byte[0], Path.of("src.java"), new byte[0]));
+        
+        assertAll(
+            () -> assertTrue(success),
+            () -> assertEquals(Collections.EMPTY_LIST, check.getResultMessages())
+        );
+    }
+    
+    @Test
+    public void inMemorySrcFolderWithJavaFilesFails() {
+        SrcFolderCheck check = new SrcFolderCheck();
+        
+        boolean success = check.run(Map.of(Path.of("src/main/Main.java"), new byte[0]));
+        
+        assertAll(
+            () -> assertFalse(success),
+            () -> assertEquals(Arrays.asList(new ResultMessage("src-folder", MessageType.ERROR,
+                    "Submission contains a src folder with Java source files")), check.getResultMessages())
+        );
+    }
 
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 Software Systems Engineering, University of Hildesheim
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.ssehub.teaching.exercise_submitter.server.submission.checks;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+public class WorkerCliJavacCheckIT extends JavacCheckIT {
+    
+    private static JavacWorkerPool pool;
+    
+    @BeforeAll
+    public static void createPool() {
+        pool = new JavacWorkerPool("javac", 2);
+    }
+    
+    @AfterAll
+    public static void closePool() {
+        pool.close();
+    }
+    
+    @Override
+    protected CliJavacCheck creatInstance() {
+        return new CliJavacCheck(pool);
+    }
+    
+}
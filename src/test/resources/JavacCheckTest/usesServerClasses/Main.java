@@ -0,0 +1,8 @@
+public class Main {
+    
+    public static void main(String[] args) {
+        net.ssehub.teaching.exercise_submitter.server.submission.checks.ResultMessage message = null;
+        System.out.println(message);
+    }
+    
+}